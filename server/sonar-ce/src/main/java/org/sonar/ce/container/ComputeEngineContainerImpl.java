@@ -75,7 +75,10 @@ import org.sonar.process.logging.LogbackHelper;
 import org.sonar.server.component.ComponentCleanerService;
 import org.sonar.server.component.ComponentFinder;
 import org.sonar.server.component.index.ComponentIndexer;
+import org.sonar.server.computation.task.issuebulkchange.IssueBulkChangeTaskModule;
+import org.sonar.server.computation.task.permissiontemplate.BulkApplyPermissionTemplateTaskModule;
 import org.sonar.server.computation.task.projectanalysis.ProjectAnalysisTaskModule;
+import org.sonar.server.computation.task.purge.ProjectPurgeTaskModule;
 import org.sonar.server.debt.DebtModelPluginRepository;
 import org.sonar.server.debt.DebtRulesXMLImporter;
 import org.sonar.server.event.NewAlerts;
@@ -85,6 +88,8 @@ import org.sonar.server.issue.index.IssueIndexer;
 import org.sonar.server.issue.index.IssueIteratorFactory;
 import org.sonar.server.issue.notification.ChangesOnMyIssueNotificationDispatcher;
 import org.sonar.server.issue.notification.DoNotFixNotificationDispatcher;
+import org.sonar.server.issue.notification.IssueBulkChangeEmailTemplate;
+import org.sonar.server.issue.notification.IssueBulkChangeNotificationDispatcher;
 import org.sonar.server.issue.notification.IssueChangesEmailTemplate;
 import org.sonar.server.issue.notification.MyNewIssuesEmailTemplate;
 import org.sonar.server.issue.notification.MyNewIssuesNotificationDispatcher;
@@ -135,6 +140,7 @@ import org.sonar.server.rule.index.RuleIndex;
 import org.sonar.server.search.EsSearchModule;
 import org.sonar.server.setting.DatabaseSettingLoader;
 import org.sonar.server.setting.DatabaseSettingsEnabler;
+import org.sonar.server.setting.GlobalSettingsVersion;
 import org.sonar.server.setting.ThreadLocalSettings;
 import org.sonar.server.startup.LogServerId;
 import org.sonar.server.test.index.TestIndexer;
@@ -268,6 +274,7 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       DatabaseVersion.class,
       DatabaseServerCompatibility.class,
 
+      GlobalSettingsVersion.class,
       DatabaseSettingLoader.class,
       DatabaseSettingsEnabler.class,
       UrlSettings.class,
@@ -366,8 +373,10 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       NewIssuesEmailTemplate.class,
       MyNewIssuesEmailTemplate.class,
       IssueChangesEmailTemplate.class,
+      IssueBulkChangeEmailTemplate.class,
       ChangesOnMyIssueNotificationDispatcher.class,
       ChangesOnMyIssueNotificationDispatcher.newMetadata(),
+      IssueBulkChangeNotificationDispatcher.class,
       NewIssuesNotificationDispatcher.class,
       NewIssuesNotificationDispatcher.newMetadata(),
       MyNewIssuesNotificationDispatcher.class,
@@ -403,6 +412,9 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       CeHttpModule.class,
       CeTaskCommonsModule.class,
       ProjectAnalysisTaskModule.class,
+      IssueBulkChangeTaskModule.class,
+      BulkApplyPermissionTemplateTaskModule.class,
+      ProjectPurgeTaskModule.class,
       CeTaskProcessorModule.class,
 
       InternalPropertiesImpl.class,
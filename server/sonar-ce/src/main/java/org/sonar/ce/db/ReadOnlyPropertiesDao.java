@@ -24,6 +24,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.core.properties.PropertiesDao;
 import org.sonar.db.DbSession;
 import org.sonar.db.MyBatis;
+import org.sonar.db.property.InternalPropertiesDao;
 import org.sonar.db.property.PropertyDto;
 
 /**
@@ -36,8 +37,8 @@ import org.sonar.db.property.PropertyDto;
  * </p>
  */
 public class ReadOnlyPropertiesDao extends PropertiesDao {
-  public ReadOnlyPropertiesDao(MyBatis mybatis, System2 system2) {
-    super(mybatis, system2);
+  public ReadOnlyPropertiesDao(MyBatis mybatis, System2 system2, InternalPropertiesDao internalPropertiesDao) {
+    super(mybatis, system2, internalPropertiesDao);
   }
 
   @Override
@@ -61,6 +61,15 @@ public interface CEQueueStatus {
    */
   long addError(long processingTime);
 
+  /**
+   * Records the time a task waited in queue before its processing started.
+   *
+   * @param waitingTime duration of waiting in ms
+   *
+   * @throws IllegalArgumentException if waitingTime is < 0
+   */
+  void addWaitingTime(long waitingTime);
+
   /**
    * Count of batch reports waiting for processing since startup, including reports received before instance startup.
    */
@@ -85,4 +94,12 @@ public interface CEQueueStatus {
    * Time spent processing batch reports since startup, in milliseconds.
    */
   long getProcessingTime();
+
+  /**
+   * Percentile of the time the last started tasks waited in queue, in milliseconds. Zero if no task has been started
+   * since instance startup.
+   *
+   * @param percentile greater than 0 and lower than or equal to 100
+   */
+  long getWaitingTimePercentile(double percentile);
 }
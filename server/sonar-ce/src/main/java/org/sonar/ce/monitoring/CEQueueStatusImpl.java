@@ -19,6 +19,7 @@
  */
 package org.sonar.ce.monitoring;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -28,11 +29,19 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 public class CEQueueStatusImpl implements CEQueueStatus {
 
+  /**
+   * Number of the last waiting times kept in memory to compute percentiles
+   */
+  static final int WAITING_TIMES_SAMPLE_SIZE = 1_000;
+
   private final DbClient dbClient;
   private final AtomicLong inProgress = new AtomicLong(0);
   private final AtomicLong error = new AtomicLong(0);
   private final AtomicLong success = new AtomicLong(0);
   private final AtomicLong processingTime = new AtomicLong(0);
+  private final long[] waitingTimes = new long[WAITING_TIMES_SAMPLE_SIZE];
+  private int waitingTimesNextIndex = 0;
+  private int waitingTimesSize = 0;
 
   public CEQueueStatusImpl(DbClient dbClient) {
     this.dbClient = dbClient;
@@ -62,6 +71,15 @@ public class CEQueueStatusImpl implements CEQueueStatus {
     processingTime.addAndGet(ms);
   }
 
+  @Override
+  public synchronized void addWaitingTime(long waitingTimeInMs) {
+    checkArgument(waitingTimeInMs >= 0, "Waiting time can not be < 0");
+    // ring buffer: the oldest waiting time is overwritten once the sample is full
+    waitingTimes[waitingTimesNextIndex] = waitingTimeInMs;
+    waitingTimesNextIndex = (waitingTimesNextIndex + 1) % WAITING_TIMES_SAMPLE_SIZE;
+    waitingTimesSize = Math.min(waitingTimesSize + 1, WAITING_TIMES_SAMPLE_SIZE);
+  }
+
   @Override
   public long getPendingCount() {
     try (DbSession dbSession = dbClient.openSession(false)) {
@@ -88,4 +106,19 @@ public class CEQueueStatusImpl implements CEQueueStatus {
   public long getProcessingTime() {
     return processingTime.get();
   }
+
+  @Override
+  public long getWaitingTimePercentile(double percentile) {
+    checkArgument(percentile > 0 && percentile <= 100, "Percentile must be > 0 and <= 100");
+    long[] sample;
+    synchronized (this) {
+      sample = Arrays.copyOf(waitingTimes, waitingTimesSize);
+    }
+    if (sample.length == 0) {
+      return 0L;
+    }
+    Arrays.sort(sample);
+    int rank = (int) Math.ceil(percentile / 100 * sample.length);
+    return sample[Math.max(rank, 1) - 1];
+  }
 }
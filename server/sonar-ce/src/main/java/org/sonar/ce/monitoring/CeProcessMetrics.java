@@ -0,0 +1,73 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import java.io.File;
+import java.util.Properties;
+import org.picocontainer.Startable;
+import org.sonar.ce.configuration.CeConfiguration;
+import org.sonar.process.DefaultProcessCommands;
+import org.sonar.process.ProcessMetric;
+import org.sonar.process.ProcessMetricsPublisher;
+
+import static java.lang.Integer.parseInt;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_PROCESS_INDEX;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+/**
+ * Publishes the metrics of the queue and of the workers into the shared memory of processes, in addition to the
+ * JVM metrics published by {@link org.sonar.process.ProcessEntryPoint}.
+ */
+public class CeProcessMetrics implements Startable {
+
+  private final Properties processProps;
+  private final CEQueueStatus queueStatus;
+  private final CeConfiguration ceConfiguration;
+  private DefaultProcessCommands commands;
+  private ProcessMetricsPublisher publisher;
+
+  public CeProcessMetrics(Properties processProps, CEQueueStatus queueStatus, CeConfiguration ceConfiguration) {
+    this.processProps = processProps;
+    this.queueStatus = queueStatus;
+    this.ceConfiguration = ceConfiguration;
+  }
+
+  @Override
+  public void start() {
+    int processNumber = parseInt(processProps.getProperty(PROPERTY_PROCESS_INDEX));
+    File shareDir = new File(processProps.getProperty(PROPERTY_SHARED_PATH));
+    commands = DefaultProcessCommands.secondary(shareDir, processNumber);
+    publisher = new ProcessMetricsPublisher(commands)
+      .register(ProcessMetric.CE_PENDING_TASKS, queueStatus::getPendingCount)
+      .register(ProcessMetric.CE_IN_PROGRESS_TASKS, queueStatus::getInProgressCount)
+      .register(ProcessMetric.CE_WORKERS, ceConfiguration::getWorkerCount);
+    publisher.start(ProcessMetricsPublisher.DEFAULT_PERIOD_MS);
+  }
+
+  @Override
+  public void stop() {
+    if (publisher != null) {
+      publisher.close();
+    }
+    if (commands != null) {
+      commands.close();
+    }
+  }
+}
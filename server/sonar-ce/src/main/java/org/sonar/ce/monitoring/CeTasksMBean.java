@@ -48,6 +48,21 @@ public interface CeTasksMBean {
    */
   long getProcessingTime();
 
+  /**
+   * Median of the time the last started tasks waited in queue, in milliseconds.
+   */
+  long getWaitingTimeMedian();
+
+  /**
+   * 95th percentile of the time the last started tasks waited in queue, in milliseconds.
+   */
+  long getWaitingTime95thPercentile();
+
+  /**
+   * 99th percentile of the time the last started tasks waited in queue, in milliseconds.
+   */
+  long getWaitingTime99thPercentile();
+
   /**
    * Configured number of Workers.
    */
@@ -72,6 +72,21 @@ public class CeTasksMBeanImpl implements CeTasksMBean, Startable, SystemInfoSect
     return queueStatus.getProcessingTime();
   }
 
+  @Override
+  public long getWaitingTimeMedian() {
+    return queueStatus.getWaitingTimePercentile(50);
+  }
+
+  @Override
+  public long getWaitingTime95thPercentile() {
+    return queueStatus.getWaitingTimePercentile(95);
+  }
+
+  @Override
+  public long getWaitingTime99thPercentile() {
+    return queueStatus.getWaitingTimePercentile(99);
+  }
+
   @Override
   public int getWorkerCount() {
     return ceConfiguration.getWorkerCount();
@@ -86,6 +101,9 @@ public class CeTasksMBeanImpl implements CeTasksMBean, Startable, SystemInfoSect
     builder.addAttributesBuilder().setKey("Processed With Error").setLongValue(getErrorCount()).build();
     builder.addAttributesBuilder().setKey("Processed With Success").setLongValue(getSuccessCount()).build();
     builder.addAttributesBuilder().setKey("Processing Time (ms)").setLongValue(getProcessingTime()).build();
+    builder.addAttributesBuilder().setKey("Waiting Time Median (ms)").setLongValue(getWaitingTimeMedian()).build();
+    builder.addAttributesBuilder().setKey("Waiting Time 95th Percentile (ms)").setLongValue(getWaitingTime95thPercentile()).build();
+    builder.addAttributesBuilder().setKey("Waiting Time 99th Percentile (ms)").setLongValue(getWaitingTime99thPercentile()).build();
     builder.addAttributesBuilder().setKey("Worker Count").setLongValue(getWorkerCount()).build();
     return builder.build();
   }
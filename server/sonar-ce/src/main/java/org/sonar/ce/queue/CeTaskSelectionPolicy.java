@@ -0,0 +1,37 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.db.ce.EligibleTaskQuery;
+
+/**
+ * Chooses which of the tasks eligible for processing a worker tries to peek first.
+ */
+@ComputeEngineSide
+public interface CeTaskSelectionPolicy {
+
+  /**
+   * @param maxExecutionCount tasks already executed this number of times are not eligible
+   * @return the query selecting the tasks to try to peek. Exclusion and ordering of tasks are done by the
+   *         database, so that they apply to the whole queue.
+   */
+  EligibleTaskQuery newQuery(int maxExecutionCount);
+}
@@ -0,0 +1,68 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Settings;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.ce.EligibleTaskQuery;
+
+/**
+ * Shares workers between organizations, so that an organization submitting many tasks does not delay the tasks of
+ * the others:
+ * <ul>
+ *   <li>tasks of the organizations with the fewest tasks in progress are peeked first</li>
+ *   <li>optionally, the number of tasks in progress per organization is limited by property
+ *   {@link #MAX_IN_PROGRESS_PER_ORGANIZATION_PROPERTY}</li>
+ *   <li>tasks of the types listed in property {@link #LOW_PRIORITY_TASK_TYPES_PROPERTY} are peeked only if
+ *   there is no other candidate. By default, these are the bulk changes and the purges of project history.</li>
+ * </ul>
+ * Order of submission is kept between tasks of the same priority. The rules are applied by the database
+ * (see {@link org.sonar.db.ce.CeQueueDao#peek(org.sonar.db.DbSession, String, EligibleTaskQuery)}), to all the pending tasks.
+ */
+@ComputeEngineSide
+public class FairShareCeTaskSelectionPolicy implements CeTaskSelectionPolicy {
+
+  static final String MAX_IN_PROGRESS_PER_ORGANIZATION_PROPERTY = "sonar.ce.maxInProgressPerOrganization";
+  static final String LOW_PRIORITY_TASK_TYPES_PROPERTY = "sonar.ce.lowPriorityTaskTypes";
+  private static final String[] DEFAULT_LOW_PRIORITY_TASK_TYPES = {CeTaskTypes.ISSUE_BULK_CHANGE, CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY,
+    CeTaskTypes.PROJECT_PURGE};
+
+  private final int maxInProgressPerOrganization;
+  private final Set<String> lowPriorityTaskTypes;
+
+  public FairShareCeTaskSelectionPolicy(Settings settings) {
+    this.maxInProgressPerOrganization = settings.getInt(MAX_IN_PROGRESS_PER_ORGANIZATION_PROPERTY);
+    String[] lowPriorityTypes = settings.hasKey(LOW_PRIORITY_TASK_TYPES_PROPERTY) ? settings.getStringArray(LOW_PRIORITY_TASK_TYPES_PROPERTY)
+      : DEFAULT_LOW_PRIORITY_TASK_TYPES;
+    this.lowPriorityTaskTypes = new HashSet<>(Arrays.asList(lowPriorityTypes));
+  }
+
+  @Override
+  public EligibleTaskQuery newQuery(int maxExecutionCount) {
+    return new EligibleTaskQuery()
+      .setMaxExecutionCount(maxExecutionCount)
+      .setMaxInProgressPerOrganization(maxInProgressPerOrganization)
+      .setLowPriorityTaskTypes(lowPriorityTaskTypes);
+  }
+}
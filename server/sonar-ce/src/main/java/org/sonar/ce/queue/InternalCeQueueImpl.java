@@ -55,16 +55,18 @@ public class InternalCeQueueImpl extends CeQueueImpl implements InternalCeQueue
   private final System2 system2;
   private final DbClient dbClient;
   private final CEQueueStatus queueStatus;
+  private final CeTaskSelectionPolicy selectionPolicy;
 
   // state
   private AtomicBoolean peekPaused = new AtomicBoolean(false);
 
   public InternalCeQueueImpl(System2 system2, DbClient dbClient, UuidFactory uuidFactory, CEQueueStatus queueStatus,
-    DefaultOrganizationProvider defaultOrganizationProvider) {
-    super(dbClient, uuidFactory, defaultOrganizationProvider);
+    DefaultOrganizationProvider defaultOrganizationProvider, CeTaskSelectionPolicy selectionPolicy, CeTaskInputStorage taskInputStorage) {
+    super(dbClient, uuidFactory, defaultOrganizationProvider, taskInputStorage);
     this.system2 = system2;
     this.dbClient = dbClient;
     this.queueStatus = queueStatus;
+    this.selectionPolicy = selectionPolicy;
   }
 
   @Override
@@ -80,16 +82,25 @@ public class InternalCeQueueImpl extends CeQueueImpl implements InternalCeQueue
       if (i > 0) {
         LOG.debug("{} in progress tasks reset for worker uuid {}", i, workerUuid);
       }
-      Optional<CeQueueDto> dto = ceQueueDao.peek(dbSession, workerUuid, MAX_EXECUTION_COUNT);
+      Optional<CeQueueDto> dto = ceQueueDao.peek(dbSession, workerUuid, selectionPolicy.newQuery(MAX_EXECUTION_COUNT));
       CeTask task = null;
       if (dto.isPresent()) {
         task = loadTask(dbSession, dto.get());
         queueStatus.addInProgress();
+        updateWaitingTime(dto.get());
       }
       return Optional.ofNullable(task);
     }
   }
 
+  private void updateWaitingTime(CeQueueDto dto) {
+    Long startedAt = dto.getStartedAt();
+    if (startedAt != null) {
+      // clocks of the nodes of a cluster may differ
+      queueStatus.addWaitingTime(Math.max(0L, startedAt - dto.getCreatedAt()));
+    }
+  }
+
   @Override
   public int clear() {
     return cancelAll(true);
@@ -58,6 +58,8 @@ public class PurgeCeActivities implements Startable {
         .collect(MoreCollectors.toSet());
       dbClient.ceActivityDao().deleteByUuids(dbSession, ceActivityUuids);
       dbClient.ceScannerContextDao().deleteByUuids(dbSession, ceActivityUuids);
+      dbClient.ceTaskProgressDao().deleteByUuids(dbSession, ceActivityUuids);
+      dbClient.ceTaskCountersDao().deleteByUuids(dbSession, ceActivityUuids);
       dbSession.commit();
     }
   }
@@ -45,13 +45,14 @@ public class CePluginJarExploderTest {
 
     ExplodedPlugin exploded = underTest.explode(info);
 
-    // all the files loaded by classloaders (JAR + META-INF/libs/*.jar) are copied to a dedicated temp directory
+    // all the files loaded by classloaders (JAR + META-INF/libs/*.jar) are copied to the directory
+    // shared with web server
     File copiedJar = exploded.getMain();
 
     assertThat(exploded.getKey()).isEqualTo("test");
     assertThat(copiedJar).isFile().exists();
-    assertThat(copiedJar.getParentFile()).isDirectory().hasName("test");
-    assertThat(copiedJar.getParentFile().getParentFile()).isDirectory().hasName("ce-exploded-plugins");
+    assertThat(copiedJar.getParentFile().getParentFile()).isDirectory().hasName("test");
+    assertThat(copiedJar.getParentFile().getParentFile().getParentFile()).isDirectory().hasName("exploded-plugins");
   }
 
   @Test
@@ -129,6 +130,11 @@ public class CePluginJarExploderTest {
       throw new UnsupportedOperationException();
     }
 
+    @Override
+    public File getExplodedPluginsDir() {
+      return new File(getTempDir(), "exploded-plugins");
+    }
+
     @Override
     public File getDownloadedPluginsDir() {
       throw new UnsupportedOperationException();
@@ -113,12 +113,15 @@ public class ComputeEngineContainerImplTest {
     assertThat(picoContainer.getComponentAdapters())
       .hasSize(
         CONTAINER_ITSELF
-          + 73 // level 4
+          + 77 // level 4
           + 4 // content of CeConfigurationModule
-          + 4 // content of CeQueueModule
+          + 7 // content of CeQueueModule
           + 3 // content of CeHttpModule
-          + 3 // content of CeTaskCommonsModule
+          + 4 // content of CeTaskCommonsModule
           + 4 // content of ProjectAnalysisTaskModule
+          + 2 // content of IssueBulkChangeTaskModule
+          + 1 // content of BulkApplyPermissionTemplateTaskModule
+          + 1 // content of ProjectPurgeTaskModule
           + 4 // content of CeTaskProcessorModule
           + 3 // CeCleaningModule + its content
           + 1 // CeDistributedInformation
@@ -130,12 +133,12 @@ public class ComputeEngineContainerImplTest {
     assertThat(picoContainer.getParent().getParent().getComponentAdapters()).hasSize(
       CONTAINER_ITSELF
         + 11 // MigrationConfigurationModule
-        + 17 // level 2
+        + 18 // level 2
     );
     assertThat(picoContainer.getParent().getParent().getParent().getComponentAdapters()).hasSize(
       COMPONENTS_IN_LEVEL_1_AT_CONSTRUCTION
         + 23 // level 1
-        + 46 // content of DaoModule
+        + 49 // content of DaoModule
         + 3 // content of EsSearchModule
         + 56 // content of CorePropertyDefinitions
     );
@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbSession;
 import org.sonar.db.MyBatis;
+import org.sonar.db.property.InternalPropertiesDao;
 import org.sonar.db.property.PropertyDto;
 
 import static org.mockito.Mockito.mock;
@@ -33,7 +34,8 @@ public class ReadOnlyPropertiesDaoTest {
   private DbSession dbSession = mock(DbSession.class);
   private PropertyDto propertyDto = mock(PropertyDto.class);
   private org.sonar.core.properties.PropertyDto oldPropertyDto = mock(org.sonar.core.properties.PropertyDto.class);
-  private ReadOnlyPropertiesDao underTest = new ReadOnlyPropertiesDao(myBatis, System2.INSTANCE);
+  private InternalPropertiesDao internalPropertiesDao = mock(InternalPropertiesDao.class);
+  private ReadOnlyPropertiesDao underTest = new ReadOnlyPropertiesDao(myBatis, System2.INSTANCE, internalPropertiesDao);
 
   @Test
   public void insertProperty() {
@@ -128,6 +130,6 @@ public class ReadOnlyPropertiesDaoTest {
   }
 
   private void assertNoInteraction() {
-    verifyNoMoreInteractions(myBatis, dbSession, propertyDto);
+    verifyNoMoreInteractions(myBatis, dbSession, propertyDto, internalPropertiesDao);
   }
 }
@@ -133,6 +133,54 @@ public class CEQueueStatusImplTest {
     assertThat(underTest.getProcessingTime()).isEqualTo(calls);
   }
 
+  @Test
+  public void addWaitingTime_throws_IAE_if_time_is_less_than_0() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Waiting time can not be < 0");
+
+    underTest.addWaitingTime(-1);
+  }
+
+  @Test
+  public void getWaitingTimePercentile_returns_0_if_no_waiting_time() {
+    assertThat(underTest.getWaitingTimePercentile(50)).isEqualTo(0);
+    assertThat(underTest.getWaitingTimePercentile(99)).isEqualTo(0);
+  }
+
+  @Test
+  public void getWaitingTimePercentile_throws_IAE_if_percentile_is_out_of_bounds() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Percentile must be > 0 and <= 100");
+
+    underTest.getWaitingTimePercentile(0);
+  }
+
+  @Test
+  public void getWaitingTimePercentile_computes_nearest_rank_percentile() {
+    // added in reverse order to verify sorting
+    for (int i = 100; i >= 1; i--) {
+      underTest.addWaitingTime(i);
+    }
+
+    assertThat(underTest.getWaitingTimePercentile(50)).isEqualTo(50);
+    assertThat(underTest.getWaitingTimePercentile(95)).isEqualTo(95);
+    assertThat(underTest.getWaitingTimePercentile(99)).isEqualTo(99);
+    assertThat(underTest.getWaitingTimePercentile(100)).isEqualTo(100);
+    assertThat(underTest.getWaitingTimePercentile(0.1)).isEqualTo(1);
+  }
+
+  @Test
+  public void getWaitingTimePercentile_ignores_oldest_waiting_times() {
+    for (int i = 0; i < CEQueueStatusImpl.WAITING_TIMES_SAMPLE_SIZE; i++) {
+      underTest.addWaitingTime(1_000_000);
+    }
+    for (int i = 0; i < CEQueueStatusImpl.WAITING_TIMES_SAMPLE_SIZE; i++) {
+      underTest.addWaitingTime(10);
+    }
+
+    assertThat(underTest.getWaitingTimePercentile(100)).isEqualTo(10);
+  }
+
   @Test
   public void count_Pending_from_database() {
     when(dbClient.ceQueueDao().countByStatus(any(DbSession.class), eq(CeQueueDto.Status.PENDING))).thenReturn(42);
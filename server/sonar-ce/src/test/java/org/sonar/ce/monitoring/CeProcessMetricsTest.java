@@ -0,0 +1,96 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.ce.configuration.CeConfiguration;
+import org.sonar.process.DefaultProcessCommands;
+import org.sonar.process.ProcessCommands;
+import org.sonar.process.ProcessMetric;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_PROCESS_INDEX;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+public class CeProcessMetricsTest {
+
+  private static final int PROCESS_NUMBER = 3;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private CEQueueStatus queueStatus = mock(CEQueueStatus.class);
+  private CeConfiguration ceConfiguration = mock(CeConfiguration.class);
+  private File sharedDir;
+  private CeProcessMetrics underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    sharedDir = temp.newFolder();
+    Properties props = new Properties();
+    props.setProperty(PROPERTY_PROCESS_INDEX, String.valueOf(PROCESS_NUMBER));
+    props.setProperty(PROPERTY_SHARED_PATH, sharedDir.getAbsolutePath());
+    underTest = new CeProcessMetrics(props, queueStatus, ceConfiguration);
+  }
+
+  @After
+  public void tearDown() {
+    underTest.stop();
+  }
+
+  @Test
+  public void publish_metrics_of_queue_and_workers() throws Exception {
+    when(queueStatus.getPendingCount()).thenReturn(12L);
+    when(queueStatus.getInProgressCount()).thenReturn(2L);
+    when(ceConfiguration.getWorkerCount()).thenReturn(4);
+
+    underTest.start();
+
+    try (DefaultProcessCommands commands = DefaultProcessCommands.secondary(sharedDir, PROCESS_NUMBER)) {
+      waitForMetrics(commands, ProcessMetric.CE_PENDING_TASKS, ProcessMetric.CE_IN_PROGRESS_TASKS, ProcessMetric.CE_WORKERS);
+      assertThat(commands.getMetric(ProcessMetric.CE_PENDING_TASKS).getAsLong()).isEqualTo(12L);
+      assertThat(commands.getMetric(ProcessMetric.CE_IN_PROGRESS_TASKS).getAsLong()).isEqualTo(2L);
+      assertThat(commands.getMetric(ProcessMetric.CE_WORKERS).getAsLong()).isEqualTo(4L);
+    }
+  }
+
+  @Test
+  public void stop_does_not_fail_if_not_started() {
+    underTest.stop();
+  }
+
+  private static void waitForMetrics(ProcessCommands commands, ProcessMetric... metrics) throws InterruptedException {
+    long timeout = System.currentTimeMillis() + SECONDS.toMillis(10);
+    while (!Arrays.stream(metrics).allMatch(metric -> commands.getMetric(metric).isPresent()) && System.currentTimeMillis() < timeout) {
+      Thread.sleep(10L);
+    }
+  }
+}
@@ -37,6 +37,7 @@ public class CeTasksMBeanImplTest {
   private static final long SUCCESS_COUNT = 13;
   private static final long PROCESSING_TIME = 987;
   private static final int WORKER_COUNT = 56;
+  private static final long WAITING_TIME_BASE = 1_000;
 
   private CeTasksMBeanImpl underTest = new CeTasksMBeanImpl(new DumbCEQueueStatus(), new DumbCeConfiguration());
 
@@ -58,6 +59,9 @@ public class CeTasksMBeanImplTest {
     assertThat(underTest.getErrorCount()).isEqualTo(ERROR_COUNT);
     assertThat(underTest.getSuccessCount()).isEqualTo(SUCCESS_COUNT);
     assertThat(underTest.getProcessingTime()).isEqualTo(PROCESSING_TIME);
+    assertThat(underTest.getWaitingTimeMedian()).isEqualTo(WAITING_TIME_BASE + 50);
+    assertThat(underTest.getWaitingTime95thPercentile()).isEqualTo(WAITING_TIME_BASE + 95);
+    assertThat(underTest.getWaitingTime99thPercentile()).isEqualTo(WAITING_TIME_BASE + 99);
   }
 
   @Test
@@ -69,7 +73,7 @@ public class CeTasksMBeanImplTest {
   public void export_system_info() {
     ProtobufSystemInfo.Section section = underTest.toProtobuf();
     assertThat(section.getName()).isEqualTo("Compute Engine Tasks");
-    assertThat(section.getAttributesCount()).isEqualTo(6);
+    assertThat(section.getAttributesCount()).isEqualTo(9);
   }
 
   /**
@@ -118,6 +122,16 @@ public class CeTasksMBeanImplTest {
       return PROCESSING_TIME;
     }
 
+    @Override
+    public void addWaitingTime(long waitingTime) {
+      methodNotImplemented();
+    }
+
+    @Override
+    public long getWaitingTimePercentile(double percentile) {
+      return WAITING_TIME_BASE + (long) percentile;
+    }
+
     private long methodNotImplemented() {
       throw new UnsupportedOperationException("Not Implemented");
     }
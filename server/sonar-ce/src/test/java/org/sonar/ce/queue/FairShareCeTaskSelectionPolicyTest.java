@@ -0,0 +1,197 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.Pagination;
+import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeQueueMapper;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.ce.EligibleTaskDto;
+import org.sonar.db.ce.EligibleTaskQuery;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.organization.OrganizationDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.ce.CeQueueTesting.newCeQueueDto;
+
+public class FairShareCeTaskSelectionPolicyTest {
+
+  private static final int MAX_EXECUTION_COUNT = 2;
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbSession dbSession = db.getSession();
+  private MapSettings settings = new MapSettings();
+  private long submittedAt = 1_000L;
+
+  @Test
+  public void query_has_max_execution_count() {
+    assertThat(newPolicy().newQuery(MAX_EXECUTION_COUNT).getMaxExecutionCount()).isEqualTo(MAX_EXECUTION_COUNT);
+  }
+
+  @Test
+  public void no_candidate() {
+    assertThat(selectEligibles()).isEmpty();
+  }
+
+  @Test
+  public void keep_order_of_submission_if_no_task_in_progress() {
+    insertPending("t1", CeTaskTypes.REPORT, db.components().insertPrivateProject());
+    insertPending("t2", CeTaskTypes.REPORT, db.components().insertPrivateProject());
+    insertPending("t3", CeTaskTypes.REPORT, null);
+
+    assertThat(selectEligibles()).containsExactly("t1", "t2", "t3");
+  }
+
+  @Test
+  public void only_oldest_task_of_a_component_is_eligible() {
+    ComponentDto project = db.components().insertPrivateProject();
+    insertPending("t1", CeTaskTypes.PROJECT_PURGE, project);
+    insertPending("t2", CeTaskTypes.REPORT, project);
+
+    assertThat(selectEligibles()).containsExactly("t1");
+  }
+
+  @Test
+  public void give_precedence_to_organizations_with_fewer_tasks_in_progress() {
+    OrganizationDto busyOrganization = db.organizations().insert();
+    OrganizationDto idleOrganization = db.organizations().insert();
+    insertInProgress(db.components().insertPrivateProject(busyOrganization));
+    insertPending("t1", CeTaskTypes.REPORT, db.components().insertPrivateProject(busyOrganization));
+    insertPending("t2", CeTaskTypes.REPORT, db.components().insertPrivateProject(idleOrganization));
+
+    assertThat(selectEligibles()).containsExactly("t2", "t1");
+  }
+
+  @Test
+  public void organization_with_fewer_tasks_in_progress_is_peeked_first_whatever_the_size_of_the_queue() {
+    OrganizationDto busyOrganization = db.organizations().insert();
+    OrganizationDto idleOrganization = db.organizations().insert();
+    insertInProgress(db.components().insertPrivateProject(busyOrganization));
+    IntStream.range(0, 50).forEach(i -> insertPending("busy" + i, CeTaskTypes.REPORT, db.components().insertPrivateProject(busyOrganization)));
+    insertPending("idle", CeTaskTypes.REPORT, db.components().insertPrivateProject(idleOrganization));
+
+    assertThat(db.getDbClient().ceQueueDao().peek(dbSession, "worker", newPolicy().newQuery(MAX_EXECUTION_COUNT)).get().getUuid())
+      .isEqualTo("idle");
+  }
+
+  @Test
+  public void exclude_tasks_of_organizations_reaching_max_in_progress() {
+    settings.setProperty("sonar.ce.maxInProgressPerOrganization", 1);
+    OrganizationDto busyOrganization = db.organizations().insert();
+    OrganizationDto idleOrganization = db.organizations().insert();
+    insertInProgress(db.components().insertPrivateProject(busyOrganization));
+    insertPending("t1", CeTaskTypes.REPORT, db.components().insertPrivateProject(busyOrganization));
+    insertPending("t2", CeTaskTypes.REPORT, db.components().insertPrivateProject(idleOrganization));
+
+    assertThat(selectEligibles()).containsExactly("t2");
+  }
+
+  @Test
+  public void no_max_in_progress_by_default() {
+    OrganizationDto organization = db.organizations().insert();
+    insertInProgress(db.components().insertPrivateProject(organization));
+    insertInProgress(db.components().insertPrivateProject(organization));
+    insertPending("t1", CeTaskTypes.REPORT, db.components().insertPrivateProject(organization));
+
+    assertThat(selectEligibles()).containsExactly("t1");
+  }
+
+  @Test
+  public void bulk_changes_have_low_priority_by_default() {
+    ComponentDto project = db.components().insertPrivateProject();
+    insertPending("t1", CeTaskTypes.ISSUE_BULK_CHANGE, null);
+    insertPending("t2", CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY, null);
+    insertPending("t3", CeTaskTypes.REPORT, project);
+
+    assertThat(selectEligibles()).containsExactly("t3", "t1", "t2");
+  }
+
+  @Test
+  public void project_purges_have_low_priority_by_default() {
+    ComponentDto project = db.components().insertPrivateProject();
+    insertPending("t1", CeTaskTypes.PROJECT_PURGE, project);
+    insertPending("t2", CeTaskTypes.REPORT, db.components().insertPrivateProject());
+
+    assertThat(selectEligibles()).containsExactly("t2", "t1");
+  }
+
+  @Test
+  public void low_priority_task_types_are_configurable() {
+    settings.setProperty("sonar.ce.lowPriorityTaskTypes", CeTaskTypes.REPORT);
+    insertPending("t1", CeTaskTypes.REPORT, db.components().insertPrivateProject());
+    insertPending("t2", CeTaskTypes.ISSUE_BULK_CHANGE, null);
+
+    assertThat(selectEligibles()).containsExactly("t2", "t1");
+  }
+
+  @Test
+  public void no_low_priority_task_types() {
+    settings.setProperty("sonar.ce.lowPriorityTaskTypes", "");
+    insertPending("t1", CeTaskTypes.ISSUE_BULK_CHANGE, null);
+    insertPending("t2", CeTaskTypes.REPORT, db.components().insertPrivateProject());
+
+    assertThat(newPolicy().newQuery(MAX_EXECUTION_COUNT).getLowPriorityTaskTypes()).isEmpty();
+    assertThat(selectEligibles()).containsExactly("t1", "t2");
+  }
+
+  private FairShareCeTaskSelectionPolicy newPolicy() {
+    return new FairShareCeTaskSelectionPolicy(settings);
+  }
+
+  private List<String> selectEligibles() {
+    EligibleTaskQuery query = newPolicy().newQuery(MAX_EXECUTION_COUNT);
+    return dbSession.getMapper(CeQueueMapper.class).selectEligibleForPeek(query, Pagination.all()).stream()
+      .map(EligibleTaskDto::getUuid)
+      .collect(Collectors.toList());
+  }
+
+  private void insertInProgress(ComponentDto project) {
+    CeQueueDto dto = newCeQueueDto("in_progress_" + project.uuid())
+      .setComponentUuid(project.uuid())
+      .setStatus(CeQueueDto.Status.IN_PROGRESS);
+    db.getDbClient().ceQueueDao().insert(dbSession, dto);
+    dbSession.commit();
+  }
+
+  private void insertPending(String uuid, String taskType, @Nullable ComponentDto project) {
+    CeQueueDto dto = newCeQueueDto(uuid)
+      .setTaskType(taskType)
+      .setComponentUuid(project == null ? null : project.uuid())
+      .setExecutionCount(0)
+      .setStatus(CeQueueDto.Status.PENDING)
+      .setCreatedAt(submittedAt)
+      .setUpdatedAt(submittedAt);
+    submittedAt++;
+    db.getDbClient().ceQueueDao().insert(dbSession, dto);
+    dbSession.commit();
+  }
+}
@@ -27,6 +27,7 @@ import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeQueueDto;
 import org.sonar.db.ce.CeTaskTypes;
 
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -52,6 +53,21 @@ public class PurgeCeActivitiesTest {
     assertThat(dbTester.getDbClient().ceActivityDao().selectByUuid(dbTester.getSession(), "RECENT").isPresent()).isTrue();
   }
 
+  @Test
+  public void delete_counters_of_tasks_older_than_6_months() throws Exception {
+    insertWithDate("VERY_OLD", 1_000_000_000_000L);
+    insertWithDate("RECENT", 1_500_000_000_000L);
+    dbTester.getDbClient().ceTaskCountersDao().replace(dbTester.getSession(), "VERY_OLD", singletonMap("snapshots", 10L));
+    dbTester.getDbClient().ceTaskCountersDao().replace(dbTester.getSession(), "RECENT", singletonMap("snapshots", 5L));
+    dbTester.getSession().commit();
+    when(system2.now()).thenReturn(1_500_000_000_100L);
+
+    underTest.start();
+
+    assertThat(dbTester.getDbClient().ceTaskCountersDao().selectByUuid(dbTester.getSession(), "VERY_OLD")).isEmpty();
+    assertThat(dbTester.getDbClient().ceTaskCountersDao().selectByUuid(dbTester.getSession(), "RECENT")).containsOnlyKeys("snapshots");
+  }
+
   private void insertWithDate(String uuid, long date) {
     CeQueueDto queueDto = new CeQueueDto();
     queueDto.setUuid(uuid);
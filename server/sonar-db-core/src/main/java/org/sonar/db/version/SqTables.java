@@ -52,6 +52,8 @@ public final class SqTables {
     "ce_queue",
     "ce_task_input",
     "ce_scanner_context",
+    "ce_task_progress",
+    "ce_task_counters",
     "default_qprofiles",
     "duplications_index",
     "events",
@@ -64,6 +66,7 @@ public final class SqTables {
     "issue_changes",
     "loaded_templates",
     "manual_measures",
+    "measure_history",
     "metrics",
     "notifications",
     "organizations",
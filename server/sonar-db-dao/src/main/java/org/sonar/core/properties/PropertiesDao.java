@@ -21,6 +21,7 @@ package org.sonar.core.properties;
 
 import org.sonar.api.utils.System2;
 import org.sonar.db.MyBatis;
+import org.sonar.db.property.InternalPropertiesDao;
 
 /**
  * Kept for backward compatibility of plugins/libs (like sonar-license) that are directly calling classes from the core
@@ -30,8 +31,12 @@ import org.sonar.db.MyBatis;
 @Deprecated
 public class PropertiesDao extends org.sonar.db.property.PropertiesDao {
 
+  public PropertiesDao(MyBatis mybatis, System2 system2, InternalPropertiesDao internalPropertiesDao) {
+    super(mybatis, system2, internalPropertiesDao);
+  }
+
   public PropertiesDao(MyBatis mybatis, System2 system2) {
-    super(mybatis, system2);
+    this(mybatis, system2, new InternalPropertiesDao(system2));
   }
 
   public void setProperty(PropertyDto property) {
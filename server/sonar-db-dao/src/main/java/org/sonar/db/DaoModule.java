@@ -25,7 +25,9 @@ import org.sonar.core.platform.Module;
 import org.sonar.db.ce.CeActivityDao;
 import org.sonar.db.ce.CeQueueDao;
 import org.sonar.db.ce.CeScannerContextDao;
+import org.sonar.db.ce.CeTaskCountersDao;
 import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskProgressDao;
 import org.sonar.db.component.ComponentDao;
 import org.sonar.db.component.ComponentKeyUpdaterDao;
 import org.sonar.db.component.ComponentLinkDao;
@@ -37,6 +39,7 @@ import org.sonar.db.issue.IssueChangeDao;
 import org.sonar.db.issue.IssueDao;
 import org.sonar.db.loadedtemplate.LoadedTemplateDao;
 import org.sonar.db.measure.MeasureDao;
+import org.sonar.db.measure.MeasureHistoryDao;
 import org.sonar.db.measure.custom.CustomMeasureDao;
 import org.sonar.db.metric.MetricDao;
 import org.sonar.db.notification.NotificationQueueDao;
@@ -79,7 +82,9 @@ public class DaoModule extends Module {
     CeActivityDao.class,
     CeQueueDao.class,
     CeScannerContextDao.class,
+    CeTaskCountersDao.class,
     CeTaskInputDao.class,
+    CeTaskProgressDao.class,
     ComponentDao.class,
     ComponentKeyUpdaterDao.class,
     ComponentLinkDao.class,
@@ -96,6 +101,7 @@ public class DaoModule extends Module {
     IssueDao.class,
     LoadedTemplateDao.class,
     MeasureDao.class,
+    MeasureHistoryDao.class,
     MetricDao.class,
     NotificationQueueDao.class,
     OrganizationDao.class,
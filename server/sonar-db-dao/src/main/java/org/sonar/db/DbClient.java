@@ -24,7 +24,9 @@ import java.util.Map;
 import org.sonar.db.ce.CeActivityDao;
 import org.sonar.db.ce.CeQueueDao;
 import org.sonar.db.ce.CeScannerContextDao;
+import org.sonar.db.ce.CeTaskCountersDao;
 import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskProgressDao;
 import org.sonar.db.component.ComponentDao;
 import org.sonar.db.component.ComponentKeyUpdaterDao;
 import org.sonar.db.component.ComponentLinkDao;
@@ -36,6 +38,7 @@ import org.sonar.db.issue.IssueChangeDao;
 import org.sonar.db.issue.IssueDao;
 import org.sonar.db.loadedtemplate.LoadedTemplateDao;
 import org.sonar.db.measure.MeasureDao;
+import org.sonar.db.measure.MeasureHistoryDao;
 import org.sonar.db.measure.custom.CustomMeasureDao;
 import org.sonar.db.metric.MetricDao;
 import org.sonar.db.notification.NotificationQueueDao;
@@ -85,6 +88,7 @@ public class DbClient {
   private final ResourceDao resourceDao;
   private final ComponentKeyUpdaterDao componentKeyUpdaterDao;
   private final MeasureDao measureDao;
+  private final MeasureHistoryDao measureHistoryDao;
   private final UserDao userDao;
   private final UserGroupDao userGroupDao;
   private final UserTokenDao userTokenDao;
@@ -99,6 +103,8 @@ public class DbClient {
   private final CeQueueDao ceQueueDao;
   private final CeTaskInputDao ceTaskInputDao;
   private final CeScannerContextDao ceScannerContextDao;
+  private final CeTaskProgressDao ceTaskProgressDao;
+  private final CeTaskCountersDao ceTaskCountersDao;
   private final FileSourceDao fileSourceDao;
   private final ComponentLinkDao componentLinkDao;
   private final EventDao eventDao;
@@ -140,6 +146,7 @@ public class DbClient {
     resourceDao = getDao(map, ResourceDao.class);
     componentKeyUpdaterDao = getDao(map, ComponentKeyUpdaterDao.class);
     measureDao = getDao(map, MeasureDao.class);
+    measureHistoryDao = getDao(map, MeasureHistoryDao.class);
     userDao = getDao(map, UserDao.class);
     userGroupDao = getDao(map, UserGroupDao.class);
     userTokenDao = getDao(map, UserTokenDao.class);
@@ -154,6 +161,8 @@ public class DbClient {
     ceQueueDao = getDao(map, CeQueueDao.class);
     ceTaskInputDao = getDao(map, CeTaskInputDao.class);
     ceScannerContextDao = getDao(map, CeScannerContextDao.class);
+    ceTaskProgressDao = getDao(map, CeTaskProgressDao.class);
+    ceTaskCountersDao = getDao(map, CeTaskCountersDao.class);
     fileSourceDao = getDao(map, FileSourceDao.class);
     componentLinkDao = getDao(map, ComponentLinkDao.class);
     eventDao = getDao(map, EventDao.class);
@@ -243,6 +252,10 @@ public class DbClient {
     return measureDao;
   }
 
+  public MeasureHistoryDao measureHistoryDao() {
+    return measureHistoryDao;
+  }
+
   public UserDao userDao() {
     return userDao;
   }
@@ -291,6 +304,14 @@ public class DbClient {
     return ceScannerContextDao;
   }
 
+  public CeTaskProgressDao ceTaskProgressDao() {
+    return ceTaskProgressDao;
+  }
+
+  public CeTaskCountersDao ceTaskCountersDao() {
+    return ceTaskCountersDao;
+  }
+
   public FileSourceDao fileSourceDao() {
     return fileSourceDao;
   }
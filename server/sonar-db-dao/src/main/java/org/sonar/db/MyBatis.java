@@ -32,7 +32,9 @@ import org.sonar.api.Startable;
 import org.sonar.db.ce.CeActivityMapper;
 import org.sonar.db.ce.CeQueueMapper;
 import org.sonar.db.ce.CeScannerContextMapper;
+import org.sonar.db.ce.CeTaskCountersMapper;
 import org.sonar.db.ce.CeTaskInputMapper;
+import org.sonar.db.ce.CeTaskProgressMapper;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentDtoWithSnapshotId;
 import org.sonar.db.component.ComponentKeyUpdaterMapper;
@@ -58,6 +60,7 @@ import org.sonar.db.issue.IssueMapper;
 import org.sonar.db.loadedtemplate.LoadedTemplateDto;
 import org.sonar.db.loadedtemplate.LoadedTemplateMapper;
 import org.sonar.db.measure.MeasureDto;
+import org.sonar.db.measure.MeasureHistoryMapper;
 import org.sonar.db.measure.MeasureMapper;
 import org.sonar.db.measure.custom.CustomMeasureDto;
 import org.sonar.db.measure.custom.CustomMeasureMapper;
@@ -190,7 +193,9 @@ public class MyBatis implements Startable {
       CeActivityMapper.class,
       CeQueueMapper.class,
       CeScannerContextMapper.class,
+      CeTaskCountersMapper.class,
       CeTaskInputMapper.class,
+      CeTaskProgressMapper.class,
       ComponentKeyUpdaterMapper.class,
       ComponentLinkMapper.class,
       ComponentMapper.class,
@@ -207,6 +212,7 @@ public class MyBatis implements Startable {
       IssueChangeMapper.class,
       IssueMapper.class,
       LoadedTemplateMapper.class,
+      MeasureHistoryMapper.class,
       MeasureMapper.class,
       MetricMapper.class,
       NotificationQueueMapper.class,
@@ -36,7 +36,12 @@ import static org.sonar.db.ce.CeQueueDto.Status.PENDING;
 
 public class CeQueueDao implements Dao {
 
-  private static final Pagination ONE_RESULT_PAGINATION = Pagination.forPage(1).andSize(1);
+  /**
+   * Number of eligible tasks loaded by {@link #peek(DbSession, String, EligibleTaskQuery)}. When a candidate is
+   * peeked concurrently by another worker, the next one is tried instead of waiting for the next polling.
+   * As the tasks are ordered by the database, the window contains the preferred tasks whatever the size of the queue.
+   */
+  private static final Pagination PEEK_WINDOW_PAGINATION = Pagination.forPage(1).andSize(20);
 
   private final System2 system2;
 
@@ -135,14 +140,31 @@ public class CeQueueDao implements Dao {
     return mapper(dbSession).countByStatusAndComponentUuid(status, componentUuid);
   }
 
+  /**
+   * Peeks the oldest eligible task.
+   */
   public Optional<CeQueueDto> peek(DbSession session, String workerUuid, int maxExecutionCount) {
-    List<EligibleTaskDto> eligibles = mapper(session).selectEligibleForPeek(maxExecutionCount, ONE_RESULT_PAGINATION);
-    if (eligibles.isEmpty()) {
-      return Optional.empty();
-    }
+    return peek(session, workerUuid, new EligibleTaskQuery().setMaxExecutionCount(maxExecutionCount));
+  }
 
-    EligibleTaskDto eligible = eligibles.get(0);
-    return tryToPeek(session, eligible, workerUuid);
+  /**
+   * Peeks the first eligible task which can be assigned to the worker. Only the oldest pending task of a component
+   * is eligible. Tasks are tried in this order:
+   * <ol>
+   *   <li>tasks which types are not listed in {@link EligibleTaskQuery#getLowPriorityTaskTypes()} first</li>
+   *   <li>then tasks of the organizations with the fewest tasks in progress first</li>
+   *   <li>then oldest tasks first</li>
+   * </ol>
+   */
+  public Optional<CeQueueDto> peek(DbSession session, String workerUuid, EligibleTaskQuery query) {
+    List<EligibleTaskDto> eligibles = mapper(session).selectEligibleForPeek(query, PEEK_WINDOW_PAGINATION);
+    for (EligibleTaskDto eligible : eligibles) {
+      Optional<CeQueueDto> peeked = tryToPeek(session, eligible, workerUuid);
+      if (peeked.isPresent()) {
+        return peeked;
+      }
+    }
+    return Optional.empty();
   }
 
   private Optional<CeQueueDto> tryToPeek(DbSession session, EligibleTaskDto eligible, String workerUuid) {
@@ -0,0 +1,64 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+public class CeTaskCounterDto {
+
+  private String taskUuid;
+  private String key;
+  private long value;
+
+  public String getTaskUuid() {
+    return taskUuid;
+  }
+
+  public CeTaskCounterDto setTaskUuid(String s) {
+    this.taskUuid = s;
+    return this;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public CeTaskCounterDto setKey(String s) {
+    this.key = s;
+    return this;
+  }
+
+  public long getValue() {
+    return value;
+  }
+
+  public CeTaskCounterDto setValue(long l) {
+    this.value = l;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("CeTaskCounterDto{");
+    sb.append("taskUuid='").append(taskUuid).append('\'');
+    sb.append(", key='").append(key).append('\'');
+    sb.append(", value=").append(value);
+    sb.append('}');
+    return sb.toString();
+  }
+}
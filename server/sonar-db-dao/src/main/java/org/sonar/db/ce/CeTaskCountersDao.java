@@ -0,0 +1,63 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.db.Dao;
+import org.sonar.db.DatabaseUtils;
+import org.sonar.db.DbSession;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Named counters reported by a Compute Engine task, for example the number of rows deleted per table by
+ * a task {@link CeTaskTypes#PROJECT_PURGE}.
+ */
+public class CeTaskCountersDao implements Dao {
+
+  /**
+   * Counters of the task, sorted by key. Empty if the task did not report any counter.
+   */
+  public Map<String, Long> selectByUuid(DbSession dbSession, String taskUuid) {
+    Map<String, Long> result = new LinkedHashMap<>();
+    mapper(dbSession).selectByUuid(taskUuid).forEach(dto -> result.put(dto.getKey(), dto.getValue()));
+    return result;
+  }
+
+  /**
+   * Replaces all the counters of the task.
+   */
+  public void replace(DbSession dbSession, String taskUuid, Map<String, Long> counters) {
+    CeTaskCountersMapper mapper = mapper(dbSession);
+    mapper.deleteByUuids(singletonList(taskUuid));
+    counters.forEach((key, value) -> mapper.insert(new CeTaskCounterDto().setTaskUuid(taskUuid).setKey(key).setValue(value)));
+  }
+
+  public void deleteByUuids(DbSession dbSession, Collection<String> taskUuids) {
+    CeTaskCountersMapper mapper = mapper(dbSession);
+    DatabaseUtils.executeLargeUpdates(taskUuids, mapper::deleteByUuids);
+  }
+
+  private static CeTaskCountersMapper mapper(DbSession dbSession) {
+    return dbSession.getMapper(CeTaskCountersMapper.class);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+import java.util.Collection;
+import java.util.Optional;
+import org.sonar.api.utils.System2;
+import org.sonar.db.Dao;
+import org.sonar.db.DatabaseUtils;
+import org.sonar.db.DbSession;
+
+public class CeTaskProgressDao implements Dao {
+
+  private final System2 system2;
+
+  public CeTaskProgressDao(System2 system2) {
+    this.system2 = system2;
+  }
+
+  public Optional<CeTaskProgressDto> selectByUuid(DbSession dbSession, String taskUuid) {
+    return Optional.ofNullable(mapper(dbSession).selectByUuid(taskUuid));
+  }
+
+  public void insertOrUpdate(DbSession dbSession, CeTaskProgressDto dto) {
+    long now = system2.now();
+    CeTaskProgressMapper mapper = mapper(dbSession);
+    if (mapper.update(dto, now) == 0) {
+      mapper.insert(dto, now);
+    }
+  }
+
+  public void deleteByUuids(DbSession dbSession, Collection<String> taskUuids) {
+    CeTaskProgressMapper mapper = mapper(dbSession);
+    DatabaseUtils.executeLargeUpdates(taskUuids, mapper::deleteByUuids);
+  }
+
+  private static CeTaskProgressMapper mapper(DbSession dbSession) {
+    return dbSession.getMapper(CeTaskProgressMapper.class);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+/**
+ * Progress of a CE task which processes its input in several batches (for example bulk change of issues).
+ */
+public class CeTaskProgressDto {
+
+  private String taskUuid;
+  private long total;
+  private long processed;
+  private long failures;
+  private long createdAt;
+  private long updatedAt;
+
+  public String getTaskUuid() {
+    return taskUuid;
+  }
+
+  public CeTaskProgressDto setTaskUuid(String s) {
+    this.taskUuid = s;
+    return this;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public CeTaskProgressDto setTotal(long l) {
+    this.total = l;
+    return this;
+  }
+
+  public long getProcessed() {
+    return processed;
+  }
+
+  public CeTaskProgressDto setProcessed(long l) {
+    this.processed = l;
+    return this;
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  public CeTaskProgressDto setFailures(long l) {
+    this.failures = l;
+    return this;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public CeTaskProgressDto setCreatedAt(long l) {
+    this.createdAt = l;
+    return this;
+  }
+
+  public long getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public CeTaskProgressDto setUpdatedAt(long l) {
+    this.updatedAt = l;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("CeTaskProgressDto{");
+    sb.append("taskUuid='").append(taskUuid).append('\'');
+    sb.append(", total=").append(total);
+    sb.append(", processed=").append(processed);
+    sb.append(", failures=").append(failures);
+    sb.append(", createdAt=").append(createdAt);
+    sb.append(", updatedAt=").append(updatedAt);
+    sb.append('}');
+    return sb.toString();
+  }
+}
@@ -22,6 +22,9 @@ package org.sonar.db.ce;
 public final class CeTaskTypes {
   
   public static final String REPORT = "REPORT";
+  public static final String ISSUE_BULK_CHANGE = "ISSUE_BULK_CHANGE";
+  public static final String PERMISSION_TEMPLATE_BULK_APPLY = "PERMISSION_TEMPLATE_BULK_APPLY";
+  public static final String PROJECT_PURGE = "PROJECT_PURGE";
 
   private CeTaskTypes() {
     // only statics
@@ -19,8 +19,13 @@
  */
 package org.sonar.db.ce;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
 public class EligibleTaskDto {
   private String uuid;
+  private String taskType;
+  private String componentUuid;
   private int executionCount;
 
   public String getUuid() {
@@ -32,6 +37,25 @@ public class EligibleTaskDto {
     return this;
   }
 
+  public String getTaskType() {
+    return taskType;
+  }
+
+  public EligibleTaskDto setTaskType(String taskType) {
+    this.taskType = taskType;
+    return this;
+  }
+
+  @CheckForNull
+  public String getComponentUuid() {
+    return componentUuid;
+  }
+
+  public EligibleTaskDto setComponentUuid(@Nullable String componentUuid) {
+    this.componentUuid = componentUuid;
+    return this;
+  }
+
   public int getExecutionCount() {
     return executionCount;
   }
@@ -45,6 +69,8 @@ public class EligibleTaskDto {
   public String toString() {
     return "EligibleTaskDto{" +
         "uuid='" + uuid + '\'' +
+        ", taskType='" + taskType + '\'' +
+        ", componentUuid='" + componentUuid + '\'' +
         ", executionCount=" + executionCount +
         '}';
   }
@@ -0,0 +1,72 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Db Query used to select the tasks of CE_QUEUE which can be peeked by a worker, in order of preference
+ */
+public class EligibleTaskQuery {
+
+  private int maxExecutionCount = 1;
+  private int maxInProgressPerOrganization = 0;
+  // SONAR-7681 a public implementation of List must be used in MyBatis - potential concurrency exceptions otherwise
+  private ArrayList<String> lowPriorityTaskTypes = new ArrayList<>();
+
+  public int getMaxExecutionCount() {
+    return maxExecutionCount;
+  }
+
+  /**
+   * Tasks already executed this number of times, or more, are not eligible
+   */
+  public EligibleTaskQuery setMaxExecutionCount(int i) {
+    this.maxExecutionCount = i;
+    return this;
+  }
+
+  public int getMaxInProgressPerOrganization() {
+    return maxInProgressPerOrganization;
+  }
+
+  /**
+   * Tasks of the organizations which already have this number of tasks in progress are not eligible.
+   * Zero or less means no limit.
+   */
+  public EligibleTaskQuery setMaxInProgressPerOrganization(int i) {
+    this.maxInProgressPerOrganization = i;
+    return this;
+  }
+
+  public List<String> getLowPriorityTaskTypes() {
+    return lowPriorityTaskTypes;
+  }
+
+  /**
+   * Tasks of these types are selected after all the others
+   */
+  public EligibleTaskQuery setLowPriorityTaskTypes(Collection<String> types) {
+    this.lowPriorityTaskTypes = new ArrayList<>(types);
+    return this;
+  }
+}
@@ -120,6 +120,19 @@ public class ComponentDao implements Dao {
     return countByQueryImpl(session, organizationUuid, query);
   }
 
+  /**
+   * Same as {@link #selectByQuery(DbSession, String, ComponentQuery, int, int)} but the components, ordered by id, are
+   * handed over to {@code handler} instead of being loaded all at once in memory.
+   */
+  public void scrollByQuery(DbSession dbSession, String organizationUuid, ComponentQuery query, ResultHandler handler) {
+    requireNonNull(organizationUuid, "organizationUuid can't be null");
+    Set<Long> componentIds = query.getComponentIds();
+    if (componentIds != null && componentIds.isEmpty()) {
+      return;
+    }
+    mapper(dbSession).scrollByQuery(organizationUuid, query, handler);
+  }
+
   public List<ComponentDto> selectSubProjectsByComponentUuids(DbSession session, Collection<String> keys) {
     if (keys.isEmpty()) {
       return emptyList();
@@ -69,6 +69,8 @@ public interface ComponentMapper {
 
   int countByQuery(@Nullable @Param("organizationUuid") String organizationUuid, @Param("query") ComponentQuery query);
 
+  void scrollByQuery(@Param("organizationUuid") String organizationUuid, @Param("query") ComponentQuery query, ResultHandler handler);
+
   List<ComponentDto> selectDescendants(@Param("query") ComponentTreeQuery query, @Param("baseUuid") String baseUuid, @Param("baseUuidPath") String baseUuidPath);
 
   /**
@@ -19,10 +19,13 @@
  */
 package org.sonar.db.component;
 
+import java.util.Collection;
 import org.sonar.api.utils.System2;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 
+import static org.sonar.db.DatabaseUtils.executeLargeUpdates;
+
 public class ResourceDao implements Dao {
 
   private final System2 system2;
@@ -35,4 +38,10 @@ public class ResourceDao implements Dao {
     session.getMapper(ResourceMapper.class).updateAuthorizationDate(projectId, system2.now());
   }
 
+  public void updateAuthorizationDates(Collection<Long> projectIds, DbSession session) {
+    ResourceMapper mapper = session.getMapper(ResourceMapper.class);
+    long now = system2.now();
+    executeLargeUpdates(projectIds, partition -> mapper.updateAuthorizationDates(partition, now));
+  }
+
 }
@@ -19,10 +19,13 @@
  */
 package org.sonar.db.component;
 
+import java.util.Collection;
 import org.apache.ibatis.annotations.Param;
 
 public interface ResourceMapper {
 
   void updateAuthorizationDate(@Param("projectId") Long projectId, @Param("authorizationDate") Long authorizationDate);
 
+  void updateAuthorizationDates(@Param("projectIds") Collection<Long> projectIds, @Param("authorizationDate") Long authorizationDate);
+
 }
@@ -19,6 +19,8 @@
  */
 package org.sonar.db.duplication;
 
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -29,6 +31,11 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 
 public class DuplicationDao implements Dao {
 
+  /**
+   * Each row binds 6 parameters, and SQLServer does not accept more than 2100 parameters per statement.
+   */
+  private static final int MAX_ROWS_PER_INSERT = 300;
+
   /**
    * @param analysisUuid snapshot id of the project from the previous analysis (islast=true)
    */
@@ -46,4 +53,13 @@ public class DuplicationDao implements Dao {
     session.getMapper(DuplicationMapper.class).batchInsert(dto);
   }
 
+  /**
+   * Insert rows in the table DUPLICATIONS_INDEX, using one statement per group of {@link #MAX_ROWS_PER_INSERT} rows.
+   * Note that generated ids are not returned.
+   */
+  public void insert(DbSession session, Collection<DuplicationUnitDto> dtos) {
+    DuplicationMapper mapper = session.getMapper(DuplicationMapper.class);
+    Lists.partition(new ArrayList<>(dtos), MAX_ROWS_PER_INSERT).forEach(mapper::batchInsertMultiple);
+  }
+
 }
@@ -33,4 +33,6 @@ public interface DuplicationMapper {
 
   void batchInsert(DuplicationUnitDto unit);
 
+  void batchInsertMultiple(@Param("units") List<DuplicationUnitDto> units);
+
 }
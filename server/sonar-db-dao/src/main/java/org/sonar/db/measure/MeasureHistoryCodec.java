@@ -0,0 +1,159 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.measure;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Binary format of the points of {@link MeasureHistoryDto}. Points are sorted by date. Each point is stored as:
+ * <ul>
+ *   <li>the difference with the date of the previous point, as a variable-length integer</li>
+ *   <li>a tag telling whether the value is the same as the previous one, is an integral difference with
+ *   the previous value (variable-length integer), or is a raw double</li>
+ * </ul>
+ * History of most metrics is made of integers which rarely change, so points generally use 2 to 4 bytes.
+ */
+public final class MeasureHistoryCodec {
+
+  private static final int VERSION = 1;
+  private static final int TAG_SAME_VALUE = 0;
+  private static final int TAG_LONG_DELTA = 1;
+  private static final int TAG_DOUBLE = 2;
+  /**
+   * Doubles above this limit can't safely be converted to long and back
+   */
+  private static final double MAX_EXACT_LONG = 9.007199254740992E15;
+
+  private MeasureHistoryCodec() {
+    // only static methods
+  }
+
+  public static byte[] encode(List<MeasureHistoryPoint> points) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(2 + points.size() * 4);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      writeVarLong(out, points.size());
+      long previousDate = 0L;
+      double previousValue = 0d;
+      for (MeasureHistoryPoint point : points) {
+        checkArgument(point.getDate() >= previousDate, "Points must be sorted by date");
+        writeVarLong(out, point.getDate() - previousDate);
+        writeValue(out, previousValue, point.getValue());
+        previousDate = point.getDate();
+        previousValue = point.getValue();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to encode measure history", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static List<MeasureHistoryPoint> decode(byte[] data) {
+    if (data.length == 0) {
+      return Collections.emptyList();
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      int version = in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IllegalStateException("Unsupported version of measure history: " + version);
+      }
+      int size = (int) readVarLong(in);
+      List<MeasureHistoryPoint> points = new ArrayList<>(size);
+      long date = 0L;
+      double value = 0d;
+      for (int i = 0; i < size; i++) {
+        date += readVarLong(in);
+        value = readValue(in, value);
+        points.add(new MeasureHistoryPoint(date, value));
+      }
+      return points;
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to decode measure history", e);
+    }
+  }
+
+  private static void writeValue(DataOutputStream out, double previousValue, double value) throws IOException {
+    if (Double.compare(previousValue, value) == 0) {
+      out.writeByte(TAG_SAME_VALUE);
+    } else if (isExactLong(previousValue) && isExactLong(value)) {
+      out.writeByte(TAG_LONG_DELTA);
+      writeVarLong(out, zigZag((long) value - (long) previousValue));
+    } else {
+      out.writeByte(TAG_DOUBLE);
+      out.writeDouble(value);
+    }
+  }
+
+  private static double readValue(DataInputStream in, double previousValue) throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case TAG_SAME_VALUE:
+        return previousValue;
+      case TAG_LONG_DELTA:
+        return (double) ((long) previousValue + unZigZag(readVarLong(in)));
+      case TAG_DOUBLE:
+        return in.readDouble();
+      default:
+        throw new IllegalStateException("Unsupported tag of measure history: " + tag);
+    }
+  }
+
+  private static boolean isExactLong(double d) {
+    return d == Math.rint(d) && Math.abs(d) < MAX_EXACT_LONG && !(d == 0d && 1d / d < 0d);
+  }
+
+  private static long zigZag(long l) {
+    return (l << 1) ^ (l >> 63);
+  }
+
+  private static long unZigZag(long l) {
+    return (l >>> 1) ^ -(l & 1);
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    long l = value;
+    while ((l & ~0x7FL) != 0L) {
+      out.writeByte((int) ((l & 0x7F) | 0x80));
+      l >>>= 7;
+    }
+    out.writeByte((int) l);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long result = 0L;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("Malformed measure history");
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.measure;
+
+import java.util.List;
+
+/**
+ * History of a numerical metric on a root component (project or view), one point per analysis.
+ * It's a compact copy of the values stored in project_measures, used to search measures history
+ * without reading one row per analysis.
+ */
+public class MeasureHistoryDto {
+
+  private String componentUuid;
+  private int metricId;
+  private byte[] data;
+  private long createdAt;
+  private long updatedAt;
+
+  public String getComponentUuid() {
+    return componentUuid;
+  }
+
+  public MeasureHistoryDto setComponentUuid(String s) {
+    this.componentUuid = s;
+    return this;
+  }
+
+  public int getMetricId() {
+    return metricId;
+  }
+
+  public MeasureHistoryDto setMetricId(int i) {
+    this.metricId = i;
+    return this;
+  }
+
+  public byte[] getData() {
+    return data;
+  }
+
+  public MeasureHistoryDto setData(byte[] data) {
+    this.data = data;
+    return this;
+  }
+
+  /**
+   * Decodes {@link #getData()}. Points are sorted by date.
+   */
+  public List<MeasureHistoryPoint> getPoints() {
+    return MeasureHistoryCodec.decode(data);
+  }
+
+  /**
+   * @param points must be sorted by date
+   */
+  public MeasureHistoryDto setPoints(List<MeasureHistoryPoint> points) {
+    this.data = MeasureHistoryCodec.encode(points);
+    return this;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public MeasureHistoryDto setCreatedAt(long l) {
+    this.createdAt = l;
+    return this;
+  }
+
+  public long getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public MeasureHistoryDto setUpdatedAt(long l) {
+    this.updatedAt = l;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("MeasureHistoryDto{");
+    sb.append("componentUuid='").append(componentUuid).append('\'');
+    sb.append(", metricId=").append(metricId);
+    sb.append(", createdAt=").append(createdAt);
+    sb.append(", updatedAt=").append(updatedAt);
+    sb.append('}');
+    return sb.toString();
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.measure;
+
+/**
+ * Value of a numerical measure at the date of an analysis, as stored in {@link MeasureHistoryDto}.
+ */
+public final class MeasureHistoryPoint {
+
+  private final long date;
+  private final double value;
+
+  public MeasureHistoryPoint(long date, double value) {
+    this.date = date;
+    this.value = value;
+  }
+
+  public long getDate() {
+    return date;
+  }
+
+  public double getValue() {
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    MeasureHistoryPoint that = (MeasureHistoryPoint) o;
+    return date == that.date && Double.compare(that.value, value) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(date) + Double.hashCode(value);
+  }
+
+  @Override
+  public String toString() {
+    return "MeasureHistoryPoint{date=" + date + ", value=" + value + '}';
+  }
+}
@@ -19,6 +19,7 @@
  */
 package org.sonar.db.permission;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import org.sonar.db.user.GroupMapper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
+import static org.sonar.db.DatabaseUtils.executeLargeUpdates;
 
 public class GroupPermissionDao implements Dao {
 
@@ -148,6 +150,14 @@ public class GroupPermissionDao implements Dao {
     mapper(dbSession).deleteByRootComponentId(rootComponentId);
   }
 
+  /**
+   * Delete all the permissions of the specified root components, by partitions of 1'000 components.
+   */
+  public void deleteByRootComponentIds(DbSession dbSession, Collection<Long> rootComponentIds) {
+    GroupPermissionMapper mapper = mapper(dbSession);
+    executeLargeUpdates(rootComponentIds, mapper::deleteByRootComponentIds);
+  }
+
   /**
    * Delete all permissions of the specified group (group "AnyOne" if {@code groupId} is {@code null}) for the specified
    * component.
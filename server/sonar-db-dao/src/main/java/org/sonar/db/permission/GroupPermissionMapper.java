@@ -63,6 +63,8 @@ public interface GroupPermissionMapper {
 
   void deleteByRootComponentId(@Param("rootComponentId") long componentId);
 
+  void deleteByRootComponentIds(@Param("rootComponentIds") List<Long> rootComponentIds);
+
   int deleteByRootComponentIdAndGroupId(@Param("rootComponentId") long rootComponentId, @Nullable @Param("groupId") Integer groupId);
 
   int deleteByRootComponentIdAndPermission(@Param("rootComponentId") long rootComponentId, @Param("permission") String permission);
@@ -32,6 +32,7 @@ import org.sonar.db.component.ComponentMapper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Collections.emptyList;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
+import static org.sonar.db.DatabaseUtils.executeLargeUpdates;
 
 public class UserPermissionDao implements Dao {
 
@@ -132,6 +133,14 @@ public class UserPermissionDao implements Dao {
     mapper(dbSession).deleteProjectPermissions(projectId);
   }
 
+  /**
+   * Delete all the permissions of the specified projects, by partitions of 1'000 projects.
+   */
+  public void deleteProjectPermissions(DbSession dbSession, Collection<Long> projectIds) {
+    UserPermissionMapper mapper = mapper(dbSession);
+    executeLargeUpdates(projectIds, mapper::deleteProjectsPermissions);
+  }
+
   /**
    * Deletes the specified permission on the specified project for any user.
    */
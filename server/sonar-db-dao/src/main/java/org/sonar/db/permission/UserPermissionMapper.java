@@ -57,6 +57,8 @@ public interface UserPermissionMapper {
 
   void deleteProjectPermissions(@Param("projectId") long projectId);
 
+  void deleteProjectsPermissions(@Param("projectIds") List<Long> projectIds);
+
   int deleteProjectPermissionOfAnyUser(@Param("projectId") long projectId, @Param("permission") String permission);
 
   List<String> selectGlobalPermissionsOfUser(@Param("userId") int userId, @Param("organizationUuid") String organizationUuid);
@@ -28,10 +28,12 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.resources.Scopes;
 import org.sonar.api.utils.System2;
+import org.sonar.core.util.Uuids;
 import org.sonar.db.Dao;
 import org.sonar.db.DatabaseUtils;
 import org.sonar.db.DbSession;
@@ -45,15 +47,25 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
 
 public class PropertiesDao implements Dao {
 
+  /**
+   * Key of the internal property stamping the version of the global properties. It is changed, in the same
+   * session, by every method of this DAO which writes or deletes global properties, so that all the nodes of
+   * a cluster can detect changes.
+   */
+  public static final String GLOBAL_PROPERTIES_VERSION = "settings.global.version";
+
   private static final String NOTIFICATION_PREFIX = "notification.";
   private static final int VARCHAR_MAXSIZE = 4000;
 
   private final MyBatis mybatis;
   private final System2 system2;
+  private final InternalPropertiesDao internalPropertiesDao;
+  private final AtomicLong localGlobalChanges = new AtomicLong(0);
 
-  public PropertiesDao(MyBatis mybatis, System2 system2) {
+  public PropertiesDao(MyBatis mybatis, System2 system2, InternalPropertiesDao internalPropertiesDao) {
     this.mybatis = mybatis;
     this.system2 = system2;
+    this.internalPropertiesDao = internalPropertiesDao;
   }
 
   /**
@@ -187,6 +199,9 @@ public class PropertiesDao implements Dao {
    */
   public void saveProperty(DbSession session, PropertyDto property) {
     save(getMapper(session), property.getKey(), property.getUserId(), property.getResourceId(), property.getValue());
+    if (isGlobal(property)) {
+      globalPropertiesChanged(session);
+    }
   }
 
   private void save(PropertiesMapper mapper,
@@ -232,11 +247,19 @@ public class PropertiesDao implements Dao {
    * Used by Governance.
    */
   public int deleteByQuery(DbSession dbSession, PropertyQuery query) {
-    return getMapper(dbSession).deleteByQuery(query);
+    int deleted = getMapper(dbSession).deleteByQuery(query);
+    if (deleted > 0) {
+      globalPropertiesChanged(dbSession);
+    }
+    return deleted;
   }
 
   public int delete(DbSession dbSession, PropertyDto dto) {
-    return getMapper(dbSession).delete(dto.getKey(), dto.getUserId(), dto.getResourceId());
+    int deleted = getMapper(dbSession).delete(dto.getKey(), dto.getUserId(), dto.getResourceId());
+    if (deleted > 0 && isGlobal(dto)) {
+      globalPropertiesChanged(dbSession);
+    }
+    return deleted;
   }
 
   public void deleteProjectProperty(String key, Long projectId) {
@@ -262,7 +285,9 @@ public class PropertiesDao implements Dao {
   }
 
   public void deleteGlobalProperty(String key, DbSession session) {
-    getMapper(session).deleteGlobalProperty(key);
+    if (getMapper(session).deleteGlobalProperty(key) > 0) {
+      globalPropertiesChanged(session);
+    }
   }
 
   public void deleteGlobalProperty(String key) {
@@ -280,10 +305,14 @@ public class PropertiesDao implements Dao {
   public void deleteByOrganizationAndMatchingLogin(DbSession dbSession, String organizationUuid, String login, List<String> propertyKeys) {
     List<Long> ids = getMapper(dbSession).selectIdsByOrganizationAndMatchingLogin(organizationUuid, login, propertyKeys);
     executeLargeInputsWithoutOutput(ids, list -> getMapper(dbSession).deleteByIds(list));
+    if (!ids.isEmpty()) {
+      globalPropertiesChanged(dbSession);
+    }
   }
 
   public void deleteByKeyAndValue(DbSession dbSession, String key, String value){
     getMapper(dbSession).deleteByKeyAndValue(key, value);
+    globalPropertiesChanged(dbSession);
   }
 
   public void saveGlobalProperties(Map<String, String> properties) {
@@ -293,6 +322,7 @@ public class PropertiesDao implements Dao {
         mapper.deleteGlobalProperty(entry.getKey());
         save(mapper, entry.getKey(), null, null, entry.getValue());
       });
+      globalPropertiesChanged(session);
       session.commit();
     }
   }
@@ -304,11 +334,33 @@ public class PropertiesDao implements Dao {
     if (!newKey.equals(oldKey)) {
       try (DbSession session = mybatis.openSession(false)) {
         getMapper(session).renamePropertyKey(oldKey, newKey);
+        globalPropertiesChanged(session);
         session.commit();
       }
     }
   }
 
+  /**
+   * Number of changes of global properties made by this process. Allows to detect local changes without
+   * reading the version stamp {@link #GLOBAL_PROPERTIES_VERSION}.
+   */
+  public long getLocalGlobalChanges() {
+    return localGlobalChanges.get();
+  }
+
+  /**
+   * A new UUID is used as stamp, rather than an incremented number, so that concurrent changes from
+   * different nodes can not result in the same stamp. Session is not committed.
+   */
+  private void globalPropertiesChanged(DbSession dbSession) {
+    internalPropertiesDao.save(dbSession, GLOBAL_PROPERTIES_VERSION, Uuids.create());
+    localGlobalChanges.incrementAndGet();
+  }
+
+  private static boolean isGlobal(PropertyDto dto) {
+    return dto.getUserId() == null && dto.getResourceId() == null;
+  }
+
   private static PropertiesMapper getMapper(DbSession session) {
     return session.getMapper(PropertiesMapper.class);
   }
@@ -21,9 +21,16 @@ package org.sonar.db.purge;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.sonar.db.BatchSession;
 import org.sonar.db.DbSession;
+import org.sonar.db.measure.MeasureHistoryDto;
+import org.sonar.db.measure.MeasureHistoryPoint;
 
 import static com.google.common.collect.FluentIterable.from;
 import static java.util.Arrays.asList;
@@ -32,15 +39,27 @@ class PurgeCommands {
 
   private static final int MAX_SNAPSHOTS_PER_QUERY = 1000;
   private static final int MAX_RESOURCES_PER_QUERY = 1000;
+  /**
+   * Analyses are purged by chunks, each one being committed separately. It bounds the size of transactions
+   * and allows to resume an interrupted purge: the analyses of the chunks already committed are not selected anymore.
+   */
+  @VisibleForTesting
+  static final int MAX_ANALYSES_PER_CHUNK = 100;
 
   private final DbSession session;
   private final PurgeMapper purgeMapper;
   private final PurgeProfiler profiler;
+  private final PurgeThrottler throttler;
 
-  PurgeCommands(DbSession session, PurgeMapper purgeMapper, PurgeProfiler profiler) {
+  PurgeCommands(DbSession session, PurgeMapper purgeMapper, PurgeProfiler profiler, PurgeThrottler throttler) {
     this.session = session;
     this.purgeMapper = purgeMapper;
     this.profiler = profiler;
+    this.throttler = throttler;
+  }
+
+  PurgeCommands(DbSession session, PurgeMapper purgeMapper, PurgeProfiler profiler) {
+    this(session, purgeMapper, profiler, PurgeThrottler.NONE);
   }
 
   @VisibleForTesting
@@ -59,7 +78,7 @@ class PurgeCommands {
   void deleteAnalyses(String rootUuid) {
     profiler.start("deleteAnalyses (events)");
     purgeMapper.deleteEventsByComponentUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
 
     List<List<String>> analysisUuidsPartitions = Lists.partition(IdUuidPairs.uuids(purgeMapper.selectAnalysisIdsAndUuids(new PurgeSnapshotQuery().setComponentUuid(rootUuid))),
@@ -68,13 +87,13 @@ class PurgeCommands {
     deleteAnalysisDuplications(analysisUuidsPartitions);
 
     profiler.start("deleteAnalyses (project_measures)");
-    analysisUuidsPartitions.forEach(purgeMapper::deleteAnalysisMeasures);
-    session.commit();
+    analysisUuidsPartitions.forEach(partition -> countDeletedRows("project_measures", () -> purgeMapper.deleteAnalysisMeasures(partition)));
+    commit();
     profiler.stop();
 
     profiler.start("deleteAnalyses (snapshots)");
-    analysisUuidsPartitions.forEach(purgeMapper::deleteAnalyses);
-    session.commit();
+    analysisUuidsPartitions.forEach(partition -> countDeletedRows("snapshots", () -> purgeMapper.deleteAnalyses(partition)));
+    commit();
     profiler.stop();
   }
 
@@ -87,72 +106,138 @@ class PurgeCommands {
 
   @VisibleForTesting
   void deleteAnalyses(List<IdUuidPair> analysisIdUuids) {
-    List<List<String>> analysisUuidsPartitions = Lists.partition(IdUuidPairs.uuids(analysisIdUuids), MAX_SNAPSHOTS_PER_QUERY);
+    for (List<String> chunk : Lists.partition(IdUuidPairs.uuids(analysisIdUuids), MAX_ANALYSES_PER_CHUNK)) {
+      long start = System.currentTimeMillis();
 
-    deleteAnalysisDuplications(analysisUuidsPartitions);
+      profiler.start("deleteAnalysisDuplications (duplications_index)");
+      countDeletedRows("duplications_index", () -> purgeMapper.deleteAnalysisDuplications(chunk));
+      profiler.stop();
 
-    profiler.start("deleteAnalyses (events)");
-    analysisUuidsPartitions.forEach(purgeMapper::deleteAnalysisEvents);
-    session.commit();
-    profiler.stop();
+      profiler.start("deleteAnalyses (events)");
+      countDeletedRows("events", () -> purgeMapper.deleteAnalysisEvents(chunk));
+      profiler.stop();
 
-    profiler.start("deleteAnalyses (project_measures)");
-    analysisUuidsPartitions.forEach(purgeMapper::deleteAnalysisMeasures);
-    session.commit();
-    profiler.stop();
+      profiler.start("deleteAnalyses (project_measures)");
+      countDeletedRows("project_measures", () -> purgeMapper.deleteAnalysisMeasures(chunk));
+      profiler.stop();
 
-    profiler.start("deleteAnalyses (snapshots)");
-    analysisUuidsPartitions.forEach(purgeMapper::deleteAnalyses);
-    session.commit();
-    profiler.stop();
+      List<String> componentUuids = purgeMapper.selectComponentUuidsOfAnalyses(chunk);
+      profiler.start("deleteAnalyses (snapshots)");
+      countDeletedRows("snapshots", () -> purgeMapper.deleteAnalyses(chunk));
+      profiler.stop();
+
+      profiler.start("deleteAnalyses (measure_history)");
+      componentUuids.forEach(this::deleteMeasureHistoryOfDeletedAnalyses);
+      commit();
+      profiler.stop();
+
+      throttler.afterChunk(System.currentTimeMillis() - start);
+    }
   }
 
   void purgeAnalyses(List<IdUuidPair> analysisUuids) {
-    List<List<String>> analysisUuidsPartitions = Lists.partition(IdUuidPairs.uuids(analysisUuids), MAX_SNAPSHOTS_PER_QUERY);
+    if (analysisUuids.isEmpty()) {
+      return;
+    }
+    List<Long> metricIdsWithoutHistoricalData = purgeMapper.selectMetricIdsWithoutHistoricalData();
+    for (List<String> chunk : Lists.partition(IdUuidPairs.uuids(analysisUuids), MAX_ANALYSES_PER_CHUNK)) {
+      long start = System.currentTimeMillis();
 
-    deleteAnalysisDuplications(analysisUuidsPartitions);
+      profiler.start("deleteAnalysisDuplications (duplications_index)");
+      countDeletedRows("duplications_index", () -> purgeMapper.deleteAnalysisDuplications(chunk));
+      profiler.stop();
 
-    profiler.start("deleteSnapshotWastedMeasures (project_measures)");
-    List<Long> metricIdsWithoutHistoricalData = purgeMapper.selectMetricIdsWithoutHistoricalData();
-    analysisUuidsPartitions
-        .forEach(analysisUuidsPartition -> purgeMapper.deleteAnalysisWastedMeasures(analysisUuidsPartition, metricIdsWithoutHistoricalData));
-    session.commit();
-    profiler.stop();
+      profiler.start("deleteSnapshotWastedMeasures (project_measures)");
+      countDeletedRows("project_measures", () -> purgeMapper.deleteAnalysisWastedMeasures(chunk, metricIdsWithoutHistoricalData));
+      profiler.stop();
 
-    profiler.start("updatePurgeStatusToOne (snapshots)");
-    analysisUuidsPartitions.forEach(purgeMapper::updatePurgeStatusToOne);
-    session.commit();
-    profiler.stop();
+      // the purge status is updated last, so that the chunk is selected again if the transaction fails
+      profiler.start("updatePurgeStatusToOne (snapshots)");
+      purgeMapper.updatePurgeStatusToOne(chunk);
+      commit();
+      profiler.stop();
+
+      throttler.afterChunk(System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Removes from the history of the component the points which don't match the date of one of its remaining analyses
+   */
+  private void deleteMeasureHistoryOfDeletedAnalyses(String componentUuid) {
+    List<MeasureHistoryDto> histories = purgeMapper.selectMeasureHistoryByComponentUuid(componentUuid);
+    if (histories.isEmpty()) {
+      return;
+    }
+    Set<Long> analysisDates = new HashSet<>(purgeMapper.selectAnalysisDatesByComponentUuid(componentUuid));
+    for (MeasureHistoryDto history : histories) {
+      List<MeasureHistoryPoint> points = history.getPoints();
+      List<MeasureHistoryPoint> remainingPoints = points.stream()
+        .filter(point -> analysisDates.contains(point.getDate()))
+        .collect(Collectors.toList());
+      if (remainingPoints.size() < points.size()) {
+        purgeMapper.updateMeasureHistoryData(history.setPoints(remainingPoints));
+      }
+    }
   }
 
   private void deleteAnalysisDuplications(List<List<String>> snapshotUuidsPartitions) {
     profiler.start("deleteAnalysisDuplications (duplications_index)");
-    snapshotUuidsPartitions.forEach(purgeMapper::deleteAnalysisDuplications);
-    session.commit();
+    snapshotUuidsPartitions.forEach(partition -> countDeletedRows("duplications_index", () -> purgeMapper.deleteAnalysisDuplications(partition)));
+    commit();
     profiler.stop();
   }
 
+  /**
+   * Deletions are counted by {@link PurgeProfiler} only once committed.
+   */
+  private void commit() {
+    session.commit();
+    profiler.commitDeletedRows();
+  }
+
+  private void countDeletedRows(String table, IntSupplier delete) {
+    countDeletedRows(session, profiler, table, delete);
+  }
+
+  static void countDeletedRows(DbSession session, PurgeProfiler profiler, String table, IntSupplier delete) {
+    if (!(session instanceof BatchSession)) {
+      profiler.addDeletedRows(table, delete.getAsInt());
+      return;
+    }
+    // statements of a batch session return BatchExecutor.BATCH_UPDATE_RETURN_VALUE instead of the number of
+    // deleted rows, which is known only once they are flushed. Pending statements are flushed first so that
+    // they are not counted.
+    session.flushStatements();
+    delete.getAsInt();
+    int rows = session.flushStatements().stream()
+      .flatMapToInt(result -> IntStream.of(result.getUpdateCounts()))
+      .filter(count -> count > 0)
+      .sum();
+    profiler.addDeletedRows(table, rows);
+  }
+
   void deletePermissions(long rootId) {
     profiler.start("deletePermissions (group_roles)");
     purgeMapper.deleteGroupRolesByComponentId(rootId);
-    session.commit();
+    commit();
     profiler.stop();
 
     profiler.start("deletePermissions (user_roles)");
     purgeMapper.deleteUserRolesByComponentId(rootId);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
   void deleteIssues(String rootUuid) {
     profiler.start("deleteIssues (issue_changes)");
     purgeMapper.deleteIssueChangesByProjectUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
 
     profiler.start("deleteIssues (issues)");
     purgeMapper.deleteIssuesByProjectUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
@@ -165,19 +250,19 @@ class PurgeCommands {
 
     profiler.start("deleteIssues (issue_changes)");
     uuidPartitions.forEach(purgeMapper::deleteIssueChangesByComponentUuids);
-    session.commit();
+    commit();
     profiler.stop();
 
     profiler.start("deleteIssues (issues)");
     uuidPartitions.forEach(purgeMapper::deleteIssuesByComponentUuids);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
   void deleteLinks(String rootUuid) {
     profiler.start("deleteLinks (project_links)");
     purgeMapper.deleteProjectLinksByComponentUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
@@ -190,19 +275,19 @@ class PurgeCommands {
 
     profiler.start("deleteByRootAndModulesOrSubviews (properties)");
     idPartitions.forEach(purgeMapper::deletePropertiesByComponentIds);
-    session.commit();
+    commit();
     profiler.stop();
 
     profiler.start("deleteByRootAndModulesOrSubviews (manual_measures)");
     uuidsPartitions.forEach(purgeMapper::deleteManualMeasuresByComponentUuids);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
   void deleteComponents(String rootUuid) {
     profiler.start("deleteComponents (projects)");
     purgeMapper.deleteComponentsByProjectUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
@@ -213,7 +298,7 @@ class PurgeCommands {
 
     profiler.start("deleteComponents (projects)");
     Lists.partition(componentUuids, MAX_RESOURCES_PER_QUERY).forEach(purgeMapper::deleteComponentsByUuids);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
@@ -224,7 +309,7 @@ class PurgeCommands {
 
     profiler.start("deleteComponentMeasures (project_measures)");
     Lists.partition(componentUuids, MAX_RESOURCES_PER_QUERY).forEach(purgeMapper::fullDeleteComponentMeasures);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
@@ -239,10 +324,10 @@ class PurgeCommands {
     profiler.start("deleteComponentMeasures");
     for (List<String> analysisUuidsPartition : analysisUuidsPartitions) {
       for (List<String> componentUuidsPartition : componentUuidsPartitions) {
-        purgeMapper.deleteComponentMeasures(analysisUuidsPartition, componentUuidsPartition);
+        countDeletedRows("project_measures", () -> purgeMapper.deleteComponentMeasures(analysisUuidsPartition, componentUuidsPartition));
       }
     }
-    session.commit();
+    commit();
     profiler.stop();
   }
 
@@ -253,35 +338,42 @@ class PurgeCommands {
 
     profiler.start("deleteFileSources (file_sources)");
     Lists.partition(componentUuids, MAX_RESOURCES_PER_QUERY).forEach(purgeMapper::deleteFileSourcesByFileUuid);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
   void deleteFileSources(String rootUuid) {
     profiler.start("deleteFileSources (file_sources)");
     purgeMapper.deleteFileSourcesByProjectUuid(rootUuid);
-    session.commit();
+    commit();
+    profiler.stop();
+  }
+
+  void deleteMeasureHistory(String rootUuid) {
+    profiler.start("deleteMeasureHistory (measure_history)");
+    purgeMapper.deleteMeasureHistoryByProjectUuid(rootUuid);
+    commit();
     profiler.stop();
   }
 
   void deleteCeActivity(String rootUuid) {
     profiler.start("deleteCeActivity (ce_activity)");
     purgeMapper.deleteCeActivityByProjectUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
   void deleteCeQueue(String rootUuid) {
     profiler.start("deleteCeQueue (ce_queue)");
     purgeMapper.deleteCeQueueByProjectUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
   }
 
   void deleteWebhookDeliveries(String rootUuid) {
     profiler.start("deleteWebhookDeliveries (webhook_deliveries)");
     purgeMapper.deleteWebhookDeliveriesByProjectUuid(rootUuid);
-    session.commit();
+    commit();
     profiler.stop();
   }
 }
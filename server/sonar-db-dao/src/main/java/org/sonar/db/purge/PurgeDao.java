@@ -64,14 +64,25 @@ public class PurgeDao implements Dao {
   }
 
   public void purge(DbSession session, PurgeConfiguration conf, PurgeListener listener, PurgeProfiler profiler) {
+    purgeHistory(session, conf, listener, profiler, PurgeThrottler.NONE);
+    purgeDisabledComponents(session, conf, listener);
+  }
+
+  /**
+   * Deletes the aborted and obsolete analyses, the data of analyses which is not kept in history and the
+   * old closed issues. Analyses are processed by chunks, each chunk being committed before {@code throttler} is
+   * called, so that a purge which fails can be resumed by the next one.
+   */
+  public void purgeHistory(DbSession session, PurgeConfiguration conf, PurgeListener listener, PurgeProfiler profiler, PurgeThrottler throttler) {
     PurgeMapper mapper = session.getMapper(PurgeMapper.class);
-    PurgeCommands commands = new PurgeCommands(session, mapper, profiler);
+    PurgeCommands commands = new PurgeCommands(session, mapper, profiler, throttler);
     String rootUuid = conf.rootProjectIdUuid().getUuid();
     deleteAbortedAnalyses(rootUuid, commands);
     deleteDataOfComponentsWithoutHistoricalData(session, rootUuid, conf.scopesWithoutHistoricalData(), commands);
     purgeAnalyses(commands, rootUuid);
-    purgeDisabledComponents(session, conf, listener);
-    deleteOldClosedIssues(conf, mapper, listener);
+    deleteOldClosedIssues(session, conf, mapper, listener, profiler);
+    session.commit();
+    profiler.commitDeletedRows();
   }
 
   private static void purgeAnalyses(PurgeCommands commands, String rootUuid) {
@@ -83,16 +94,16 @@ public class PurgeDao implements Dao {
     commands.purgeAnalyses(analysisUuids);
   }
 
-  private static void deleteOldClosedIssues(PurgeConfiguration conf, PurgeMapper mapper, PurgeListener listener) {
+  private static void deleteOldClosedIssues(DbSession session, PurgeConfiguration conf, PurgeMapper mapper, PurgeListener listener, PurgeProfiler profiler) {
     Date toDate = conf.maxLiveDateOfClosedIssues();
     String rootUuid = conf.rootProjectIdUuid().getUuid();
     List<String> issueKeys = mapper.selectOldClosedIssueKeys(rootUuid, dateToLong(toDate));
     executeLargeInputs(issueKeys, input -> {
-      mapper.deleteIssueChangesFromIssueKeys(input);
+      PurgeCommands.countDeletedRows(session, profiler, "issue_changes", () -> mapper.deleteIssueChangesFromIssueKeys(input));
       return emptyList();
     });
     executeLargeInputs(issueKeys, input -> {
-      mapper.deleteIssuesFromKeys(input);
+      PurgeCommands.countDeletedRows(session, profiler, "issues", () -> mapper.deleteIssuesFromKeys(input));
       return emptyList();
     });
     listener.onIssuesRemoval(rootUuid, issueKeys);
@@ -131,7 +142,10 @@ public class PurgeDao implements Dao {
     purgeCommands.deleteComponentMeasures(analysisUuids, componentWithoutHistoricalDataUuids);
   }
 
-  private void purgeDisabledComponents(DbSession session, PurgeConfiguration conf, PurgeListener listener) {
+  /**
+   * Deletes the sources and resolves the issues of the components disabled by the last analysis.
+   */
+  public void purgeDisabledComponents(DbSession session, PurgeConfiguration conf, PurgeListener listener) {
     PurgeMapper mapper = mapper(session);
     executeLargeInputs(conf.getDisabledComponentUuids(),
       input -> {
@@ -175,6 +189,7 @@ public class PurgeDao implements Dao {
     commands.deleteComponents(rootUuid);
     commands.deleteIssues(rootUuid);
     commands.deleteFileSources(rootUuid);
+    commands.deleteMeasureHistory(rootUuid);
     commands.deleteCeActivity(rootUuid);
     commands.deleteCeQueue(rootUuid);
     commands.deleteWebhookDeliveries(rootUuid);
@@ -230,7 +245,11 @@ public class PurgeDao implements Dao {
   }
 
   public void deleteAnalyses(DbSession session, PurgeProfiler profiler, List<IdUuidPair> analysisIdUuids) {
-    new PurgeCommands(session, profiler).deleteAnalyses(analysisIdUuids);
+    deleteAnalyses(session, profiler, PurgeThrottler.NONE, analysisIdUuids);
+  }
+
+  public void deleteAnalyses(DbSession session, PurgeProfiler profiler, PurgeThrottler throttler, List<IdUuidPair> analysisIdUuids) {
+    new PurgeCommands(session, mapper(session), profiler, throttler).deleteAnalyses(analysisIdUuids);
   }
 
   private static PurgeMapper mapper(DbSession session) {
@@ -26,12 +26,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import org.sonar.api.utils.TimeUtils;
 import org.sonar.api.utils.log.Logger;
 
 public class PurgeProfiler {
 
   private Map<String, Long> durations = new HashMap<>();
+  private Map<String, Long> deletedRows = new TreeMap<>();
+  private Map<String, Long> uncommittedDeletedRows = new HashMap<>();
   private long startTime;
   private String currentTable;
   private final Clock clock;
@@ -47,6 +50,8 @@ public class PurgeProfiler {
 
   public void reset() {
     durations.clear();
+    deletedRows.clear();
+    uncommittedDeletedRows.clear();
   }
 
   void start(String table) {
@@ -64,6 +69,32 @@ public class PurgeProfiler {
     durations.put(currentTable, cumulatedDuration + (clock.now() - startTime));
   }
 
+  void addDeletedRows(String table, int rows) {
+    uncommittedDeletedRows.merge(table, (long) rows, Long::sum);
+  }
+
+  /**
+   * To be called once the deletions counted by {@link #addDeletedRows(String, int)} are committed.
+   */
+  void commitDeletedRows() {
+    uncommittedDeletedRows.forEach((table, rows) -> deletedRows.merge(table, rows, Long::sum));
+    uncommittedDeletedRows.clear();
+  }
+
+  /**
+   * To be called when the session is rolled back, so that the rows which are not deleted anymore are not counted.
+   */
+  public void rollbackDeletedRows() {
+    uncommittedDeletedRows.clear();
+  }
+
+  /**
+   * Number of rows deleted and committed per table since last {@link #reset()}, sorted by table name.
+   */
+  public Map<String, Long> getDeletedRows() {
+    return Collections.unmodifiableMap(deletedRows);
+  }
+
   public void dump(long totalTime, Logger logger) {
     List<Entry<String, Long>> data = new ArrayList<>(durations.entrySet());
     Collections.sort(data, (o1, o2) -> o2.getValue().compareTo(o1.getValue()));
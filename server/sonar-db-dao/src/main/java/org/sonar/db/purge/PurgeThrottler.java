@@ -0,0 +1,37 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.purge;
+
+/**
+ * Called by {@link PurgeDao#purgeHistory(org.sonar.db.DbSession, PurgeConfiguration, PurgeListener, PurgeProfiler, PurgeThrottler)}
+ * after each chunk of analyses is deleted and committed, for example to pause when the database is loaded.
+ */
+@FunctionalInterface
+public interface PurgeThrottler {
+
+  PurgeThrottler NONE = chunkDurationMs -> {
+    // no pause
+  };
+
+  /**
+   * @param chunkDurationMs time spent to delete and commit the chunk
+   */
+  void afterChunk(long chunkDurationMs);
+}
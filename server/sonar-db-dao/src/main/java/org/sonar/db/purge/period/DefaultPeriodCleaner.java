@@ -32,6 +32,7 @@ import org.sonar.db.DbSession;
 import org.sonar.db.purge.IdUuidPair;
 import org.sonar.db.purge.PurgeDao;
 import org.sonar.db.purge.PurgeProfiler;
+import org.sonar.db.purge.PurgeThrottler;
 import org.sonar.db.purge.PurgeableAnalysisDto;
 
 import static org.sonar.core.util.stream.MoreCollectors.toList;
@@ -48,19 +49,28 @@ public class DefaultPeriodCleaner {
   }
 
   public void clean(DbSession session, String rootUuid, Settings settings) {
-    doClean(rootUuid, new Filters(settings).all(), session);
+    clean(session, rootUuid, settings, profiler, PurgeThrottler.NONE);
+  }
+
+  public void clean(DbSession session, String rootUuid, Settings settings, PurgeProfiler profiler, PurgeThrottler throttler) {
+    doClean(rootUuid, new Filters(settings).all(), session, profiler, throttler);
   }
 
   @VisibleForTesting
   void doClean(String rootUuid, List<Filter> filters, DbSession session) {
+    doClean(rootUuid, filters, session, profiler, PurgeThrottler.NONE);
+  }
+
+  private void doClean(String rootUuid, List<Filter> filters, DbSession session, PurgeProfiler profiler, PurgeThrottler throttler) {
     List<PurgeableAnalysisDto> history = new ArrayList<>(selectAnalysesOfComponent(rootUuid, session));
     for (Filter filter : filters) {
       filter.log();
-      history.removeAll(delete(rootUuid, filter.filter(history), session));
+      history.removeAll(delete(rootUuid, filter.filter(history), session, profiler, throttler));
     }
   }
 
-  private List<PurgeableAnalysisDto> delete(String rootUuid, List<PurgeableAnalysisDto> snapshots, DbSession session) {
+  private List<PurgeableAnalysisDto> delete(String rootUuid, List<PurgeableAnalysisDto> snapshots, DbSession session, PurgeProfiler profiler,
+    PurgeThrottler throttler) {
     if (LOG.isDebugEnabled()) {
       LOG.debug("<- Delete analyses of component {}: {}",
         rootUuid,
@@ -70,7 +80,7 @@ public class DefaultPeriodCleaner {
             .collect(MoreCollectors.toArrayList(snapshots.size()))));
     }
     purgeDao.deleteAnalyses(
-      session, profiler,
+      session, profiler, throttler,
       snapshots.stream().map(DefaultPeriodCleaner::toIdUuidPair).collect(MoreCollectors.toList(snapshots.size())));
     return snapshots;
   }
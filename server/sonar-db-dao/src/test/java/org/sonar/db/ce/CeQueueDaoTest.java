@@ -37,6 +37,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.api.utils.internal.AlwaysIncreasingSystem2;
 import org.sonar.api.utils.internal.TestSystem2;
 import org.sonar.db.DbTester;
+import org.sonar.db.organization.OrganizationDto;
 
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.collect.Lists.newArrayList;
@@ -426,6 +427,61 @@ public class CeQueueDaoTest {
     assertThat(peek.get().getExecutionCount()).isEqualTo(1);
   }
 
+  @Test
+  public void peek_only_oldest_task_of_each_component() {
+    insert(TASK_UUID_1, COMPONENT_UUID_1, PENDING);
+    system2.setNow(INIT_TIME + 1_000);
+    insert(TASK_UUID_2, COMPONENT_UUID_1, PENDING);
+    system2.setNow(INIT_TIME + 2_000);
+    insert(TASK_UUID_3, COMPONENT_UUID_2, PENDING);
+
+    assertThat(underTest.peek(db.getSession(), WORKER_UUID_1, MAX_EXECUTION_COUNT).get().getUuid()).isEqualTo(TASK_UUID_1);
+    assertThat(underTest.peek(db.getSession(), WORKER_UUID_2, MAX_EXECUTION_COUNT).get().getUuid()).isEqualTo(TASK_UUID_3);
+    verifyCeQueueStatuses(TASK_UUID_1, IN_PROGRESS, TASK_UUID_2, PENDING, TASK_UUID_3, IN_PROGRESS);
+  }
+
+  @Test
+  public void peek_low_priority_tasks_last() {
+    insert(TASK_UUID_1, COMPONENT_UUID_1, PENDING, CeTaskTypes.PROJECT_PURGE);
+    system2.setNow(INIT_TIME + 1_000);
+    insert(TASK_UUID_2, COMPONENT_UUID_2, PENDING);
+    EligibleTaskQuery query = new EligibleTaskQuery()
+      .setMaxExecutionCount(MAX_EXECUTION_COUNT)
+      .setLowPriorityTaskTypes(singletonList(CeTaskTypes.PROJECT_PURGE));
+
+    Optional<CeQueueDto> peek = underTest.peek(db.getSession(), WORKER_UUID_1, query);
+
+    assertThat(peek.get().getUuid()).isEqualTo(TASK_UUID_2);
+    verifyCeQueueStatuses(TASK_UUID_1, PENDING, TASK_UUID_2, IN_PROGRESS);
+  }
+
+  @Test
+  public void peek_tasks_of_organization_with_fewer_tasks_in_progress_first() {
+    OrganizationDto busyOrganization = db.organizations().insert();
+    OrganizationDto idleOrganization = db.organizations().insert();
+    insert(TASK_UUID_1, db.components().insertPrivateProject(busyOrganization).uuid(), IN_PROGRESS);
+    insert(TASK_UUID_2, db.components().insertPrivateProject(busyOrganization).uuid(), PENDING);
+    system2.setNow(INIT_TIME + 1_000);
+    insert(TASK_UUID_3, db.components().insertPrivateProject(idleOrganization).uuid(), PENDING);
+
+    Optional<CeQueueDto> peek = underTest.peek(db.getSession(), WORKER_UUID_1, MAX_EXECUTION_COUNT);
+
+    assertThat(peek.get().getUuid()).isEqualTo(TASK_UUID_3);
+  }
+
+  @Test
+  public void peek_none_if_organization_reached_max_in_progress() {
+    OrganizationDto organization = db.organizations().insert();
+    insert(TASK_UUID_1, db.components().insertPrivateProject(organization).uuid(), IN_PROGRESS);
+    insert(TASK_UUID_2, db.components().insertPrivateProject(organization).uuid(), PENDING);
+    EligibleTaskQuery query = new EligibleTaskQuery()
+      .setMaxExecutionCount(MAX_EXECUTION_COUNT)
+      .setMaxInProgressPerOrganization(1);
+
+    assertThat(underTest.peek(db.getSession(), WORKER_UUID_1, query)).isEmpty();
+    verifyCeQueueStatuses(TASK_UUID_1, IN_PROGRESS, TASK_UUID_2, PENDING);
+  }
+
   @Test
   public void peek_ignores_rows_with_executionCount_greater_or_equal_to_specified_maxExecutionCount_0() {
     peek_ignores_rows_with_executionCount_greater_or_equal_to_specified_maxExecutionCount(0, null);
@@ -629,9 +685,13 @@ public class CeQueueDaoTest {
   }
 
   private CeQueueDto insert(String uuid, String componentUuid, CeQueueDto.Status status) {
+    return insert(uuid, componentUuid, status, CeTaskTypes.REPORT);
+  }
+
+  private CeQueueDto insert(String uuid, String componentUuid, CeQueueDto.Status status, String taskType) {
     CeQueueDto dto = new CeQueueDto();
     dto.setUuid(uuid);
-    dto.setTaskType(CeTaskTypes.REPORT);
+    dto.setTaskType(taskType);
     dto.setComponentUuid(componentUuid);
     dto.setStatus(status);
     dto.setSubmitterLogin("henri");
@@ -0,0 +1,78 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class CeTaskCountersDaoTest {
+
+  @Rule
+  public DbTester dbTester = DbTester.create(System2.INSTANCE);
+
+  private DbSession dbSession = dbTester.getSession();
+  private CeTaskCountersDao underTest = dbTester.getDbClient().ceTaskCountersDao();
+
+  @Test
+  public void selectByUuid_returns_empty_if_task_has_no_counters() {
+    assertThat(underTest.selectByUuid(dbSession, "missing")).isEmpty();
+  }
+
+  @Test
+  public void selectByUuid_returns_counters_sorted_by_key() {
+    underTest.replace(dbSession, "T1", ImmutableMap.of("snapshots", 3L, "project_measures", 200L));
+    underTest.replace(dbSession, "T2", ImmutableMap.of("events", 1L));
+    dbSession.commit();
+
+    assertThat(underTest.selectByUuid(dbSession, "T1")).containsExactly(entry("project_measures", 200L), entry("snapshots", 3L));
+  }
+
+  @Test
+  public void replace_deletes_existing_counters_of_task() {
+    underTest.replace(dbSession, "T1", ImmutableMap.of("snapshots", 3L, "project_measures", 200L));
+    dbSession.commit();
+
+    underTest.replace(dbSession, "T1", ImmutableMap.of("snapshots", 5L));
+    dbSession.commit();
+
+    assertThat(underTest.selectByUuid(dbSession, "T1")).containsExactly(entry("snapshots", 5L));
+  }
+
+  @Test
+  public void deleteByUuids_deletes_counters_of_specified_tasks() {
+    underTest.replace(dbSession, "T1", ImmutableMap.of("snapshots", 1L));
+    underTest.replace(dbSession, "T2", ImmutableMap.of("snapshots", 2L));
+    underTest.replace(dbSession, "T3", ImmutableMap.of("snapshots", 3L));
+
+    underTest.deleteByUuids(dbSession, asList("T1", "T3", "missing"));
+
+    assertThat(underTest.selectByUuid(dbSession, "T1")).isEmpty();
+    assertThat(underTest.selectByUuid(dbSession, "T2")).containsExactly(entry("snapshots", 2L));
+    assertThat(underTest.selectByUuid(dbSession, "T3")).isEmpty();
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CeTaskProgressDaoTest {
+
+  private System2 system2 = mock(System2.class);
+
+  @Rule
+  public DbTester dbTester = DbTester.create(system2);
+
+  private DbSession dbSession = dbTester.getSession();
+  private CeTaskProgressDao underTest = dbTester.getDbClient().ceTaskProgressDao();
+
+  @Test
+  public void selectByUuid_returns_empty_if_task_has_no_progress() {
+    assertThat(underTest.selectByUuid(dbSession, "missing")).isEmpty();
+  }
+
+  @Test
+  public void insertOrUpdate_inserts_row_when_does_not_exist() {
+    when(system2.now()).thenReturn(1_000L);
+
+    underTest.insertOrUpdate(dbSession, new CeTaskProgressDto().setTaskUuid("T1").setTotal(10).setProcessed(2).setFailures(1));
+    dbSession.commit();
+
+    CeTaskProgressDto dto = underTest.selectByUuid(dbSession, "T1").get();
+    assertThat(dto.getTotal()).isEqualTo(10);
+    assertThat(dto.getProcessed()).isEqualTo(2);
+    assertThat(dto.getFailures()).isEqualTo(1);
+    assertThat(dto.getCreatedAt()).isEqualTo(1_000L);
+    assertThat(dto.getUpdatedAt()).isEqualTo(1_000L);
+  }
+
+  @Test
+  public void insertOrUpdate_updates_row_when_exists() {
+    when(system2.now()).thenReturn(1_000L);
+    CeTaskProgressDto dto = new CeTaskProgressDto().setTaskUuid("T1").setTotal(10).setProcessed(2);
+    underTest.insertOrUpdate(dbSession, dto);
+    dbSession.commit();
+
+    when(system2.now()).thenReturn(2_000L);
+    underTest.insertOrUpdate(dbSession, dto.setProcessed(10).setFailures(3));
+    dbSession.commit();
+
+    assertThat(dbTester.countRowsOfTable(dbSession, "ce_task_progress")).isEqualTo(1);
+    CeTaskProgressDto reloaded = underTest.selectByUuid(dbSession, "T1").get();
+    assertThat(reloaded.getProcessed()).isEqualTo(10);
+    assertThat(reloaded.getFailures()).isEqualTo(3);
+    assertThat(reloaded.getCreatedAt()).isEqualTo(1_000L);
+    assertThat(reloaded.getUpdatedAt()).isEqualTo(2_000L);
+  }
+
+  @Test
+  public void deleteByUuids_deletes_specified_rows() {
+    underTest.insertOrUpdate(dbSession, new CeTaskProgressDto().setTaskUuid("T1"));
+    underTest.insertOrUpdate(dbSession, new CeTaskProgressDto().setTaskUuid("T2"));
+    underTest.insertOrUpdate(dbSession, new CeTaskProgressDto().setTaskUuid("T3"));
+
+    underTest.deleteByUuids(dbSession, asList("T1", "T3", "missing"));
+
+    assertThat(underTest.selectByUuid(dbSession, "T1")).isEmpty();
+    assertThat(underTest.selectByUuid(dbSession, "T2")).isPresent();
+    assertThat(underTest.selectByUuid(dbSession, "T3")).isEmpty();
+  }
+}
@@ -909,6 +909,21 @@ public class ComponentDaoTest {
       .isEmpty();
   }
 
+  @Test
+  public void scrollByQuery_filters_on_organization_and_query() {
+    OrganizationDto organization1 = db.organizations().insert();
+    OrganizationDto organization2 = db.organizations().insert();
+    ComponentDto project1 = db.components().insertPrivateProject(organization1);
+    ComponentDto project2 = db.components().insertPrivateProject(organization1);
+    db.components().insertPrivateProject(organization2);
+    db.components().insertView(organization1);
+    List<ComponentDto> result = new ArrayList<>();
+
+    underTest.scrollByQuery(dbSession, organization1.getUuid(), ALL_PROJECTS_COMPONENT_QUERY, context -> result.add((ComponentDto) context.getResultObject()));
+
+    assertThat(result).extracting(ComponentDto::uuid).containsExactlyInAnyOrder(project1.uuid(), project2.uuid());
+  }
+
   @Test
   public void countByQuery_with_organization_filters_on_specified_organization() {
     OrganizationDto organization1 = db.organizations().insert();
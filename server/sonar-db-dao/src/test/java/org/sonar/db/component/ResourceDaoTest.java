@@ -24,6 +24,8 @@ import org.junit.Test;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbTester;
 
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -46,4 +48,23 @@ public class ResourceDaoTest {
 
     dbTester.assertDbUnit(getClass(), "update_authorization_date-result.xml", "projects");
   }
+
+  @Test
+  public void update_authorization_dates() {
+    ComponentDto project1 = dbTester.components().insertPrivateProject();
+    ComponentDto project2 = dbTester.components().insertPrivateProject();
+    ComponentDto project3 = dbTester.components().insertPrivateProject();
+
+    when(system.now()).thenReturn(987654321L);
+    underTest.updateAuthorizationDates(asList(project1.getId(), project2.getId()), dbTester.getSession());
+    dbTester.getSession().commit();
+
+    assertThat(selectAuthorizationDate(project1)).isEqualTo(987654321L);
+    assertThat(selectAuthorizationDate(project2)).isEqualTo(987654321L);
+    assertThat(selectAuthorizationDate(project3)).isNotEqualTo(987654321L);
+  }
+
+  private Long selectAuthorizationDate(ComponentDto project) {
+    return dbTester.getDbClient().componentDao().selectOrFailById(dbTester.getSession(), project.getId()).getAuthorizationUpdatedAt();
+  }
 }
@@ -25,7 +25,11 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -78,4 +82,34 @@ public class DuplicationDaoTest {
     db.assertDbUnit(getClass(), "insert-result.xml", "duplications_index");
   }
 
+  @Test
+  public void insert_multiple_rows_in_several_statements() {
+    List<DuplicationUnitDto> units = IntStream.range(0, 701)
+      .mapToObj(i -> new DuplicationUnitDto()
+        .setAnalysisUuid("u1")
+        .setComponentUuid("uuid_1")
+        .setHash("hash_" + i)
+        .setIndexInFile(i)
+        .setStartLine(i + 1)
+        .setEndLine(i + 2))
+      .collect(Collectors.toList());
+
+    dao.insert(dbSession, units);
+    dbSession.commit();
+
+    assertThat(db.countRowsOfTable("duplications_index")).isEqualTo(701);
+    Map<String, Object> row = db.selectFirst("select INDEX_IN_FILE, START_LINE, END_LINE from duplications_index where hash='hash_700'");
+    assertThat(row.get("INDEX_IN_FILE")).isEqualTo(700L);
+    assertThat(row.get("START_LINE")).isEqualTo(701L);
+    assertThat(row.get("END_LINE")).isEqualTo(702L);
+  }
+
+  @Test
+  public void insert_does_nothing_if_no_rows() {
+    dao.insert(dbSession, Collections.emptyList());
+    dbSession.commit();
+
+    assertThat(db.countRowsOfTable("duplications_index")).isEqualTo(0);
+  }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.measure;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MeasureHistoryCodecTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void encode_and_decode_empty_history() {
+    assertThat(MeasureHistoryCodec.decode(MeasureHistoryCodec.encode(emptyList()))).isEmpty();
+    assertThat(MeasureHistoryCodec.decode(new byte[0])).isEmpty();
+  }
+
+  @Test
+  public void encode_and_decode_integral_and_decimal_values() {
+    List<MeasureHistoryPoint> points = asList(
+      new MeasureHistoryPoint(1_490_000_000_000L, 0d),
+      new MeasureHistoryPoint(1_490_000_100_000L, 12_345d),
+      new MeasureHistoryPoint(1_490_000_100_000L, 12_345d),
+      new MeasureHistoryPoint(1_490_000_200_000L, -3d),
+      new MeasureHistoryPoint(1_490_000_300_000L, 85.7d),
+      new MeasureHistoryPoint(1_490_000_400_000L, -0d),
+      new MeasureHistoryPoint(1_490_000_500_000L, 1e20d),
+      new MeasureHistoryPoint(1_490_000_600_000L, Long.MAX_VALUE),
+      new MeasureHistoryPoint(1_490_000_700_000L, Double.NaN));
+
+    assertThat(MeasureHistoryCodec.decode(MeasureHistoryCodec.encode(points))).containsExactlyElementsOf(points);
+  }
+
+  @Test
+  public void unchanged_integral_values_are_compact() {
+    List<MeasureHistoryPoint> points = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      points.add(new MeasureHistoryPoint(1_490_000_000_000L + i * 86_400_000L, 1_000d + (i % 10 == 0 ? i : 0)));
+    }
+
+    byte[] data = MeasureHistoryCodec.encode(points);
+
+    assertThat(data.length).isLessThan(points.size() * 6);
+    assertThat(MeasureHistoryCodec.decode(data)).containsExactlyElementsOf(points);
+  }
+
+  @Test
+  public void fail_to_encode_if_points_are_not_sorted_by_date() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Points must be sorted by date");
+
+    MeasureHistoryCodec.encode(asList(new MeasureHistoryPoint(2L, 1d), new MeasureHistoryPoint(1L, 1d)));
+  }
+
+  @Test
+  public void fail_to_decode_unsupported_version() {
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Unsupported version of measure history: 9");
+
+    MeasureHistoryCodec.decode(new byte[] {9, 0});
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.measure;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MeasureHistoryDaoTest {
+
+  private System2 system2 = mock(System2.class);
+
+  @Rule
+  public DbTester db = DbTester.create(system2);
+
+  private DbSession dbSession = db.getSession();
+  private MeasureHistoryDao underTest = db.getDbClient().measureHistoryDao();
+
+  @Test
+  public void selectByComponentUuidAndMetricIds_returns_empty_if_no_history() {
+    assertThat(underTest.selectByComponentUuidAndMetricIds(dbSession, "P1", asList(1, 2))).isEmpty();
+  }
+
+  @Test
+  public void insertOrUpdate_inserts_row_when_does_not_exist() {
+    when(system2.now()).thenReturn(1_000L);
+
+    underTest.insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid("P1").setMetricId(1)
+      .setPoints(asList(new MeasureHistoryPoint(10L, 5d), new MeasureHistoryPoint(20L, 7.5d))));
+    underTest.insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid("P1").setMetricId(2)
+      .setPoints(singletonList(new MeasureHistoryPoint(10L, 1d))));
+    underTest.insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid("P2").setMetricId(1)
+      .setPoints(singletonList(new MeasureHistoryPoint(10L, 1d))));
+    dbSession.commit();
+
+    assertThat(underTest.selectByComponentUuidAndMetricIds(dbSession, "P1", asList(1, 3)))
+      .extracting(MeasureHistoryDto::getComponentUuid, MeasureHistoryDto::getMetricId, MeasureHistoryDto::getCreatedAt, MeasureHistoryDto::getUpdatedAt)
+      .containsExactly(tuple("P1", 1, 1_000L, 1_000L));
+    MeasureHistoryDto dto = underTest.selectByComponentUuidAndMetricIds(dbSession, "P1", singletonList(1)).get(0);
+    assertThat(dto.getPoints()).containsExactly(new MeasureHistoryPoint(10L, 5d), new MeasureHistoryPoint(20L, 7.5d));
+  }
+
+  @Test
+  public void insertOrUpdate_updates_row_when_exists() {
+    when(system2.now()).thenReturn(1_000L);
+    underTest.insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid("P1").setMetricId(1)
+      .setPoints(singletonList(new MeasureHistoryPoint(10L, 5d))));
+    dbSession.commit();
+
+    when(system2.now()).thenReturn(2_000L);
+    underTest.insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid("P1").setMetricId(1)
+      .setPoints(asList(new MeasureHistoryPoint(10L, 5d), new MeasureHistoryPoint(20L, 6d))));
+    dbSession.commit();
+
+    MeasureHistoryDto dto = underTest.selectByComponentUuidAndMetricIds(dbSession, "P1", singletonList(1)).get(0);
+    assertThat(dto.getPoints()).containsExactly(new MeasureHistoryPoint(10L, 5d), new MeasureHistoryPoint(20L, 6d));
+    assertThat(dto.getCreatedAt()).isEqualTo(1_000L);
+    assertThat(dto.getUpdatedAt()).isEqualTo(2_000L);
+    assertThat(db.countRowsOfTable(dbSession, "measure_history")).isEqualTo(1);
+  }
+}
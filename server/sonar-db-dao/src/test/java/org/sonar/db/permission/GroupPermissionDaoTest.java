@@ -563,6 +563,27 @@ public class GroupPermissionDaoTest {
     assertThat(db.countRowsOfTable("group_roles")).isEqualTo(2);
   }
 
+  @Test
+  public void deleteByRootComponentIds() {
+    OrganizationDto org = db.organizations().insert();
+    GroupDto group1 = db.users().insertGroup(org);
+    GroupDto group2 = db.users().insertGroup(org);
+    ComponentDto project1 = db.components().insertPrivateProject(org);
+    ComponentDto project2 = db.components().insertPrivateProject(org);
+    ComponentDto project3 = db.components().insertPublicProject(org);
+    db.users().insertPermissionOnGroup(group1, "perm1");
+    db.users().insertProjectPermissionOnGroup(group1, "perm2", project1);
+    db.users().insertProjectPermissionOnGroup(group2, "perm3", project2);
+    db.users().insertProjectPermissionOnGroup(group2, "perm4", project3);
+    db.users().insertProjectPermissionOnAnyone("perm5", project3);
+
+    underTest.deleteByRootComponentIds(dbSession, asList(project1.getId(), project3.getId()));
+    dbSession.commit();
+
+    assertThat(db.countSql("select count(id) from group_roles where resource_id in (" + project1.getId() + "," + project3.getId() + ")")).isEqualTo(0);
+    assertThat(db.countRowsOfTable("group_roles")).isEqualTo(2);
+  }
+
   @Test
   public void deleteByRootComponentId_on_public_project() {
     OrganizationDto org = db.organizations().insert();
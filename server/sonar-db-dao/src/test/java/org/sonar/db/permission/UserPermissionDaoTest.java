@@ -334,6 +334,25 @@ public class UserPermissionDaoTest {
     assertThatProjectHasNoPermissions(project1);
   }
 
+  @Test
+  public void deleteProjectPermissions_of_several_projects() {
+    OrganizationDto organization = db.organizations().insert();
+    UserDto user1 = insertUser(organization);
+    UserDto user2 = insertUser(organization);
+    ComponentDto project1 = db.components().insertPrivateProject(organization);
+    ComponentDto project2 = db.components().insertPrivateProject(organization);
+    ComponentDto project3 = db.components().insertPrivateProject(organization);
+    addGlobalPermission(organization, "perm", user1);
+    addProjectPermission(organization, "perm", user1, project1);
+    addProjectPermission(organization, "perm", user2, project2);
+    addProjectPermission(organization, "perm", user1, project3);
+
+    underTest.deleteProjectPermissions(dbSession, asList(project1.getId(), project2.getId()));
+    assertThat(db.countRowsOfTable(dbSession, "user_roles")).isEqualTo(2);
+    assertThatProjectHasNoPermissions(project1);
+    assertThatProjectHasNoPermissions(project2);
+  }
+
   @Test
   public void selectGlobalPermissionsOfUser() {
     OrganizationDto organization = db.organizations().insert();
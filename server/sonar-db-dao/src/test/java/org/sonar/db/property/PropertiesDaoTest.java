@@ -1055,6 +1055,63 @@ public class PropertiesDaoTest {
     underTest.renamePropertyKey(null, "foo");
   }
 
+  @Test
+  public void writes_of_global_properties_change_the_global_version() throws SQLException {
+    assertThat(selectGlobalVersion()).isNull();
+
+    underTest.saveProperty(newGlobalPropertyDto().setKey("global.key").setValue("foo"));
+    String version1 = selectGlobalVersion();
+    assertThat(version1).isNotNull();
+    assertThat(underTest.getLocalGlobalChanges()).isEqualTo(1);
+
+    underTest.saveGlobalProperties(ImmutableMap.of("global.key", "bar"));
+    String version2 = selectGlobalVersion();
+    assertThat(version2).isNotNull().isNotEqualTo(version1);
+
+    underTest.renamePropertyKey("global.key", "new.key");
+    String version3 = selectGlobalVersion();
+    assertThat(version3).isNotNull().isNotEqualTo(version2);
+
+    underTest.deleteGlobalProperty("new.key");
+    assertThat(selectGlobalVersion()).isNotNull().isNotEqualTo(version3);
+    assertThat(underTest.getLocalGlobalChanges()).isEqualTo(4);
+  }
+
+  @Test
+  public void deletes_of_global_properties_change_the_global_version() throws SQLException {
+    insertProperty("global.key", "foo", null, null);
+    insertProperty("default.assignee", "john", null, null);
+
+    underTest.delete(session, new PropertyDto().setKey("global.key"));
+    session.commit();
+    String version1 = selectGlobalVersion();
+    assertThat(version1).isNotNull();
+
+    underTest.deleteByKeyAndValue(session, "default.assignee", "john");
+    session.commit();
+    assertThat(selectGlobalVersion()).isNotNull().isNotEqualTo(version1);
+    assertThat(underTest.getLocalGlobalChanges()).isEqualTo(2);
+  }
+
+  @Test
+  public void writes_of_component_and_user_properties_do_not_change_the_global_version() throws SQLException {
+    ComponentDto project = insertProject("A");
+    UserDto user = dbTester.users().insertUser();
+
+    underTest.saveProperty(newComponentPropertyDto(project).setKey("project.key"));
+    underTest.saveProperty(newUserPropertyDto("user.key", "foo", user));
+    underTest.deleteProjectProperty("project.key", project.getId());
+    underTest.delete(session, new PropertyDto().setKey("user.key").setUserId(user.getId()));
+    session.commit();
+
+    assertThat(selectGlobalVersion()).isNull();
+    assertThat(underTest.getLocalGlobalChanges()).isZero();
+  }
+
+  private String selectGlobalVersion() {
+    return dbClient.internalPropertiesDao().selectByKey(session, PropertiesDao.GLOBAL_PROPERTIES_VERSION).orElse(null);
+  }
+
   private PropertyDto findByKey(List<PropertyDto> properties, String key) {
     for (PropertyDto property : properties) {
       if (key.equals(property.getKey())) {
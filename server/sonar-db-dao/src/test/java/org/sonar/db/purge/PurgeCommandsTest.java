@@ -19,10 +19,12 @@
  */
 package org.sonar.db.purge;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.organization.OrganizationDto;
@@ -61,6 +63,7 @@ public class PurgeCommandsTest {
     new PurgeCommands(dbTester.getSession(), profiler).purgeAnalyses(singletonList(new IdUuidPair(1, "u1")));
 
     dbTester.assertDbUnit(getClass(), "shouldPurgeAnalysis-result.xml", "snapshots", "project_measures", "duplications_index", "events");
+    assertThat(profiler.getDeletedRows()).containsEntry("duplications_index", 1L);
   }
 
   @Test
@@ -81,6 +84,26 @@ public class PurgeCommandsTest {
     // The goal of this test is only to check that the query do no fail, not to check result
   }
 
+  @Test
+  public void purgeAnalyses_calls_throttler_after_each_chunk() {
+    List<Long> chunkDurations = new ArrayList<>();
+
+    new PurgeCommands(dbTester.getSession(), dbTester.getSession().getMapper(PurgeMapper.class), profiler, chunkDurations::add)
+      .purgeAnalyses(getHugeNumberOfIdUuidPairs());
+
+    assertThat(chunkDurations).hasSize(4500 / PurgeCommands.MAX_ANALYSES_PER_CHUNK);
+  }
+
+  @Test
+  public void deleteAnalyses_calls_throttler_after_each_chunk() {
+    List<Long> chunkDurations = new ArrayList<>();
+
+    new PurgeCommands(dbTester.getSession(), dbTester.getSession().getMapper(PurgeMapper.class), profiler, chunkDurations::add)
+      .deleteAnalyses(getHugeNumberOfIdUuidPairs());
+
+    assertThat(chunkDurations).hasSize(4500 / PurgeCommands.MAX_ANALYSES_PER_CHUNK);
+  }
+
   @Test
   public void shouldDeleteComponentsAndChildrenTables() {
     dbTester.prepareDbUnit(getClass(), "shouldDeleteResource.xml");
@@ -108,6 +131,33 @@ public class PurgeCommandsTest {
     assertThat(dbTester.countRowsOfTable("events")).isZero();
     assertThat(dbTester.countRowsOfTable("issues")).isEqualTo(1);
     assertThat(dbTester.countRowsOfTable("issue_changes")).isEqualTo(1);
+    assertThat(profiler.getDeletedRows()).containsEntry("snapshots", 1L);
+  }
+
+  @Test
+  public void count_deleted_analyses_in_batch_session() {
+    dbTester.prepareDbUnit(getClass(), "shouldDeleteResource.xml");
+
+    try (DbSession batchSession = dbTester.getDbClient().openSession(true)) {
+      new PurgeCommands(batchSession, profiler).deleteAnalyses("uuid_1");
+    }
+
+    assertThat(dbTester.countRowsOfTable("snapshots")).isZero();
+    assertThat(profiler.getDeletedRows()).containsEntry("snapshots", 1L);
+  }
+
+  @Test
+  public void do_not_count_deleted_rows_before_commit() {
+    dbTester.prepareDbUnit(getClass(), "shouldDeleteResource.xml");
+    DbSession session = dbTester.getSession();
+
+    PurgeCommands.countDeletedRows(session, profiler, "snapshots",
+      () -> session.getMapper(PurgeMapper.class).deleteAnalyses(singletonList("u1")));
+    session.rollback();
+    profiler.rollbackDeletedRows();
+
+    assertThat(profiler.getDeletedRows()).isEmpty();
+    assertThat(dbTester.countRowsOfTable("snapshots")).isEqualTo(1);
   }
 
 
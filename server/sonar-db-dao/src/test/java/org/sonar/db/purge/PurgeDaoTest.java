@@ -44,8 +44,11 @@ import org.sonar.db.ce.CeQueueDto.Status;
 import org.sonar.db.component.ComponentDbTester;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
+import org.sonar.db.component.SnapshotDto;
 import org.sonar.db.issue.IssueDto;
 import org.sonar.db.measure.MeasureDto;
+import org.sonar.db.measure.MeasureHistoryDto;
+import org.sonar.db.measure.MeasureHistoryPoint;
 import org.sonar.db.measure.custom.CustomMeasureDto;
 import org.sonar.db.property.PropertyDto;
 import org.sonar.db.rule.RuleTesting;
@@ -123,6 +126,66 @@ public class PurgeDaoTest {
       "projects", "snapshots", "issues");
   }
 
+  @Test
+  public void purgeHistory_does_not_purge_disabled_components() {
+    dbTester.prepareDbUnit(getClass(), "close_issues_clean_index_and_files_sources_of_specified_components.xml");
+    when(system2.now()).thenReturn(1450000000000L);
+    int fileSources = dbTester.countRowsOfTable("file_sources");
+
+    underTest.purgeHistory(dbSession, newConfigurationWith30Days(system2, "P1", "EFGH", "GHIJ"), PurgeListener.EMPTY, new PurgeProfiler(), PurgeThrottler.NONE);
+
+    assertThat(dbTester.countRowsOfTable("file_sources")).isEqualTo(fileSources);
+  }
+
+  @Test
+  public void purgeHistory_reports_deleted_rows_of_old_closed_issues() {
+    dbTester.prepareDbUnit(getClass(), "should_delete_old_closed_issues.xml");
+    PurgeProfiler profiler = new PurgeProfiler();
+
+    underTest.purgeHistory(dbSession, newConfigurationWith30Days(), PurgeListener.EMPTY, profiler, PurgeThrottler.NONE);
+
+    dbTester.assertDbUnit(getClass(), "should_delete_old_closed_issues-result.xml", "issues", "issue_changes");
+    assertThat(profiler.getDeletedRows()).containsEntry("issues", 2L);
+  }
+
+  @Test
+  public void purgeHistory_reports_deleted_rows_in_batch_session() {
+    dbTester.prepareDbUnit(getClass(), "should_delete_old_closed_issues.xml");
+    PurgeProfiler profiler = new PurgeProfiler();
+
+    try (DbSession batchSession = dbClient.openSession(true)) {
+      underTest.purgeHistory(batchSession, newConfigurationWith30Days(), PurgeListener.EMPTY, profiler, PurgeThrottler.NONE);
+    }
+
+    dbTester.assertDbUnit(getClass(), "should_delete_old_closed_issues-result.xml", "issues", "issue_changes");
+    assertThat(profiler.getDeletedRows()).containsEntry("issues", 2L);
+  }
+
+  @Test
+  public void purgeHistory_reports_deleted_analyses_in_batch_session() {
+    dbTester.prepareDbUnit(getClass(), "shouldDeleteAbortedBuilds.xml");
+    PurgeProfiler profiler = new PurgeProfiler();
+
+    try (DbSession batchSession = dbClient.openSession(true)) {
+      underTest.purgeHistory(batchSession, newConfigurationWith30Days(), PurgeListener.EMPTY, profiler, PurgeThrottler.NONE);
+    }
+
+    dbTester.assertDbUnit(getClass(), "shouldDeleteAbortedBuilds-result.xml", "snapshots");
+    assertThat(profiler.getDeletedRows()).containsEntry("snapshots", 1L);
+  }
+
+  @Test
+  public void purgeDisabledComponents_closes_issues_and_cleans_file_sources_of_disabled_components() {
+    dbTester.prepareDbUnit(getClass(), "close_issues_clean_index_and_files_sources_of_specified_components.xml");
+    when(system2.now()).thenReturn(1450000000000L);
+
+    underTest.purgeDisabledComponents(dbSession, newConfigurationWith30Days(system2, "P1", "EFGH", "GHIJ"), PurgeListener.EMPTY);
+
+    dbTester.assertDbUnit(getClass(), "close_issues_clean_index_and_files_sources_of_specified_components-result.xml",
+      new String[] {"issue_close_date", "issue_update_date"},
+      "issues");
+  }
+
   @Test
   public void shouldDeleteAnalyses() {
     dbTester.prepareDbUnit(getClass(), "shouldDeleteAnalyses.xml");
@@ -298,6 +361,48 @@ public class PurgeDaoTest {
     assertThat(selectAllDeliveryUuids(dbTester, dbSession)).containsOnly("D2");
   }
 
+  @Test
+  public void deleteProject_deletes_measure_history() {
+    ComponentDto project = dbTester.components().insertPublicProject();
+    ComponentDto otherProject = dbTester.components().insertPublicProject();
+    MeasureHistoryDto history = new MeasureHistoryDto().setComponentUuid(project.uuid()).setMetricId(1).setPoints(singletonList(new MeasureHistoryPoint(1_000L, 2d)));
+    dbClient.measureHistoryDao().insertOrUpdate(dbSession, history);
+    dbClient.measureHistoryDao().insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid(otherProject.uuid()).setMetricId(1).setData(history.getData()));
+    dbSession.commit();
+
+    underTest.deleteRootComponent(dbSession, project.uuid());
+
+    assertThat(dbClient.measureHistoryDao().selectByComponentUuidAndMetricIds(dbSession, project.uuid(), singletonList(1))).isEmpty();
+    assertThat(dbClient.measureHistoryDao().selectByComponentUuidAndMetricIds(dbSession, otherProject.uuid(), singletonList(1))).hasSize(1);
+  }
+
+  @Test
+  public void deleteAnalyses_removes_points_of_deleted_analyses_from_measure_history() {
+    ComponentDto project = dbTester.components().insertPublicProject();
+    ComponentDto otherProject = dbTester.components().insertPublicProject();
+    dbTester.components().insertSnapshot(project, s -> s.setCreatedAt(1_000L));
+    SnapshotDto deletedAnalysis = dbTester.components().insertSnapshot(project, s -> s.setCreatedAt(2_000L));
+    dbTester.components().insertSnapshot(project, s -> s.setCreatedAt(3_000L).setLast(true));
+    dbTester.components().insertSnapshot(otherProject, s -> s.setCreatedAt(2_000L));
+    List<MeasureHistoryPoint> points = asList(new MeasureHistoryPoint(1_000L, 1d), new MeasureHistoryPoint(2_000L, 2d), new MeasureHistoryPoint(3_000L, 3d));
+    dbClient.measureHistoryDao().insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid(project.uuid()).setMetricId(1).setPoints(points));
+    dbClient.measureHistoryDao().insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid(project.uuid()).setMetricId(2).setPoints(points));
+    dbClient.measureHistoryDao().insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid(otherProject.uuid()).setMetricId(1)
+      .setPoints(singletonList(new MeasureHistoryPoint(2_000L, 2d))));
+    dbSession.commit();
+
+    underTest.deleteAnalyses(dbSession, new PurgeProfiler(), singletonList(new IdUuidPair(deletedAnalysis.getId(), deletedAnalysis.getUuid())));
+
+    assertThat(dbClient.measureHistoryDao().selectByComponentUuidAndMetricIds(dbSession, project.uuid(), asList(1, 2)))
+      .extracting(MeasureHistoryDto::getPoints)
+      .containsOnly(
+        asList(new MeasureHistoryPoint(1_000L, 1d), new MeasureHistoryPoint(3_000L, 3d)),
+        asList(new MeasureHistoryPoint(1_000L, 1d), new MeasureHistoryPoint(3_000L, 3d)));
+    assertThat(dbClient.measureHistoryDao().selectByComponentUuidAndMetricIds(dbSession, otherProject.uuid(), singletonList(1)))
+      .extracting(MeasureHistoryDto::getPoints)
+      .containsOnly(singletonList(new MeasureHistoryPoint(2_000L, 2d)));
+  }
+
   @Test
   public void deleteNonRootComponents_has_no_effect_when_parameter_is_empty() {
     DbSession dbSession = mock(DbSession.class);
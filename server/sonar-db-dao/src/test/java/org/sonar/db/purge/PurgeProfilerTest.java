@@ -23,6 +23,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.sonar.api.utils.log.Logger;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -80,6 +82,34 @@ public class PurgeProfilerTest {
     verify(logger).info(contains("bar: 5ms"));
   }
 
+  @Test
+  public void count_deleted_rows_per_table() {
+    profiler.addDeletedRows("snapshots", 2);
+    profiler.addDeletedRows("project_measures", 100);
+    profiler.addDeletedRows("snapshots", 3);
+    profiler.commitDeletedRows();
+
+    assertThat(profiler.getDeletedRows()).containsExactly(entry("project_measures", 100L), entry("snapshots", 5L));
+
+    profiler.reset();
+
+    assertThat(profiler.getDeletedRows()).isEmpty();
+  }
+
+  @Test
+  public void count_only_committed_deleted_rows() {
+    profiler.addDeletedRows("snapshots", 2);
+    profiler.commitDeletedRows();
+    profiler.addDeletedRows("snapshots", 3);
+
+    assertThat(profiler.getDeletedRows()).containsExactly(entry("snapshots", 2L));
+
+    profiler.rollbackDeletedRows();
+    profiler.commitDeletedRows();
+
+    assertThat(profiler.getDeletedRows()).containsExactly(entry("snapshots", 2L));
+  }
+
   private class MockedClock extends PurgeProfiler.Clock {
     private long now = 0;
 
@@ -55,6 +55,9 @@ public class DbVersion65 implements DbVersion {
       .add(1726, "Update org_qprofiles to reference built-in profiles", UpdateOrgQProfilesToPointToBuiltInProfiles.class)
       .add(1727, "Delete rules_profiles orphans", DeleteOrphansFromRulesProfiles.class)
       .add(1728, "Rename column qprofile_changes.qprofile_key to qprofile_changes.rules_profile_uuid", RenameQProfileKeyToRulesProfileUuidOnQProfileChanges.class)
-      .add(1729, "Add index on qprofile_changes.rules_profile_uuid", AddIndexRulesProfileUuidOnQProfileChanges.class);
+      .add(1729, "Add index on qprofile_changes.rules_profile_uuid", AddIndexRulesProfileUuidOnQProfileChanges.class)
+      .add(1730, "Create table ce_task_progress", CreateTableCeTaskProgress.class)
+      .add(1731, "Create table measure_history", CreateTableMeasureHistory.class)
+      .add(1732, "Create table ce_task_counters", CreateTableCeTaskCounters.class);
   }
 }
@@ -25,6 +25,7 @@ import java.io.RandomAccessFile;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.OptionalLong;
 import org.apache.commons.io.IOUtils;
 
 import static java.lang.String.format;
@@ -60,6 +61,11 @@ import static org.sonar.process.ProcessCommands.MAX_PROCESSES;
  *   <li>Fourth byte will always contain {@link #EMPTY} unless process declares that it is operational by writing {@link #OPERATIONAL}.
  *       This does not imply that is done starting.</li>
  *   <li>The next 8 bytes contains a long (value of {@link System#currentTimeMillis()}) which represents the date of the last ping</li>
+ *   <li>The next {@link #SYSTEM_INFO_URL_SIZE_IN_BYTES} bytes contains the URL of the HTTP server of the process</li>
+ *   <li>The next {@link #MAX_METRICS} bytes contains {@link #EMPTY} until the process publishes the {@link ProcessMetric} of
+ *       same ordinal by writing {@link #UP}</li>
+ *   <li>The next {@link #MAX_METRICS} groups of 8 bytes contains the values of the {@link ProcessMetric}. Each value is
+ *       written by a single process and is aligned on 8 bytes, so it can be read without lock.</li>
  * </ul>
  * </p>
  */
@@ -73,7 +79,13 @@ public class AllProcessesCommands implements AutoCloseable {
 
   private static final int SYSTEM_INFO_URL_SIZE_IN_BYTES = 500;
 
-  private static final int BYTE_LENGTH_FOR_ONE_PROCESS = 1 + 1 + 1 + 1 + 8 + SYSTEM_INFO_URL_SIZE_IN_BYTES;
+  // VisibleForTesting
+  static final int MAX_METRICS = 32;
+
+  private static final int METRIC_FLAGS_BYTE_OFFSET = SYSTEM_INFO_URL_BYTE_OFFSET + SYSTEM_INFO_URL_SIZE_IN_BYTES;
+  private static final int METRIC_VALUES_BYTE_OFFSET = METRIC_FLAGS_BYTE_OFFSET + MAX_METRICS;
+
+  private static final int BYTE_LENGTH_FOR_ONE_PROCESS = 1 + 1 + 1 + 1 + 8 + SYSTEM_INFO_URL_SIZE_IN_BYTES + MAX_METRICS + 8 * MAX_METRICS;
 
   // With this shared memory we can handle up to MAX_PROCESSES processes
   private static final int MAX_SHARED_MEMORY = BYTE_LENGTH_FOR_ONE_PROCESS * MAX_PROCESSES;
@@ -167,6 +179,29 @@ public class AllProcessesCommands implements AutoCloseable {
     writeBytes(processNumber, SYSTEM_INFO_URL_BYTE_OFFSET, urlBytes);
   }
 
+  void setMetric(int processNumber, ProcessMetric metric, long value) {
+    int index = metricIndex(metric);
+    // value is written before flag, so that a reader never gets an unpublished value
+    writeLong(processNumber, METRIC_VALUES_BYTE_OFFSET + 8 * index, value);
+    writeByte(processNumber, METRIC_FLAGS_BYTE_OFFSET + index, UP);
+  }
+
+  OptionalLong getMetric(int processNumber, ProcessMetric metric) {
+    int index = metricIndex(metric);
+    if (readByte(processNumber, METRIC_FLAGS_BYTE_OFFSET + index) != UP) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(readLong(processNumber, METRIC_VALUES_BYTE_OFFSET + 8 * index));
+  }
+
+  private static int metricIndex(ProcessMetric metric) {
+    int index = metric.ordinal();
+    if (index >= MAX_METRICS) {
+      throw new IllegalArgumentException(format("Metric %s can not be stored. Max is %d metrics", metric, MAX_METRICS));
+    }
+    return index;
+  }
+
   /**
    * To be executed by monitor process to ask for child process termination
    */
@@ -292,6 +327,16 @@ public class AllProcessesCommands implements AutoCloseable {
       return AllProcessesCommands.this.getSystemInfoUrl(processNumber);
     }
 
+    @Override
+    public void setMetric(ProcessMetric metric, long value) {
+      AllProcessesCommands.this.setMetric(processNumber, metric, value);
+    }
+
+    @Override
+    public OptionalLong getMetric(ProcessMetric metric) {
+      return AllProcessesCommands.this.getMetric(processNumber, metric);
+    }
+
     @Override
     public void askForStop() {
       AllProcessesCommands.this.askForStop(processNumber);
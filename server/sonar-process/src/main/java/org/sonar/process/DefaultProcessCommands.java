@@ -20,6 +20,7 @@
 package org.sonar.process;
 
 import java.io.File;
+import java.util.OptionalLong;
 import org.slf4j.LoggerFactory;
 
 /**
@@ -101,6 +102,16 @@ public class DefaultProcessCommands implements ProcessCommands {
     return delegate.getHttpUrl();
   }
 
+  @Override
+  public void setMetric(ProcessMetric metric, long value) {
+    delegate.setMetric(metric, value);
+  }
+
+  @Override
+  public OptionalLong getMetric(ProcessMetric metric) {
+    return delegate.getMetric(metric);
+  }
+
   @Override
   public void askForStop() {
     delegate.askForStop();
@@ -20,6 +20,7 @@
 package org.sonar.process;
 
 import java.io.File;
+import java.util.OptionalLong;
 
 /**
  * Process inter-communication to :
@@ -59,6 +60,17 @@ public interface ProcessCommands extends AutoCloseable {
 
   String getHttpUrl();
 
+  /**
+   * To be executed by child process to publish the current value of one of its metrics
+   */
+  void setMetric(ProcessMetric metric, long value);
+
+  /**
+   * @return the last value published by the process, or {@link OptionalLong#empty()} if the process
+   *         never published this metric
+   */
+  OptionalLong getMetric(ProcessMetric metric);
+
   /**
    * To be executed by monitor process to ask for child process termination
    */
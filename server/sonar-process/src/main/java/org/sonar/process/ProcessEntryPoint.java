@@ -40,6 +40,7 @@ public class ProcessEntryPoint implements Stoppable {
   private volatile Monitored monitored;
   private volatile StopperThread stopperThread;
   private final StopWatcher stopWatcher;
+  private final ProcessMetricsPublisher metricsPublisher;
 
   // new Runnable() is important to avoid conflict of call to ProcessEntryPoint#stop() with Thread#stop()
   private Thread shutdownHook = new Thread(new Runnable() {
@@ -62,6 +63,7 @@ public class ProcessEntryPoint implements Stoppable {
     this.exit = exit;
     this.commands = commands;
     this.stopWatcher = new StopWatcher(commands, this);
+    this.metricsPublisher = new ProcessMetricsPublisher(commands).registerJvmMetrics();
   }
 
   public ProcessCommands getCommands() {
@@ -84,6 +86,14 @@ public class ProcessEntryPoint implements Stoppable {
     return sharedDir;
   }
 
+  /**
+   * Allows the process to register its own metrics in addition to the JVM ones. Metrics are published
+   * once process is launched.
+   */
+  public ProcessMetricsPublisher getMetricsPublisher() {
+    return metricsPublisher;
+  }
+
   /**
    * Launch process and waits until it's down
    */
@@ -107,6 +117,7 @@ public class ProcessEntryPoint implements Stoppable {
     logger.info("Starting " + getKey());
     Runtime.getRuntime().addShutdownHook(shutdownHook);
     stopWatcher.start();
+    metricsPublisher.start(ProcessMetricsPublisher.DEFAULT_PERIOD_MS);
 
     monitored.start();
     Monitored.Status status = waitForNotDownStatus();
@@ -172,6 +183,7 @@ public class ProcessEntryPoint implements Stoppable {
       stopperThread = new StopperThread(monitored, commands, Long.parseLong(props.nonNullValue(PROPERTY_TERMINATION_TIMEOUT)));
       stopperThread.start();
       stopWatcher.stopWatching();
+      metricsPublisher.close();
     }
   }
 
@@ -0,0 +1,67 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.process;
+
+/**
+ * Metrics published by the processes into the shared memory of {@link AllProcessesCommands}. The position of a
+ * metric in the shared memory is its ordinal, so constants can only be appended.
+ *
+ * <p>
+ * Keys and types follow the naming conventions of the Prometheus text format.
+ * </p>
+ */
+public enum ProcessMetric {
+  JVM_HEAP_USED("jvm_heap_used_bytes", Type.GAUGE, "Used heap memory"),
+  JVM_HEAP_MAX("jvm_heap_max_bytes", Type.GAUGE, "Max heap memory"),
+  JVM_GC_TIME("jvm_gc_time_milliseconds_total", Type.COUNTER, "Accumulated time spent in garbage collections"),
+  JVM_GC_COUNT("jvm_gc_collections_total", Type.COUNTER, "Number of garbage collections"),
+  JVM_THREADS("jvm_threads", Type.GAUGE, "Number of live threads"),
+  HTTP_ACTIVE_REQUESTS("http_active_requests", Type.GAUGE, "Number of HTTP requests being processed"),
+  CE_PENDING_TASKS("ce_pending_tasks", Type.GAUGE, "Number of tasks waiting in the queue of the Compute Engine"),
+  CE_IN_PROGRESS_TASKS("ce_in_progress_tasks", Type.GAUGE, "Number of tasks being processed by the workers of the Compute Engine"),
+  CE_WORKERS("ce_workers", Type.GAUGE, "Number of workers of the Compute Engine"),
+  ES_BULK_REJECTIONS("es_bulk_rejected_total", Type.COUNTER, "Number of bulk requests rejected by Elasticsearch");
+
+  public enum Type {
+    COUNTER, GAUGE
+  }
+
+  private final String key;
+  private final Type type;
+  private final String description;
+
+  ProcessMetric(String key, Type type, String description) {
+    this.key = key;
+    this.type = type;
+    this.description = description;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+}
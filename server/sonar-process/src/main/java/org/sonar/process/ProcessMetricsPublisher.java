@@ -0,0 +1,103 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.process;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically publishes the values of the registered {@link ProcessMetric} into the shared memory of a process.
+ * Publication is done by a single daemon thread, so that suppliers do not need to be thread-safe against each others.
+ */
+public class ProcessMetricsPublisher implements AutoCloseable {
+
+  public static final long DEFAULT_PERIOD_MS = 5_000L;
+
+  private final ProcessCommands commands;
+  private final Map<ProcessMetric, LongSupplier> suppliers = new ConcurrentHashMap<>();
+  private volatile ScheduledExecutorService executorService;
+
+  public ProcessMetricsPublisher(ProcessCommands commands) {
+    this.commands = commands;
+  }
+
+  public ProcessMetricsPublisher register(ProcessMetric metric, LongSupplier supplier) {
+    suppliers.put(metric, supplier);
+    return this;
+  }
+
+  /**
+   * Registers the metrics of the JVM: heap, garbage collections and threads.
+   */
+  public ProcessMetricsPublisher registerJvmMetrics() {
+    register(ProcessMetric.JVM_HEAP_USED, () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+    register(ProcessMetric.JVM_HEAP_MAX, () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax());
+    register(ProcessMetric.JVM_GC_TIME, () -> ManagementFactory.getGarbageCollectorMXBeans().stream()
+      .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+      // -1 if not supported by the collector
+      .filter(time -> time > 0)
+      .sum());
+    register(ProcessMetric.JVM_GC_COUNT, () -> ManagementFactory.getGarbageCollectorMXBeans().stream()
+      .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+      .filter(count -> count > 0)
+      .sum());
+    register(ProcessMetric.JVM_THREADS, () -> ManagementFactory.getThreadMXBean().getThreadCount());
+    return this;
+  }
+
+  public void start(long periodMs) {
+    if (executorService != null) {
+      throw new IllegalStateException("Metrics publisher is already started");
+    }
+    executorService = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "Process metrics publisher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executorService.scheduleWithFixedDelay(this::publish, 0L, periodMs, TimeUnit.MILLISECONDS);
+  }
+
+  void publish() {
+    suppliers.forEach((metric, supplier) -> {
+      try {
+        commands.setMetric(metric, supplier.getAsLong());
+      } catch (RuntimeException e) {
+        // metric is not available yet, for example if service is starting
+        LoggerFactory.getLogger(getClass()).debug("Fail to publish metric {}", metric, e);
+      }
+    });
+  }
+
+  @Override
+  public void close() {
+    ScheduledExecutorService executor = executorService;
+    if (executor != null) {
+      executor.shutdownNow();
+      executorService = null;
+    }
+  }
+}
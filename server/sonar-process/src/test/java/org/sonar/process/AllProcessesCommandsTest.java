@@ -195,6 +195,36 @@ public class AllProcessesCommandsTest {
     }
   }
 
+  @Test
+  public void write_and_read_metrics() throws IOException {
+    try (AllProcessesCommands commands = new AllProcessesCommands(temp.newFolder())) {
+      ProcessCommands processCommands = commands.create(PROCESS_NUMBER);
+      assertThat(processCommands.getMetric(ProcessMetric.JVM_HEAP_USED).isPresent()).isFalse();
+
+      processCommands.setMetric(ProcessMetric.JVM_HEAP_USED, 1_024L);
+      processCommands.setMetric(ProcessMetric.ES_BULK_REJECTIONS, 0L);
+
+      assertThat(processCommands.getMetric(ProcessMetric.JVM_HEAP_USED).getAsLong()).isEqualTo(1_024L);
+      assertThat(processCommands.getMetric(ProcessMetric.ES_BULK_REJECTIONS).getAsLong()).isEqualTo(0L);
+      assertThat(processCommands.getMetric(ProcessMetric.JVM_HEAP_MAX).isPresent()).isFalse();
+      assertThat(commands.create(PROCESS_NUMBER + 1).getMetric(ProcessMetric.JVM_HEAP_USED).isPresent()).isFalse();
+    }
+  }
+
+  @Test
+  public void metrics_are_cleaned() throws IOException {
+    try (AllProcessesCommands commands = new AllProcessesCommands(temp.newFolder())) {
+      commands.create(PROCESS_NUMBER).setMetric(ProcessMetric.JVM_THREADS, 12L);
+
+      assertThat(commands.createAfterClean(PROCESS_NUMBER).getMetric(ProcessMetric.JVM_THREADS).isPresent()).isFalse();
+    }
+  }
+
+  @Test
+  public void metrics_fit_in_shared_memory() {
+    assertThat(ProcessMetric.values().length).isLessThanOrEqualTo(AllProcessesCommands.MAX_METRICS);
+  }
+
   @Test
   public void clean_cleans_sharedMemory_of_any_process_less_than_MAX_PROCESSES() throws IOException {
     try (AllProcessesCommands commands = new AllProcessesCommands(temp.newFolder())) {
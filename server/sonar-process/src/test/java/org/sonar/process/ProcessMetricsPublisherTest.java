@@ -0,0 +1,86 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.process;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class ProcessMetricsPublisherTest {
+
+  private ProcessCommands commands = mock(ProcessCommands.class);
+  private ProcessMetricsPublisher underTest = new ProcessMetricsPublisher(commands);
+
+  @After
+  public void tearDown() {
+    underTest.close();
+  }
+
+  @Test
+  public void publish_registered_metrics() {
+    underTest.register(ProcessMetric.CE_WORKERS, () -> 4L);
+
+    underTest.publish();
+
+    verify(commands).setMetric(ProcessMetric.CE_WORKERS, 4L);
+  }
+
+  @Test
+  public void publish_nothing_if_no_registered_metrics() {
+    underTest.publish();
+
+    verifyZeroInteractions(commands);
+  }
+
+  @Test
+  public void failure_of_a_metric_does_not_prevent_others_to_be_published() {
+    underTest
+      .register(ProcessMetric.CE_WORKERS, () -> {
+        throw new IllegalStateException("not started");
+      })
+      .register(ProcessMetric.CE_PENDING_TASKS, () -> 10L);
+
+    underTest.publish();
+
+    verify(commands).setMetric(ProcessMetric.CE_PENDING_TASKS, 10L);
+  }
+
+  @Test
+  public void publish_jvm_metrics_periodically() {
+    underTest.registerJvmMetrics();
+
+    underTest.start(10L);
+
+    verify(commands, timeout(5_000L).atLeast(2)).setMetric(eq(ProcessMetric.JVM_HEAP_USED), anyLong());
+    verify(commands, timeout(5_000L).atLeastOnce()).setMetric(eq(ProcessMetric.JVM_THREADS), anyLong());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void fail_if_started_twice() {
+    underTest.start(1_000L);
+    underTest.start(1_000L);
+  }
+}
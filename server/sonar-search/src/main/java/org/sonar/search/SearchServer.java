@@ -25,12 +25,15 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.node.NodeBuilder;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.process.Jmx;
 import org.sonar.process.MinimumViableSystem;
 import org.sonar.process.Monitored;
 import org.sonar.process.ProcessEntryPoint;
+import org.sonar.process.ProcessMetric;
 import org.sonar.process.Props;
 
 public class SearchServer implements Monitored {
@@ -40,7 +43,7 @@ public class SearchServer implements Monitored {
   private static final String MIMINUM_MASTER_NODES = "discovery.zen.minimum_master_nodes";
   private static final String INITIAL_STATE_TIMEOUT = "discovery.initial_state_timeout";
   private final EsSettings settings;
-  private Node node;
+  private volatile Node node;
 
   public SearchServer(Props props) {
     this.settings = new EsSettings(props);
@@ -82,6 +85,23 @@ public class SearchServer implements Monitored {
     return Status.DOWN;
   }
 
+  /**
+   * Number of bulk requests rejected since startup because of the saturation of the thread pool "bulk".
+   */
+  long getBulkRejections() {
+    Node n = node;
+    if (n == null || n.isClosed()) {
+      return 0L;
+    }
+    long rejections = 0L;
+    for (ThreadPoolStats.Stats stats : n.injector().getInstance(ThreadPool.class).stats()) {
+      if (ThreadPool.Names.BULK.equals(stats.getName())) {
+        rejections += stats.getRejected();
+      }
+    }
+    return rejections;
+  }
+
   @Override
   public void awaitStop() {
     try {
@@ -106,6 +126,7 @@ public class SearchServer implements Monitored {
     ProcessEntryPoint entryPoint = ProcessEntryPoint.createForArguments(args);
     new SearchLogging().configure(entryPoint.getProps());
     SearchServer searchServer = new SearchServer(entryPoint.getProps());
+    entryPoint.getMetricsPublisher().register(ProcessMetric.ES_BULK_REJECTIONS, searchServer::getBulkRejections);
     entryPoint.launch(searchServer);
   }
 }
@@ -22,6 +22,10 @@ package org.sonar.ce;
 import org.sonar.ce.http.CeHttpClient;
 import org.sonar.ce.log.CeLogging;
 import org.sonar.ce.queue.CeQueueImpl;
+import org.sonar.ce.queue.CeTaskInputStorageProvider;
+import org.sonar.ce.taskprocessor.BulkApplyPermissionTemplateTaskProcessorDeclaration;
+import org.sonar.ce.taskprocessor.IssueBulkChangeTaskProcessorDeclaration;
+import org.sonar.ce.taskprocessor.ProjectPurgeTaskProcessorDeclaration;
 import org.sonar.ce.taskprocessor.ReportTaskProcessorDeclaration;
 import org.sonar.core.platform.Module;
 import org.sonar.server.computation.queue.ReportSubmitter;
@@ -34,9 +38,13 @@ public class CeModule extends Module {
 
       // Queue
       CeQueueImpl.class,
+      new CeTaskInputStorageProvider(),
       ReportSubmitter.class,
 
       // Core tasks processors
-      ReportTaskProcessorDeclaration.class);
+      ReportTaskProcessorDeclaration.class,
+      IssueBulkChangeTaskProcessorDeclaration.class,
+      BulkApplyPermissionTemplateTaskProcessorDeclaration.class,
+      ProjectPurgeTaskProcessorDeclaration.class);
   }
 }
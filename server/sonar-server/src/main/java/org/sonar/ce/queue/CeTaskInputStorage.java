@@ -0,0 +1,59 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Optional;
+import org.sonar.db.DbSession;
+
+/**
+ * Storage of the data submitted along with Compute Engine tasks, for example the
+ * zipped scanner report of tasks {@link org.sonar.db.ce.CeTaskTypes#REPORT}.
+ * <p>
+ * The implementation is selected by the property {@link CeTaskInputStorageProvider#PROPERTY_STORAGE}.
+ * </p>
+ */
+public interface CeTaskInputStorage {
+
+  /**
+   * Stores the data of a task. The stream is fully consumed but not closed.
+   * The data is available as soon as the method returns, even if {@code dbSession}
+   * is not committed.
+   */
+  void store(DbSession dbSession, String taskUuid, InputStream data);
+
+  /**
+   * Opens the data of a task. The returned stream must be closed by caller.
+   *
+   * @return {@link Optional#empty()} if the task has no data
+   */
+  Optional<InputStream> read(DbSession dbSession, String taskUuid);
+
+  /**
+   * Drops the data of the specified tasks. Unknown tasks are ignored.
+   */
+  void delete(DbSession dbSession, Collection<String> taskUuids);
+
+  /**
+   * Drops the data of the tasks which are not in queue anymore.
+   */
+  void deleteOrphans(DbSession dbSession);
+}
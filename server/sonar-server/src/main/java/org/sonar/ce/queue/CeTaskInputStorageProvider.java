@@ -0,0 +1,56 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import org.picocontainer.injectors.ProviderAdapter;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.MessageException;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static org.apache.commons.lang.StringUtils.defaultIfBlank;
+
+public class CeTaskInputStorageProvider extends ProviderAdapter {
+
+  public static final String PROPERTY_STORAGE = "sonar.ce.taskInputStorage";
+  public static final String STORAGE_DATABASE = "db";
+  public static final String STORAGE_FILE_SYSTEM = "fs";
+
+  private CeTaskInputStorage storage;
+
+  public CeTaskInputStorage provide(Settings settings, DbClient dbClient, ServerFileSystem fs, System2 system2) {
+    if (storage == null) {
+      String type = defaultIfBlank(settings.getString(PROPERTY_STORAGE), STORAGE_DATABASE);
+      switch (type) {
+        case STORAGE_DATABASE:
+          storage = new DatabaseCeTaskInputStorage(dbClient);
+          break;
+        case STORAGE_FILE_SYSTEM:
+          storage = new FileSystemCeTaskInputStorage(dbClient, fs, system2);
+          break;
+        default:
+          throw MessageException.of(String.format("Unsupported value '%s' of property %s. Supported values are: %s, %s",
+            type, PROPERTY_STORAGE, STORAGE_DATABASE, STORAGE_FILE_SYSTEM));
+      }
+    }
+    return storage;
+  }
+}
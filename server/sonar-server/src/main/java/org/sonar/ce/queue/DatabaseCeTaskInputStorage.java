@@ -0,0 +1,79 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskInputDao;
+
+/**
+ * Default {@link CeTaskInputStorage}, which stores data as BLOBs of table CE_TASK_INPUT.
+ */
+public class DatabaseCeTaskInputStorage implements CeTaskInputStorage {
+
+  private final DbClient dbClient;
+
+  public DatabaseCeTaskInputStorage(DbClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  @Override
+  public void store(DbSession dbSession, String taskUuid, InputStream data) {
+    dbClient.ceTaskInputDao().insert(dbSession, taskUuid, data);
+  }
+
+  @Override
+  public Optional<InputStream> read(DbSession dbSession, String taskUuid) {
+    return dbClient.ceTaskInputDao().selectData(dbSession, taskUuid).map(DataStreamInputStream::new);
+  }
+
+  @Override
+  public void delete(DbSession dbSession, Collection<String> taskUuids) {
+    dbClient.ceTaskInputDao().deleteByUuids(dbSession, taskUuids);
+  }
+
+  @Override
+  public void deleteOrphans(DbSession dbSession) {
+    List<String> uuids = dbClient.ceTaskInputDao().selectUuidsNotInQueue(dbSession);
+    dbClient.ceTaskInputDao().deleteByUuids(dbSession, uuids);
+  }
+
+  /**
+   * Releases the JDBC resources of the BLOB when stream is closed
+   */
+  private static class DataStreamInputStream extends FilterInputStream {
+    private final CeTaskInputDao.DataStream dataStream;
+
+    private DataStreamInputStream(CeTaskInputDao.DataStream dataStream) {
+      super(dataStream.getInputStream());
+      this.dataStream = dataStream;
+    }
+
+    @Override
+    public void close() {
+      dataStream.close();
+    }
+  }
+}
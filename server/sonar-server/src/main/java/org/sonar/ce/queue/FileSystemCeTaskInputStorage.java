@@ -0,0 +1,265 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.stream.MoreCollectors;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeQueueDto;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * {@link CeTaskInputStorage} which stores data in the data directory, so that large reports
+ * do not inflate database. Data is content-addressed:
+ * <ul>
+ *   <li>{@code <data dir>/ce/inputs/data/<sha256>} is the content</li>
+ *   <li>{@code <data dir>/ce/inputs/tasks/<task uuid>} references the content of a task by its SHA-256</li>
+ * </ul>
+ * The same file is shared by the tasks submitted with the same data. It is dropped when the last
+ * task referencing it is deleted.
+ * <p>
+ * Writing a reference and its content on one side, and dropping the content which is not referenced on the
+ * other side, are serialized by a lock, so that the content of a task submitted while the same content
+ * is dropped is never lost. The lock is held by a thread of the process and by a file lock on
+ * {@code <data dir>/ce/inputs/.lock} for the other process. The copy of the data, which is the long
+ * operation, is not locked.
+ * </p>
+ * <p>
+ * Data of tasks stored by {@link DatabaseCeTaskInputStorage}, for example before the storage was changed, is
+ * still read from and deleted in database.
+ * </p>
+ * <p>
+ * Web Server and Compute Engine must share the same data directory, which is not the case in cluster mode.
+ * </p>
+ */
+public class FileSystemCeTaskInputStorage implements CeTaskInputStorage {
+
+  private static final Logger LOG = Loggers.get(FileSystemCeTaskInputStorage.class);
+
+  /**
+   * Content and temporary files which are more recent are not dropped by {@link #deleteOrphans(DbSession)}
+   * as they may belong to a submission in progress in another process.
+   */
+  static final long ORPHAN_GRACE_PERIOD_MS = 60 * 60 * 1_000L;
+  private static final String LOCK_FILENAME = ".lock";
+  /**
+   * A {@link FileLock} is held on behalf of the whole JVM, so threads of the same process are
+   * serialized by this monitor.
+   */
+  private static final Object LOCK = new Object();
+
+  private final DatabaseCeTaskInputStorage databaseStorage;
+  private final DbClient dbClient;
+  private final System2 system2;
+  private final Path rootDir;
+  private final Path dataDir;
+  private final Path tasksDir;
+  private final Path tmpDir;
+
+  public FileSystemCeTaskInputStorage(DbClient dbClient, ServerFileSystem fs, System2 system2) {
+    this.databaseStorage = new DatabaseCeTaskInputStorage(dbClient);
+    this.dbClient = dbClient;
+    this.system2 = system2;
+    this.rootDir = new File(fs.getDataDir(), "ce/inputs").toPath();
+    this.dataDir = rootDir.resolve("data");
+    this.tasksDir = rootDir.resolve("tasks");
+    this.tmpDir = rootDir.resolve("tmp");
+  }
+
+  @Override
+  public void store(DbSession dbSession, String taskUuid, InputStream data) {
+    try {
+      Files.createDirectories(dataDir);
+      Files.createDirectories(tasksDir);
+      Files.createDirectories(tmpDir);
+
+      MessageDigest digest = DigestUtils.getSha256Digest();
+      Path tmpData = Files.createTempFile(tmpDir, "data", ".tmp");
+      try (OutputStream output = Files.newOutputStream(tmpData)) {
+        IOUtils.copyLarge(new DigestInputStream(data, digest), output);
+      }
+      String hash = Hex.encodeHexString(digest.digest());
+
+      Path tmpRef = Files.createTempFile(tmpDir, "task", ".tmp");
+      Files.write(tmpRef, hash.getBytes(UTF_8));
+      locked(() -> {
+        Files.move(tmpRef, tasksDir.resolve(taskUuid), ATOMIC_MOVE, REPLACE_EXISTING);
+        Files.move(tmpData, dataDir.resolve(hash), ATOMIC_MOVE, REPLACE_EXISTING);
+      });
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to store data of CE task " + taskUuid, e);
+    }
+  }
+
+  @Override
+  public Optional<InputStream> read(DbSession dbSession, String taskUuid) {
+    Optional<String> hash = readReference(taskUuid);
+    if (!hash.isPresent()) {
+      return databaseStorage.read(dbSession, taskUuid);
+    }
+    try {
+      return Optional.of(Files.newInputStream(dataDir.resolve(hash.get())));
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read data of CE task " + taskUuid, e);
+    }
+  }
+
+  @Override
+  public void delete(DbSession dbSession, Collection<String> taskUuids) {
+    databaseStorage.delete(dbSession, taskUuids);
+    lockedQuietly(() -> {
+      Set<String> hashes = new HashSet<>();
+      for (String taskUuid : taskUuids) {
+        readReference(taskUuid).ifPresent(hashes::add);
+        deleteQuietly(tasksDir.resolve(taskUuid));
+      }
+      hashes.removeAll(listReferencedHashes());
+      hashes.forEach(hash -> deleteQuietly(dataDir.resolve(hash)));
+    });
+  }
+
+  @Override
+  public void deleteOrphans(DbSession dbSession) {
+    databaseStorage.deleteOrphans(dbSession);
+
+    Set<String> uuidsInQueue = dbClient.ceQueueDao().selectAllInAscOrder(dbSession).stream()
+      .map(CeQueueDto::getUuid)
+      .collect(MoreCollectors.toSet());
+    long limit = system2.now() - ORPHAN_GRACE_PERIOD_MS;
+    listFiles(tmpDir).stream()
+      .filter(tmp -> isOlderThan(tmp, limit))
+      .forEach(FileSystemCeTaskInputStorage::deleteQuietly);
+    lockedQuietly(() -> {
+      listFiles(tasksDir).stream()
+        .filter(ref -> !uuidsInQueue.contains(ref.getFileName().toString()))
+        .forEach(FileSystemCeTaskInputStorage::deleteQuietly);
+      deleteUnreferencedData(limit);
+    });
+  }
+
+  private void deleteUnreferencedData(long limit) {
+    Set<String> referencedHashes = listReferencedHashes();
+    listFiles(dataDir).stream()
+      .filter(data -> !referencedHashes.contains(data.getFileName().toString()))
+      .filter(data -> isOlderThan(data, limit))
+      .forEach(FileSystemCeTaskInputStorage::deleteQuietly);
+  }
+
+  private void locked(IoAction action) throws IOException {
+    synchronized (LOCK) {
+      Files.createDirectories(rootDir);
+      try (FileChannel channel = FileChannel.open(rootDir.resolve(LOCK_FILENAME), CREATE, WRITE);
+        FileLock lock = channel.lock()) {
+        action.run();
+      }
+    }
+  }
+
+  private void lockedQuietly(IoAction action) {
+    try {
+      locked(action);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to lock " + rootDir.resolve(LOCK_FILENAME), e);
+    }
+  }
+
+  private Optional<String> readReference(String taskUuid) {
+    try {
+      return Optional.of(new String(Files.readAllBytes(tasksDir.resolve(taskUuid)), UTF_8));
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read data reference of CE task " + taskUuid, e);
+    }
+  }
+
+  private Set<String> listReferencedHashes() {
+    Set<String> hashes = new HashSet<>();
+    for (Path ref : listFiles(tasksDir)) {
+      readReference(ref.getFileName().toString()).ifPresent(hashes::add);
+    }
+    return hashes;
+  }
+
+  private static Set<Path> listFiles(Path dir) {
+    Set<Path> files = new HashSet<>();
+    if (!Files.isDirectory(dir)) {
+      return files;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      stream.forEach(files::add);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to list files of " + dir, e);
+    }
+    return files;
+  }
+
+  private static boolean isOlderThan(Path file, long limit) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis() < limit;
+    } catch (IOException e) {
+      // already deleted
+      return false;
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.warn("Fail to delete " + file, e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface IoAction {
+    void run() throws IOException;
+  }
+}
@@ -21,7 +21,10 @@ package org.sonar.server.app;
 
 import com.google.common.base.Throwables;
 import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
 import org.apache.catalina.core.StandardContext;
 import org.apache.catalina.startup.Tomcat;
 import org.sonar.api.utils.log.Loggers;
@@ -33,7 +36,7 @@ import static org.sonar.core.util.FileUtils.deleteQuietly;
 class EmbeddedTomcat {
 
   private final Props props;
-  private Tomcat tomcat = null;
+  private volatile Tomcat tomcat = null;
   private volatile StandardContext webappContext;
 
   EmbeddedTomcat(Props props) {
@@ -65,6 +68,24 @@ class EmbeddedTomcat {
     }
   }
 
+  /**
+   * Number of requests being processed by the HTTP connectors. Zero if Tomcat is not started.
+   */
+  long getActiveRequests() {
+    Tomcat t = tomcat;
+    if (t == null) {
+      return 0L;
+    }
+    long activeRequests = 0L;
+    for (Connector connector : t.getService().findConnectors()) {
+      Executor executor = connector.getProtocolHandler().getExecutor();
+      if (executor instanceof ThreadPoolExecutor) {
+        activeRequests += ((ThreadPoolExecutor) executor).getActiveCount();
+      }
+    }
+    return activeRequests;
+  }
+
   Status getStatus() {
     if (webappContext == null) {
       return Status.DOWN;
@@ -26,6 +26,7 @@ import org.sonar.process.MinimumViableSystem;
 import org.sonar.process.Monitored;
 import org.sonar.process.ProcessEntryPoint;
 import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
 import org.sonar.process.Props;
 
 public class WebServer implements Monitored {
@@ -70,6 +71,10 @@ public class WebServer implements Monitored {
     }
   }
 
+  long getActiveHttpRequests() {
+    return tomcat.getActiveRequests();
+  }
+
   @Override
   public void stop() {
     tomcat.terminate();
@@ -88,6 +93,7 @@ public class WebServer implements Monitored {
     Props props = entryPoint.getProps();
     new WebServerProcessLogging().configure(props);
     WebServer server = new WebServer(props);
+    entryPoint.getMetricsPublisher().register(ProcessMetric.HTTP_ACTIVE_REQUESTS, server::getActiveHttpRequests);
     entryPoint.launch(server);
   }
 }
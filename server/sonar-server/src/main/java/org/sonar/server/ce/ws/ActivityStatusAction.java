@@ -29,6 +29,8 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskQuery;
+import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.server.component.ComponentFinder;
 import org.sonar.server.user.UserSession;
@@ -36,6 +38,8 @@ import org.sonar.server.ws.KeyExamples;
 import org.sonarqube.ws.WsCe.ActivityStatusWsResponse;
 import org.sonarqube.ws.client.ce.ActivityStatusWsRequest;
 
+import static java.util.Collections.singletonList;
+import static org.sonar.db.Pagination.forPage;
 import static org.sonar.server.component.ComponentFinder.ParamNames.COMPONENT_ID_AND_KEY;
 import static org.sonar.server.ws.WsUtils.writeProtobuf;
 import static org.sonarqube.ws.client.ce.CeWsParameters.PARAM_COMPONENT_ID;
@@ -82,8 +86,15 @@ public class ActivityStatusAction implements CeWsAction {
       Optional<ComponentDto> component = searchComponent(dbSession, request);
       String componentUuid = component.isPresent() ? component.get().uuid() : null;
       checkPermissions(component);
-      int pendingCount = dbClient.ceQueueDao().countByStatusAndComponentUuid(dbSession, CeQueueDto.Status.PENDING, componentUuid);
-      int failingCount = dbClient.ceActivityDao().countLastByStatusAndComponentUuid(dbSession, CeActivityDto.Status.FAILED, componentUuid);
+      int pendingCount;
+      int failingCount;
+      if (componentUuid == null) {
+        pendingCount = dbClient.ceQueueDao().countByStatusAndComponentUuid(dbSession, CeQueueDto.Status.PENDING, null);
+        failingCount = dbClient.ceActivityDao().countLastByStatusAndComponentUuid(dbSession, CeActivityDto.Status.FAILED, null);
+      } else {
+        pendingCount = countPendingReports(dbSession, componentUuid);
+        failingCount = countFailingReports(dbSession, componentUuid);
+      }
 
       return ActivityStatusWsResponse.newBuilder()
         .setPending(pendingCount)
@@ -92,6 +103,25 @@ public class ActivityStatusAction implements CeWsAction {
     }
   }
 
+  /**
+   * Status of a component only takes into account the analysis reports, not the housekeeping tasks, like
+   * {@link CeTaskTypes#PROJECT_PURGE}, submitted on the component.
+   */
+  private int countPendingReports(DbSession dbSession, String componentUuid) {
+    return (int) dbClient.ceQueueDao().selectByComponentUuid(dbSession, componentUuid).stream()
+      .filter(dto -> CeTaskTypes.REPORT.equals(dto.getTaskType()) && dto.getStatus() == CeQueueDto.Status.PENDING)
+      .count();
+  }
+
+  private int countFailingReports(DbSession dbSession, String componentUuid) {
+    CeTaskQuery query = new CeTaskQuery()
+      .setComponentUuid(componentUuid)
+      .setType(CeTaskTypes.REPORT)
+      .setOnlyCurrents(true)
+      .setStatuses(singletonList(CeActivityDto.Status.FAILED.name()));
+    return dbClient.ceActivityDao().selectByQuery(dbSession, query, forPage(1).andSize(1)).size();
+  }
+
   private Optional<ComponentDto> searchComponent(DbSession dbSession, ActivityStatusWsRequest request) {
     ComponentDto component = null;
     if (hasComponentInRequest(request)) {
@@ -19,6 +19,7 @@
  */
 package org.sonar.server.ce.ws;
 
+import com.google.common.collect.ImmutableSet;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -37,6 +38,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.permission.OrganizationPermission;
 import org.sonar.server.user.UserSession;
@@ -53,6 +55,8 @@ public class TaskAction implements CeWsAction {
   public static final String PARAM_TASK_UUID = "id";
 
   private static final String PARAM_ADDITIONAL_FIELDS = "additionalFields";
+  // tasks submitted on behalf of users who may have no analysis permission, so that they can follow their progress
+  private static final Set<String> TASK_TYPES_VISIBLE_BY_SUBMITTER = ImmutableSet.of(CeTaskTypes.ISSUE_BULK_CHANGE, CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY);
 
   private final DbClient dbClient;
   private final TaskFormatter wsTaskFormatter;
@@ -68,8 +72,10 @@ public class TaskAction implements CeWsAction {
   public void define(WebService.NewController controller) {
     WebService.NewAction action = controller.createAction(ACTION)
       .setDescription("Give Compute Engine task details such as type, status, duration and associated component.<br />" +
-        "Requires 'Administer System' or 'Execute Analysis' permission.<br/>" +
-        "Since 6.1, field \"logs\" is deprecated and its value is always false.")
+        "Requires 'Administer System' or 'Execute Analysis' permission, or to be the submitter of the task for bulk changes of issues and bulk applications of permission templates.<br/>" +
+        "Since 6.1, field \"logs\" is deprecated and its value is always false.<br/>" +
+        "Since 6.5, field \"progress\" is returned for the tasks which process their input in batches, such as bulk change of issues.<br/>" +
+        "Since 6.5, field \"counters\" is returned for the tasks which count the data they process, such as the number of rows deleted per table by a purge of project history.")
       .setResponseExample(getClass().getResource("task-example.json"))
       .setSince("5.2")
       .setHandler(this);
@@ -93,16 +99,22 @@ public class TaskAction implements CeWsAction {
       Optional<CeQueueDto> queueDto = dbClient.ceQueueDao().selectByUuid(dbSession, taskUuid);
       if (queueDto.isPresent()) {
         com.google.common.base.Optional<ComponentDto> component = loadComponent(dbSession, queueDto.get().getComponentUuid());
-        checkPermission(component);
-        wsTaskResponse.setTask(wsTaskFormatter.formatQueue(dbSession, queueDto.get(), component));
+        checkPermission(component, queueDto.get().getTaskType(), queueDto.get().getSubmitterLogin());
+        WsCe.Task.Builder task = wsTaskFormatter.formatQueue(dbSession, queueDto.get(), component).toBuilder();
+        addProgress(dbSession, taskUuid, task);
+        addCounters(dbSession, taskUuid, task);
+        wsTaskResponse.setTask(task);
       } else {
         CeActivityDto ceActivityDto = WsUtils.checkFoundWithOptional(dbClient.ceActivityDao().selectByUuid(dbSession, taskUuid), "No activity found for task '%s'", taskUuid);
         com.google.common.base.Optional<ComponentDto> component = loadComponent(dbSession, ceActivityDto.getComponentUuid());
-        checkPermission(component);
+        checkPermission(component, ceActivityDto.getTaskType(), ceActivityDto.getSubmitterLogin());
         Set<AdditionalField> additionalFields = AdditionalField.getFromRequest(wsRequest);
         maskErrorStacktrace(ceActivityDto, additionalFields);
-        wsTaskResponse.setTask(
-          wsTaskFormatter.formatActivity(dbSession, ceActivityDto, component, extractScannerContext(dbSession, ceActivityDto, additionalFields)));
+        WsCe.Task.Builder task = wsTaskFormatter.formatActivity(dbSession, ceActivityDto, component, extractScannerContext(dbSession, ceActivityDto, additionalFields))
+          .toBuilder();
+        addProgress(dbSession, taskUuid, task);
+        addCounters(dbSession, taskUuid, task);
+        wsTaskResponse.setTask(task);
       }
       writeProtobuf(wsTaskResponse.build(), wsRequest, wsResponse);
     }
@@ -115,7 +127,10 @@ public class TaskAction implements CeWsAction {
     return dbClient.componentDao().selectByUuid(dbSession, projectUuid);
   }
 
-  private void checkPermission(com.google.common.base.Optional<ComponentDto> component) {
+  private void checkPermission(com.google.common.base.Optional<ComponentDto> component, String taskType, @Nullable String submitterLogin) {
+    if (TASK_TYPES_VISIBLE_BY_SUBMITTER.contains(taskType) && submitterLogin != null && userSession.isLoggedIn() && submitterLogin.equals(userSession.getLogin())) {
+      return;
+    }
     if (component.isPresent()) {
       String orgUuid = component.get().getOrganizationUuid();
       if (!userSession.hasPermission(OrganizationPermission.ADMINISTER, orgUuid) &&
@@ -129,6 +144,19 @@ public class TaskAction implements CeWsAction {
     }
   }
 
+  private void addProgress(DbSession dbSession, String taskUuid, WsCe.Task.Builder task) {
+    dbClient.ceTaskProgressDao().selectByUuid(dbSession, taskUuid)
+      .ifPresent(progress -> task.setProgress(WsCe.Progress.newBuilder()
+        .setTotal(progress.getTotal())
+        .setProcessed(progress.getProcessed())
+        .setFailures(progress.getFailures())));
+  }
+
+  private void addCounters(DbSession dbSession, String taskUuid, WsCe.Task.Builder task) {
+    dbClient.ceTaskCountersDao().selectByUuid(dbSession, taskUuid)
+      .forEach((key, value) -> task.addCounters(WsCe.Counter.newBuilder().setKey(key).setValue(value)));
+  }
+
   private static void maskErrorStacktrace(CeActivityDto ceActivityDto, Set<AdditionalField> additionalFields) {
     if (!additionalFields.contains(AdditionalField.STACKTRACE)) {
       ceActivityDto.setErrorStacktrace(null);
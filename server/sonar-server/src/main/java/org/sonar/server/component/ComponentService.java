@@ -25,6 +25,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.server.es.ProjectIndexer;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.user.UserSession;
 
 import static org.sonar.core.component.ComponentKeys.isValidModuleKey;
@@ -35,11 +36,13 @@ import static org.sonar.server.ws.WsUtils.checkRequest;
 public class ComponentService {
   private final DbClient dbClient;
   private final UserSession userSession;
+  private final IssueReferenceCache issueReferenceCache;
   private final ProjectIndexer[] projectIndexers;
 
-  public ComponentService(DbClient dbClient, UserSession userSession, ProjectIndexer... projectIndexers) {
+  public ComponentService(DbClient dbClient, UserSession userSession, IssueReferenceCache issueReferenceCache, ProjectIndexer... projectIndexers) {
     this.dbClient = dbClient;
     this.userSession = userSession;
+    this.issueReferenceCache = issueReferenceCache;
     this.projectIndexers = projectIndexers;
   }
 
@@ -50,6 +53,7 @@ public class ComponentService {
     checkProjectOrModuleKeyFormat(newKey);
     dbClient.componentKeyUpdaterDao().updateKey(dbSession, component.uuid(), newKey);
     dbSession.commit();
+    issueReferenceCache.invalidateProject(component.projectUuid());
     index(component.uuid());
   }
 
@@ -57,6 +61,7 @@ public class ComponentService {
   public void bulkUpdateKey(DbSession dbSession, String projectUuid, String stringToReplace, String replacementString) {
     dbClient.componentKeyUpdaterDao().bulkUpdateKey(dbSession, projectUuid, stringToReplace, replacementString);
     dbSession.commit();
+    issueReferenceCache.invalidateProject(projectUuid);
     index(projectUuid);
   }
 
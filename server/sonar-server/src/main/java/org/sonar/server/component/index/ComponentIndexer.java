@@ -29,6 +29,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.server.es.BulkIndexer;
+import org.sonar.server.es.BulkIndexer.RefreshPolicy;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.es.IndexType;
@@ -60,18 +61,23 @@ public class ComponentIndexer implements ProjectIndexer, NeedAuthorizationIndexe
 
   @Override
   public void indexOnStartup(Set<IndexType> emptyIndexTypes) {
-    doIndexByProjectUuid(null, Size.LARGE);
+    doIndexByProjectUuid(null, Size.LARGE, RefreshPolicy.IMMEDIATE);
   }
 
   @Override
   public void indexProject(String projectUuid, Cause cause) {
+    indexProject(projectUuid, cause, RefreshPolicy.IMMEDIATE);
+  }
+
+  @Override
+  public void indexProject(String projectUuid, Cause cause, RefreshPolicy refreshPolicy) {
     switch (cause) {
       case PROJECT_TAGS_UPDATE:
         break;
       case PROJECT_CREATION:
       case PROJECT_KEY_UPDATE:
       case NEW_ANALYSIS:
-        doIndexByProjectUuid(projectUuid, Size.REGULAR);
+        doIndexByProjectUuid(projectUuid, Size.REGULAR, refreshPolicy);
         break;
       default:
         // defensive case
@@ -88,8 +94,8 @@ public class ComponentIndexer implements ProjectIndexer, NeedAuthorizationIndexe
    * @param projectUuid the uuid of the project to analyze, or {@code null} if all content should be indexed.<br/>
    * <b>Warning:</b> only use {@code null} during startup.
    */
-  private void doIndexByProjectUuid(@Nullable String projectUuid, Size bulkSize) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_COMPONENT.getIndex(), bulkSize);
+  private void doIndexByProjectUuid(@Nullable String projectUuid, Size bulkSize, RefreshPolicy refreshPolicy) {
+    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_COMPONENT.getIndex(), bulkSize, refreshPolicy);
 
     bulk.start();
     try (DbSession dbSession = dbClient.openSession(false)) {
@@ -0,0 +1,77 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.dbcleaner;
+
+import java.util.function.LongConsumer;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Settings;
+import org.sonar.db.purge.PurgeThrottler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Slows down the purge of project history when the database is under load. The time spent by the database to
+ * delete a chunk of analyses is used as an indicator of its load: after each chunk, the purge pauses during
+ * this time multiplied by {@link #PROPERTY_RATIO}, so that concurrent requests get a fair share of the database.
+ */
+@ComputeEngineSide
+public class DbLoadPurgeThrottler implements PurgeThrottler {
+
+  public static final String PROPERTY_RATIO = "sonar.ce.purgeThrottlingRatio";
+  static final float DEFAULT_RATIO = 1.0F;
+  /**
+   * Chunks deleted faster than this are considered as not loading the database
+   */
+  static final long FAST_CHUNK_MS = 100L;
+  static final long MAX_PAUSE_MS = 10_000L;
+
+  private final float ratio;
+  private final LongConsumer sleeper;
+
+  public DbLoadPurgeThrottler(Settings settings) {
+    this(settings, DbLoadPurgeThrottler::sleep);
+  }
+
+  DbLoadPurgeThrottler(Settings settings, LongConsumer sleeper) {
+    Float value = settings.getFloat(PROPERTY_RATIO);
+    this.ratio = value == null ? DEFAULT_RATIO : value;
+    checkArgument(ratio >= 0, "Property %s must be positive or zero. Got %s", PROPERTY_RATIO, ratio);
+    this.sleeper = sleeper;
+  }
+
+  @Override
+  public void afterChunk(long chunkDurationMs) {
+    if (chunkDurationMs < FAST_CHUNK_MS) {
+      return;
+    }
+    long pauseMs = Math.min(MAX_PAUSE_MS, (long) (chunkDurationMs * ratio));
+    if (pauseMs > 0) {
+      sleeper.accept(pauseMs);
+    }
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -33,8 +33,10 @@ import org.sonar.db.purge.PurgeConfiguration;
 import org.sonar.db.purge.PurgeDao;
 import org.sonar.db.purge.PurgeListener;
 import org.sonar.db.purge.PurgeProfiler;
+import org.sonar.db.purge.PurgeThrottler;
 import org.sonar.db.purge.period.DefaultPeriodCleaner;
 
+import static java.util.Collections.emptyList;
 import static org.sonar.db.purge.PurgeConfiguration.newDefaultPurgeConfiguration;
 
 @ServerSide
@@ -64,11 +66,43 @@ public class ProjectCleaner {
     doPurge(session, configuration);
 
     session.commit();
-    logProfiling(start, projectSettings);
+    logProfiling(profiler, start, projectSettings);
     return this;
   }
 
-  private void logProfiling(long start, Settings settings) {
+  /**
+   * Deletes the sources and closes the issues of the components disabled by the last analysis. Errors are logged but
+   * not thrown, so that they don't fail the analysis.
+   */
+  public ProjectCleaner purgeDisabledComponents(DbSession session, IdUuidPair idUuidPair, Settings projectSettings, Collection<String> disabledComponentUuids) {
+    PurgeConfiguration configuration = newDefaultPurgeConfiguration(projectSettings, idUuidPair, disabledComponentUuids);
+    try {
+      purgeDao.purgeDisabledComponents(session, configuration, purgeListener);
+    } catch (Exception e) {
+      // purge errors must no fail the report analysis
+      LOG.error("Fail to purge disabled components [id=" + idUuidPair.getId() + "]", e);
+    }
+    session.commit();
+    return this;
+  }
+
+  /**
+   * Cleans the history of analyses and the old closed issues of a project. Unlike {@link #purge(DbSession, IdUuidPair, Settings, Collection)},
+   * errors are not swallowed: the data deleted before the failure is committed and the next purge resumes from there.
+   */
+  public ProjectCleaner purgeHistory(DbSession session, IdUuidPair idUuidPair, Settings projectSettings, PurgeProfiler purgeProfiler, PurgeThrottler throttler) {
+    long start = System.currentTimeMillis();
+    PurgeConfiguration configuration = newDefaultPurgeConfiguration(projectSettings, idUuidPair, emptyList());
+
+    periodCleaner.clean(session, idUuidPair.getUuid(), projectSettings, purgeProfiler, throttler);
+    purgeDao.purgeHistory(session, configuration, purgeListener, purgeProfiler, throttler);
+
+    session.commit();
+    logProfiling(purgeProfiler, start, projectSettings);
+    return this;
+  }
+
+  private static void logProfiling(PurgeProfiler profiler, long start, Settings settings) {
     if (settings.getBoolean(CoreProperties.PROFILING_LOG_PROPERTY)) {
       long duration = System.currentTimeMillis() - start;
       LOG.info("\n -------- Profiling for purge: " + TimeUtils.formatDuration(duration) + " --------\n");
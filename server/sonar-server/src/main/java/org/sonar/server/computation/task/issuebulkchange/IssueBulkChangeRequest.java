@@ -0,0 +1,146 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.issuebulkchange;
+
+import com.google.common.base.Splitter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.core.util.stream.MoreCollectors;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.server.issue.IssueQuery;
+
+import static java.util.Collections.singletonList;
+import static org.sonar.api.utils.DateUtils.parseEndingDateOrDateTime;
+import static org.sonar.api.utils.DateUtils.parseStartingDateOrDateTime;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ASSIGNEES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_AUTHORS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_CREATED_AFTER;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_CREATED_BEFORE;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RESOLUTIONS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RESOLVED;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RULES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SEND_NOTIFICATIONS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SEVERITIES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_STATUSES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TAGS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TYPES;
+
+/**
+ * Input of a task {@link org.sonar.db.ce.CeTaskTypes#ISSUE_BULK_CHANGE}: the filters selecting the issues and the
+ * changes to apply, keyed by the parameters of the web service api/issues/bulk_change_by_query. Multi-valued parameters
+ * are stored as comma-separated lists.
+ * <p>
+ * It is persisted in table CE_TASK_INPUT with the format of {@link Properties}.
+ * </p>
+ */
+public class IssueBulkChangeRequest {
+
+  private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private final Properties properties;
+
+  public IssueBulkChangeRequest() {
+    this(new Properties());
+  }
+
+  private IssueBulkChangeRequest(Properties properties) {
+    this.properties = properties;
+  }
+
+  public static IssueBulkChangeRequest load(InputStream input) {
+    Properties properties = new Properties();
+    try {
+      properties.load(input);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read input of issue bulk change", e);
+    }
+    return new IssueBulkChangeRequest(properties);
+  }
+
+  public InputStream toInputStream() {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try {
+      properties.store(output, null);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to write input of issue bulk change", e);
+    }
+    return new ByteArrayInputStream(output.toByteArray());
+  }
+
+  public IssueBulkChangeRequest set(String key, @Nullable String value) {
+    if (value == null) {
+      properties.remove(key);
+    } else {
+      properties.setProperty(key, value);
+    }
+    return this;
+  }
+
+  public IssueBulkChangeRequest setList(String key, @Nullable List<String> values) {
+    return set(key, values == null ? null : String.join(",", values));
+  }
+
+  @CheckForNull
+  public String get(String key) {
+    return properties.getProperty(key);
+  }
+
+  @CheckForNull
+  public List<String> getList(String key) {
+    String value = properties.getProperty(key);
+    return value == null ? null : LIST_SPLITTER.splitToList(value);
+  }
+
+  public boolean isSendNotifications() {
+    return Boolean.parseBoolean(properties.getProperty(PARAM_SEND_NOTIFICATIONS));
+  }
+
+  /**
+   * The query selecting the issues of the project to be changed. Authorization is not checked, as the permissions
+   * of the submitter are verified when the task is submitted.
+   */
+  public IssueQuery toIssueQuery(ComponentDto project) {
+    List<String> rules = getList(PARAM_RULES);
+    String resolved = get(PARAM_RESOLVED);
+    return IssueQuery.builder()
+      .organizationUuid(project.getOrganizationUuid())
+      .projectUuids(singletonList(project.projectUuid()))
+      .rules(rules == null ? null : rules.stream().map(RuleKey::parse).collect(MoreCollectors.toList(rules.size())))
+      .statuses(getList(PARAM_STATUSES))
+      .resolutions(getList(PARAM_RESOLUTIONS))
+      .resolved(resolved == null ? null : Boolean.parseBoolean(resolved))
+      .severities(getList(PARAM_SEVERITIES))
+      .types(getList(PARAM_TYPES))
+      .tags(getList(PARAM_TAGS))
+      .assignees(getList(PARAM_ASSIGNEES))
+      .authors(getList(PARAM_AUTHORS))
+      .createdAfter(parseStartingDateOrDateTime(get(PARAM_CREATED_AFTER)))
+      .createdBefore(parseEndingDateOrDateTime(get(PARAM_CREATED_BEFORE)))
+      .checkAuthorization(false)
+      .build();
+  }
+}
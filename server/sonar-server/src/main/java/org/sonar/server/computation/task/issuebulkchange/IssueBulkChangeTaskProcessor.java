@@ -0,0 +1,277 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.issuebulkchange;
+
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskResult;
+import org.sonar.ce.taskprocessor.CeTaskProcessor;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonar.core.issue.IssueChangeContext;
+import org.sonar.core.util.stream.MoreCollectors;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskProgressDto;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.issue.IssueDto;
+import org.sonar.db.user.UserDto;
+import org.sonar.server.issue.IssueFieldsSetter;
+import org.sonar.server.issue.IssueStorage;
+import org.sonar.server.issue.index.IssueIndex;
+import org.sonar.server.issue.notification.IssueBulkChangeNotification;
+import org.sonar.server.issue.workflow.IssueWorkflow;
+import org.sonar.server.issue.workflow.Transition;
+import org.sonar.server.notification.NotificationManager;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.lang.String.format;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ADD_TAGS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ASSIGN;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_COMMENT;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_DO_TRANSITION;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_REMOVE_TAGS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SET_SEVERITY;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SET_TYPE;
+
+/**
+ * Applies the changes of an {@link IssueBulkChangeRequest} to all the issues of a project matching its query.
+ * <p>
+ * Issues are loaded, changed, persisted and re-indexed by batches of {@link #BATCH_SIZE}, so that memory does
+ * not depend on the number of issues and so that the progress of the task can be reported after each batch.
+ * Notifications are aggregated to send a single summary per assignee.
+ * </p>
+ */
+public class IssueBulkChangeTaskProcessor implements CeTaskProcessor {
+
+  static final int BATCH_SIZE = 500;
+
+  private static final Logger LOG = Loggers.get(IssueBulkChangeTaskProcessor.class);
+  private static final Set<String> HANDLED_TYPES = Collections.singleton(CeTaskTypes.ISSUE_BULK_CHANGE);
+
+  private final DbClient dbClient;
+  private final IssueIndex issueIndex;
+  private final IssueFieldsSetter issueFieldsSetter;
+  private final IssueWorkflow workflow;
+  private final IssueStorage issueStorage;
+  private final NotificationManager notificationManager;
+  private final System2 system2;
+
+  public IssueBulkChangeTaskProcessor(DbClient dbClient, IssueIndex issueIndex, IssueFieldsSetter issueFieldsSetter, IssueWorkflow workflow,
+    IssueStorage issueStorage, NotificationManager notificationManager, System2 system2) {
+    this.dbClient = dbClient;
+    this.issueIndex = issueIndex;
+    this.issueFieldsSetter = issueFieldsSetter;
+    this.workflow = workflow;
+    this.issueStorage = issueStorage;
+    this.notificationManager = notificationManager;
+    this.system2 = system2;
+  }
+
+  @Override
+  public Set<String> getHandledCeTaskTypes() {
+    return HANDLED_TYPES;
+  }
+
+  @Override
+  @CheckForNull
+  public CeTaskResult process(CeTask task) {
+    BulkChange bulkChange = loadBulkChange(task);
+    // keys are loaded before any change, so that the scroll does not expire while batches are processed
+    List<String> issueKeys = Lists.newArrayList(issueIndex.searchKeys(bulkChange.request.toIssueQuery(bulkChange.project)));
+    CeTaskProgressDto progress = new CeTaskProgressDto().setTaskUuid(task.getUuid()).setTotal(issueKeys.size());
+    saveProgress(progress);
+
+    for (List<String> batchKeys : Lists.partition(issueKeys, BATCH_SIZE)) {
+      processBatch(bulkChange, batchKeys, progress);
+      progress.setProcessed(progress.getProcessed() + batchKeys.size());
+      saveProgress(progress);
+    }
+
+    if (bulkChange.request.isSendNotifications()) {
+      sendNotifications(bulkChange);
+    }
+    LOG.info("Bulk change of {} issues on project {} ({} failures)", progress.getTotal(), bulkChange.project.getKey(), progress.getFailures());
+    return null;
+  }
+
+  private BulkChange loadBulkChange(CeTask task) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      IssueBulkChangeRequest request = dbClient.ceTaskInputDao().selectData(dbSession, task.getUuid())
+        .map(IssueBulkChangeTaskProcessor::loadRequest)
+        .orElseThrow(() -> new IllegalStateException(format("Input of task '%s' is missing", task.getUuid())));
+      ComponentDto project = dbClient.componentDao().selectByUuid(dbSession, task.getComponentUuid()).orNull();
+      checkState(project != null, "Project '%s' does not exist", task.getComponentUuid());
+      UserDto assignee = null;
+      String assigneeLogin = request.get(PARAM_ASSIGN);
+      if (!isNullOrEmpty(assigneeLogin)) {
+        assignee = dbClient.userDao().selectActiveUserByLogin(dbSession, assigneeLogin);
+        checkState(assignee != null, "User '%s' does not exist or is not active", assigneeLogin);
+      }
+      IssueChangeContext changeContext = IssueChangeContext.createUser(new Date(system2.now()), task.getSubmitterLogin());
+      return new BulkChange(request, project, assignee, changeContext);
+    }
+  }
+
+  private static IssueBulkChangeRequest loadRequest(CeTaskInputDao.DataStream data) {
+    try (CeTaskInputDao.DataStream input = data) {
+      return IssueBulkChangeRequest.load(input.getInputStream());
+    }
+  }
+
+  private void processBatch(BulkChange bulkChange, List<String> batchKeys, CeTaskProgressDto progress) {
+    List<DefaultIssue> issues;
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      issues = dbClient.issueDao().selectByKeys(dbSession, batchKeys).stream()
+        .map(IssueDto::toDefaultIssue)
+        .collect(MoreCollectors.toList(batchKeys.size()));
+    }
+
+    List<DefaultIssue> changedIssues = new ArrayList<>(issues.size());
+    for (DefaultIssue issue : issues) {
+      try {
+        if (applyChanges(bulkChange, issue)) {
+          changedIssues.add(issue);
+        }
+      } catch (RuntimeException e) {
+        progress.setFailures(progress.getFailures() + 1);
+        LOG.error(format("Fail to apply bulk change on issue %s. This issue has been ignored.", issue.key()), e);
+      }
+    }
+    issueStorage.save(changedIssues);
+    changedIssues.stream()
+      .filter(issue -> issue.assignee() != null)
+      .forEach(issue -> bulkChange.changedIssueKeysByAssignee.computeIfAbsent(issue.assignee(), k -> new ArrayList<>()).add(issue.key()));
+  }
+
+  private boolean applyChanges(BulkChange bulkChange, DefaultIssue issue) {
+    IssueBulkChangeRequest request = bulkChange.request;
+    IssueChangeContext context = bulkChange.changeContext;
+    boolean changed = false;
+    boolean unresolved = issue.resolution() == null;
+    if (unresolved && request.get(PARAM_ASSIGN) != null) {
+      changed |= issueFieldsSetter.assign(issue, bulkChange.assignee, context);
+    }
+    if (unresolved && request.get(PARAM_SET_SEVERITY) != null) {
+      changed |= issueFieldsSetter.setManualSeverity(issue, request.get(PARAM_SET_SEVERITY), context);
+    }
+    if (unresolved && request.get(PARAM_SET_TYPE) != null) {
+      changed |= issueFieldsSetter.setType(issue, RuleType.valueOf(request.get(PARAM_SET_TYPE)), context);
+    }
+    if (unresolved && (request.getList(PARAM_ADD_TAGS) != null || request.getList(PARAM_REMOVE_TAGS) != null)) {
+      Set<String> tags = new HashSet<>(issue.tags());
+      addAllIfNotNull(tags, request.getList(PARAM_ADD_TAGS));
+      removeAllIfNotNull(tags, request.getList(PARAM_REMOVE_TAGS));
+      changed |= issueFieldsSetter.setTags(issue, tags, context);
+    }
+    String transition = request.get(PARAM_DO_TRANSITION);
+    if (transition != null && isTransitionAvailable(issue, transition)) {
+      changed |= workflow.doTransition(issue, transition, context);
+    }
+    String comment = request.get(PARAM_COMMENT);
+    if (changed && !isNullOrEmpty(comment)) {
+      issueFieldsSetter.addComment(issue, comment, context);
+    }
+    return changed;
+  }
+
+  private boolean isTransitionAvailable(DefaultIssue issue, String transitionKey) {
+    return workflow.outTransitions(issue).stream().map(Transition::key).anyMatch(transitionKey::equals);
+  }
+
+  private static void addAllIfNotNull(Set<String> tags, @Nullable List<String> toAdd) {
+    if (toAdd != null) {
+      tags.addAll(toAdd);
+    }
+  }
+
+  private static void removeAllIfNotNull(Set<String> tags, @Nullable List<String> toRemove) {
+    if (toRemove != null) {
+      tags.removeAll(toRemove);
+    }
+  }
+
+  private void saveProgress(CeTaskProgressDto progress) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.ceTaskProgressDao().insertOrUpdate(dbSession, progress);
+      dbSession.commit();
+    }
+  }
+
+  private void sendNotifications(BulkChange bulkChange) {
+    List<String> changes = describeChanges(bulkChange.request);
+    bulkChange.changedIssueKeysByAssignee.forEach((assignee, issueKeys) -> notificationManager.scheduleForSending(new IssueBulkChangeNotification()
+      .setProject(bulkChange.project)
+      .setAssignee(assignee)
+      .setChangeAuthorLogin(bulkChange.changeContext.login())
+      .setIssues(issueKeys)
+      .setChanges(changes)));
+  }
+
+  private static List<String> describeChanges(IssueBulkChangeRequest request) {
+    List<String> changes = new ArrayList<>();
+    addChange(changes, "Assignee", request.get(PARAM_ASSIGN));
+    addChange(changes, "Severity", request.get(PARAM_SET_SEVERITY));
+    addChange(changes, "Type", request.get(PARAM_SET_TYPE));
+    addChange(changes, "Transition", request.get(PARAM_DO_TRANSITION));
+    addChange(changes, "Tags added", request.get(PARAM_ADD_TAGS));
+    addChange(changes, "Tags removed", request.get(PARAM_REMOVE_TAGS));
+    addChange(changes, "Comment", request.get(PARAM_COMMENT));
+    return changes;
+  }
+
+  private static void addChange(List<String> changes, String label, @Nullable String value) {
+    if (value != null) {
+      changes.add(label + ": " + value);
+    }
+  }
+
+  private static class BulkChange {
+    private final IssueBulkChangeRequest request;
+    private final ComponentDto project;
+    @CheckForNull
+    private final UserDto assignee;
+    private final IssueChangeContext changeContext;
+    private final Map<String, List<String>> changedIssueKeysByAssignee = new HashMap<>();
+
+    private BulkChange(IssueBulkChangeRequest request, ComponentDto project, @Nullable UserDto assignee, IssueChangeContext changeContext) {
+      this.request = request;
+      this.project = project;
+      this.assignee = assignee;
+      this.changeContext = changeContext;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.permissiontemplate;
+
+import com.google.common.base.Splitter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.db.component.ComponentQuery;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Input of a task {@link org.sonar.db.ce.CeTaskTypes#PERMISSION_TEMPLATE_BULK_APPLY}: the template to be applied and
+ * the query selecting the projects of its organization, as provided to the web service api/permissions/bulk_apply_template.
+ * <p>
+ * It is persisted in table CE_TASK_INPUT with the format of {@link Properties}.
+ * </p>
+ */
+public class BulkApplyPermissionTemplateRequest {
+
+  private static final String TEMPLATE_UUID = "templateUuid";
+  private static final String QUERY = "query";
+  private static final String QUALIFIERS = "qualifiers";
+  private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private final Properties properties;
+
+  public BulkApplyPermissionTemplateRequest() {
+    this(new Properties());
+  }
+
+  private BulkApplyPermissionTemplateRequest(Properties properties) {
+    this.properties = properties;
+  }
+
+  public static BulkApplyPermissionTemplateRequest load(InputStream input) {
+    Properties properties = new Properties();
+    try {
+      properties.load(input);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read input of permission template bulk application", e);
+    }
+    return new BulkApplyPermissionTemplateRequest(properties);
+  }
+
+  public InputStream toInputStream() {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try {
+      properties.store(output, null);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to write input of permission template bulk application", e);
+    }
+    return new ByteArrayInputStream(output.toByteArray());
+  }
+
+  public String getTemplateUuid() {
+    String templateUuid = properties.getProperty(TEMPLATE_UUID);
+    checkState(templateUuid != null, "Permission template is missing");
+    return templateUuid;
+  }
+
+  public BulkApplyPermissionTemplateRequest setTemplateUuid(String templateUuid) {
+    properties.setProperty(TEMPLATE_UUID, templateUuid);
+    return this;
+  }
+
+  @CheckForNull
+  public String getQuery() {
+    return properties.getProperty(QUERY);
+  }
+
+  public BulkApplyPermissionTemplateRequest setQuery(@Nullable String query) {
+    if (query == null) {
+      properties.remove(QUERY);
+    } else {
+      properties.setProperty(QUERY, query);
+    }
+    return this;
+  }
+
+  public List<String> getQualifiers() {
+    return LIST_SPLITTER.splitToList(properties.getProperty(QUALIFIERS, ""));
+  }
+
+  public BulkApplyPermissionTemplateRequest setQualifiers(String... qualifiers) {
+    properties.setProperty(QUALIFIERS, String.join(",", qualifiers));
+    return this;
+  }
+
+  public ComponentQuery toComponentQuery() {
+    List<String> qualifiers = getQualifiers();
+    return ComponentQuery.builder()
+      .setNameOrKeyQuery(getQuery())
+      .setQualifiers(qualifiers.toArray(new String[qualifiers.size()]))
+      .build();
+  }
+}
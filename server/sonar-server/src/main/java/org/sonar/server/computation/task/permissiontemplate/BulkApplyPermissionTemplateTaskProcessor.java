@@ -0,0 +1,127 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.permissiontemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskResult;
+import org.sonar.ce.taskprocessor.CeTaskProcessor;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskProgressDto;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.component.ComponentQuery;
+import org.sonar.db.permission.template.PermissionTemplateDto;
+import org.sonar.server.permission.PermissionTemplateService;
+import org.sonar.server.permission.PermissionTemplateService.TemplatePermissions;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+import static org.sonar.server.permission.PermissionTemplateService.BATCH_SIZE;
+
+/**
+ * Applies a permission template to all the projects of its organization matching the query of a
+ * {@link BulkApplyPermissionTemplateRequest}.
+ * <p>
+ * The permissions of the template are loaded once. Projects are streamed from database and processed by
+ * batches of {@link PermissionTemplateService#BATCH_SIZE}: each batch is written with a batch session, committed
+ * and indexed before the progress of the task is updated.
+ * </p>
+ */
+public class BulkApplyPermissionTemplateTaskProcessor implements CeTaskProcessor {
+
+  private static final Logger LOG = Loggers.get(BulkApplyPermissionTemplateTaskProcessor.class);
+  private static final Set<String> HANDLED_TYPES = Collections.singleton(CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY);
+
+  private final DbClient dbClient;
+  private final PermissionTemplateService permissionTemplateService;
+
+  public BulkApplyPermissionTemplateTaskProcessor(DbClient dbClient, PermissionTemplateService permissionTemplateService) {
+    this.dbClient = dbClient;
+    this.permissionTemplateService = permissionTemplateService;
+  }
+
+  @Override
+  public Set<String> getHandledCeTaskTypes() {
+    return HANDLED_TYPES;
+  }
+
+  @Override
+  @CheckForNull
+  public CeTaskResult process(CeTask task) {
+    try (DbSession dbSession = dbClient.openSession(false);
+      DbSession batchSession = dbClient.openSession(true)) {
+      BulkApplyPermissionTemplateRequest request = dbClient.ceTaskInputDao().selectData(dbSession, task.getUuid())
+        .map(BulkApplyPermissionTemplateTaskProcessor::loadRequest)
+        .orElseThrow(() -> new IllegalStateException(format("Input of task '%s' is missing", task.getUuid())));
+      PermissionTemplateDto template = dbClient.permissionTemplateDao().selectByUuid(dbSession, request.getTemplateUuid());
+      checkState(template != null, "Permission template '%s' does not exist", request.getTemplateUuid());
+
+      TemplatePermissions permissions = permissionTemplateService.loadPermissions(dbSession, template);
+      ComponentQuery query = request.toComponentQuery();
+      CeTaskProgressDto progress = new CeTaskProgressDto()
+        .setTaskUuid(task.getUuid())
+        .setTotal(dbClient.componentDao().countByQuery(dbSession, template.getOrganizationUuid(), query));
+      saveProgress(progress);
+
+      List<ComponentDto> batch = new ArrayList<>(BATCH_SIZE);
+      dbClient.componentDao().scrollByQuery(dbSession, template.getOrganizationUuid(), query, context -> {
+        batch.add((ComponentDto) context.getResultObject());
+        if (batch.size() == BATCH_SIZE) {
+          applyBatch(batchSession, permissions, batch, progress);
+        }
+      });
+      applyBatch(batchSession, permissions, batch, progress);
+      LOG.info("Permission template '{}' applied to {} projects", template.getName(), progress.getProcessed());
+    }
+    return null;
+  }
+
+  private static BulkApplyPermissionTemplateRequest loadRequest(CeTaskInputDao.DataStream data) {
+    try (CeTaskInputDao.DataStream input = data) {
+      return BulkApplyPermissionTemplateRequest.load(input.getInputStream());
+    }
+  }
+
+  private void applyBatch(DbSession batchSession, TemplatePermissions permissions, List<ComponentDto> batch, CeTaskProgressDto progress) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    permissionTemplateService.apply(batchSession, permissions, batch);
+    progress.setProcessed(progress.getProcessed() + batch.size());
+    saveProgress(progress);
+    batch.clear();
+  }
+
+  private void saveProgress(CeTaskProgressDto progress) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.ceTaskProgressDao().insertOrUpdate(dbSession, progress);
+      dbSession.commit();
+    }
+  }
+}
@@ -0,0 +1,524 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.component;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+import static org.sonar.core.component.ComponentKeys.createEffectiveKey;
+
+/**
+ * Memory-efficient tree of report components ({@link Component.Type#PROJECT}, {@link Component.Type#MODULE},
+ * {@link Component.Type#DIRECTORY} and {@link Component.Type#FILE}).
+ * <p>
+ * Component #i is described by the i-th element of each array ("struct of arrays"). Components are stored in
+ * breadth-first order, so that the children of a component are contiguous and are referenced by offset and count.
+ * Instances of {@link Component} returned by the tree are flyweight views on these arrays, which are created on
+ * demand. Two views are equal if they represent the same component of the same tree.
+ * </p>
+ * <p>
+ * This class is thread-safe. The index of components by key is built on first lookup by key.
+ * </p>
+ * <p>
+ * In addition:
+ * <ul>
+ *   <li>the key of a directory or file is not stored but built from the key of its module and its path</li>
+ *   <li>the path of a file is stored relative to the path of its directory, and relative paths are interned</li>
+ *   <li>the name is not stored when it's the key, which is the case of directories and files</li>
+ *   <li>the description and the version, which are rarely set, are stored in sparse maps</li>
+ * </ul>
+ * </p>
+ */
+public final class CompactComponentTree {
+  private static final Component.Type[] TYPES = Component.Type.values();
+  private static final int NO_PARENT = -1;
+
+  private final int size;
+  private final byte[] types;
+  private final int[] refs;
+  private final String[] uuids;
+  private final int[] parents;
+  private final int[] firstChildren;
+  private final int[] childCounts;
+  /**
+   * Index of the module (or project) which key is the prefix of the key of the component
+   */
+  private final int[] keyBases;
+  /**
+   * Key of projects and modules, and key of the directories and files which do not follow
+   * the {@link org.sonar.core.component.ComponentKeys#createEffectiveKey(String, String)} convention
+   */
+  private final String[] keys;
+  /**
+   * Name of the components which name is not their key
+   */
+  private final String[] names;
+  /**
+   * Path, or path relative to the path of parent if bit is set in {@link #relativePaths}
+   */
+  private final String[] paths;
+  private final BitSet relativePaths;
+  private final Map<Integer, String> descriptions;
+  private final Map<Integer, String> versions;
+  private final int[] lines;
+  /**
+   * Index in {@link #languages} plus one, zero if language is {@code null}
+   */
+  private final byte[] languageIndexes;
+  private final String[] languages;
+  private final BitSet unitTests;
+
+  private final int[] sortedRefs;
+  private final int[] indexesBySortedRef;
+  /**
+   * Open-addressing hash table of the indexes (plus one) of components, by key
+   */
+  private volatile int[] indexesByKey;
+
+  private CompactComponentTree(Builder builder) {
+    this.size = builder.size;
+    this.types = Arrays.copyOf(builder.types, size);
+    this.refs = Arrays.copyOf(builder.refs, size);
+    this.uuids = Arrays.copyOf(builder.uuids, size);
+    this.parents = Arrays.copyOf(builder.parents, size);
+    this.firstChildren = Arrays.copyOf(builder.firstChildren, size);
+    this.childCounts = Arrays.copyOf(builder.childCounts, size);
+    this.keyBases = Arrays.copyOf(builder.keyBases, size);
+    this.keys = Arrays.copyOf(builder.keys, size);
+    this.names = Arrays.copyOf(builder.names, size);
+    this.paths = Arrays.copyOf(builder.paths, size);
+    this.relativePaths = builder.relativePaths;
+    this.descriptions = builder.descriptions;
+    this.versions = builder.versions;
+    this.lines = Arrays.copyOf(builder.lines, size);
+    this.languageIndexes = Arrays.copyOf(builder.languageIndexes, size);
+    this.languages = new String[builder.languages.size()];
+    for (Map.Entry<String, Integer> language : builder.languages.entrySet()) {
+      this.languages[language.getValue()] = language.getKey();
+    }
+    this.unitTests = builder.unitTests;
+
+    long[] refAndIndexes = new long[size];
+    for (int i = 0; i < size; i++) {
+      refAndIndexes[i] = ((long) refs[i] << 32) | i;
+    }
+    Arrays.sort(refAndIndexes);
+    this.sortedRefs = new int[size];
+    this.indexesBySortedRef = new int[size];
+    for (int i = 0; i < size; i++) {
+      sortedRefs[i] = (int) (refAndIndexes[i] >> 32);
+      indexesBySortedRef[i] = (int) refAndIndexes[i];
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return the tree which the component belongs to, or {@code null} if it is not a view on a {@link CompactComponentTree}
+   */
+  @CheckForNull
+  public static CompactComponentTree treeOf(Component component) {
+    if (component instanceof Node) {
+      return ((Node) component).tree;
+    }
+    return null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Component getRoot() {
+    return new Node(this, 0);
+  }
+
+  /**
+   * @return the index of the component in the arrays of the tree, between 0 and {@link #size()} excluded
+   * @throws IllegalArgumentException if the component does not belong to this tree
+   */
+  public int indexOf(Component component) {
+    checkArgument(treeOf(component) == this, "Component %s does not belong to this tree", component);
+    return ((Node) component).index;
+  }
+
+  @CheckForNull
+  public Component getByRef(int ref) {
+    int i = Arrays.binarySearch(sortedRefs, ref);
+    return i < 0 ? null : new Node(this, indexesBySortedRef[i]);
+  }
+
+  /**
+   * @throws IllegalStateException if multiple components of the tree have the same key
+   */
+  @CheckForNull
+  public Component getByKey(String key) {
+    int[] table = ensureIndexesByKey();
+    int slot = slotOf(table, key);
+    return slot < 0 ? null : new Node(this, table[slot] - 1);
+  }
+
+  private int[] ensureIndexesByKey() {
+    int[] table = indexesByKey;
+    if (table == null) {
+      synchronized (this) {
+        table = indexesByKey;
+        if (table == null) {
+          table = new int[Integer.highestOneBit(size) << 2];
+          for (int i = 0; i < size; i++) {
+            String key = getKey(i);
+            int slot = slotOf(table, key);
+            checkState(slot < 0, "Component key '%s' is not unique", key);
+            table[-slot - 1] = i + 1;
+          }
+          indexesByKey = table;
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * @return the slot of the key in the table if present, else {@code -(insertion slot) - 1}
+   */
+  private int slotOf(int[] table, String key) {
+    int mask = table.length - 1;
+    int slot = mix(key.hashCode()) & mask;
+    while (table[slot] != 0) {
+      if (getKey(table[slot] - 1).equals(key)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -slot - 1;
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private String getKey(int i) {
+    String key = keys[i];
+    if (key != null) {
+      return key;
+    }
+    return createEffectiveKey(keys[keyBases[i]], getPath(i));
+  }
+
+  @CheckForNull
+  private String getPath(int i) {
+    String path = paths[i];
+    if (relativePaths.get(i)) {
+      return getPath(parents[i]) + '/' + path;
+    }
+    return path;
+  }
+
+  private static final class Node implements Component {
+    private final CompactComponentTree tree;
+    private final int index;
+
+    private Node(CompactComponentTree tree, int index) {
+      this.tree = tree;
+      this.index = index;
+    }
+
+    @Override
+    public Type getType() {
+      return TYPES[tree.types[index]];
+    }
+
+    @Override
+    public String getUuid() {
+      return tree.uuids[index];
+    }
+
+    @Override
+    public String getKey() {
+      return tree.getKey(index);
+    }
+
+    @Override
+    public String getName() {
+      String name = tree.names[index];
+      return name == null ? getKey() : name;
+    }
+
+    @Override
+    @CheckForNull
+    public String getDescription() {
+      return tree.descriptions.get(index);
+    }
+
+    @Override
+    public List<Component> getChildren() {
+      return new Children(tree, tree.firstChildren[index], tree.childCounts[index]);
+    }
+
+    @Override
+    public ReportAttributes getReportAttributes() {
+      return ReportAttributes.newBuilder(tree.refs[index])
+        .setVersion(tree.versions.get(index))
+        .setPath(tree.getPath(index))
+        .build();
+    }
+
+    @Override
+    public FileAttributes getFileAttributes() {
+      checkState(getType() == Type.FILE, "Only component of type FILE have a FileAttributes object");
+      int languageIndex = tree.languageIndexes[index] & 0xFF;
+      return new FileAttributes(tree.unitTests.get(index), languageIndex == 0 ? null : tree.languages[languageIndex - 1], tree.lines[index]);
+    }
+
+    @Override
+    public ProjectViewAttributes getProjectViewAttributes() {
+      throw new IllegalStateException("Only component of type PROJECT_VIEW have a ProjectViewAttributes object");
+    }
+
+    @Override
+    public SubViewAttributes getSubViewAttributes() {
+      throw new IllegalStateException("Only component of type SUBVIEW have a SubViewAttributes object");
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Node node = (Node) o;
+      return tree == node.tree && index == node.index;
+    }
+
+    @Override
+    public int hashCode() {
+      return index;
+    }
+
+    @Override
+    public String toString() {
+      return "CompactComponent{" +
+        "key='" + getKey() + '\'' +
+        ", type=" + getType() +
+        ", uuid='" + getUuid() + '\'' +
+        ", name='" + getName() + '\'' +
+        ", description='" + getDescription() + '\'' +
+        ", reportAttributes=" + getReportAttributes() +
+        '}';
+    }
+  }
+
+  private static final class Children extends AbstractList<Component> {
+    private final CompactComponentTree tree;
+    private final int first;
+    private final int count;
+
+    private Children(CompactComponentTree tree, int first, int count) {
+      this.tree = tree;
+      this.first = first;
+      this.count = count;
+    }
+
+    @Override
+    public Component get(int i) {
+      if (i < 0 || i >= count) {
+        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+      }
+      return new Node(tree, first + i);
+    }
+
+    @Override
+    public int size() {
+      return count;
+    }
+  }
+
+  /**
+   * Components must be added in breadth-first order: the children of a component are added
+   * after all the components added before the component, and all at once.
+   */
+  public static final class Builder {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size = 0;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] refs = new int[INITIAL_CAPACITY];
+    private String[] uuids = new String[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] childCounts = new int[INITIAL_CAPACITY];
+    private int[] keyBases = new int[INITIAL_CAPACITY];
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] paths = new String[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private byte[] languageIndexes = new byte[INITIAL_CAPACITY];
+    private final BitSet relativePaths = new BitSet();
+    private final BitSet unitTests = new BitSet();
+    private final Map<Integer, String> descriptions = new HashMap<>();
+    private final Map<Integer, String> versions = new HashMap<>();
+    private final Map<String, Integer> languages = new HashMap<>();
+    private final Map<String, String> internedPaths = new HashMap<>();
+    private int lastParent = NO_PARENT;
+
+    private Builder() {
+      // use CompactComponentTree#builder()
+    }
+
+    /**
+     * @return the index of the root, ie. 0
+     */
+    public int addRoot(Component.Type type, String uuid, String key, String name, @Nullable String description,
+      ReportAttributes reportAttributes, @Nullable FileAttributes fileAttributes) {
+      checkState(size == 0, "Root is already added");
+      return add(NO_PARENT, type, uuid, key, name, description, reportAttributes, fileAttributes);
+    }
+
+    /**
+     * @return the index of the component
+     */
+    public int addChild(int parent, Component.Type type, String uuid, String key, String name, @Nullable String description,
+      ReportAttributes reportAttributes, @Nullable FileAttributes fileAttributes) {
+      checkArgument(parent >= 0 && parent < size, "Parent %s is not added yet", parent);
+      checkState(parent >= lastParent, "Children of component %s must be added in breadth-first order", parent);
+      return add(parent, type, uuid, key, name, description, reportAttributes, fileAttributes);
+    }
+
+    private int add(int parent, Component.Type type, String uuid, String key, String name, @Nullable String description,
+      ReportAttributes reportAttributes, @Nullable FileAttributes fileAttributes) {
+      requireNonNull(uuid, "uuid can't be null");
+      requireNonNull(key, "key can't be null");
+      requireNonNull(name, "name can't be null");
+      requireNonNull(reportAttributes, "reportAttributes can't be null");
+      checkArgument(type.isReportType(), "Unsupported component type %s", type);
+      ensureCapacity();
+
+      int i = size;
+      size++;
+      types[i] = (byte) type.ordinal();
+      refs[i] = reportAttributes.getRef();
+      uuids[i] = uuid;
+      parents[i] = parent;
+      if (parent != NO_PARENT) {
+        if (childCounts[parent] == 0) {
+          firstChildren[parent] = i;
+        }
+        childCounts[parent]++;
+        lastParent = parent;
+      }
+      setPath(i, parent, type, reportAttributes.getPath());
+      setKey(i, parent, type, key);
+      names[i] = name.equals(key) ? null : name;
+      if (description != null) {
+        descriptions.put(i, description);
+      }
+      if (reportAttributes.getVersion() != null) {
+        versions.put(i, reportAttributes.getVersion());
+      }
+      if (fileAttributes != null) {
+        checkArgument(type == Component.Type.FILE, "Only component of type FILE have a FileAttributes object");
+        lines[i] = fileAttributes.getLines();
+        unitTests.set(i, fileAttributes.isUnitTest());
+        languageIndexes[i] = languageIndexOf(fileAttributes.getLanguageKey());
+      }
+      return i;
+    }
+
+    private void setPath(int i, int parent, Component.Type type, @Nullable String path) {
+      if (path != null && type == Component.Type.FILE && parent != NO_PARENT) {
+        String parentPath = getPath(parent);
+        if (parentPath != null && path.length() > parentPath.length() + 1 && path.startsWith(parentPath) && path.charAt(parentPath.length()) == '/') {
+          String relativePath = path.substring(parentPath.length() + 1);
+          paths[i] = internedPaths.computeIfAbsent(relativePath, p -> p);
+          relativePaths.set(i);
+          return;
+        }
+      }
+      paths[i] = path;
+    }
+
+    private void setKey(int i, int parent, Component.Type type, String key) {
+      if (parent == NO_PARENT || type == Component.Type.PROJECT || type == Component.Type.MODULE) {
+        keyBases[i] = i;
+        keys[i] = key;
+        return;
+      }
+      keyBases[i] = keyBases[parent];
+      if (!key.equals(createEffectiveKey(keys[keyBases[i]], getPath(i)))) {
+        keys[i] = key;
+      }
+    }
+
+    @CheckForNull
+    private String getPath(int i) {
+      String path = paths[i];
+      if (relativePaths.get(i)) {
+        return getPath(parents[i]) + '/' + path;
+      }
+      return path;
+    }
+
+    private byte languageIndexOf(@Nullable String languageKey) {
+      if (languageKey == null) {
+        return 0;
+      }
+      int index = languages.computeIfAbsent(languageKey, k -> languages.size());
+      checkState(index < 255, "Too many languages");
+      return (byte) (index + 1);
+    }
+
+    private void ensureCapacity() {
+      if (size < types.length) {
+        return;
+      }
+      int capacity = types.length * 2;
+      types = Arrays.copyOf(types, capacity);
+      refs = Arrays.copyOf(refs, capacity);
+      uuids = Arrays.copyOf(uuids, capacity);
+      parents = Arrays.copyOf(parents, capacity);
+      firstChildren = Arrays.copyOf(firstChildren, capacity);
+      childCounts = Arrays.copyOf(childCounts, capacity);
+      keyBases = Arrays.copyOf(keyBases, capacity);
+      keys = Arrays.copyOf(keys, capacity);
+      names = Arrays.copyOf(names, capacity);
+      paths = Arrays.copyOf(paths, capacity);
+      lines = Arrays.copyOf(lines, capacity);
+      languageIndexes = Arrays.copyOf(languageIndexes, capacity);
+    }
+
+    public CompactComponentTree build() {
+      checkState(size > 0, "Root is not added");
+      return new CompactComponentTree(this);
+    }
+  }
+}
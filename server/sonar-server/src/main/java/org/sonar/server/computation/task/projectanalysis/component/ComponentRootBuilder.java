@@ -23,6 +23,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.function.Function;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -31,15 +34,14 @@ import org.sonar.db.component.SnapshotDto;
 import org.sonar.scanner.protocol.output.ScannerReport;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.collect.Iterables.toArray;
 import static java.lang.String.format;
 import static org.apache.commons.lang.StringUtils.trimToNull;
 import static org.sonar.core.component.ComponentKeys.createEffectiveKey;
 import static org.sonar.core.component.ComponentKeys.createKey;
-import static org.sonar.core.util.stream.MoreCollectors.toList;
 
 public class ComponentRootBuilder {
   private static final String DEFAULT_PROJECT_VERSION = "not provided";
+  private static final int NO_PARENT = -1;
 
   /**
    * Will supply the UUID for any component in the tree, given it's key.
@@ -87,54 +89,70 @@ public class ComponentRootBuilder {
     this.analysisSupplier = analysisSupplier;
   }
 
+  /**
+   * Components are added to a {@link CompactComponentTree} in breadth-first order.
+   */
   public Component build(ScannerReport.Component reportProject, String projectKey) {
-    return buildComponent(reportProject, projectKey);
+    CompactComponentTree.Builder treeBuilder = CompactComponentTree.builder();
+    Deque<PendingChildren> pendingChildren = new ArrayDeque<>();
+    addComponent(treeBuilder, pendingChildren, NO_PARENT, reportProject, projectKey);
+    while (!pendingChildren.isEmpty()) {
+      PendingChildren pending = pendingChildren.removeFirst();
+      for (Integer childRef : pending.childRefs) {
+        addComponent(treeBuilder, pendingChildren, pending.parent, scannerComponentSupplier.apply(childRef), pending.latestModuleKey);
+      }
+    }
+    return treeBuilder.build().getRoot();
   }
 
-  private ComponentImpl buildComponent(ScannerReport.Component reportComponent, String latestModuleKey) {
+  private void addComponent(CompactComponentTree.Builder treeBuilder, Deque<PendingChildren> pendingChildren, int parent,
+    ScannerReport.Component reportComponent, String latestModuleKey) {
     switch (reportComponent.getType()) {
       case PROJECT:
-        return buildProjectComponent(reportComponent, latestModuleKey);
+        addProjectComponent(treeBuilder, pendingChildren, parent, reportComponent, latestModuleKey);
+        break;
       case MODULE:
         String moduleKey = createKey(reportComponent.getKey(), branch);
-        return buildOtherComponent(reportComponent, moduleKey, moduleKey);
+        addOtherComponent(treeBuilder, pendingChildren, parent, reportComponent, moduleKey, moduleKey);
+        break;
       case DIRECTORY:
       case FILE:
-        return buildOtherComponent(reportComponent, createEffectiveKey(latestModuleKey, reportComponent.getPath()), latestModuleKey);
+        addOtherComponent(treeBuilder, pendingChildren, parent, reportComponent, createEffectiveKey(latestModuleKey, reportComponent.getPath()), latestModuleKey);
+        break;
       default:
         throw new IllegalArgumentException(format("Unsupported component type '%s'", reportComponent.getType()));
     }
   }
 
-  private ComponentImpl buildProjectComponent(ScannerReport.Component reportComponent, String latestModuleKey) {
-    ComponentImpl.Builder builder = createCommonBuilder(reportComponent, latestModuleKey, latestModuleKey);
-    return builder
-      .setName(nameOfProject(reportComponent, latestModuleKey, projectDtoSupplier))
-      .setReportAttributes(createProjectReportAttributes(reportComponent, builder.getUuid(), analysisSupplier))
-      .build();
-  }
-
-  private ComponentImpl buildOtherComponent(ScannerReport.Component reportComponent, String componentKey, String latestModuleKey) {
-    return createCommonBuilder(reportComponent, componentKey, latestModuleKey)
-      .setName(nameOfOthers(reportComponent, componentKey))
-      .setReportAttributes(createOtherReportAttributes(reportComponent))
-      .build();
+  private void addProjectComponent(CompactComponentTree.Builder treeBuilder, Deque<PendingChildren> pendingChildren, int parent,
+    ScannerReport.Component reportComponent, String latestModuleKey) {
+    String uuid = uuidSupplier.apply(latestModuleKey);
+    add(treeBuilder, pendingChildren, parent, reportComponent, uuid, latestModuleKey, latestModuleKey,
+      nameOfProject(reportComponent, latestModuleKey, projectDtoSupplier),
+      createProjectReportAttributes(reportComponent, uuid, analysisSupplier));
   }
 
-  private ComponentImpl.Builder createCommonBuilder(ScannerReport.Component reportComponent, String componentKey, String latestModuleKey) {
-    return ComponentImpl.builder(convertType(reportComponent.getType()))
-      .setUuid(uuidSupplier.apply(componentKey))
-      .setKey(componentKey)
-      .setDescription(trimToNull(reportComponent.getDescription()))
-      .setFileAttributes(createFileAttributes(reportComponent))
-      .addChildren(toArray(buildChildren(reportComponent, latestModuleKey), Component.class));
+  private void addOtherComponent(CompactComponentTree.Builder treeBuilder, Deque<PendingChildren> pendingChildren, int parent,
+    ScannerReport.Component reportComponent, String componentKey, String latestModuleKey) {
+    add(treeBuilder, pendingChildren, parent, reportComponent, uuidSupplier.apply(componentKey), componentKey, latestModuleKey,
+      nameOfOthers(reportComponent, componentKey),
+      createOtherReportAttributes(reportComponent));
   }
 
-  private Iterable<Component> buildChildren(ScannerReport.Component component, String latestModuleKey) {
-    return component.getChildRefList()
-      .stream()
-      .map(componentRef -> buildComponent(scannerComponentSupplier.apply(componentRef), latestModuleKey))
-      .collect(toList(component.getChildRefList().size()));
+  private static void add(CompactComponentTree.Builder treeBuilder, Deque<PendingChildren> pendingChildren, int parent,
+    ScannerReport.Component reportComponent, String uuid, String componentKey, String latestModuleKey, String name, ReportAttributes reportAttributes) {
+    Component.Type type = convertType(reportComponent.getType());
+    String description = trimToNull(reportComponent.getDescription());
+    FileAttributes fileAttributes = createFileAttributes(reportComponent);
+    int index;
+    if (parent == NO_PARENT) {
+      index = treeBuilder.addRoot(type, uuid, componentKey, name, description, reportAttributes, fileAttributes);
+    } else {
+      index = treeBuilder.addChild(parent, type, uuid, componentKey, name, description, reportAttributes, fileAttributes);
+    }
+    if (reportComponent.getChildRefCount() > 0) {
+      pendingChildren.addLast(new PendingChildren(index, latestModuleKey, reportComponent.getChildRefList()));
+    }
   }
 
   private static String nameOfProject(ScannerReport.Component project, String projectKey, Supplier<Optional<ComponentDto>> projectDtoSupplier) {
@@ -212,4 +230,19 @@ public class ComponentRootBuilder {
         throw new IllegalArgumentException("Unsupported ComponentType value " + type);
     }
   }
+
+  /**
+   * Children of a component which is already added to the tree
+   */
+  private static final class PendingChildren {
+    private final int parent;
+    private final String latestModuleKey;
+    private final List<Integer> childRefs;
+
+    private PendingChildren(int parent, String latestModuleKey, List<Integer> childRefs) {
+      this.parent = parent;
+      this.latestModuleKey = latestModuleKey;
+      this.childRefs = childRefs;
+    }
+  }
 }
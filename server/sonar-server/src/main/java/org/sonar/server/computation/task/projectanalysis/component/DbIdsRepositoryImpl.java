@@ -19,23 +19,64 @@
  */
 package org.sonar.server.computation.task.projectanalysis.component;
 
+import javax.annotation.CheckForNull;
+
+import static com.google.common.base.Preconditions.checkState;
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentFunctions.toReportRef;
 
 /**
- * Cache of persisted component (component id and snapshot id) that can be used in the persistence steps
+ * Cache of persisted component (component id and snapshot id) that can be used in the persistence steps.
+ * <p>
+ * Ids of the components of a {@link CompactComponentTree} are stored in an array indexed like the tree, instead of a map.
+ * </p>
  */
 public class DbIdsRepositoryImpl implements MutableDbIdsRepository {
+  private static final long NO_ID = 0L;
 
   private final MapBasedDbIdsRepository<Integer> delegate = new MapBasedDbIdsRepository<>(toReportRef());
+  @CheckForNull
+  private CompactComponentTree tree;
+  @CheckForNull
+  private long[] componentIds;
 
   @Override
   public DbIdsRepository setComponentId(Component component, long componentId) {
-    return delegate.setComponentId(component, componentId);
+    long[] ids = componentIdsOf(component);
+    if (ids == null) {
+      return delegate.setComponentId(component, componentId);
+    }
+    int index = tree.indexOf(component);
+    checkState(ids[index] == NO_ID,
+      "Component id '%s' is already registered in repository for Component '%s', can not set new id '%s'", ids[index], component.getKey(), componentId);
+    ids[index] = componentId;
+    return this;
   }
 
   @Override
   public long getComponentId(Component component) {
-    return delegate.getComponentId(component);
+    long[] ids = componentIdsOf(component);
+    if (ids == null) {
+      return delegate.getComponentId(component);
+    }
+    long componentId = ids[tree.indexOf(component)];
+    checkState(componentId != NO_ID, "No component id registered in repository for Component '%s'", component.getKey());
+    return componentId;
+  }
+
+  /**
+   * @return {@code null} if component does not belong to the {@link CompactComponentTree} of the first registered component
+   */
+  @CheckForNull
+  private long[] componentIdsOf(Component component) {
+    CompactComponentTree componentTree = CompactComponentTree.treeOf(component);
+    if (componentTree == null) {
+      return null;
+    }
+    if (tree == null) {
+      tree = componentTree;
+      componentIds = new long[componentTree.size()];
+    }
+    return tree == componentTree ? componentIds : null;
   }
 
   @Override
@@ -30,8 +30,14 @@ import static org.sonar.server.computation.task.projectanalysis.component.Compon
 
 /**
  * Holds the reference to the root of the {@link Component} tree for the current CE run.
+ * <p>
+ * Lookups are delegated to the {@link CompactComponentTree} of the root, if any. Otherwise components are indexed
+ * on first lookup.
+ * </p>
  */
 public class TreeRootHolderImpl implements MutableTreeRootHolder {
+  @CheckForNull
+  private CompactComponentTree compactTree;
   @CheckForNull
   private Map<Integer, Component> componentsByRef;
   @CheckForNull
@@ -43,6 +49,7 @@ public class TreeRootHolderImpl implements MutableTreeRootHolder {
   public MutableTreeRootHolder setRoot(Component root) {
     checkState(this.root == null, "root can not be set twice in holder");
     this.root = requireNonNull(root, "root can not be null");
+    this.compactTree = CompactComponentTree.treeOf(root);
     return this;
   }
 
@@ -55,8 +62,13 @@ public class TreeRootHolderImpl implements MutableTreeRootHolder {
   @Override
   public Component getComponentByRef(int ref) {
     checkInitialized();
-    ensureComponentByRefIsPopulated();
-    Component component = componentsByRef.get(ref);
+    Component component;
+    if (compactTree != null) {
+      component = compactTree.getByRef(ref);
+    } else {
+      ensureComponentByRefIsPopulated();
+      component = componentsByRef.get(ref);
+    }
     checkArgument(component != null, "Component with ref '%s' can't be found", ref);
     return component;
   }
@@ -81,8 +93,7 @@ public class TreeRootHolderImpl implements MutableTreeRootHolder {
   public Component getComponentByKey(String key) {
     checkKeyArgument(key);
     checkInitialized();
-    ensureComponentByKeyIsPopulated();
-    Component component = componentsByKey.get(key);
+    Component component = lookupByKey(key);
     checkArgument(component != null, "Component with key '%s' can't be found", key);
     return component;
   }
@@ -91,9 +102,16 @@ public class TreeRootHolderImpl implements MutableTreeRootHolder {
   public boolean hasComponentWithKey(String key) {
     checkKeyArgument(key);
     checkInitialized();
-    ensureComponentByKeyIsPopulated();
+    return lookupByKey(key) != null;
+  }
 
-    return componentsByKey.containsKey(key);
+  @CheckForNull
+  private Component lookupByKey(String key) {
+    if (compactTree != null) {
+      return compactTree.getByKey(key);
+    }
+    ensureComponentByKeyIsPopulated();
+    return componentsByKey.get(key);
   }
 
   private void checkInitialized() {
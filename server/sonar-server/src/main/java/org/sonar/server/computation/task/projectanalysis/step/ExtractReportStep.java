@@ -28,9 +28,9 @@ import org.sonar.api.utils.MessageException;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.ZipUtils;
 import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskInputStorage;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
-import org.sonar.db.ce.CeTaskInputDao;
 import org.sonar.server.computation.task.projectanalysis.batch.MutableBatchReportDirectoryHolder;
 import org.sonar.server.computation.task.step.ComputationStep;
 
@@ -41,13 +41,15 @@ import org.sonar.server.computation.task.step.ComputationStep;
 public class ExtractReportStep implements ComputationStep {
 
   private final DbClient dbClient;
+  private final CeTaskInputStorage taskInputStorage;
   private final CeTask task;
   private final TempFolder tempFolder;
   private final MutableBatchReportDirectoryHolder reportDirectoryHolder;
 
-  public ExtractReportStep(DbClient dbClient, CeTask task, TempFolder tempFolder,
+  public ExtractReportStep(DbClient dbClient, CeTaskInputStorage taskInputStorage, CeTask task, TempFolder tempFolder,
     MutableBatchReportDirectoryHolder reportDirectoryHolder) {
     this.dbClient = dbClient;
+    this.taskInputStorage = taskInputStorage;
     this.task = task;
     this.tempFolder = tempFolder;
     this.reportDirectoryHolder = reportDirectoryHolder;
@@ -56,14 +58,13 @@ public class ExtractReportStep implements ComputationStep {
   @Override
   public void execute() {
     try (DbSession dbSession = dbClient.openSession(false)) {
-      Optional<CeTaskInputDao.DataStream> opt = dbClient.ceTaskInputDao().selectData(dbSession, task.getUuid());
+      Optional<InputStream> opt = taskInputStorage.read(dbSession, task.getUuid());
       if (opt.isPresent()) {
         File unzippedDir = tempFolder.newDir();
-        try (CeTaskInputDao.DataStream reportStream = opt.get();
-             InputStream zipStream = new BufferedInputStream(reportStream.getInputStream())) {
+        try (InputStream zipStream = new BufferedInputStream(opt.get())) {
           ZipUtils.unzip(zipStream, unzippedDir);
         } catch (IOException e) {
-          throw new IllegalStateException("Fail to extract report " + task.getUuid() + " from database", e);
+          throw new IllegalStateException("Fail to extract report " + task.getUuid(), e);
         }
         reportDirectoryHolder.setDirectory(unzippedDir);
       } else {
@@ -19,30 +19,54 @@
  */
 package org.sonar.server.computation.task.projectanalysis.step;
 
+import java.util.Locale;
+import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 import org.sonar.server.computation.task.step.ComputationStep;
+import org.sonar.server.es.BulkIndexer.RefreshPolicy;
 import org.sonar.server.es.ProjectIndexer;
 
 public class IndexAnalysisStep implements ComputationStep {
 
+  /**
+   * How indices are refreshed once the analysis is indexed. One of "immediate" (default), "wait_for"
+   * or "coalesced". See {@link RefreshPolicy}.
+   */
+  public static final String REFRESH_POLICY_PROPERTY = "sonar.ce.indexAnalysis.refreshPolicy";
+
   private static final Logger LOGGER = Loggers.get(IndexAnalysisStep.class);
 
   private final TreeRootHolder treeRootHolder;
+  private final Settings settings;
   private final ProjectIndexer[] indexers;
 
-  public IndexAnalysisStep(TreeRootHolder treeRootHolder, ProjectIndexer... indexers) {
+  public IndexAnalysisStep(TreeRootHolder treeRootHolder, Settings settings, ProjectIndexer... indexers) {
     this.treeRootHolder = treeRootHolder;
+    this.settings = settings;
     this.indexers = indexers;
   }
 
   @Override
   public void execute() {
     String projectUuid = treeRootHolder.getRoot().getUuid();
+    RefreshPolicy refreshPolicy = refreshPolicy();
     for (ProjectIndexer indexer : indexers) {
       LOGGER.debug("Call {}", indexer);
-      indexer.indexProject(projectUuid, ProjectIndexer.Cause.NEW_ANALYSIS);
+      indexer.indexProject(projectUuid, ProjectIndexer.Cause.NEW_ANALYSIS, refreshPolicy);
+    }
+  }
+
+  private RefreshPolicy refreshPolicy() {
+    String value = settings.getString(REFRESH_POLICY_PROPERTY);
+    if (value == null || value.isEmpty()) {
+      return RefreshPolicy.IMMEDIATE;
+    }
+    try {
+      return RefreshPolicy.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException(String.format("Unsupported value of property %s: %s", REFRESH_POLICY_PROPERTY, value), e);
     }
   }
 
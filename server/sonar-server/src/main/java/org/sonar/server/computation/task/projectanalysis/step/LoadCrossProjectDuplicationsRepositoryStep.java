@@ -20,9 +20,18 @@
 package org.sonar.server.computation.task.projectanalysis.step;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.db.DbClient;
@@ -57,6 +66,11 @@ import static org.sonar.server.computation.task.projectanalysis.component.Compon
 public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationStep {
 
   private static final Logger LOGGER = Loggers.get(LoadCrossProjectDuplicationsRepositoryStep.class);
+  /**
+   * Number of distinct block hashes of a language above which candidates are loaded from database.
+   * It bounds the number of blocks kept in memory.
+   */
+  private static final int MAX_HASHES_PER_BATCH = 10_000;
 
   private final TreeRootHolder treeRootHolder;
   private final BatchReportReader reportReader;
@@ -79,7 +93,9 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
   @Override
   public void execute() {
     if (crossProjectDuplicationStatusHolder.isEnabled()) {
-      new DepthTraversalTypeAwareCrawler(new CrossProjectDuplicationVisitor()).visit(treeRootHolder.getRoot());
+      CrossProjectDuplicationVisitor visitor = new CrossProjectDuplicationVisitor();
+      new DepthTraversalTypeAwareCrawler(visitor).visit(treeRootHolder.getRoot());
+      visitor.flush();
     }
   }
 
@@ -88,7 +104,12 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
     return "Compute cross project duplications";
   }
 
+  /**
+   * Files are grouped by language, so that candidates of many files are loaded with a single
+   * query (partitioned by {@link org.sonar.db.DatabaseUtils#executeLargeInputs}) instead of one query per file.
+   */
   private class CrossProjectDuplicationVisitor extends TypeAwareVisitorAdapter {
+    private final Map<String, FilesBatch> batchesByLanguage = new HashMap<>();
 
     private CrossProjectDuplicationVisitor() {
       super(CrawlerDepthLimit.FILE, PRE_ORDER);
@@ -102,34 +123,77 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
         return;
       }
 
-      Collection<String> hashes = from(cpdTextBlocks).transform(CpdTextBlockToHash.INSTANCE).toList();
-      List<DuplicationUnitDto> dtos = selectDuplicates(file, hashes);
+      String language = file.getFileAttributes().getLanguageKey();
+      FilesBatch batch = batchesByLanguage.computeIfAbsent(language, FilesBatch::new);
+      batch.add(file, cpdTextBlocks);
+      if (batch.hashes.size() >= MAX_HASHES_PER_BATCH) {
+        batchesByLanguage.remove(language);
+        computeCpd(batch);
+      }
+    }
+
+    private void flush() {
+      batchesByLanguage.values().forEach(this::computeCpd);
+      batchesByLanguage.clear();
+    }
+
+    private void computeCpd(FilesBatch batch) {
+      List<DuplicationUnitDto> dtos = selectDuplicates(batch.language, batch.hashes);
       if (dtos.isEmpty()) {
         return;
       }
 
-      Collection<Block> duplicatedBlocks = from(dtos).transform(DtoToBlock.INSTANCE).toList();
-      Collection<Block> originBlocks = from(cpdTextBlocks).transform(new CpdTextBlockToBlock(file.getKey())).toList();
-      LOGGER.trace("Found {} duplicated cpd blocks on file {}", duplicatedBlocks.size(), file.getKey());
-
-      integrateCrossProjectDuplications.computeCpd(file, originBlocks, duplicatedBlocks);
+      ListMultimap<String, DuplicationUnitDto> dtosByHash = Multimaps.index(dtos, DuplicationUnitDto::getHash);
+      for (FileBlocks fileBlocks : batch.files) {
+        Collection<Block> duplicatedBlocks = fileBlocks.blocks.stream()
+          .map(CpdTextBlock::getHash)
+          .distinct()
+          .flatMap(hash -> dtosByHash.get(hash).stream())
+          .map(DtoToBlock.INSTANCE::apply)
+          .collect(Collectors.toList());
+        if (duplicatedBlocks.isEmpty()) {
+          continue;
+        }
+
+        Component file = fileBlocks.file;
+        Collection<Block> originBlocks = from(fileBlocks.blocks).transform(new CpdTextBlockToBlock(file.getKey())).toList();
+        LOGGER.trace("Found {} duplicated cpd blocks on file {}", duplicatedBlocks.size(), file.getKey());
+
+        integrateCrossProjectDuplications.computeCpd(file, originBlocks, duplicatedBlocks);
+      }
     }
 
-    private List<DuplicationUnitDto> selectDuplicates(Component file, Collection<String> hashes) {
+    private List<DuplicationUnitDto> selectDuplicates(@Nullable String language, Collection<String> hashes) {
       try (DbSession dbSession = dbClient.openSession(false)) {
         Analysis projectAnalysis = analysisMetadataHolder.getBaseAnalysis();
         String analysisUuid = projectAnalysis == null ? null : projectAnalysis.getUuid();
-        return dbClient.duplicationDao().selectCandidates(dbSession, analysisUuid, file.getFileAttributes().getLanguageKey(), hashes);
+        return dbClient.duplicationDao().selectCandidates(dbSession, analysisUuid, language, hashes);
       }
     }
   }
 
-  private enum CpdTextBlockToHash implements Function<CpdTextBlock, String> {
-    INSTANCE;
+  private static class FilesBatch {
+    private final String language;
+    private final List<FileBlocks> files = new ArrayList<>();
+    private final Set<String> hashes = new HashSet<>();
 
-    @Override
-    public String apply(@Nonnull CpdTextBlock duplicationBlock) {
-      return duplicationBlock.getHash();
+    private FilesBatch(@Nullable String language) {
+      this.language = language;
+    }
+
+    private void add(Component file, List<CpdTextBlock> blocks) {
+      files.add(new FileBlocks(file, blocks));
+      blocks.forEach(block -> hashes.add(block.getHash()));
+    }
+  }
+
+  private static class FileBlocks {
+    private final Component file;
+    private final List<CpdTextBlock> blocks;
+
+    private FileBlocks(Component file, List<CpdTextBlock> blocks) {
+      this.file = file;
+      this.blocks = blocks;
     }
   }
 
@@ -19,6 +19,8 @@
  */
 package org.sonar.server.computation.task.projectanalysis.step;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.sonar.core.util.CloseableIterator;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -33,14 +35,20 @@ import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolde
 import org.sonar.server.computation.task.projectanalysis.component.TypeAwareVisitorAdapter;
 import org.sonar.server.computation.task.projectanalysis.duplication.CrossProjectDuplicationStatusHolder;
 import org.sonar.server.computation.task.step.ComputationStep;
+import org.sonar.server.computation.task.step.DependsOn;
 
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
 
 /**
  * Persist cross project duplications text blocks into DUPLICATIONS_INDEX table
  */
+// Rows reference the analysis, which stays unprocessed until EnableAnalysisStep. If the task fails, they are deleted
+// by the purge of aborted analyses.
+@DependsOn(PersistAnalysisStep.class)
 public class PersistCrossProjectDuplicationIndexStep implements ComputationStep {
 
+  private static final int MAX_UNITS_PER_INSERT = 1000;
+
   private final DbClient dbClient;
   private final TreeRootHolder treeRootHolder;
   private final AnalysisMetadataHolder analysisMetadataHolder;
@@ -65,7 +73,9 @@ public class PersistCrossProjectDuplicationIndexStep implements ComputationStep
 
     try (DbSession dbSession = dbClient.openSession(true)) {
       Component project = treeRootHolder.getRoot();
-      new DepthTraversalTypeAwareCrawler(new DuplicationVisitor(dbSession, analysisMetadataHolder.getUuid())).visit(project);
+      DuplicationVisitor visitor = new DuplicationVisitor(dbSession, analysisMetadataHolder.getUuid());
+      new DepthTraversalTypeAwareCrawler(visitor).visit(project);
+      visitor.flush();
       dbSession.commit();
     }
   }
@@ -74,6 +84,7 @@ public class PersistCrossProjectDuplicationIndexStep implements ComputationStep
 
     private final DbSession session;
     private final String analysisUuid;
+    private final List<DuplicationUnitDto> units = new ArrayList<>(MAX_UNITS_PER_INSERT);
 
     private DuplicationVisitor(DbSession session, String analysisUuid) {
       super(CrawlerDepthLimit.FILE, PRE_ORDER);
@@ -92,21 +103,29 @@ public class PersistCrossProjectDuplicationIndexStep implements ComputationStep
       try {
         while (blocks.hasNext()) {
           ScannerReport.CpdTextBlock block = blocks.next();
-          dbClient.duplicationDao().insert(
-            session,
-            new DuplicationUnitDto()
-              .setHash(block.getHash())
-              .setStartLine(block.getStartLine())
-              .setEndLine(block.getEndLine())
-              .setIndexInFile(indexInFile)
-              .setAnalysisUuid(analysisUuid)
-              .setComponentUuid(component.getUuid()));
+          units.add(new DuplicationUnitDto()
+            .setHash(block.getHash())
+            .setStartLine(block.getStartLine())
+            .setEndLine(block.getEndLine())
+            .setIndexInFile(indexInFile)
+            .setAnalysisUuid(analysisUuid)
+            .setComponentUuid(component.getUuid()));
           indexInFile++;
+          if (units.size() >= MAX_UNITS_PER_INSERT) {
+            flush();
+          }
         }
       } finally {
         blocks.close();
       }
     }
+
+    private void flush() {
+      if (!units.isEmpty()) {
+        dbClient.duplicationDao().insert(session, units);
+        units.clear();
+      }
+    }
   }
 
   @Override
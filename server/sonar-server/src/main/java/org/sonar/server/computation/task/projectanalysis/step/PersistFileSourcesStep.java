@@ -57,9 +57,14 @@ import org.sonar.server.computation.task.projectanalysis.source.ScmLineReader;
 import org.sonar.server.computation.task.projectanalysis.source.SourceLinesRepository;
 import org.sonar.server.computation.task.projectanalysis.source.SymbolsLineReader;
 import org.sonar.server.computation.task.step.ComputationStep;
+import org.sonar.server.computation.task.step.DependsOn;
 
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
 
+// Sources of the previous analysis are read by SCM info and issue tracking until the end of visitors. As for the other
+// persistence steps, nothing is written before the analysis is persisted, so that a failure of a computation step
+// leaves the data of the previous analysis untouched.
+@DependsOn(PersistAnalysisStep.class)
 public class PersistFileSourcesStep implements ComputationStep {
 
   private final DbClient dbClient;
@@ -23,14 +23,26 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
+import org.sonar.db.component.SnapshotDto;
+import org.sonar.db.component.SnapshotQuery;
 import org.sonar.db.measure.MeasureDao;
 import org.sonar.db.measure.MeasureDto;
+import org.sonar.db.measure.MeasureHistoryDto;
+import org.sonar.db.measure.MeasureHistoryPoint;
+import org.sonar.db.measure.PastMeasureQuery;
+import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolder;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.CrawlerDepthLimit;
 import org.sonar.server.computation.task.projectanalysis.component.DepthTraversalTypeAwareCrawler;
@@ -45,9 +57,11 @@ import org.sonar.server.computation.task.projectanalysis.metric.MetricRepository
 import org.sonar.server.computation.task.step.ComputationStep;
 
 import static com.google.common.collect.FluentIterable.from;
+import static com.google.common.collect.Sets.difference;
 import static org.sonar.api.measures.CoreMetrics.CLASS_COMPLEXITY_DISTRIBUTION_KEY;
 import static org.sonar.api.measures.CoreMetrics.FILE_COMPLEXITY_DISTRIBUTION_KEY;
 import static org.sonar.api.measures.CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION_KEY;
+import static org.sonar.db.component.SnapshotDto.STATUS_PROCESSED;
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
 
 public class PersistMeasuresStep implements ComputationStep {
@@ -65,14 +79,16 @@ public class PersistMeasuresStep implements ComputationStep {
   private final MeasureToMeasureDto measureToMeasureDto;
   private final TreeRootHolder treeRootHolder;
   private final MeasureRepository measureRepository;
+  private final AnalysisMetadataHolder analysisMetadataHolder;
 
   public PersistMeasuresStep(DbClient dbClient, MetricRepository metricRepository, MeasureToMeasureDto measureToMeasureDto,
-    TreeRootHolder treeRootHolder, MeasureRepository measureRepository) {
+    TreeRootHolder treeRootHolder, MeasureRepository measureRepository, AnalysisMetadataHolder analysisMetadataHolder) {
     this.dbClient = dbClient;
     this.metricRepository = metricRepository;
     this.measureToMeasureDto = measureToMeasureDto;
     this.treeRootHolder = treeRootHolder;
     this.measureRepository = measureRepository;
+    this.analysisMetadataHolder = analysisMetadataHolder;
   }
 
   @Override
@@ -82,21 +98,91 @@ public class PersistMeasuresStep implements ComputationStep {
 
   @Override
   public void execute() {
+    Map<Integer, Double> rootValuesByMetricId = new HashMap<>();
     DbSession dbSession = dbClient.openSession(true);
     try {
-      new DepthTraversalTypeAwareCrawler(new MeasureVisitor(dbSession)).visit(treeRootHolder.getRoot());
+      new DepthTraversalTypeAwareCrawler(new MeasureVisitor(dbSession, rootValuesByMetricId)).visit(treeRootHolder.getRoot());
       dbSession.commit();
     } finally {
       dbSession.close();
     }
+    // not in the batch session, which can't tell whether a row has been updated
+    try (DbSession historySession = dbClient.openSession(false)) {
+      persistHistory(historySession, treeRootHolder.getRoot().getUuid(), rootValuesByMetricId);
+      historySession.commit();
+    }
+  }
+
+  /**
+   * Appends the numerical values of the root component to table measure_history. The history of a metric which is
+   * not in this table yet is first loaded from the measures of the previous analyses.
+   */
+  private void persistHistory(DbSession dbSession, String rootUuid, Map<Integer, Double> valuesByMetricId) {
+    if (valuesByMetricId.isEmpty()) {
+      return;
+    }
+    long analysisDate = analysisMetadataHolder.getAnalysisDate();
+    Map<Integer, List<MeasureHistoryPoint>> pointsByMetricId = new HashMap<>();
+    dbClient.measureHistoryDao().selectByComponentUuidAndMetricIds(dbSession, rootUuid, valuesByMetricId.keySet())
+      .forEach(history -> pointsByMetricId.put(history.getMetricId(), history.getPoints()));
+    Set<Integer> metricIdsWithoutHistory = difference(valuesByMetricId.keySet(), pointsByMetricId.keySet()).immutableCopy();
+    pointsByMetricId.putAll(loadPastPoints(dbSession, rootUuid, metricIdsWithoutHistory, analysisDate));
+
+    valuesByMetricId.forEach((metricId, value) -> {
+      // the task may be re-executed, so points of the same or of a later analysis are replaced
+      List<MeasureHistoryPoint> points = pointsByMetricId.getOrDefault(metricId, new ArrayList<>()).stream()
+        .filter(point -> point.getDate() < analysisDate)
+        .collect(MoreCollectors.toArrayList());
+      points.add(new MeasureHistoryPoint(analysisDate, value));
+      dbClient.measureHistoryDao().insertOrUpdate(dbSession, new MeasureHistoryDto()
+        .setComponentUuid(rootUuid)
+        .setMetricId(metricId)
+        .setPoints(points));
+    });
+  }
+
+  private Map<Integer, List<MeasureHistoryPoint>> loadPastPoints(DbSession dbSession, String rootUuid, Set<Integer> metricIds, long analysisDate) {
+    Map<Integer, List<MeasureHistoryPoint>> pointsByMetricId = new HashMap<>();
+    if (metricIds.isEmpty()) {
+      return pointsByMetricId;
+    }
+    Map<String, Long> datesByAnalysisUuid = dbClient.snapshotDao().selectAnalysesByQuery(dbSession, new SnapshotQuery()
+      .setComponentUuid(rootUuid)
+      .setStatus(STATUS_PROCESSED)
+      .setCreatedBefore(analysisDate))
+      .stream()
+      .collect(MoreCollectors.uniqueIndex(SnapshotDto::getUuid, SnapshotDto::getCreatedAt));
+    if (datesByAnalysisUuid.isEmpty()) {
+      return pointsByMetricId;
+    }
+    PastMeasureQuery query = new PastMeasureQuery(rootUuid, new ArrayList<>(metricIds), null, analysisDate);
+    for (MeasureDto measure : dbClient.measureDao().selectPastMeasures(dbSession, query)) {
+      Long date = datesByAnalysisUuid.get(measure.getAnalysisUuid());
+      Double value = historyValue(metricRepository.getById(measure.getMetricId()), measure);
+      if (date != null && value != null) {
+        pointsByMetricId.computeIfAbsent(measure.getMetricId(), id -> new ArrayList<>()).add(new MeasureHistoryPoint(date, value));
+      }
+    }
+    pointsByMetricId.values().forEach(points -> points.sort(Comparator.comparingLong(MeasureHistoryPoint::getDate)));
+    return pointsByMetricId;
+  }
+
+  /**
+   * The value returned by api/measures/search_history: the variation for metrics on new code, else the numerical value.
+   */
+  @CheckForNull
+  private static Double historyValue(Metric metric, MeasureDto measureDto) {
+    return metric.getKey().startsWith("new_") ? measureDto.getVariation() : measureDto.getValue();
   }
 
   private class MeasureVisitor extends TypeAwareVisitorAdapter {
     private final DbSession session;
+    private final Map<Integer, Double> rootValuesByMetricId;
 
-    private MeasureVisitor(DbSession session) {
+    private MeasureVisitor(DbSession session, Map<Integer, Double> rootValuesByMetricId) {
       super(CrawlerDepthLimit.LEAVES, PRE_ORDER);
       this.session = session;
+      this.rootValuesByMetricId = rootValuesByMetricId;
     }
 
     @Override
@@ -118,10 +204,20 @@ public class PersistMeasuresStep implements ComputationStep {
         for (Measure measure : from(measures.getValue()).filter(NonEmptyMeasure.INSTANCE).filter(notBestValueOptimized)) {
           MeasureDto measureDto = measureToMeasureDto.toMeasureDto(measure, metric, component);
           measureDao.insert(session, measureDto);
+          collectRootValue(component, metric, measure, measureDto);
         }
       }
     }
 
+    private void collectRootValue(Component component, Metric metric, Measure measure, MeasureDto measureDto) {
+      if (!component.getUuid().equals(treeRootHolder.getRoot().getUuid()) || measure.getDeveloper() != null) {
+        return;
+      }
+      Double value = historyValue(metric, measureDto);
+      if (value != null) {
+        rootValuesByMetricId.put(metric.getId(), value);
+      }
+    }
   }
 
   private enum NonEmptyMeasure implements Predicate<Measure> {
@@ -52,7 +52,11 @@ import org.sonar.server.computation.task.projectanalysis.component.DepthTraversa
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 import org.sonar.server.computation.task.projectanalysis.component.TypeAwareVisitorAdapter;
 import org.sonar.server.computation.task.step.ComputationStep;
+import org.sonar.server.computation.task.step.DependsOn;
 
+// As for the other persistence steps, nothing is written before the analysis is persisted, so that a failure of a
+// computation step leaves the data of the previous analysis untouched.
+@DependsOn(PersistAnalysisStep.class)
 public class PersistTestsStep implements ComputationStep {
 
   private static final Logger LOG = Loggers.get(PersistTestsStep.class);
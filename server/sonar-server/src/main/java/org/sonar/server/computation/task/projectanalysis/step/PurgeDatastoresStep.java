@@ -19,8 +19,13 @@
  */
 package org.sonar.server.computation.task.projectanalysis.step;
 
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.ce.queue.CeQueue;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.purge.IdUuidPair;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.DbIdsRepository;
@@ -37,23 +42,31 @@ import static org.sonar.server.computation.task.projectanalysis.component.Compon
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
 import static org.sonar.server.computation.task.projectanalysis.component.CrawlerDepthLimit.reportMaxDepth;
 
+/**
+ * Purges the components disabled by the analysis, then submits a task {@link CeTaskTypes#PROJECT_PURGE} to clean
+ * the history of the project, so that the analysis does not wait for the deletion of old analyses.
+ */
 public class PurgeDatastoresStep implements ComputationStep {
 
+  private static final Logger LOG = Loggers.get(PurgeDatastoresStep.class);
+
   private final ProjectCleaner projectCleaner;
   private final DbClient dbClient;
   private final DbIdsRepository dbIdsRepository;
   private final TreeRootHolder treeRootHolder;
   private final SettingsRepository settingsRepository;
   private final DisabledComponentsHolder disabledComponentsHolder;
+  private final CeQueue queue;
 
   public PurgeDatastoresStep(DbClient dbClient, ProjectCleaner projectCleaner, DbIdsRepository dbIdsRepository, TreeRootHolder treeRootHolder,
-    SettingsRepository settingsRepository, DisabledComponentsHolder disabledComponentsHolder) {
+    SettingsRepository settingsRepository, DisabledComponentsHolder disabledComponentsHolder, CeQueue queue) {
     this.projectCleaner = projectCleaner;
     this.dbClient = dbClient;
     this.dbIdsRepository = dbIdsRepository;
     this.treeRootHolder = treeRootHolder;
     this.settingsRepository = settingsRepository;
     this.disabledComponentsHolder = disabledComponentsHolder;
+    this.queue = queue;
   }
 
   @Override
@@ -75,8 +88,24 @@ public class PurgeDatastoresStep implements ComputationStep {
   private void execute(Component root) {
     try (DbSession dbSession = dbClient.openSession(true)) {
       IdUuidPair idUuidPair = new IdUuidPair(dbIdsRepository.getComponentId(root), root.getUuid());
-      projectCleaner.purge(dbSession, idUuidPair, settingsRepository.getSettings(root), disabledComponentsHolder.getUuids());
+      projectCleaner.purgeDisabledComponents(dbSession, idUuidPair, settingsRepository.getSettings(root), disabledComponentsHolder.getUuids());
       dbSession.commit();
+      submitPurge(dbSession, root.getUuid());
+    }
+  }
+
+  private void submitPurge(DbSession dbSession, String rootUuid) {
+    if (queue.isSubmitPaused()) {
+      LOG.info("Submit of tasks is paused, history of component '{}' will be purged after its next analysis", rootUuid);
+      return;
+    }
+    boolean alreadyPending = dbClient.ceQueueDao().selectByComponentUuid(dbSession, rootUuid).stream()
+      .anyMatch(task -> CeTaskTypes.PROJECT_PURGE.equals(task.getTaskType()) && task.getStatus() == CeQueueDto.Status.PENDING);
+    if (!alreadyPending) {
+      queue.submit(queue.prepareSubmit()
+        .setType(CeTaskTypes.PROJECT_PURGE)
+        .setComponentUuid(rootUuid)
+        .build());
     }
   }
 
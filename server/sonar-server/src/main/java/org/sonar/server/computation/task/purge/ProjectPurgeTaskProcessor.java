@@ -0,0 +1,132 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.purge;
+
+import com.google.common.base.Optional;
+import java.util.Collections;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskResult;
+import org.sonar.ce.settings.ProjectSettingsFactory;
+import org.sonar.ce.taskprocessor.CeTaskProcessor;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.purge.IdUuidPair;
+import org.sonar.db.purge.PurgeProfiler;
+import org.sonar.server.computation.dbcleaner.DbLoadPurgeThrottler;
+import org.sonar.server.computation.dbcleaner.ProjectCleaner;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+
+/**
+ * Cleans the history of a project or view, as submitted by the step
+ * {@link org.sonar.server.computation.task.projectanalysis.step.PurgeDatastoresStep} of its analysis.
+ * <p>
+ * Analyses are deleted by chunks, each one being committed and followed by a pause depending on the load of the
+ * database (see {@link DbLoadPurgeThrottler}). If a chunk fails, the chunks already deleted are kept and the purge
+ * is attempted again, up to {@link #MAX_ATTEMPTS} times, from the remaining analyses. The number of rows deleted per
+ * table by the committed chunks is saved in table CE_TASK_COUNTERS.
+ * </p>
+ * <p>
+ * As tasks of a given component are never processed concurrently, the next analysis report of the project is not
+ * processed as long as this task runs, pauses of the throttling included.
+ * </p>
+ */
+public class ProjectPurgeTaskProcessor implements CeTaskProcessor {
+
+  private static final Logger LOG = Loggers.get(ProjectPurgeTaskProcessor.class);
+  private static final Set<String> HANDLED_TYPES = Collections.singleton(CeTaskTypes.PROJECT_PURGE);
+  static final int MAX_ATTEMPTS = 3;
+
+  private final DbClient dbClient;
+  private final ProjectCleaner projectCleaner;
+  private final ProjectSettingsFactory projectSettingsFactory;
+  private final DbLoadPurgeThrottler throttler;
+
+  public ProjectPurgeTaskProcessor(DbClient dbClient, ProjectCleaner projectCleaner, ProjectSettingsFactory projectSettingsFactory,
+    DbLoadPurgeThrottler throttler) {
+    this.dbClient = dbClient;
+    this.projectCleaner = projectCleaner;
+    this.projectSettingsFactory = projectSettingsFactory;
+    this.throttler = throttler;
+  }
+
+  @Override
+  public Set<String> getHandledCeTaskTypes() {
+    return HANDLED_TYPES;
+  }
+
+  @Override
+  @CheckForNull
+  public CeTaskResult process(CeTask task) {
+    String componentUuid = task.getComponentUuid();
+    checkState(componentUuid != null, "Component of task '%s' is missing", task.getUuid());
+
+    // not a batch session, as the number of deleted rows is not returned by the statements of batch sessions.
+    // Chunks are committed one by one anyway.
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      Optional<ComponentDto> component = dbClient.componentDao().selectByUuid(dbSession, componentUuid);
+      if (!component.isPresent()) {
+        LOG.info("Component '{}' does not exist anymore, nothing to purge", componentUuid);
+        return null;
+      }
+      ComponentDto project = component.get();
+      PurgeProfiler profiler = new PurgeProfiler();
+      try {
+        purgeHistory(dbSession, project, profiler);
+      } finally {
+        saveCounters(task, profiler);
+      }
+    }
+    return null;
+  }
+
+  private void purgeHistory(DbSession dbSession, ComponentDto project, PurgeProfiler profiler) {
+    IdUuidPair idUuidPair = new IdUuidPair(project.getId(), project.uuid());
+    Settings settings = projectSettingsFactory.newProjectSettings(project.getKey());
+    for (int attempt = 1;; attempt++) {
+      try {
+        projectCleaner.purgeHistory(dbSession, idUuidPair, settings, profiler, throttler);
+        return;
+      } catch (RuntimeException e) {
+        if (attempt >= MAX_ATTEMPTS) {
+          throw e;
+        }
+        LOG.warn(format("Fail to purge history of component '%s' (attempt %d of %d)", project.getKey(), attempt, MAX_ATTEMPTS), e);
+        dbSession.rollback();
+        profiler.rollbackDeletedRows();
+      }
+    }
+  }
+
+  private void saveCounters(CeTask task, PurgeProfiler profiler) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.ceTaskCountersDao().replace(dbSession, task.getUuid(), profiler.getDeletedRows());
+      dbSession.commit();
+    }
+  }
+}
@@ -19,16 +19,42 @@
  */
 package org.sonar.server.computation.task.step;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.slf4j.MDC;
+import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.logs.Profiler;
 
+import static com.google.common.base.Preconditions.checkState;
+
 public final class ComputationStepExecutor {
+  /**
+   * Maximum number of steps executed concurrently. Default value is 1: steps are executed sequentially,
+   * in the order of {@link ComputationSteps#instances()}. See {@link DependsOn}.
+   */
+  public static final String PROPERTY_THREADS = "sonar.ce.computationStepThreads";
+
   private static final Logger LOGGER = Loggers.get(ComputationStepExecutor.class);
+  private static final String THREAD_NAME_PREFIX = "ce-step-";
 
   private final ComputationSteps steps;
+  private final int threads;
   @CheckForNull
   private final Listener listener;
 
@@ -37,11 +63,28 @@ public final class ComputationStepExecutor {
    * container.
    */
   public ComputationStepExecutor(ComputationSteps steps) {
-    this(steps, null);
+    this(steps, 1, null);
   }
 
   public ComputationStepExecutor(ComputationSteps steps, @Nullable Listener listener) {
+    this(steps, 1, listener);
+  }
+
+  /**
+   * Used when no {@link ComputationStepExecutor.Listener} is available in pico
+   * container.
+   */
+  public ComputationStepExecutor(ComputationSteps steps, Settings settings) {
+    this(steps, settings, null);
+  }
+
+  public ComputationStepExecutor(ComputationSteps steps, Settings settings, @Nullable Listener listener) {
+    this(steps, settings.getInt(PROPERTY_THREADS), listener);
+  }
+
+  ComputationStepExecutor(ComputationSteps steps, int threads, @Nullable Listener listener) {
     this.steps = steps;
+    this.threads = Math.max(1, threads);
     this.listener = listener;
   }
 
@@ -59,7 +102,12 @@ public final class ComputationStepExecutor {
   }
 
   private void executeSteps(Profiler stepProfiler) {
-    for (ComputationStep step : steps.instances()) {
+    List<ComputationStep> instances = ImmutableList.copyOf(steps.instances());
+    if (threads > 1 && instances.size() > 1) {
+      new ConcurrentExecution(instances).run(Math.min(threads, instances.size()));
+      return;
+    }
+    for (ComputationStep step : instances) {
       stepProfiler.start();
       step.execute();
       stepProfiler.stopDebug(step.getDescription());
@@ -76,6 +124,120 @@ public final class ComputationStepExecutor {
     }
   }
 
+  /**
+   * Executes the steps on a bounded pool of threads, starting each step as soon as its dependencies
+   * are finished. No step is started after the first failure, but the steps already running are
+   * awaited before the failure goes up the stack.
+   */
+  private static final class ConcurrentExecution {
+    private final List<ComputationStep> steps;
+    private final List<BitSet> dependencies;
+    private final BitSet started;
+    private final BitSet finished;
+
+    private ConcurrentExecution(List<ComputationStep> steps) {
+      this.steps = steps;
+      this.dependencies = dependenciesOf(steps);
+      this.started = new BitSet(steps.size());
+      this.finished = new BitSet(steps.size());
+    }
+
+    private static List<BitSet> dependenciesOf(List<ComputationStep> steps) {
+      List<BitSet> result = new ArrayList<>(steps.size());
+      for (int i = 0; i < steps.size(); i++) {
+        ComputationStep step = steps.get(i);
+        DependsOn dependsOn = step.getClass().getAnnotation(DependsOn.class);
+        BitSet stepDependencies = new BitSet(i);
+        if (dependsOn == null) {
+          stepDependencies.set(0, i);
+        } else {
+          for (Class<? extends ComputationStep> dependency : dependsOn.value()) {
+            int index = lastIndexOf(steps, dependency, i);
+            checkState(index >= 0, "Step '%s' depends on %s which is not executed before it", step.getDescription(), dependency.getName());
+            stepDependencies.set(index);
+          }
+        }
+        result.add(stepDependencies);
+      }
+      return result;
+    }
+
+    private static int lastIndexOf(List<ComputationStep> steps, Class<? extends ComputationStep> stepClass, int before) {
+      for (int i = before - 1; i >= 0; i--) {
+        if (stepClass.isInstance(steps.get(i))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private void run(int threads) {
+      ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+        .setNameFormat(THREAD_NAME_PREFIX + "%d")
+        .setDaemon(true)
+        .build());
+      CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+      Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+      Throwable failure = null;
+      try {
+        int running = startReadySteps(completionService, loggingContext);
+        while (running > 0) {
+          Future<Integer> done = completionService.take();
+          running--;
+          try {
+            finished.set(done.get());
+          } catch (ExecutionException e) {
+            failure = failure == null ? e.getCause() : failure;
+          }
+          if (failure == null) {
+            running += startReadySteps(completionService, loggingContext);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = new IllegalStateException("Interrupted while executing computation steps", e);
+      } finally {
+        executor.shutdownNow();
+      }
+      if (failure != null) {
+        Throwables.propagateIfPossible(failure);
+        throw new IllegalStateException(failure);
+      }
+      checkState(finished.cardinality() == steps.size(), "Some computation steps have not been executed");
+    }
+
+    private int startReadySteps(CompletionService<Integer> completionService, @Nullable Map<String, String> loggingContext) {
+      int count = 0;
+      for (int i = started.nextClearBit(0); i < steps.size(); i = started.nextClearBit(i + 1)) {
+        BitSet missing = (BitSet) dependencies.get(i).clone();
+        missing.andNot(finished);
+        if (missing.isEmpty()) {
+          started.set(i);
+          completionService.submit(stepTask(i, loggingContext));
+          count++;
+        }
+      }
+      return count;
+    }
+
+    private Callable<Integer> stepTask(int index, @Nullable Map<String, String> loggingContext) {
+      ComputationStep step = steps.get(index);
+      return () -> {
+        if (loggingContext != null) {
+          MDC.setContextMap(loggingContext);
+        }
+        try {
+          Profiler stepProfiler = Profiler.create(LOGGER).start();
+          step.execute();
+          stepProfiler.stopDebug(step.getDescription());
+          return index;
+        } finally {
+          MDC.clear();
+        }
+      };
+    }
+  }
+
   @FunctionalInterface
   public interface Listener {
     void finished(boolean allStepsExecuted);
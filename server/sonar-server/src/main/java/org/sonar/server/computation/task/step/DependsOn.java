@@ -0,0 +1,44 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the only steps a {@link ComputationStep} must wait for. When executed by several threads (see
+ * {@link ComputationStepExecutor#PROPERTY_THREADS}), the annotated step is started as soon as all these steps
+ * are finished, concurrently with the steps declared between them and itself in {@link ComputationSteps#instances()}.
+ * <p>
+ * Steps without this annotation wait for all the steps preceding them, so they act as barriers. Dependencies
+ * must be declared before the annotated step, so that the sequential order is always a valid order of execution.
+ * <p>
+ * The annotated step must not share any mutable state with the steps it may run concurrently with, including rows of
+ * the database: it must neither write rows read or written by these steps, nor read rows they write.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DependsOn {
+  Class<? extends ComputationStep>[] value();
+}
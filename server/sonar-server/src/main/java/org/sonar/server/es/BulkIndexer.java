@@ -22,6 +22,7 @@ package org.sonar.server.es;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.elasticsearch.action.ActionRequest;
@@ -55,6 +56,8 @@ import static java.lang.String.format;
  * <ul>
  *   <li>bulk request is sent on the wire when its size is higher than 5Mb</li>
  *   <li>on large table indexing, replicas and automatic refresh can be temporarily disabled</li>
+ *   <li>refresh of index at the end of indexing can be coalesced with the refreshes requested by other indexers,
+ *   see {@link RefreshPolicy}</li>
  * </ul>
  */
 public class BulkIndexer implements Startable {
@@ -70,11 +73,17 @@ public class BulkIndexer implements Startable {
   private final BulkProcessor bulkProcessor;
   private final AtomicLong counter = new AtomicLong(0L);
   private final SizeHandler sizeHandler;
+  private final RefreshPolicy refreshPolicy;
 
   public BulkIndexer(EsClient client, String indexName, Size size) {
+    this(client, indexName, size, RefreshPolicy.IMMEDIATE);
+  }
+
+  public BulkIndexer(EsClient client, String indexName, Size size, RefreshPolicy refreshPolicy) {
     this.client = client;
     this.indexName = indexName;
     this.sizeHandler = size.createHandler(Runtime2.INSTANCE);
+    this.refreshPolicy = refreshPolicy;
     this.bulkProcessor = BulkProcessor.builder(client.nativeClient(), new BulkProcessorListener())
       .setBackoffPolicy(BackoffPolicy.exponentialBackoff())
       .setBulkSize(FLUSH_BYTE_SIZE)
@@ -97,7 +106,7 @@ public class BulkIndexer implements Startable {
       Thread.currentThread().interrupt();
       throw new IllegalStateException("Elasticsearch bulk requests still being executed after 10 minutes", e);
     }
-    client.prepareRefresh(indexName).get();
+    refreshPolicy.refresh(client, indexName);
     sizeHandler.afterStop(this);
   }
 
@@ -208,6 +217,46 @@ public class BulkIndexer implements Startable {
     abstract SizeHandler createHandler(Runtime2 runtime2);
   }
 
+  public enum RefreshPolicy {
+    /**
+     * Index is refreshed by {@link #stop()}. Documents are searchable as soon as indexing is over.
+     */
+    IMMEDIATE {
+      @Override
+      void refresh(EsClient client, String indexName) {
+        client.prepareRefresh(indexName).get();
+      }
+    },
+
+    /**
+     * {@link #stop()} waits for the next refresh of index executed by {@link IndexRefresher}. Documents are searchable
+     * as soon as indexing is over, but concurrent indexers share the same refresh.
+     */
+    WAIT_FOR {
+      @Override
+      void refresh(EsClient client, String indexName) {
+        try {
+          client.getIndexRefresher().requestRefresh(indexName).join();
+        } catch (CompletionException e) {
+          throw new IllegalStateException("Fail to refresh index " + indexName, e.getCause());
+        }
+      }
+    },
+
+    /**
+     * Index is refreshed in background by {@link IndexRefresher}, once for all the concurrent indexers. Documents are
+     * not guaranteed to be searchable when {@link #stop()} returns. Use this policy when read-after-write is not required.
+     */
+    COALESCED {
+      @Override
+      void refresh(EsClient client, String indexName) {
+        client.getIndexRefresher().requestRefresh(indexName);
+      }
+    };
+
+    abstract void refresh(EsClient client, String indexName);
+  }
+
   @VisibleForTesting
   static class Runtime2 {
     private static final Runtime2 INSTANCE = new Runtime2();
@@ -75,11 +75,29 @@ import static java.util.Objects.requireNonNull;
 public class EsClient implements Closeable {
 
   public static final Logger LOGGER = Loggers.get("es");
+  public static final long DEFAULT_REFRESH_WINDOW_MS = 1_000L;
 
   private final Client nativeClient;
+  private final IndexRefresher indexRefresher;
 
   public EsClient(Client nativeClient) {
+    this(nativeClient, DEFAULT_REFRESH_WINDOW_MS);
+  }
+
+  /**
+   * @param refreshWindowMs the window used to coalesce the refreshes of indices, see {@link #getIndexRefresher()}
+   */
+  public EsClient(Client nativeClient, long refreshWindowMs) {
     this.nativeClient = requireNonNull(nativeClient);
+    this.indexRefresher = new IndexRefresher(this, refreshWindowMs);
+  }
+
+  /**
+   * Refreshes indices on behalf of the {@link BulkIndexer}s that don't require documents
+   * to be searchable as soon as they are indexed.
+   */
+  public IndexRefresher getIndexRefresher() {
+    return indexRefresher;
   }
 
   public RefreshRequestBuilder prepareRefresh(String... indices) {
@@ -205,6 +223,7 @@ public class EsClient implements Closeable {
 
   @Override
   public void close() {
+    indexRefresher.stop();
     nativeClient.close();
   }
 }
@@ -40,6 +40,11 @@ import org.sonar.process.ProcessProperties;
 public class EsClientProvider extends ProviderAdapter {
 
   private static final Logger LOGGER = Loggers.get(EsClientProvider.class);
+  /**
+   * Window, in milliseconds, during which the refreshes of an index requested by
+   * {@link BulkIndexer.RefreshPolicy#COALESCED} and {@link BulkIndexer.RefreshPolicy#WAIT_FOR} indexers are merged.
+   */
+  public static final String REFRESH_WINDOW_PROPERTY = "sonar.search.refreshWindow";
 
   private EsClient cache;
 
@@ -66,7 +71,8 @@ public class EsClientProvider extends ProviderAdapter {
         LOGGER.info("Connected to local Elasticsearch: [{}]", displayedAddresses(nativeClient));
       }
 
-      cache = new EsClient(nativeClient);
+      long refreshWindowMs = settings.hasKey(REFRESH_WINDOW_PROPERTY) ? settings.getLong(REFRESH_WINDOW_PROPERTY) : EsClient.DEFAULT_REFRESH_WINDOW_MS;
+      cache = new EsClient(nativeClient, refreshWindowMs);
     }
     return cache;
   }
@@ -0,0 +1,117 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Coalesces the refreshes of indices requested by concurrent {@link BulkIndexer}s. An index
+ * is refreshed at most once per window, whatever the number of indexers requesting it.
+ * <p>
+ * A refresh requested while another one is pending is merged with the pending one. A refresh requested
+ * while another one is being executed is scheduled for the next window, so the documents written
+ * before the request are always visible once the returned future is completed.
+ * </p>
+ */
+public class IndexRefresher {
+
+  private static final Logger LOGGER = Loggers.get(IndexRefresher.class);
+
+  private final EsClient client;
+  private final long windowMs;
+  // guarded by this
+  private final Map<String, CompletableFuture<Void>> pendingByIndex = new HashMap<>();
+  // guarded by this, lazily created as only some indexers coalesce refreshes
+  private ScheduledExecutorService executor;
+
+  IndexRefresher(EsClient client, long windowMs) {
+    this.client = client;
+    this.windowMs = windowMs;
+  }
+
+  /**
+   * Requests a refresh of the index in the current window.
+   *
+   * @return a future completed when the index is refreshed
+   */
+  public synchronized CompletableFuture<Void> requestRefresh(String indexName) {
+    CompletableFuture<Void> pending = pendingByIndex.get(indexName);
+    if (pending == null) {
+      pending = new CompletableFuture<>();
+      pendingByIndex.put(indexName, pending);
+      executor().schedule(() -> refresh(indexName), windowMs, TimeUnit.MILLISECONDS);
+    }
+    return pending;
+  }
+
+  private ScheduledExecutorService executor() {
+    if (executor == null) {
+      executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Elasticsearch index refresher");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executor;
+  }
+
+  private void refresh(String indexName) {
+    CompletableFuture<Void> pending;
+    synchronized (this) {
+      pending = pendingByIndex.remove(indexName);
+    }
+    if (pending == null) {
+      // already executed by stop()
+      return;
+    }
+    try {
+      client.prepareRefresh(indexName).get();
+      pending.complete(null);
+    } catch (RuntimeException e) {
+      LOGGER.error("Fail to refresh index " + indexName, e);
+      pending.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Executes the pending refreshes and stops the background thread.
+   */
+  void stop() {
+    List<String> pendingIndices;
+    synchronized (this) {
+      if (executor == null) {
+        return;
+      }
+      executor.shutdownNow();
+      executor = null;
+      pendingIndices = new ArrayList<>(pendingByIndex.keySet());
+    }
+    pendingIndices.forEach(this::refresh);
+  }
+}
@@ -49,6 +49,15 @@ public interface ProjectIndexer {
    */
   void indexProject(String projectUuid, Cause cause);
 
+  /**
+   * Same as {@link #indexProject(String, Cause)}, but indices are refreshed according to
+   * {@code refreshPolicy} by the implementations that support it. Others always refresh
+   * indices immediately.
+   */
+  default void indexProject(String projectUuid, Cause cause, BulkIndexer.RefreshPolicy refreshPolicy) {
+    indexProject(projectUuid, cause);
+  }
+
   /**
    * This method is called when a project is deleted.
    * @param projectUuid non-null UUID of project
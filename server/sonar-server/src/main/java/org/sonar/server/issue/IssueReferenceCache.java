@@ -0,0 +1,155 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.user.UserDto;
+
+/**
+ * In-process cache of the reference data (rules, components, users and organizations) referenced by issues,
+ * so that issues loaded from Elasticsearch can be rendered without querying the DB.
+ * <p>
+ * Entries are evicted when the cache is full and after {@link #EXPIRATION_SECONDS} seconds, which bounds the staleness
+ * of data updated by other processes (for example component names and keys updated by Compute Engine). Updates done
+ * in the web server must call the {@code invalidate*} methods.
+ * </p>
+ * <p>
+ * Only existing rows are cached. Returned DTOs are shared between threads and must not be modified.
+ * </p>
+ */
+@ServerSide
+public class IssueReferenceCache {
+
+  static final int MAX_ENTRIES = 10_000;
+  static final long EXPIRATION_SECONDS = 60L;
+
+  private final DbClient dbClient;
+  private final ReferenceCache<RuleKey, RuleDefinitionDto> rules;
+  private final ReferenceCache<String, ComponentDto> components;
+  private final ReferenceCache<String, UserDto> users;
+  private final ReferenceCache<String, OrganizationDto> organizations;
+
+  public IssueReferenceCache(DbClient dbClient) {
+    this(dbClient, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  IssueReferenceCache(DbClient dbClient, Ticker ticker) {
+    this.dbClient = dbClient;
+    this.rules = new ReferenceCache<>(ticker, RuleDefinitionDto::getKey);
+    this.components = new ReferenceCache<>(ticker, ComponentDto::uuid);
+    this.users = new ReferenceCache<>(ticker, UserDto::getLogin);
+    this.organizations = new ReferenceCache<>(ticker, OrganizationDto::getUuid);
+  }
+
+  public List<RuleDefinitionDto> getRules(DbSession dbSession, Collection<RuleKey> ruleKeys) {
+    return rules.getAll(ruleKeys, keys -> dbClient.ruleDao().selectDefinitionByKeys(dbSession, keys));
+  }
+
+  public List<ComponentDto> getComponents(DbSession dbSession, Collection<String> componentUuids) {
+    return components.getAll(componentUuids, uuids -> dbClient.componentDao().selectByUuids(dbSession, uuids));
+  }
+
+  public List<UserDto> getUsers(DbSession dbSession, Collection<String> logins) {
+    return users.getAll(logins, keys -> dbClient.userDao().selectByLogins(dbSession, keys));
+  }
+
+  public List<OrganizationDto> getOrganizations(DbSession dbSession, Collection<String> organizationUuids) {
+    return organizations.getAll(organizationUuids, uuids -> dbClient.organizationDao().selectByUuids(dbSession, uuids));
+  }
+
+  public void invalidateRule(RuleKey ruleKey) {
+    rules.invalidate(ruleKey);
+  }
+
+  /**
+   * Evicts the project and all its modules, directories and files, as key or visibility changes apply to the whole tree.
+   */
+  public void invalidateProject(String projectUuid) {
+    components.invalidateIf(component -> projectUuid.equals(component.projectUuid()));
+  }
+
+  public void invalidateUser(String login) {
+    users.invalidate(login);
+  }
+
+  public void invalidateOrganization(String organizationUuid) {
+    organizations.invalidate(organizationUuid);
+  }
+
+  private static class ReferenceCache<K, V> {
+    private final Cache<K, V> cache;
+    private final Function<V, K> keyFunction;
+
+    ReferenceCache(Ticker ticker, Function<V, K> keyFunction) {
+      this.cache = CacheBuilder.newBuilder()
+        .maximumSize(MAX_ENTRIES)
+        .expireAfterWrite(EXPIRATION_SECONDS, TimeUnit.SECONDS)
+        .ticker(ticker)
+        .build();
+      this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Rows missing from cache are loaded in a single call to {@code loader}
+     */
+    List<V> getAll(Collection<K> keys, Function<Set<K>, List<V>> loader) {
+      Map<K, V> present = cache.getAllPresent(keys);
+      List<V> result = new ArrayList<>(keys.size());
+      result.addAll(present.values());
+      Set<K> missingKeys = new HashSet<>(keys);
+      missingKeys.removeAll(present.keySet());
+      if (!missingKeys.isEmpty()) {
+        for (V value : loader.apply(missingKeys)) {
+          cache.put(keyFunction.apply(value), value);
+          result.add(value);
+        }
+      }
+      return result;
+    }
+
+    void invalidate(K key) {
+      cache.invalidate(key);
+    }
+
+    void invalidateIf(Predicate<V> predicate) {
+      cache.asMap().values().removeIf(predicate);
+    }
+  }
+}
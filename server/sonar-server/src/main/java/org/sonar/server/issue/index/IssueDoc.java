@@ -20,6 +20,7 @@
 package org.sonar.server.issue.index;
 
 import com.google.common.collect.Maps;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -267,6 +268,16 @@ public class IssueDoc extends BaseDoc implements Issue {
     return getNullableField(IssueIndexDefinition.FIELD_ISSUE_DIRECTORY_PATH);
   }
 
+  /**
+   * Serialized {@link org.sonar.db.protobuf.DbIssues.Locations}. Returns {@code null} if the document
+   * has no locations or has been indexed without this field.
+   */
+  @CheckForNull
+  public byte[] locations() {
+    String data = (String) fields.get(IssueIndexDefinition.FIELD_ISSUE_LOCATIONS);
+    return data == null ? null : Base64.getDecoder().decode(data);
+  }
+
   @CheckForNull
   public String organizationUuid() {
     return getNullableField(IssueIndexDefinition.FIELD_ISSUE_ORGANIZATION_UUID);
@@ -377,6 +388,11 @@ public class IssueDoc extends BaseDoc implements Issue {
     return this;
   }
 
+  public IssueDoc setLocations(@Nullable byte[] locations) {
+    setField(IssueIndexDefinition.FIELD_ISSUE_LOCATIONS, locations == null ? null : Base64.getEncoder().encodeToString(locations));
+    return this;
+  }
+
   public IssueDoc setAuthorLogin(@Nullable String s) {
     setField(IssueIndexDefinition.FIELD_ISSUE_AUTHOR_LOGIN, s);
     return this;
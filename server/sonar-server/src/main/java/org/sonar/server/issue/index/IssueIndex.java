@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -645,6 +646,22 @@ public class IssueIndex {
     return boolQuery;
   }
 
+  /**
+   * Return the keys of all the issues matching the query, without pagination, sorting nor facets.
+   * Documents are not loaded, only their ids are returned.
+   */
+  public Iterator<String> searchKeys(IssueQuery query) {
+    SearchResponse response = client
+      .prepareSearch(INDEX_TYPE_ISSUE)
+      .setSearchType(SearchType.SCAN)
+      .setScroll(TimeValue.timeValueMinutes(EsUtils.SCROLL_TIME_IN_MINUTES))
+      .setSize(1_000)
+      .setFetchSource(false)
+      .setQuery(boolQuery().must(matchAllQuery()).filter(createBoolFilter(query)))
+      .get();
+    return EsUtils.scrollIds(client, response.getScrollId(), Function.identity());
+  }
+
   /**
    * Return non closed issues for a given project, module, or file. Other kind of components are not allowed.
    * Only fields needed for the batch are returned.
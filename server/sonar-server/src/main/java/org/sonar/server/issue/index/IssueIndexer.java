@@ -30,6 +30,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.server.es.BulkIndexer;
+import org.sonar.server.es.BulkIndexer.RefreshPolicy;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.es.EsUtils;
@@ -70,11 +71,16 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
 
   @Override
   public void indexOnStartup(Set<IndexType> emptyIndexTypes) {
-    doIndex(createBulkIndexer(Size.LARGE), (String) null);
+    doIndex(createBulkIndexer(Size.LARGE, RefreshPolicy.IMMEDIATE), (String) null);
   }
 
   @Override
   public void indexProject(String projectUuid, Cause cause) {
+    indexProject(projectUuid, cause, RefreshPolicy.IMMEDIATE);
+  }
+
+  @Override
+  public void indexProject(String projectUuid, Cause cause, RefreshPolicy refreshPolicy) {
     switch (cause) {
       case PROJECT_CREATION:
         // nothing to do, issues do not exist at project creation
@@ -83,7 +89,7 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
         // nothing to do, project key and tags are not used in this index
         break;
       case NEW_ANALYSIS:
-        doIndex(createBulkIndexer(Size.REGULAR), projectUuid);
+        doIndex(createBulkIndexer(Size.REGULAR, refreshPolicy), projectUuid);
         break;
       default:
         // defensive case
@@ -95,11 +101,11 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
    * For benchmarks
    */
   public void index(Iterator<IssueDoc> issues) {
-    doIndex(createBulkIndexer(Size.REGULAR), issues);
+    doIndex(createBulkIndexer(Size.REGULAR, RefreshPolicy.IMMEDIATE), issues);
   }
 
   public void index(Collection<String> issueKeys) {
-    doIndex(createBulkIndexer(Size.REGULAR), issueKeys);
+    doIndex(createBulkIndexer(Size.REGULAR, RefreshPolicy.IMMEDIATE), issueKeys);
   }
 
   private void doIndex(BulkIndexer bulk, Collection<String> issueKeys) {
@@ -156,8 +162,8 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
     esClient.prepareRefresh(INDEX_TYPE_ISSUE.getIndex()).get();
   }
 
-  private BulkIndexer createBulkIndexer(Size bulkSize) {
-    return new BulkIndexer(esClient, INDEX_TYPE_ISSUE.getIndex(), bulkSize);
+  private BulkIndexer createBulkIndexer(Size bulkSize, RefreshPolicy refreshPolicy) {
+    return new BulkIndexer(esClient, INDEX_TYPE_ISSUE.getIndex(), bulkSize, refreshPolicy);
   }
 
   private static IndexRequest newIndexRequest(IssueDoc issue) {
@@ -85,7 +85,8 @@ class IssueIteratorForSingleChunk implements IssueIterator {
     "p.scope",
     "p.organization_uuid",
     "i.tags",
-    "i.issue_type"
+    "i.issue_type",
+    "i.locations"
   };
 
   private static final String SQL_ALL = "select " + StringUtils.join(FIELDS, ",") + " from issues i " +
@@ -231,6 +232,7 @@ class IssueIteratorForSingleChunk implements IssueIterator {
       String tags = rs.getString(27);
       doc.setTags(ImmutableList.copyOf(IssueIteratorForSingleChunk.TAGS_SPLITTER.split(tags == null ? "" : tags)));
       doc.setType(RuleType.valueOf(rs.getInt(28)));
+      doc.setLocations(rs.getBytes(29));
       return doc;
     }
 
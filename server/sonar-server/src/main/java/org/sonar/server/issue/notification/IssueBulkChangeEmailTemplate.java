@@ -0,0 +1,88 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.notification;
+
+import java.io.UnsupportedEncodingException;
+import javax.annotation.CheckForNull;
+import org.sonar.api.config.EmailSettings;
+import org.sonar.api.notifications.Notification;
+import org.sonar.plugins.emailnotifications.api.EmailMessage;
+import org.sonar.plugins.emailnotifications.api.EmailTemplate;
+
+import static java.net.URLEncoder.encode;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_CHANGES;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_CHANGE_AUTHOR;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_ISSUE_COUNT;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_ISSUE_KEYS;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_PROJECT_KEY;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_PROJECT_NAME;
+
+/**
+ * Creates email message for notification "issues-bulk-change".
+ */
+public class IssueBulkChangeEmailTemplate extends EmailTemplate {
+
+  private static final char NEW_LINE = '\n';
+  private final EmailSettings settings;
+
+  public IssueBulkChangeEmailTemplate(EmailSettings settings) {
+    this.settings = settings;
+  }
+
+  @Override
+  @CheckForNull
+  public EmailMessage format(Notification notif) {
+    if (!IssueBulkChangeNotification.TYPE.equals(notif.getType())) {
+      return null;
+    }
+
+    String projectName = notif.getFieldValue(FIELD_PROJECT_NAME);
+    String issueCount = notif.getFieldValue(FIELD_ISSUE_COUNT);
+    StringBuilder sb = new StringBuilder();
+    sb.append(projectName).append(NEW_LINE);
+    sb.append(issueCount).append(" of your issues have been changed");
+    String author = notif.getFieldValue(FIELD_CHANGE_AUTHOR);
+    if (author != null) {
+      sb.append(" by ").append(author);
+    }
+    sb.append(NEW_LINE).append(NEW_LINE);
+    String changes = notif.getFieldValue(FIELD_CHANGES);
+    if (changes != null) {
+      sb.append(changes).append(NEW_LINE).append(NEW_LINE);
+    }
+    appendFooter(sb, notif);
+
+    return new EmailMessage()
+      .setMessageId(IssueBulkChangeNotification.TYPE + "/" + notif.getFieldValue(FIELD_PROJECT_KEY))
+      .setSubject(projectName + ", bulk change on " + issueCount + " issues")
+      .setMessage(sb.toString());
+  }
+
+  private void appendFooter(StringBuilder sb, Notification notification) {
+    try {
+      sb.append("See them in SonarQube: ").append(settings.getServerBaseURL())
+        .append("/project/issues?id=").append(encode(notification.getFieldValue(FIELD_PROJECT_KEY), "UTF-8"))
+        .append("&issues=").append(notification.getFieldValue(FIELD_ISSUE_KEYS))
+        .append(NEW_LINE);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException("Encoding not supported", e);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.notification;
+
+import java.util.Collection;
+import javax.annotation.Nullable;
+import org.sonar.api.notifications.Notification;
+import org.sonar.db.component.ComponentDto;
+
+import static java.lang.String.join;
+
+/**
+ * Summary of the changes done by a bulk change on the issues assigned to a single user.
+ */
+public class IssueBulkChangeNotification extends Notification {
+
+  public static final String TYPE = "issues-bulk-change";
+
+  static final String FIELD_ASSIGNEE = "assignee";
+  static final String FIELD_CHANGE_AUTHOR = "changeAuthor";
+  static final String FIELD_PROJECT_KEY = "projectKey";
+  static final String FIELD_PROJECT_NAME = "projectName";
+  static final String FIELD_ISSUE_COUNT = "issueCount";
+  static final String FIELD_ISSUE_KEYS = "issueKeys";
+  static final String FIELD_CHANGES = "changes";
+
+  /**
+   * Maximum number of issue keys kept in the notification. The count of issues is always exact.
+   */
+  static final int MAX_ISSUE_KEYS = 100;
+
+  public IssueBulkChangeNotification() {
+    super(TYPE);
+  }
+
+  public IssueBulkChangeNotification setAssignee(String assignee) {
+    setFieldValue(FIELD_ASSIGNEE, assignee);
+    return this;
+  }
+
+  public IssueBulkChangeNotification setChangeAuthorLogin(@Nullable String s) {
+    if (s != null) {
+      setFieldValue(FIELD_CHANGE_AUTHOR, s);
+    }
+    return this;
+  }
+
+  public IssueBulkChangeNotification setProject(ComponentDto project) {
+    setFieldValue(FIELD_PROJECT_KEY, project.getKey());
+    setFieldValue(FIELD_PROJECT_NAME, project.longName());
+    return this;
+  }
+
+  public IssueBulkChangeNotification setIssues(Collection<String> issueKeys) {
+    setFieldValue(FIELD_ISSUE_COUNT, String.valueOf(issueKeys.size()));
+    setFieldValue(FIELD_ISSUE_KEYS, join(",", issueKeys.stream().limit(MAX_ISSUE_KEYS).toArray(String[]::new)));
+    return this;
+  }
+
+  /**
+   * Human readable description of the changes, for example "Severity: BLOCKER".
+   */
+  public IssueBulkChangeNotification setChanges(Collection<String> changes) {
+    setFieldValue(FIELD_CHANGES, join("\n", changes));
+    return this;
+  }
+}
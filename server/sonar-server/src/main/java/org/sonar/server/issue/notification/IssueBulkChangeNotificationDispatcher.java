@@ -0,0 +1,60 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.notification;
+
+import com.google.common.collect.Multimap;
+import java.util.Objects;
+import org.sonar.api.notifications.Notification;
+import org.sonar.api.notifications.NotificationChannel;
+import org.sonar.server.notification.NotificationDispatcher;
+import org.sonar.server.notification.NotificationManager;
+
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_ASSIGNEE;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_CHANGE_AUTHOR;
+import static org.sonar.server.issue.notification.IssueBulkChangeNotification.FIELD_PROJECT_KEY;
+
+/**
+ * Dispatches the summary of a bulk change to the assignee of the changed issues. There is no dedicated
+ * subscription: users subscribed to {@link ChangesOnMyIssueNotificationDispatcher} are notified.
+ */
+public class IssueBulkChangeNotificationDispatcher extends NotificationDispatcher {
+
+  private final NotificationManager notificationManager;
+  private final ChangesOnMyIssueNotificationDispatcher changesOnMyIssueDispatcher;
+
+  public IssueBulkChangeNotificationDispatcher(NotificationManager notificationManager, ChangesOnMyIssueNotificationDispatcher changesOnMyIssueDispatcher) {
+    super(IssueBulkChangeNotification.TYPE);
+    this.notificationManager = notificationManager;
+    this.changesOnMyIssueDispatcher = changesOnMyIssueDispatcher;
+  }
+
+  @Override
+  public void dispatch(Notification notification, Context context) {
+    String assignee = notification.getFieldValue(FIELD_ASSIGNEE);
+    if (assignee == null || Objects.equals(assignee, notification.getFieldValue(FIELD_CHANGE_AUTHOR))) {
+      return;
+    }
+    Multimap<String, NotificationChannel> subscribedRecipients = notificationManager.findNotificationSubscribers(changesOnMyIssueDispatcher,
+      notification.getFieldValue(FIELD_PROJECT_KEY));
+    for (NotificationChannel channel : subscribedRecipients.get(assignee)) {
+      context.addUser(assignee, channel);
+    }
+  }
+}
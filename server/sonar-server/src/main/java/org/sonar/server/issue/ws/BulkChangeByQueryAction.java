@@ -0,0 +1,264 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.api.issue.DefaultTransitions;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.resources.Qualifiers;
+import org.sonar.api.resources.Scopes;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.rule.RuleTagFormat;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.web.UserRole;
+import org.sonar.ce.queue.CeQueue;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskSubmit;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.user.UserDto;
+import org.sonar.server.component.ComponentFinder;
+import org.sonar.server.computation.task.issuebulkchange.IssueBulkChangeRequest;
+import org.sonar.server.user.UserSession;
+import org.sonarqube.ws.WsCe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.sonar.api.issue.DefaultTransitions.REOPEN;
+import static org.sonar.api.rule.Severity.BLOCKER;
+import static org.sonar.api.rules.RuleType.BUG;
+import static org.sonar.api.utils.DateUtils.parseEndingDateOrDateTime;
+import static org.sonar.api.utils.DateUtils.parseStartingDateOrDateTime;
+import static org.sonar.server.ws.KeyExamples.KEY_PROJECT_EXAMPLE_001;
+import static org.sonar.server.ws.WsUtils.checkFound;
+import static org.sonar.server.ws.WsUtils.writeProtobuf;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_BULK_CHANGE_BY_QUERY;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ADD_TAGS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ASSIGN;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ASSIGNEES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_AUTHORS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_COMMENT;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_CREATED_AFTER;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_CREATED_BEFORE;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_DO_TRANSITION;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_PROJECT;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_REMOVE_TAGS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RESOLUTIONS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RESOLVED;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RULES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SEND_NOTIFICATIONS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SET_SEVERITY;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SET_TYPE;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SEVERITIES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_STATUSES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TAGS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TYPES;
+
+public class BulkChangeByQueryAction implements IssuesWsAction {
+
+  private static final String DATE_EXAMPLE = "2013-05-01 (or 2013-05-01T13:00:00+0100)";
+
+  private final UserSession userSession;
+  private final DbClient dbClient;
+  private final ComponentFinder componentFinder;
+  private final CeQueue queue;
+
+  public BulkChangeByQueryAction(UserSession userSession, DbClient dbClient, ComponentFinder componentFinder, CeQueue queue) {
+    this.userSession = userSession;
+    this.dbClient = dbClient;
+    this.componentFinder = componentFinder;
+    this.queue = queue;
+  }
+
+  @Override
+  public void define(WebService.NewController context) {
+    WebService.NewAction action = context.createAction(ACTION_BULK_CHANGE_BY_QUERY)
+      .setDescription("Bulk change on all the issues of a project matching a query. " +
+        "The change is processed asynchronously by the Compute Engine. " +
+        "Its progress can be followed with the web service api/ce/task and the id of the task returned in the response.<br/>" +
+        "Requires 'Administer Issues' permission on the project.")
+      .setSince("6.5")
+      .setHandler(this)
+      .setResponseExample(getClass().getResource("bulk_change_by_query-example.json"))
+      .setPost(true);
+
+    action.createParam(PARAM_PROJECT)
+      .setDescription("Project key")
+      .setRequired(true)
+      .setExampleValue(KEY_PROJECT_EXAMPLE_001);
+
+    // filters
+    action.createParam(PARAM_RULES)
+      .setDescription("Comma-separated list of coding rule keys. Format is &lt;repository&gt;:&lt;rule&gt;")
+      .setExampleValue("squid:AvoidCycles");
+    action.createParam(PARAM_STATUSES)
+      .setDescription("Comma-separated list of statuses")
+      .setExampleValue(Issue.STATUS_OPEN + "," + Issue.STATUS_REOPENED)
+      .setPossibleValues(Issue.STATUSES);
+    action.createParam(PARAM_RESOLUTIONS)
+      .setDescription("Comma-separated list of resolutions")
+      .setExampleValue(Issue.RESOLUTION_FIXED + "," + Issue.RESOLUTION_REMOVED)
+      .setPossibleValues(Issue.RESOLUTIONS);
+    action.createParam(PARAM_RESOLVED)
+      .setDescription("To match resolved or unresolved issues")
+      .setBooleanPossibleValues();
+    action.createParam(PARAM_SEVERITIES)
+      .setDescription("Comma-separated list of severities")
+      .setExampleValue(Severity.BLOCKER + "," + Severity.CRITICAL)
+      .setPossibleValues(Severity.ALL);
+    action.createParam(PARAM_TYPES)
+      .setDescription("Comma-separated list of types")
+      .setExampleValue(String.format("%s,%s", RuleType.CODE_SMELL, BUG))
+      .setPossibleValues(RuleType.names());
+    action.createParam(PARAM_TAGS)
+      .setDescription("Comma-separated list of tags")
+      .setExampleValue("security,convention");
+    action.createParam(PARAM_ASSIGNEES)
+      .setDescription("Comma-separated list of assignee logins")
+      .setExampleValue("admin,usera");
+    action.createParam(PARAM_AUTHORS)
+      .setDescription("Comma-separated list of SCM accounts")
+      .setExampleValue("torvalds@linux-foundation.org");
+    action.createParam(PARAM_CREATED_AFTER)
+      .setDescription("To change issues created after the given date (inclusive). Format: date or datetime ISO formats")
+      .setExampleValue(DATE_EXAMPLE);
+    action.createParam(PARAM_CREATED_BEFORE)
+      .setDescription("To change issues created before the given date (exclusive). Format: date or datetime ISO formats")
+      .setExampleValue(DATE_EXAMPLE);
+
+    // changes
+    action.createParam(PARAM_ASSIGN)
+      .setDescription("To assign the issues to a specific user (login), or un-assign all the issues when empty")
+      .setExampleValue("john.smith");
+    action.createParam(PARAM_SET_SEVERITY)
+      .setDescription("To change the severity of the issues")
+      .setExampleValue(BLOCKER)
+      .setPossibleValues(Severity.ALL);
+    action.createParam(PARAM_SET_TYPE)
+      .setDescription("To change the type of the issues")
+      .setExampleValue(BUG)
+      .setPossibleValues(RuleType.names());
+    action.createParam(PARAM_DO_TRANSITION)
+      .setDescription("Transition")
+      .setExampleValue(REOPEN)
+      .setPossibleValues(DefaultTransitions.ALL);
+    action.createParam(PARAM_ADD_TAGS)
+      .setDescription("Add tags")
+      .setExampleValue("security,java8");
+    action.createParam(PARAM_REMOVE_TAGS)
+      .setDescription("Remove tags")
+      .setExampleValue("security,java8");
+    action.createParam(PARAM_COMMENT)
+      .setDescription("To add a comment to the changed issues")
+      .setExampleValue("Here is my comment");
+    action.createParam(PARAM_SEND_NOTIFICATIONS)
+      .setDescription("Send a summary of the changes to the assignees of the changed issues")
+      .setBooleanPossibleValues()
+      .setDefaultValue("false");
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    userSession.checkLoggedIn();
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      String projectKey = request.mandatoryParam(PARAM_PROJECT);
+      ComponentDto project = componentFinder.getByKey(dbSession, projectKey);
+      checkArgument(Scopes.PROJECT.equals(project.scope()) && Qualifiers.PROJECT.equals(project.qualifier()), "Component '%s' is not a project", projectKey);
+      userSession.checkComponentPermission(UserRole.ISSUE_ADMIN, project);
+
+      IssueBulkChangeRequest bulkChangeRequest = toBulkChangeRequest(request);
+      checkAssignee(dbSession, project, bulkChangeRequest.get(PARAM_ASSIGN));
+
+      // the input must be saved before submitting the task
+      CeTaskSubmit.Builder submit = queue.prepareSubmit();
+      dbClient.ceTaskInputDao().insert(dbSession, submit.getUuid(), bulkChangeRequest.toInputStream());
+      dbSession.commit();
+
+      submit.setType(CeTaskTypes.ISSUE_BULK_CHANGE);
+      submit.setComponentUuid(project.uuid());
+      submit.setSubmitterLogin(userSession.getLogin());
+      CeTask task = queue.submit(submit.build());
+
+      writeProtobuf(WsCe.SubmitResponse.newBuilder()
+        .setTaskId(task.getUuid())
+        .setProjectId(project.uuid())
+        .build(), request, response);
+    }
+  }
+
+  private static IssueBulkChangeRequest toBulkChangeRequest(Request request) {
+    List<String> rules = request.paramAsStrings(PARAM_RULES);
+    if (rules != null) {
+      rules.forEach(RuleKey::parse);
+    }
+    parseStartingDateOrDateTime(request.param(PARAM_CREATED_AFTER));
+    parseEndingDateOrDateTime(request.param(PARAM_CREATED_BEFORE));
+    validateTags(request.paramAsStrings(PARAM_ADD_TAGS));
+    validateTags(request.paramAsStrings(PARAM_REMOVE_TAGS));
+
+    IssueBulkChangeRequest bulkChangeRequest = new IssueBulkChangeRequest()
+      .setList(PARAM_RULES, rules)
+      .setList(PARAM_STATUSES, request.paramAsStrings(PARAM_STATUSES))
+      .setList(PARAM_RESOLUTIONS, request.paramAsStrings(PARAM_RESOLUTIONS))
+      .set(PARAM_RESOLVED, request.param(PARAM_RESOLVED))
+      .setList(PARAM_SEVERITIES, request.paramAsStrings(PARAM_SEVERITIES))
+      .setList(PARAM_TYPES, request.paramAsStrings(PARAM_TYPES))
+      .setList(PARAM_TAGS, request.paramAsStrings(PARAM_TAGS))
+      .setList(PARAM_ASSIGNEES, request.paramAsStrings(PARAM_ASSIGNEES))
+      .setList(PARAM_AUTHORS, request.paramAsStrings(PARAM_AUTHORS))
+      .set(PARAM_CREATED_AFTER, request.param(PARAM_CREATED_AFTER))
+      .set(PARAM_CREATED_BEFORE, request.param(PARAM_CREATED_BEFORE))
+      .set(PARAM_ASSIGN, request.param(PARAM_ASSIGN))
+      .set(PARAM_SET_SEVERITY, request.param(PARAM_SET_SEVERITY))
+      .set(PARAM_SET_TYPE, request.param(PARAM_SET_TYPE))
+      .set(PARAM_DO_TRANSITION, request.param(PARAM_DO_TRANSITION))
+      .setList(PARAM_ADD_TAGS, request.paramAsStrings(PARAM_ADD_TAGS))
+      .setList(PARAM_REMOVE_TAGS, request.paramAsStrings(PARAM_REMOVE_TAGS))
+      .set(PARAM_COMMENT, request.param(PARAM_COMMENT))
+      .set(PARAM_SEND_NOTIFICATIONS, String.valueOf(request.mandatoryParamAsBoolean(PARAM_SEND_NOTIFICATIONS)));
+    checkArgument(bulkChangeRequest.get(PARAM_ASSIGN) != null || bulkChangeRequest.get(PARAM_SET_SEVERITY) != null
+      || bulkChangeRequest.get(PARAM_SET_TYPE) != null || bulkChangeRequest.get(PARAM_DO_TRANSITION) != null
+      || bulkChangeRequest.get(PARAM_ADD_TAGS) != null || bulkChangeRequest.get(PARAM_REMOVE_TAGS) != null,
+      "At least one action must be provided");
+    return bulkChangeRequest;
+  }
+
+  private static void validateTags(@Nullable List<String> tags) {
+    if (tags != null) {
+      tags.forEach(RuleTagFormat::validate);
+    }
+  }
+
+  private void checkAssignee(DbSession dbSession, ComponentDto project, @Nullable String assignee) {
+    if (isNullOrEmpty(assignee)) {
+      return;
+    }
+    UserDto user = checkFound(dbClient.userDao().selectActiveUserByLogin(dbSession, assignee), "Unknown user: %s", assignee);
+    checkArgument(dbClient.organizationMemberDao().select(dbSession, project.getOrganizationUuid(), user.getId()).isPresent(),
+      "User '%s' is not member of organization of project '%s'", assignee, project.getKey());
+  }
+}
@@ -24,6 +24,7 @@ import org.sonar.server.issue.ActionFinder;
 import org.sonar.server.issue.IssueFieldsSetter;
 import org.sonar.server.issue.IssueFinder;
 import org.sonar.server.issue.IssueQueryFactory;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.issue.IssueService;
 import org.sonar.server.issue.IssueUpdater;
 import org.sonar.server.issue.ServerIssueStorage;
@@ -40,6 +41,7 @@ public class IssueWsModule extends Module {
       IssueUpdater.class,
       IssueFinder.class,
       TransitionService.class,
+      IssueReferenceCache.class,
       ServerIssueStorage.class,
       IssueFieldsSetter.class,
       FunctionExecutor.class,
@@ -65,6 +67,7 @@ public class IssueWsModule extends Module {
       ComponentTagsAction.class,
       AuthorsAction.class,
       ChangelogAction.class,
-      BulkChangeAction.class);
+      BulkChangeAction.class,
+      BulkChangeByQueryAction.class);
   }
 }
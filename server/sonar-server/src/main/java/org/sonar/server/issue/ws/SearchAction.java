@@ -47,6 +47,7 @@ import org.sonar.server.issue.IssueQueryFactory;
 import org.sonar.server.issue.index.IssueDoc;
 import org.sonar.server.issue.index.IssueIndex;
 import org.sonar.server.user.UserSession;
+import org.sonar.server.ws.ProtobufResponseStream;
 import org.sonarqube.ws.Issues.SearchWsResponse;
 import org.sonarqube.ws.client.issue.SearchWsRequest;
 
@@ -57,7 +58,6 @@ import static java.util.Collections.singletonList;
 import static org.sonar.api.utils.Paging.forPageIndex;
 import static org.sonar.server.es.SearchOptions.MAX_LIMIT;
 import static org.sonar.server.ws.KeyExamples.KEY_PROJECT_EXAMPLE_001;
-import static org.sonar.server.ws.WsUtils.writeProtobuf;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_SEARCH;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.DEPRECATED_FACET_MODE_DEBT;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.DEPRECATED_PARAM_ACTION_PLANS;
@@ -297,11 +297,10 @@ public class SearchAction implements IssuesWsAction {
 
   @Override
   public final void handle(Request request, Response response) throws Exception {
-    SearchWsResponse searchWsResponse = doHandle(toSearchWsRequest(request), request);
-    writeProtobuf(searchWsResponse, request, response);
+    doHandle(toSearchWsRequest(request), request, response);
   }
 
-  private SearchWsResponse doHandle(SearchWsRequest request, Request wsRequest) {
+  private void doHandle(SearchWsRequest request, Request wsRequest, Response wsResponse) {
     // prepare the Elasticsearch request
     SearchOptions options = createSearchOptionsFromRequest(request);
     EnumSet<SearchAdditionalField> additionalFields = SearchAdditionalField.getFromRequest(request);
@@ -324,7 +323,8 @@ public class SearchAction implements IssuesWsAction {
       completeFacets(facets, request, wsRequest);
       collectFacets(collector, facets);
     }
-    SearchResponseData data = searchResponseLoader.load(collector, facets);
+    // issues are rendered from the Elasticsearch documents, without loading them from DB
+    SearchResponseData data = searchResponseLoader.load(result.getDocs(), collector, facets);
 
     // format response
 
@@ -336,7 +336,10 @@ public class SearchAction implements IssuesWsAction {
     // FIXME allow long in Paging
     Paging paging = forPageIndex(options.getPage()).withPageSize(options.getLimit()).andTotal((int) result.getTotal());
 
-    return searchResponseFormat.formatSearch(additionalFields, data, paging, facets);
+    SearchWsResponse header = searchResponseFormat.formatSearchWithoutIssues(additionalFields, data, paging, facets);
+    // issues are streamed, as they are the largest part of the response. The issues of the page and their
+    // related data are still loaded in memory before, which is bounded by the maximum page size.
+    ProtobufResponseStream.write(header, "issues", wsRequest, wsResponse, stream -> searchResponseFormat.formatIssues(additionalFields, data, stream::write));
   }
 
   private static SearchOptions createSearchOptionsFromRequest(SearchWsRequest request) {
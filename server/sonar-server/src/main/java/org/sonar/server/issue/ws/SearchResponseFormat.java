@@ -28,6 +28,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.sonar.api.resources.Language;
 import org.sonar.api.resources.Languages;
@@ -78,13 +79,16 @@ public class SearchResponseFormat {
     this.avatarFactory = avatarFactory;
   }
 
-  public SearchWsResponse formatSearch(Set<SearchAdditionalField> fields, SearchResponseData data,
+  /**
+   * Formats the response, except issues which are formatted by {@link #formatIssues(Set, SearchResponseData, Consumer)},
+   * so that they can be streamed.
+   */
+  public SearchWsResponse formatSearchWithoutIssues(Set<SearchAdditionalField> fields, SearchResponseData data,
     Paging paging, @Nullable Facets facets) {
     SearchWsResponse.Builder response = SearchWsResponse.newBuilder();
 
     formatPaging(paging, response);
     formatEffortTotal(data, response);
-    response.addAllIssues(formatIssues(fields, data));
     response.addAllComponents(formatComponents(data));
     if (facets != null) {
       formatFacets(facets, response);
@@ -134,8 +138,7 @@ public class SearchResponseFormat {
     response.setPaging(commonFormat.formatPaging(paging));
   }
 
-  private List<Issues.Issue> formatIssues(Set<SearchAdditionalField> fields, SearchResponseData data) {
-    List<Issues.Issue> result = new ArrayList<>();
+  public void formatIssues(Set<SearchAdditionalField> fields, SearchResponseData data, Consumer<Issue> consumer) {
     Issue.Builder issueBuilder = Issue.newBuilder();
     data.getIssues().forEach(dto -> {
       issueBuilder.clear();
@@ -149,9 +152,8 @@ public class SearchResponseFormat {
       if (fields.contains(SearchAdditionalField.COMMENTS)) {
         formatIssueComments(data, issueBuilder, dto);
       }
-      result.add(issueBuilder.build());
+      consumer.accept(issueBuilder.build());
     });
-    return result;
   }
 
   private void formatIssue(Issue.Builder issueBuilder, IssueDto dto, SearchResponseData data) {
@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.Duration;
+import org.sonar.api.utils.KeyValueFormat;
 import org.sonar.core.issue.DefaultIssue;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
@@ -41,7 +43,9 @@ import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.db.user.UserDto;
 import org.sonar.server.es.Facets;
 import org.sonar.server.issue.ActionFinder;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.issue.TransitionService;
+import org.sonar.server.issue.index.IssueDoc;
 import org.sonar.server.user.UserSession;
 import org.sonarqube.ws.client.issue.IssuesWsParameters;
 
@@ -52,6 +56,8 @@ import static com.google.common.collect.Sets.difference;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Stream.concat;
 import static org.sonar.core.util.stream.MoreCollectors.toList;
+import static org.sonar.server.issue.index.IssueIndexDefinition.FIELD_ISSUE_FUNC_CREATED_AT;
+import static org.sonar.server.issue.index.IssueIndexDefinition.FIELD_ISSUE_FUNC_UPDATED_AT;
 import static org.sonar.server.issue.ws.SearchAdditionalField.ACTIONS;
 import static org.sonar.server.issue.ws.SearchAdditionalField.COMMENTS;
 import static org.sonar.server.issue.ws.SearchAdditionalField.RULES;
@@ -67,12 +73,15 @@ public class SearchResponseLoader {
   private final DbClient dbClient;
   private final ActionFinder actionService;
   private final TransitionService transitionService;
+  private final IssueReferenceCache referenceCache;
 
-  public SearchResponseLoader(UserSession userSession, DbClient dbClient, ActionFinder actionService, TransitionService transitionService) {
+  public SearchResponseLoader(UserSession userSession, DbClient dbClient, ActionFinder actionService, TransitionService transitionService,
+    IssueReferenceCache referenceCache) {
     this.userSession = userSession;
     this.dbClient = dbClient;
     this.actionService = actionService;
     this.transitionService = transitionService;
+    this.referenceCache = referenceCache;
   }
 
   /**
@@ -96,6 +105,82 @@ public class SearchResponseLoader {
     }
   }
 
+  /**
+   * Same as {@link #load(Collector, Facets)} but issues are built from the documents returned by the Elasticsearch
+   * index and rules, users, components and organizations are read from {@link IssueReferenceCache}. The DB is
+   * requested only for the reference data missing from cache and for comments.
+   */
+  public SearchResponseData load(List<IssueDoc> issueDocs, Collector collector, @Nullable Facets facets) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      SearchResponseData result = new SearchResponseData(issueDocs.stream().map(SearchResponseLoader::toIssueDto).collect(toList(issueDocs.size())));
+      collector.collect(result.getIssues());
+
+      if (collector.contains(RULES)) {
+        result.setRules(referenceCache.getRules(dbSession, collector.<RuleKey>get(RULES)));
+      }
+      // order is important - loading of comments complete the list of users: loadComments() is
+      // before users are loaded
+      loadComments(collector, dbSession, result);
+      if (collector.contains(USERS)) {
+        result.setUsers(referenceCache.getUsers(dbSession, collector.<String>get(USERS)));
+      }
+      loadComponentsFromCache(collector, dbSession, result);
+      referenceCache.getOrganizations(dbSession, result.getComponents().stream().map(ComponentDto::getOrganizationUuid).collect(MoreCollectors.toSet()))
+        .forEach(result::addOrganization);
+      loadActionsAndTransitions(collector, result);
+      completeTotalEffortFromFacet(facets, result);
+      return result;
+    }
+  }
+
+  private void loadComponentsFromCache(Collector collector, DbSession dbSession, SearchResponseData result) {
+    // the sub-project of an issue is the module of its component
+    for (IssueDto issue : result.getIssues()) {
+      String moduleUuid = issue.getModuleUuid();
+      if (moduleUuid != null) {
+        collector.getComponentUuids().add(moduleUuid);
+      }
+    }
+    result.addComponents(referenceCache.getComponents(dbSession, collector.getComponentUuids()));
+    result.getComponents().forEach(component -> collector.addProjectUuid(component.projectUuid()));
+    Set<String> loadedUuids = result.getComponents().stream().map(ComponentDto::uuid).collect(MoreCollectors.toSet());
+    Set<String> projectUuidsToLoad = copyOf(difference(collector.getProjectUuids(), loadedUuids));
+    if (!projectUuidsToLoad.isEmpty()) {
+      result.addComponents(referenceCache.getComponents(dbSession, projectUuidsToLoad));
+    }
+  }
+
+  private static IssueDto toIssueDto(IssueDoc doc) {
+    RuleKey ruleKey = doc.ruleKey();
+    Duration effort = doc.effort();
+    return new IssueDto()
+      .setKee(doc.key())
+      .setType(doc.type())
+      .setComponentUuid(doc.componentUuid())
+      .setModuleUuid(doc.moduleUuid())
+      .setModuleUuidPath(doc.modulePath())
+      .setProjectUuid(doc.projectUuid())
+      .setRuleKey(ruleKey.repository(), ruleKey.rule())
+      .setLanguage(doc.language())
+      .setSeverity(doc.severity())
+      .setManualSeverity(doc.isManualSeverity())
+      .setMessage(doc.message())
+      .setLine(doc.line())
+      .setGap(doc.gap())
+      .setEffort(effort == null ? null : effort.toMinutes())
+      .setStatus(doc.status())
+      .setResolution(doc.resolution())
+      .setChecksum(doc.checksum())
+      .setAssignee(doc.assignee())
+      .setAuthorLogin(doc.authorLogin())
+      .setIssueAttributes(KeyValueFormat.format(doc.attributes()))
+      .setTags(doc.tags())
+      .setLocations(doc.locations())
+      .setIssueCreationDate(doc.getNullableFieldAsDate(FIELD_ISSUE_FUNC_CREATED_AT))
+      .setIssueUpdateDate(doc.getNullableFieldAsDate(FIELD_ISSUE_FUNC_UPDATED_AT))
+      .setIssueCloseDate(doc.closeDate());
+  }
+
   /**
    * The issue keys are given by the multi-criteria search in Elasticsearch index.
    * <p>
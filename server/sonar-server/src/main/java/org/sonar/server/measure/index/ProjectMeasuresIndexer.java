@@ -31,6 +31,7 @@ import org.sonar.db.DbSession;
 import org.sonar.db.measure.ProjectMeasuresIndexerIterator;
 import org.sonar.db.measure.ProjectMeasuresIndexerIterator.ProjectMeasures;
 import org.sonar.server.es.BulkIndexer;
+import org.sonar.server.es.BulkIndexer.RefreshPolicy;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.es.IndexType;
@@ -60,7 +61,7 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
 
   @Override
   public void indexOnStartup(Set<IndexType> emptyIndexTypes) {
-    doIndex(createBulkIndexer(Size.LARGE), (String) null);
+    doIndex(createBulkIndexer(Size.LARGE, RefreshPolicy.IMMEDIATE), (String) null);
   }
 
   @Override
@@ -70,6 +71,11 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
 
   @Override
   public void indexProject(String projectUuid, Cause cause) {
+    indexProject(projectUuid, cause, RefreshPolicy.IMMEDIATE);
+  }
+
+  @Override
+  public void indexProject(String projectUuid, Cause cause, RefreshPolicy refreshPolicy) {
     switch (cause) {
       case PROJECT_KEY_UPDATE:
         // project must be re-indexed because key is used in this index
@@ -77,7 +83,7 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
         // provisioned projects are supported by WS api/components/search_projects
       case NEW_ANALYSIS:
       case PROJECT_TAGS_UPDATE:
-        doIndex(createBulkIndexer(Size.REGULAR), projectUuid);
+        doIndex(createBulkIndexer(Size.REGULAR, refreshPolicy), projectUuid);
         break;
       default:
         // defensive case
@@ -110,8 +116,8 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
     bulk.stop();
   }
 
-  private BulkIndexer createBulkIndexer(Size bulkSize) {
-    return new BulkIndexer(esClient, INDEX_TYPE_PROJECT_MEASURES.getIndex(), bulkSize);
+  private BulkIndexer createBulkIndexer(Size bulkSize, RefreshPolicy refreshPolicy) {
+    return new BulkIndexer(esClient, INDEX_TYPE_PROJECT_MEASURES.getIndex(), bulkSize, refreshPolicy);
   }
 
   private static IndexRequest newIndexRequest(ProjectMeasuresDoc doc) {
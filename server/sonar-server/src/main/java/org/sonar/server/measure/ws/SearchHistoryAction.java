@@ -20,8 +20,11 @@
 package org.sonar.server.measure.ws;
 
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -39,23 +42,26 @@ import org.sonar.db.component.SnapshotQuery;
 import org.sonar.db.component.SnapshotQuery.SORT_FIELD;
 import org.sonar.db.component.SnapshotQuery.SORT_ORDER;
 import org.sonar.db.measure.MeasureDto;
+import org.sonar.db.measure.MeasureHistoryDto;
+import org.sonar.db.measure.MeasureHistoryPoint;
 import org.sonar.db.measure.PastMeasureQuery;
 import org.sonar.db.metric.MetricDto;
 import org.sonar.server.component.ComponentFinder;
 import org.sonar.server.user.UserSession;
 import org.sonar.server.ws.KeyExamples;
-import org.sonarqube.ws.WsMeasures.SearchHistoryResponse;
+import org.sonar.server.ws.ProtobufResponseStream;
 import org.sonarqube.ws.client.measure.SearchHistoryRequest;
 
 import static java.lang.String.format;
+import static java.util.Collections.emptyMap;
 import static org.sonar.api.utils.DateUtils.parseEndingDateOrDateTime;
 import static org.sonar.api.utils.DateUtils.parseStartingDateOrDateTime;
 import static org.sonar.core.util.Protobuf.setNullable;
 import static org.sonar.db.component.SnapshotDto.STATUS_PROCESSED;
-import static org.sonar.server.ws.WsUtils.writeProtobuf;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.ACTION_SEARCH_HISTORY;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_COMPONENT;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_FROM;
+import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_MAX_POINTS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRICS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_TO;
 import static org.sonarqube.ws.client.measure.SearchHistoryRequest.DEFAULT_PAGE_SIZE;
@@ -78,6 +84,7 @@ public class SearchHistoryAction implements MeasuresWsAction {
       .setMetrics(request.mandatoryParamAsStrings(PARAM_METRICS))
       .setFrom(request.param(PARAM_FROM))
       .setTo(request.param(PARAM_TO))
+      .setMaxPoints(request.paramAsInt(PARAM_MAX_POINTS))
       .setPage(request.mandatoryParamAsInt(Param.PAGE))
       .setPageSize(request.mandatoryParamAsInt(Param.PAGE_SIZE))
       .build();
@@ -89,6 +96,7 @@ public class SearchHistoryAction implements MeasuresWsAction {
       .setDescription("Search measures history of a component.<br>" +
         "Measures are ordered chronologically.<br>" +
         "Pagination applies to the number of measures for each metric.<br>" +
+        "When parameter '" + PARAM_MAX_POINTS + "' is set, the history is downsampled before pagination.<br>" +
         "Requires the following permission: 'Browse' on the specified component")
       .setResponseExample(getClass().getResource("search_history-example.json"))
       .setSince("6.3")
@@ -112,18 +120,26 @@ public class SearchHistoryAction implements MeasuresWsAction {
       .setDescription("Filter issues created before the given date (inclusive). Format: date or datetime ISO formats")
       .setExampleValue("2013-05-01 (or 2013-05-01T13:00:00+0100)");
 
+    action.createParam(PARAM_MAX_POINTS)
+      .setDescription("Maximum number of measures returned for each metric. The period between the first and the last analyses is " +
+        "split in intervals of the same duration, and only the last analysis of each interval is kept. Must be greater than 0.")
+      .setSince("6.5")
+      .setExampleValue("100");
+
     action.addPagingParams(DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
   }
 
   @Override
   public void handle(Request request, Response response) throws Exception {
-    SearchHistoryResponse searchHistoryResponse = Stream.of(request)
+    SearchHistoryResponseFactory responseFactory = Stream.of(request)
       .map(SearchHistoryAction::toWsRequest)
       .map(search())
-      .map(result -> new SearchHistoryResponseFactory(result).apply())
+      .map(SearchHistoryResponseFactory::new)
       .collect(MoreCollectors.toOneElement());
 
-    writeProtobuf(searchHistoryResponse, request, response);
+    // measures are streamed, as history of many metrics can be large. The analyses and measures of the
+    // requested period are still loaded in memory before, as they are paginated and downsampled per metric.
+    ProtobufResponseStream.write(responseFactory.header(), "measures", request, response, stream -> responseFactory.forEachMeasure(stream::write));
   }
 
   private Function<SearchHistoryRequest, SearchHistoryResult> search() {
@@ -147,14 +163,60 @@ public class SearchHistoryAction implements MeasuresWsAction {
   }
 
   private List<MeasureDto> searchMeasures(DbSession dbSession, SearchHistoryRequest request, SearchHistoryResult result) {
+    List<MeasureDto> measures = new ArrayList<>();
+    List<MetricDto> metricsWithoutHistory = new ArrayList<>(result.getMetrics());
+    if (result.getComponent().uuid().equals(result.getComponent().projectUuid())) {
+      Map<Integer, MeasureHistoryDto> historiesByMetricId = searchHistories(dbSession, result);
+      metricsWithoutHistory.removeIf(metric -> historiesByMetricId.containsKey(metric.getId()));
+      Map<Long, String> analysisUuidsByDate = new HashMap<>();
+      result.getAnalyses().forEach(analysis -> analysisUuidsByDate.put(analysis.getCreatedAt(), analysis.getUuid()));
+      historiesByMetricId.values().forEach(history -> addMeasures(history, result.getMetrics(), analysisUuidsByDate, measures));
+    }
+    if (metricsWithoutHistory.isEmpty()) {
+      return measures;
+    }
+
     Date from = parseStartingDateOrDateTime(request.getFrom());
     Date to = parseEndingDateOrDateTime(request.getTo());
     PastMeasureQuery dbQuery = new PastMeasureQuery(
       result.getComponent().uuid(),
-      result.getMetrics().stream().map(MetricDto::getId).collect(MoreCollectors.toList()),
+      metricsWithoutHistory.stream().map(MetricDto::getId).collect(MoreCollectors.toList()),
       from == null ? null : from.getTime(),
       to == null ? null : (to.getTime() + 1_000L));
-    return dbClient.measureDao().selectPastMeasures(dbSession, dbQuery);
+    measures.addAll(dbClient.measureDao().selectPastMeasures(dbSession, dbQuery));
+    return measures;
+  }
+
+  /**
+   * Table measure_history contains a single row per root component and metric. Metrics for which only the last value is kept
+   * in project_measures are ignored.
+   */
+  private Map<Integer, MeasureHistoryDto> searchHistories(DbSession dbSession, SearchHistoryResult result) {
+    List<Integer> metricIds = result.getMetrics().stream()
+      .filter(metric -> !metric.isDeleteHistoricalData())
+      .map(MetricDto::getId)
+      .collect(MoreCollectors.toList());
+    if (metricIds.isEmpty()) {
+      return emptyMap();
+    }
+    return dbClient.measureHistoryDao().selectByComponentUuidAndMetricIds(dbSession, result.getComponent().uuid(), metricIds).stream()
+      .collect(MoreCollectors.uniqueIndex(MeasureHistoryDto::getMetricId));
+  }
+
+  private static void addMeasures(MeasureHistoryDto history, List<MetricDto> metrics, Map<Long, String> analysisUuidsByDate, List<MeasureDto> measures) {
+    boolean isOnNewCode = metrics.stream()
+      .filter(metric -> metric.getId() == history.getMetricId())
+      .anyMatch(metric -> metric.getKey().startsWith("new_"));
+    for (MeasureHistoryPoint point : history.getPoints()) {
+      String analysisUuid = analysisUuidsByDate.get(point.getDate());
+      if (analysisUuid != null) {
+        MeasureDto measure = new MeasureDto()
+          .setComponentUuid(history.getComponentUuid())
+          .setAnalysisUuid(analysisUuid)
+          .setMetricId(history.getMetricId());
+        measures.add(isOnNewCode ? measure.setVariation(point.getValue()) : measure.setValue(point.getValue()));
+      }
+    }
   }
 
   private List<SnapshotDto> searchAnalyses(DbSession dbSession, SearchHistoryRequest request, ComponentDto component) {
@@ -22,9 +22,9 @@ package org.sonar.server.measure.ws;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
-import java.util.stream.Stream;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.component.SnapshotDto;
 import org.sonar.db.measure.MeasureDto;
@@ -48,33 +48,26 @@ class SearchHistoryResponseFactory {
     this.value = HistoryValue.newBuilder();
   }
 
-  public SearchHistoryResponse apply() {
-    return Stream.of(SearchHistoryResponse.newBuilder())
-      .map(addPaging())
-      .map(addMeasures())
-      .map(SearchHistoryResponse.Builder::build)
-      .collect(MoreCollectors.toOneElement());
+  /**
+   * The response without measures, which are streamed by {@link #forEachMeasure(Consumer)}
+   */
+  public SearchHistoryResponse header() {
+    return SearchHistoryResponse.newBuilder()
+      .setPaging(result.getPaging())
+      .build();
   }
 
-  private UnaryOperator<SearchHistoryResponse.Builder> addPaging() {
-    return response -> response.setPaging(result.getPaging());
-  }
-
-  private UnaryOperator<SearchHistoryResponse.Builder> addMeasures() {
+  public void forEachMeasure(Consumer<HistoryMeasure> consumer) {
     Map<Integer, MetricDto> metricsById = result.getMetrics().stream().collect(MoreCollectors.uniqueIndex(MetricDto::getId));
     Map<String, SnapshotDto> analysesByUuid = result.getAnalyses().stream().collect(MoreCollectors.uniqueIndex(SnapshotDto::getUuid));
     Table<MetricDto, SnapshotDto, MeasureDto> measuresByMetricByAnalysis = HashBasedTable.create(result.getMetrics().size(), result.getAnalyses().size());
     result.getMeasures().forEach(m -> measuresByMetricByAnalysis.put(metricsById.get(m.getMetricId()), analysesByUuid.get(m.getAnalysisUuid()), m));
 
-    return response -> {
-      result.getMetrics().stream()
-        .peek(metric -> measure.clear())
-        .map(addMetric())
-        .map(metric -> addValues(measuresByMetricByAnalysis.row(metric)).apply(metric))
-        .forEach(metric -> response.addMeasures(measure));
-
-      return response;
-    };
+    result.getMetrics().stream()
+      .peek(metric -> measure.clear())
+      .map(addMetric())
+      .map(metric -> addValues(measuresByMetricByAnalysis.row(metric)).apply(metric))
+      .forEach(metric -> consumer.accept(measure.build()));
   }
 
   private UnaryOperator<MetricDto> addMetric() {
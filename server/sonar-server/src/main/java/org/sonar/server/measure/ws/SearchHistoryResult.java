@@ -66,12 +66,43 @@ class SearchHistoryResult {
   }
 
   SearchHistoryResult setAnalyses(List<SnapshotDto> analyses) {
-    this.paging = Common.Paging.newBuilder().setPageIndex(request.getPage()).setPageSize(request.getPageSize()).setTotal(analyses.size()).build();
-    this.analyses = analyses.stream().skip(offset(request.getPage(), request.getPageSize())).limit(request.getPageSize()).collect(MoreCollectors.toList());
+    Integer maxPoints = request.getMaxPoints();
+    List<SnapshotDto> sampledAnalyses = maxPoints == null ? analyses : downsample(analyses, maxPoints);
+    this.paging = Common.Paging.newBuilder().setPageIndex(request.getPage()).setPageSize(request.getPageSize()).setTotal(sampledAnalyses.size()).build();
+    this.analyses = sampledAnalyses.stream().skip(offset(request.getPage(), request.getPageSize())).limit(request.getPageSize()).collect(MoreCollectors.toList());
 
     return this;
   }
 
+  /**
+   * Splits the period between the first and the last analyses in {@code maxPoints} intervals of the same duration, and keeps
+   * the last analysis of each interval.
+   *
+   * @param analyses sorted by date
+   */
+  static List<SnapshotDto> downsample(List<SnapshotDto> analyses, int maxPoints) {
+    if (analyses.size() <= maxPoints) {
+      return analyses;
+    }
+    long firstDate = analyses.get(0).getCreatedAt();
+    long lastDate = analyses.get(analyses.size() - 1).getCreatedAt();
+    double intervalDuration = (lastDate - firstDate + 1) / (double) maxPoints;
+    List<SnapshotDto> sampledAnalyses = new ArrayList<>(maxPoints);
+    for (int i = 0; i < analyses.size(); i++) {
+      SnapshotDto analysis = analyses.get(i);
+      boolean isLastOfInterval = i == analyses.size() - 1
+        || interval(analyses.get(i + 1), firstDate, intervalDuration) != interval(analysis, firstDate, intervalDuration);
+      if (isLastOfInterval) {
+        sampledAnalyses.add(analysis);
+      }
+    }
+    return sampledAnalyses;
+  }
+
+  private static long interval(SnapshotDto analysis, long firstDate, double intervalDuration) {
+    return (long) ((analysis.getCreatedAt() - firstDate) / intervalDuration);
+  }
+
   List<MetricDto> getMetrics() {
     return requireNonNull(metrics);
   }
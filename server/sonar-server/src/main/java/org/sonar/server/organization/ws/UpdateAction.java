@@ -29,6 +29,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.organization.OrganizationDto;
 import org.sonar.server.exceptions.NotFoundException;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.OrganizationFlags;
 import org.sonar.server.user.UserSession;
 import org.sonarqube.ws.Organizations;
@@ -49,13 +50,15 @@ public class UpdateAction implements OrganizationsWsAction {
   private final OrganizationsWsSupport wsSupport;
   private final DbClient dbClient;
   private final OrganizationFlags organizationFlags;
+  private final IssueReferenceCache issueReferenceCache;
 
   public UpdateAction(UserSession userSession, OrganizationsWsSupport wsSupport, DbClient dbClient,
-    OrganizationFlags organizationFlags) {
+    OrganizationFlags organizationFlags, IssueReferenceCache issueReferenceCache) {
     this.userSession = userSession;
     this.wsSupport = wsSupport;
     this.dbClient = dbClient;
     this.organizationFlags = organizationFlags;
+    this.issueReferenceCache = issueReferenceCache;
   }
 
   @Override
@@ -101,6 +104,7 @@ public class UpdateAction implements OrganizationsWsAction {
         .setAvatarUrl(updateRequest.getAvatar().or(dto::getAvatarUrl));
       dbClient.organizationDao().update(dbSession, dto);
       dbSession.commit();
+      issueReferenceCache.invalidateOrganization(dto.getUuid());
 
       writeResponse(request, response, dto);
     }
@@ -19,6 +19,7 @@
  */
 package org.sonar.server.permission;
 
+import com.google.common.collect.Iterables;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -58,6 +59,8 @@ import static org.sonar.api.security.DefaultGroups.isAnyone;
 @ServerSide
 public class PermissionTemplateService {
 
+  public static final int BATCH_SIZE = 1_000;
+
   private final DbClient dbClient;
   private final PermissionIndexer permissionIndexer;
   private final UserSession userSession;
@@ -94,17 +97,45 @@ public class PermissionTemplateService {
    * Apply a permission template to a set of projects. Authorization to administrate these projects
    * is not verified. The projects must exist, so the "project creator" permissions defined in the
    * template are ignored.
+   * <p>
+   * Projects are processed by batches of {@link #BATCH_SIZE}: the permissions of each batch are deleted
+   * with a single statement, then committed and indexed before processing the next batch.
+   * </p>
    */
   public void apply(DbSession dbSession, PermissionTemplateDto template, Collection<ComponentDto> projects) {
     if (projects.isEmpty()) {
       return;
     }
 
-    for (ComponentDto project : projects) {
-      copyPermissions(dbSession, template, project, null);
+    TemplatePermissions permissions = loadPermissions(dbSession, template);
+    for (List<ComponentDto> batch : Iterables.partition(projects, BATCH_SIZE)) {
+      apply(dbSession, permissions, batch);
+    }
+  }
+
+  /**
+   * Same as {@link #apply(DbSession, PermissionTemplateDto, Collection)} for a single batch of projects, with
+   * the permissions of template already loaded by {@link #loadPermissions(DbSession, PermissionTemplateDto)}.
+   * The size of batch should not exceed a few thousands of projects.
+   */
+  public void apply(DbSession dbSession, TemplatePermissions permissions, List<ComponentDto> projects) {
+    if (projects.isEmpty()) {
+      return;
     }
+    copyPermissions(dbSession, permissions, projects, null);
     dbSession.commit();
-    indexProjectPermissions(dbSession, projects.stream().map(ComponentDto::uuid).collect(MoreCollectors.toList()));
+    indexProjectPermissions(dbSession, projects.stream().map(ComponentDto::uuid).collect(MoreCollectors.toList(projects.size())));
+  }
+
+  /**
+   * Loads the user, group and "project creator" permissions of a template, so that the template is read only once
+   * when it's applied to several batches of projects.
+   */
+  public TemplatePermissions loadPermissions(DbSession dbSession, PermissionTemplateDto template) {
+    return new TemplatePermissions(template,
+      dbClient.permissionTemplateDao().selectUserPermissionsByTemplateId(dbSession, template.getId()),
+      dbClient.permissionTemplateDao().selectGroupPermissionsByTemplateId(dbSession, template.getId()),
+      dbClient.permissionTemplateCharacteristicDao().selectByTemplateIds(dbSession, asList(template.getId())));
   }
 
   /**
@@ -115,7 +146,7 @@ public class PermissionTemplateService {
   public void applyDefault(DbSession dbSession, String organizationUuid, ComponentDto component, @Nullable Integer projectCreatorUserId) {
     PermissionTemplateDto template = findTemplate(dbSession, organizationUuid, component);
     checkArgument(template != null, "Cannot retrieve default permission template");
-    copyPermissions(dbSession, template, component, projectCreatorUserId);
+    copyPermissions(dbSession, loadPermissions(dbSession, template), singletonList(component), projectCreatorUserId);
     dbSession.commit();
     indexProjectPermissions(dbSession, asList(component.uuid()));
   }
@@ -134,14 +165,20 @@ public class PermissionTemplateService {
     permissionIndexer.indexProjectsByUuids(dbSession, projectOrViewUuids);
   }
 
-  private void copyPermissions(DbSession dbSession, PermissionTemplateDto template, ComponentDto project, @Nullable Integer projectCreatorUserId) {
-    dbClient.resourceDao().updateAuthorizationDate(project.getId(), dbSession);
-    dbClient.groupPermissionDao().deleteByRootComponentId(dbSession, project.getId());
-    dbClient.userPermissionDao().deleteProjectPermissions(dbSession, project.getId());
+  private void copyPermissions(DbSession dbSession, TemplatePermissions permissions, List<ComponentDto> projects, @Nullable Integer projectCreatorUserId) {
+    List<Long> projectIds = projects.stream().map(ComponentDto::getId).collect(MoreCollectors.toList(projects.size()));
+    dbClient.resourceDao().updateAuthorizationDates(projectIds, dbSession);
+    dbClient.groupPermissionDao().deleteByRootComponentIds(dbSession, projectIds);
+    dbClient.userPermissionDao().deleteProjectPermissions(dbSession, projectIds);
+
+    for (ComponentDto project : projects) {
+      insertPermissions(dbSession, permissions, project, projectCreatorUserId);
+    }
+  }
 
-    List<PermissionTemplateUserDto> usersPermissions = dbClient.permissionTemplateDao().selectUserPermissionsByTemplateId(dbSession, template.getId());
-    String organizationUuid = template.getOrganizationUuid();
-    usersPermissions
+  private void insertPermissions(DbSession dbSession, TemplatePermissions permissions, ComponentDto project, @Nullable Integer projectCreatorUserId) {
+    String organizationUuid = permissions.template.getOrganizationUuid();
+    permissions.usersPermissions
       .stream()
       .filter(up -> permissionValidForProject(project, up.getPermission()))
       .forEach(up -> {
@@ -149,8 +186,7 @@ public class PermissionTemplateService {
         dbClient.userPermissionDao().insert(dbSession, dto);
       });
 
-    List<PermissionTemplateGroupDto> groupsPermissions = dbClient.permissionTemplateDao().selectGroupPermissionsByTemplateId(dbSession, template.getId());
-    groupsPermissions
+    permissions.groupsPermissions
       .stream()
       .filter(gp -> groupNameValidForProject(project, gp.getGroupName()))
       .filter(gp -> permissionValidForProject(project, gp.getPermission()))
@@ -163,13 +199,12 @@ public class PermissionTemplateService {
         dbClient.groupPermissionDao().insert(dbSession, dto);
       });
 
-    List<PermissionTemplateCharacteristicDto> characteristics = dbClient.permissionTemplateCharacteristicDao().selectByTemplateIds(dbSession, asList(template.getId()));
     if (projectCreatorUserId != null) {
-      Set<String> permissionsForCurrentUserAlreadyInDb = usersPermissions.stream()
+      Set<String> permissionsForCurrentUserAlreadyInDb = permissions.usersPermissions.stream()
         .filter(userPermission -> projectCreatorUserId.equals(userPermission.getUserId()))
         .map(PermissionTemplateUserDto::getPermission)
         .collect(java.util.stream.Collectors.toSet());
-      characteristics.stream()
+      permissions.characteristics.stream()
         .filter(PermissionTemplateCharacteristicDto::getWithProjectCreator)
         .filter(up -> permissionValidForProject(project, up.getPermission()))
         .filter(characteristic -> !permissionsForCurrentUserAlreadyInDb.contains(characteristic.getPermission()))
@@ -241,4 +276,25 @@ public class PermissionTemplateService {
     }
   }
 
+  /**
+   * Permissions of a template, as loaded by {@link #loadPermissions(DbSession, PermissionTemplateDto)}
+   */
+  public static final class TemplatePermissions {
+    private final PermissionTemplateDto template;
+    private final List<PermissionTemplateUserDto> usersPermissions;
+    private final List<PermissionTemplateGroupDto> groupsPermissions;
+    private final List<PermissionTemplateCharacteristicDto> characteristics;
+
+    private TemplatePermissions(PermissionTemplateDto template, List<PermissionTemplateUserDto> usersPermissions,
+      List<PermissionTemplateGroupDto> groupsPermissions, List<PermissionTemplateCharacteristicDto> characteristics) {
+      this.template = template;
+      this.usersPermissions = usersPermissions;
+      this.groupsPermissions = groupsPermissions;
+      this.characteristics = characteristics;
+    }
+
+    public PermissionTemplateDto getTemplate() {
+      return template;
+    }
+  }
 }
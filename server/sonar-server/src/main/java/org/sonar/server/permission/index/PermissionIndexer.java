@@ -20,13 +20,21 @@
 package org.sonar.server.permission.index;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.elasticsearch.action.index.IndexRequest;
 import org.sonar.api.utils.DateUtils;
 import org.sonar.core.util.stream.MoreCollectors;
@@ -54,6 +62,9 @@ public class PermissionIndexer implements ProjectIndexer, StartupIndexer {
 
   @VisibleForTesting
   static final int MAX_BATCH_SIZE = 1000;
+  @VisibleForTesting
+  static final int STARTUP_RANGE_SIZE = 10_000;
+  private static final int STARTUP_THREADS = 4;
 
   private final DbClient dbClient;
   private final EsClient esClient;
@@ -79,16 +90,77 @@ public class PermissionIndexer implements ProjectIndexer, StartupIndexer {
       .collect(toSet(authorizationScopes.size()));
   }
 
+  /**
+   * Authorizations are streamed from database and fed project by project to the bulk indexers, so that
+   * memory does not depend on the number of projects. Projects are split into ranges of
+   * {@link #STARTUP_RANGE_SIZE} uuids, which are read concurrently by {@link #STARTUP_THREADS} threads.
+   */
   @Override
   public void indexOnStartup(Set<IndexType> emptyIndexTypes) {
-    List<Dto> authorizations = getAllAuthorizations();
-    Stream<AuthorizationScope> scopes = getScopes(emptyIndexTypes);
-    index(authorizations, scopes, Size.LARGE);
+    List<AuthorizationScope> scopes = getScopes(emptyIndexTypes).collect(MoreCollectors.toList());
+    if (scopes.isEmpty()) {
+      return;
+    }
+    PermissionIndexerDao dao = new PermissionIndexerDao();
+    List<String> bounds;
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      bounds = dao.selectUuidRangeBounds(dbClient, dbSession, STARTUP_RANGE_SIZE);
+    }
+
+    Map<AuthorizationScope, BulkIndexer> bulkIndexers = new LinkedHashMap<>();
+    scopes.forEach(scope -> {
+      BulkIndexer bulkIndexer = new BulkIndexer(esClient, scope.getIndexType().getIndex(), Size.LARGE);
+      bulkIndexer.start();
+      bulkIndexers.put(scope, bulkIndexer);
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(STARTUP_THREADS, bounds.size() + 1),
+      r -> new Thread(r, "PermissionIndexer"));
+    try {
+      List<Future<?>> futures = new ArrayList<>(bounds.size() + 1);
+      for (int i = 0; i <= bounds.size(); i++) {
+        String fromUuid = i == 0 ? null : bounds.get(i - 1);
+        String toUuid = i == bounds.size() ? null : bounds.get(i);
+        futures.add(executor.submit(() -> indexRange(dao, fromUuid, toUuid, bulkIndexers)));
+      }
+      for (Future<?> future : futures) {
+        awaitTermination(future);
+      }
+    } finally {
+      executor.shutdownNow();
+      awaitTermination(executor);
+      // stopping the indexers also restores the index settings changed by Size.LARGE,
+      // so it must be done even when a range failed
+      bulkIndexers.values().forEach(BulkIndexer::stop);
+    }
   }
 
-  private List<Dto> getAllAuthorizations() {
+  private void indexRange(PermissionIndexerDao dao, @Nullable String fromUuid, @Nullable String toUuid, Map<AuthorizationScope, BulkIndexer> bulkIndexers) {
     try (DbSession dbSession = dbClient.openSession(false)) {
-      return new PermissionIndexerDao().selectAll(dbClient, dbSession);
+      dao.scroll(dbClient, dbSession, fromUuid, toUuid, dto -> bulkIndexers.forEach((scope, bulkIndexer) -> {
+        if (scope.getProjectPredicate().test(dto)) {
+          bulkIndexer.add(newIndexRequest(dto, scope.getIndexType()));
+        }
+      }));
+    }
+  }
+
+  private static void awaitTermination(ExecutorService executor) {
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void awaitTermination(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while indexing authorizations", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Fail to index authorizations", e.getCause());
     }
   }
 
@@ -19,15 +19,13 @@
  */
 package org.sonar.server.permission.index;
 
-import com.google.common.collect.ImmutableList;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -36,7 +34,8 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 import static org.sonar.db.DatabaseUtils.repeatCondition;
 
 /**
- * No streaming because of union of joins -> no need to use ResultSetIterator
+ * Rows of the union of joins are ordered by project uuid, so that authorizations are streamed
+ * project by project.
  */
 public class PermissionIndexerDao {
 
@@ -172,48 +171,103 @@ public class PermissionIndexerDao {
 
     "    ) project_authorization";
 
+  private static final String SQL_UUIDS = "SELECT projects.uuid FROM projects " +
+    "WHERE " +
+    "  (projects.qualifier = 'TRK' or  projects.qualifier = 'VW') " +
+    "  AND projects.copy_component_uuid is NULL " +
+    "ORDER BY projects.uuid";
+
   List<Dto> selectAll(DbClient dbClient, DbSession session) {
-    return doSelectByProjects(dbClient, session, Collections.emptyList());
+    List<Dto> dtos = new ArrayList<>();
+    scroll(dbClient, session, null, null, dtos::add);
+    return dtos;
   }
 
   List<Dto> selectByUuids(DbClient dbClient, DbSession session, List<String> projectOrViewUuids) {
-    return executeLargeInputs(projectOrViewUuids, subProjectOrViewUuids -> doSelectByProjects(dbClient, session, subProjectOrViewUuids));
+    return executeLargeInputs(projectOrViewUuids, subProjectOrViewUuids -> {
+      List<Dto> dtos = new ArrayList<>(subProjectOrViewUuids.size());
+      String condition = " AND (" + repeatCondition("projects.uuid = ?", subProjectOrViewUuids.size(), "OR") + ")";
+      doScroll(dbClient, session, condition, subProjectOrViewUuids, dtos::add);
+      return dtos;
+    });
   }
 
-  private static List<Dto> doSelectByProjects(DbClient dbClient, DbSession session, List<String> projectUuids) {
-    try {
-      Map<String, Dto> dtosByProjectUuid = new HashMap<>();
-      try (PreparedStatement stmt = createStatement(dbClient, session, projectUuids);
-        ResultSet rs = stmt.executeQuery()) {
-        while (rs.next()) {
-          processRow(rs, dtosByProjectUuid);
+  /**
+   * Streams the authorizations of the projects and views whose uuid is greater than or equal to {@code fromUuid}
+   * and lower than {@code toUuid}. Bounds are ignored when {@code null}.
+   * Rows are ordered by project uuid, so that a single project is loaded in memory at a time.
+   */
+  void scroll(DbClient dbClient, DbSession session, @Nullable String fromUuid, @Nullable String toUuid, Consumer<Dto> consumer) {
+    StringBuilder condition = new StringBuilder();
+    List<String> params = new ArrayList<>(2);
+    if (fromUuid != null) {
+      condition.append(" AND projects.uuid >= ?");
+      params.add(fromUuid);
+    }
+    if (toUuid != null) {
+      condition.append(" AND projects.uuid < ?");
+      params.add(toUuid);
+    }
+    doScroll(dbClient, session, condition.toString(), params, consumer);
+  }
+
+  /**
+   * Splits the uuids of projects and views into ranges of {@code rangeSize} uuids. Returns the lower
+   * bound of each range, except the first one which is not bounded.
+   */
+  List<String> selectUuidRangeBounds(DbClient dbClient, DbSession session, int rangeSize) {
+    List<String> bounds = new ArrayList<>();
+    try (PreparedStatement stmt = dbClient.getMyBatis().newScrollingSelectStatement(session, SQL_UUIDS);
+      ResultSet rs = stmt.executeQuery()) {
+      int count = 0;
+      while (rs.next()) {
+        if (count > 0 && count % rangeSize == 0) {
+          bounds.add(rs.getString(1));
         }
-        return ImmutableList.copyOf(dtosByProjectUuid.values());
+        count++;
       }
+      return bounds;
     } catch (SQLException e) {
-      throw new IllegalStateException("Fail to select authorizations", e);
+      throw new IllegalStateException("Fail to select uuids of projects", e);
     }
   }
 
-  private static PreparedStatement createStatement(DbClient dbClient, DbSession session, List<String> projectUuids) throws SQLException {
-    String sql;
-    if (projectUuids.isEmpty()) {
-      sql = StringUtils.replace(SQL_TEMPLATE, "{projectsCondition}", "");
-    } else {
-      sql = StringUtils.replace(SQL_TEMPLATE, "{projectsCondition}", " AND (" + repeatCondition("projects.uuid = ?", projectUuids.size(), "OR") + ")");
+  private static void doScroll(DbClient dbClient, DbSession session, String projectsCondition, List<String> params, Consumer<Dto> consumer) {
+    try (PreparedStatement stmt = createStatement(dbClient, session, projectsCondition, params);
+      ResultSet rs = stmt.executeQuery()) {
+      Dto dto = null;
+      while (rs.next()) {
+        String projectUuid = rs.getString(2);
+        if (dto == null || !dto.getProjectUuid().equals(projectUuid)) {
+          if (dto != null) {
+            consumer.accept(dto);
+          }
+          dto = new Dto(projectUuid, rs.getLong(5), rs.getString(6));
+        }
+        processRow(rs, dto);
+      }
+      if (dto != null) {
+        consumer.accept(dto);
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("Fail to select authorizations", e);
     }
+  }
+
+  private static PreparedStatement createStatement(DbClient dbClient, DbSession session, String projectsCondition, List<String> params) throws SQLException {
+    String sql = StringUtils.replace(SQL_TEMPLATE, "{projectsCondition}", projectsCondition) + " ORDER BY project_authorization.project";
     PreparedStatement stmt = dbClient.getMyBatis().newScrollingSelectStatement(session, sql);
     int index = 1;
     // query for RowKind.USER
-    index = populateProjectUuidPlaceholders(stmt, projectUuids, index);
+    index = populateProjectUuidPlaceholders(stmt, params, index);
     // query for RowKind.GROUP
-    index = populateProjectUuidPlaceholders(stmt, projectUuids, index);
+    index = populateProjectUuidPlaceholders(stmt, params, index);
     // query for RowKind.ANYONE
     index = setPrivateProjectPlaceHolder(stmt, index, false);
-    index = populateProjectUuidPlaceholders(stmt, projectUuids, index);
+    index = populateProjectUuidPlaceholders(stmt, params, index);
     // query for RowKind.NONE
     index = setPrivateProjectPlaceHolder(stmt, index, true);
-    populateProjectUuidPlaceholders(stmt, projectUuids, index);
+    populateProjectUuidPlaceholders(stmt, params, index);
     return stmt;
   }
 
@@ -233,17 +287,8 @@ public class PermissionIndexerDao {
     return newIndex;
   }
 
-  private static void processRow(ResultSet rs, Map<String, Dto> dtosByProjectUuid) throws SQLException {
+  private static void processRow(ResultSet rs, Dto dto) throws SQLException {
     RowKind rowKind = RowKind.valueOf(rs.getString(1));
-    String projectUuid = rs.getString(2);
-
-    Dto dto = dtosByProjectUuid.get(projectUuid);
-    if (dto == null) {
-      long updatedAt = rs.getLong(5);
-      String qualifier = rs.getString(6);
-      dto = new Dto(projectUuid, updatedAt, qualifier);
-      dtosByProjectUuid.put(projectUuid, dto);
-    }
     switch (rowKind) {
       case NONE:
         break;
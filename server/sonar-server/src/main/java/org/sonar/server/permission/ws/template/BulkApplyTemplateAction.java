@@ -27,24 +27,33 @@ import org.sonar.api.resources.ResourceType;
 import org.sonar.api.resources.ResourceTypes;
 import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.Change;
 import org.sonar.api.server.ws.WebService;
 import org.sonar.api.server.ws.WebService.Param;
+import org.sonar.ce.queue.CeQueue;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskSubmit;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentQuery;
 import org.sonar.db.permission.template.PermissionTemplateDto;
 import org.sonar.server.permission.PermissionTemplateService;
 import org.sonar.server.permission.ws.PermissionWsSupport;
+import org.sonar.server.computation.task.permissiontemplate.BulkApplyPermissionTemplateRequest;
 import org.sonar.server.permission.ws.PermissionsWsAction;
 import org.sonar.server.user.UserSession;
+import org.sonarqube.ws.WsCe;
 import org.sonarqube.ws.client.permission.BulkApplyTemplateWsRequest;
 
 import static org.sonar.server.permission.PermissionPrivilegeChecker.checkGlobalAdmin;
+import static org.sonar.server.permission.PermissionTemplateService.BATCH_SIZE;
 import static org.sonar.server.permission.ws.PermissionsWsParametersBuilder.createTemplateParameters;
 import static org.sonar.server.permission.ws.template.WsTemplateRef.newTemplateRef;
 import static org.sonar.server.ws.WsParameterBuilder.createRootQualifierParameter;
 import static org.sonar.server.ws.WsParameterBuilder.QualifierParameterContext.newQualifierParameterContext;
+import static org.sonar.server.ws.WsUtils.writeProtobuf;
 import static org.sonarqube.ws.client.permission.PermissionsWsParameters.PARAM_ORGANIZATION;
 import static org.sonarqube.ws.client.permission.PermissionsWsParameters.PARAM_QUALIFIER;
 import static org.sonarqube.ws.client.permission.PermissionsWsParameters.PARAM_TEMPLATE_ID;
@@ -58,15 +67,17 @@ public class BulkApplyTemplateAction implements PermissionsWsAction {
   private final PermissionWsSupport wsSupport;
   private final I18n i18n;
   private final ResourceTypes resourceTypes;
+  private final CeQueue queue;
 
   public BulkApplyTemplateAction(DbClient dbClient, UserSession userSession, PermissionTemplateService permissionTemplateService, PermissionWsSupport wsSupport, I18n i18n,
-    ResourceTypes resourceTypes) {
+    ResourceTypes resourceTypes, CeQueue queue) {
     this.dbClient = dbClient;
     this.userSession = userSession;
     this.permissionTemplateService = permissionTemplateService;
     this.wsSupport = wsSupport;
     this.i18n = i18n;
     this.resourceTypes = resourceTypes;
+    this.queue = queue;
   }
 
   private static BulkApplyTemplateWsRequest toBulkApplyTemplateWsRequest(Request request) {
@@ -83,9 +94,12 @@ public class BulkApplyTemplateAction implements PermissionsWsAction {
     WebService.NewAction action = context.createAction("bulk_apply_template")
       .setDescription("Apply a permission template to several projects.<br />" +
         "The template id or name must be provided.<br />" +
+        "When more than " + BATCH_SIZE + " projects match, the template is applied asynchronously by the Compute Engine " +
+        "and the response contains the id of the task, whose progress can be followed with the web service api/ce/task.<br />" +
         "Requires the following permission: 'Administer System'.")
       .setPost(true)
       .setSince("5.5")
+      .setChangelog(new Change("6.5", "Template is applied by the Compute Engine when more than " + BATCH_SIZE + " projects match"))
       .setHandler(this);
 
     action.createParam(Param.TEXT_QUERY)
@@ -100,24 +114,43 @@ public class BulkApplyTemplateAction implements PermissionsWsAction {
 
   @Override
   public void handle(Request request, Response response) throws Exception {
-    doHandle(toBulkApplyTemplateWsRequest(request));
-    response.noContent();
-  }
-
-  private void doHandle(BulkApplyTemplateWsRequest request) {
+    BulkApplyTemplateWsRequest wsRequest = toBulkApplyTemplateWsRequest(request);
     try (DbSession dbSession = dbClient.openSession(false)) {
       PermissionTemplateDto template = wsSupport.findTemplate(dbSession, newTemplateRef(
-        request.getTemplateId(), request.getOrganization(), request.getTemplateName()));
+        wsRequest.getTemplateId(), wsRequest.getOrganization(), wsRequest.getTemplateName()));
       checkGlobalAdmin(userSession, template.getOrganizationUuid());
 
+      String[] qualifiers = qualifiers(wsRequest.getQualifier());
       ComponentQuery componentQuery = ComponentQuery.builder()
-        .setNameOrKeyQuery(request.getQuery())
-        .setQualifiers(qualifiers(request.getQualifier()))
+        .setNameOrKeyQuery(wsRequest.getQuery())
+        .setQualifiers(qualifiers)
         .build();
-      List<ComponentDto> projects = dbClient.componentDao().selectByQuery(dbSession, template.getOrganizationUuid(), componentQuery, 0, Integer.MAX_VALUE);
+      if (dbClient.componentDao().countByQuery(dbSession, template.getOrganizationUuid(), componentQuery) > BATCH_SIZE) {
+        CeTask task = submit(dbSession, template, wsRequest.getQuery(), qualifiers);
+        writeProtobuf(WsCe.SubmitResponse.newBuilder().setTaskId(task.getUuid()).build(), request, response);
+        return;
+      }
 
+      List<ComponentDto> projects = dbClient.componentDao().selectByQuery(dbSession, template.getOrganizationUuid(), componentQuery, 0, BATCH_SIZE);
       permissionTemplateService.apply(dbSession, template, projects);
     }
+    response.noContent();
+  }
+
+  private CeTask submit(DbSession dbSession, PermissionTemplateDto template, @Nullable String query, String[] qualifiers) {
+    BulkApplyPermissionTemplateRequest taskRequest = new BulkApplyPermissionTemplateRequest()
+      .setTemplateUuid(template.getUuid())
+      .setQuery(query)
+      .setQualifiers(qualifiers);
+
+    // the input must be saved before submitting the task
+    CeTaskSubmit.Builder submit = queue.prepareSubmit();
+    dbClient.ceTaskInputDao().insert(dbSession, submit.getUuid(), taskRequest.toInputStream());
+    dbSession.commit();
+
+    submit.setType(CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY);
+    submit.setSubmitterLogin(userSession.getLogin());
+    return queue.submit(submit.build());
   }
 
   private String[] qualifiers(@Nullable String qualifier) {
@@ -59,6 +59,13 @@ public interface ServerFileSystem {
    */
   File getDeployedPluginsDir();
 
+  /**
+   * Plugins unzipped by web server and compute engine, shared by both processes and
+   * kept on restarts.
+   * @return a non-null directory that MAY exist
+   */
+  File getExplodedPluginsDir();
+
   /**
    * Directory of plugins downloaded through update center. Files
    * will be moved to {@link #getInstalledPluginsDir()} on startup.
@@ -0,0 +1,52 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+
+/**
+ * Metrics published by the processes of the node (app, Elasticsearch, web server and Compute Engine)
+ */
+public class ProcessMetricsMonitor implements Monitor {
+
+  private final ProcessMetricsReader reader;
+
+  public ProcessMetricsMonitor(ProcessMetricsReader reader) {
+    this.reader = reader;
+  }
+
+  @Override
+  public String name() {
+    return "Process Metrics";
+  }
+
+  @Override
+  public Map<String, Object> attributes() {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    for (Map.Entry<ProcessId, Map<ProcessMetric, Long>> processMetrics : reader.read().entrySet()) {
+      String processKey = processMetrics.getKey().getKey();
+      processMetrics.getValue().forEach((metric, value) -> attributes.put(processKey + "." + metric.getKey(), value));
+    }
+    return attributes;
+  }
+}
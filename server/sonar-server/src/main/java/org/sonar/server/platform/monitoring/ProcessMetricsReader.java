@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import org.sonar.api.config.Settings;
+import org.sonar.api.server.ServerSide;
+import org.sonar.process.AllProcessesCommands;
+import org.sonar.process.ProcessCommands;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+/**
+ * Reads the metrics published by all the processes of the node into their shared memory. No RPC is involved,
+ * so metrics are available even if JMX is disabled.
+ */
+@ServerSide
+public class ProcessMetricsReader {
+
+  private final Settings settings;
+
+  public ProcessMetricsReader(Settings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * @return the last published values, by process. Processes which did not publish any metric are not returned.
+   */
+  public Map<ProcessId, Map<ProcessMetric, Long>> read() {
+    String sharedPath = settings.getString(PROPERTY_SHARED_PATH);
+    if (sharedPath == null) {
+      // server is not launched by the main process, for example in tests
+      return Collections.emptyMap();
+    }
+    Map<ProcessId, Map<ProcessMetric, Long>> result = new EnumMap<>(ProcessId.class);
+    try (AllProcessesCommands allProcessesCommands = new AllProcessesCommands(new File(sharedPath))) {
+      for (ProcessId processId : ProcessId.values()) {
+        Map<ProcessMetric, Long> metrics = read(allProcessesCommands.create(processId.getIpcIndex()));
+        if (!metrics.isEmpty()) {
+          result.put(processId, metrics);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Map<ProcessMetric, Long> read(ProcessCommands commands) {
+    Map<ProcessMetric, Long> metrics = new EnumMap<>(ProcessMetric.class);
+    for (ProcessMetric metric : ProcessMetric.values()) {
+      OptionalLong value = commands.getMetric(metric);
+      if (value.isPresent()) {
+        metrics.put(metric, value.getAsLong());
+      }
+    }
+    return metrics;
+  }
+}
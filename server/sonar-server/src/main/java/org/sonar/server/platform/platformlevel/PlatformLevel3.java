@@ -31,6 +31,7 @@ import org.sonar.server.platform.StartupMetadataPersister;
 import org.sonar.server.platform.db.migration.NoopDatabaseMigrationImpl;
 import org.sonar.server.setting.DatabaseSettingLoader;
 import org.sonar.server.setting.DatabaseSettingsEnabler;
+import org.sonar.server.setting.GlobalSettingsVersion;
 import org.sonar.server.startup.LogServerId;
 
 public class PlatformLevel3 extends PlatformLevel {
@@ -45,6 +46,7 @@ public class PlatformLevel3 extends PlatformLevel {
       NoopDatabaseMigrationImpl.class,
       ServerIdManager.class,
       ServerImpl.class,
+      GlobalSettingsVersion.class,
       DatabaseSettingLoader.class,
       DatabaseSettingsEnabler.class,
       UriReader.class,
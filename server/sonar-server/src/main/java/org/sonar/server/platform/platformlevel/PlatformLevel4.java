@@ -67,6 +67,8 @@ import org.sonar.server.issue.index.IssueIndexer;
 import org.sonar.server.issue.index.IssueIteratorFactory;
 import org.sonar.server.issue.notification.ChangesOnMyIssueNotificationDispatcher;
 import org.sonar.server.issue.notification.DoNotFixNotificationDispatcher;
+import org.sonar.server.issue.notification.IssueBulkChangeEmailTemplate;
+import org.sonar.server.issue.notification.IssueBulkChangeNotificationDispatcher;
 import org.sonar.server.issue.notification.IssueChangesEmailTemplate;
 import org.sonar.server.issue.notification.MyNewIssuesEmailTemplate;
 import org.sonar.server.issue.notification.MyNewIssuesNotificationDispatcher;
@@ -103,6 +105,8 @@ import org.sonar.server.platform.monitoring.DatabaseMonitor;
 import org.sonar.server.platform.monitoring.EsMonitor;
 import org.sonar.server.platform.monitoring.JvmPropsMonitor;
 import org.sonar.server.platform.monitoring.PluginsMonitor;
+import org.sonar.server.platform.monitoring.ProcessMetricsMonitor;
+import org.sonar.server.platform.monitoring.ProcessMetricsReader;
 import org.sonar.server.platform.monitoring.SettingsMonitor;
 import org.sonar.server.platform.monitoring.SonarQubeMonitor;
 import org.sonar.server.platform.monitoring.SystemMonitor;
@@ -113,6 +117,7 @@ import org.sonar.server.platform.ws.DbMigrationStatusAction;
 import org.sonar.server.platform.ws.InfoAction;
 import org.sonar.server.platform.ws.L10nWs;
 import org.sonar.server.platform.ws.LogsAction;
+import org.sonar.server.platform.ws.MetricsAction;
 import org.sonar.server.platform.ws.MigrateDbAction;
 import org.sonar.server.platform.ws.PingAction;
 import org.sonar.server.platform.ws.RestartAction;
@@ -392,8 +397,10 @@ public class PlatformLevel4 extends PlatformLevel {
       NewIssuesEmailTemplate.class,
       MyNewIssuesEmailTemplate.class,
       IssueChangesEmailTemplate.class,
+      IssueBulkChangeEmailTemplate.class,
       ChangesOnMyIssueNotificationDispatcher.class,
       ChangesOnMyIssueNotificationDispatcher.newMetadata(),
+      IssueBulkChangeNotificationDispatcher.class,
       NewIssuesNotificationDispatcher.class,
       NewIssuesNotificationDispatcher.newMetadata(),
       MyNewIssuesNotificationDispatcher.class,
@@ -470,6 +477,7 @@ public class PlatformLevel4 extends PlatformLevel {
       RestartAction.class,
       InfoAction.class,
       PingAction.class,
+      MetricsAction.class,
       UpgradesAction.class,
       StatusAction.class,
       SystemWs.class,
@@ -479,6 +487,8 @@ public class PlatformLevel4 extends PlatformLevel {
       EsMonitor.class,
       PluginsMonitor.class,
       JvmPropsMonitor.class,
+      ProcessMetricsReader.class,
+      ProcessMetricsMonitor.class,
       DatabaseMonitor.class,
       MigrateDbAction.class,
       LogsAction.class,
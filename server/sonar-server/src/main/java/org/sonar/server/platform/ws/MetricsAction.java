@@ -0,0 +1,93 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.ws;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+import org.sonar.server.platform.monitoring.ProcessMetricsReader;
+import org.sonar.server.user.UserSession;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Exports the metrics of the processes of the node in the text format of Prometheus.
+ */
+public class MetricsAction implements SystemWsAction {
+
+  static final String MEDIA_TYPE = "text/plain; version=0.0.4";
+  private static final String METRIC_PREFIX = "sonarqube_";
+
+  private final UserSession userSession;
+  private final ProcessMetricsReader reader;
+
+  public MetricsAction(UserSession userSession, ProcessMetricsReader reader) {
+    this.userSession = userSession;
+    this.reader = reader;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    controller.createAction("metrics")
+      .setDescription("Get the metrics of the processes of the node, in the text format of Prometheus.<br/>" +
+        "Requires 'Administer System' permission.")
+      .setSince("6.5")
+      .setInternal(true)
+      .setResponseExample(getClass().getResource("metrics-example.txt"))
+      .setHandler(this);
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    userSession.checkIsSystemAdministrator();
+
+    Map<ProcessId, Map<ProcessMetric, Long>> metricsByProcess = reader.read();
+    response.stream().setMediaType(MEDIA_TYPE);
+    try (Writer writer = new OutputStreamWriter(response.stream().output(), UTF_8)) {
+      for (ProcessMetric metric : ProcessMetric.values()) {
+        writeMetric(writer, metric, metricsByProcess);
+      }
+    }
+  }
+
+  private static void writeMetric(Writer writer, ProcessMetric metric, Map<ProcessId, Map<ProcessMetric, Long>> metricsByProcess) throws IOException {
+    boolean headerWritten = false;
+    String name = METRIC_PREFIX + metric.getKey();
+    for (Map.Entry<ProcessId, Map<ProcessMetric, Long>> processMetrics : metricsByProcess.entrySet()) {
+      Long value = processMetrics.getValue().get(metric);
+      if (value == null) {
+        continue;
+      }
+      if (!headerWritten) {
+        writer.write("# HELP " + name + " " + metric.getDescription() + "\n");
+        writer.write("# TYPE " + name + " " + metric.getType().name().toLowerCase(Locale.ENGLISH) + "\n");
+        headerWritten = true;
+      }
+      writer.write(name + "{process=\"" + processMetrics.getKey().getKey() + "\"} " + value + "\n");
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.plugins;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonar.api.utils.ZipUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.commons.io.FileUtils.copyFile;
+import static org.apache.commons.io.FileUtils.forceMkdir;
+import static org.apache.commons.io.FileUtils.moveDirectory;
+import static org.sonar.core.util.FileUtils.deleteQuietly;
+
+/**
+ * Plugin JARs unzipped once for all into a directory named after the checksum of the JAR, so
+ * that they are reused on restarts and by the different processes (web server and
+ * compute engine). The content of the directory is checked against a manifest
+ * written at the end of unzipping, so that an interrupted or corrupted extraction is
+ * done again.
+ */
+public class ExplodedPluginCache {
+
+  static final String MANIFEST_FILENAME = ".exploded";
+  private static final String LOCK_FILENAME = ".lock";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final Logger LOG = Loggers.get(ExplodedPluginCache.class);
+
+  private final File cacheDir;
+
+  public ExplodedPluginCache(File cacheDir) {
+    this.cacheDir = cacheDir;
+  }
+
+  /**
+   * Returns the directory {@code <cache dir>/<plugin key>/<jar checksum>} that contains a copy
+   * of the JAR and its entries accepted by {@code filter}. The directory is created if
+   * missing or if its content is not valid.
+   * Concurrent calls from different processes are serialized by a file lock.
+   */
+  public File explode(String pluginKey, File jar, Predicate<ZipEntry> filter) throws IOException {
+    File pluginDir = new File(cacheDir, pluginKey);
+    forceMkdir(pluginDir);
+    File dir = new File(pluginDir, checksum(jar));
+    if (isValid(dir, jar)) {
+      return dir;
+    }
+    try (FileChannel channel = FileChannel.open(new File(pluginDir, LOCK_FILENAME).toPath(), CREATE, WRITE);
+      FileLock lock = channel.lock()) {
+      // recheck in case of concurrent processes
+      if (!isValid(dir, jar)) {
+        LOG.debug("Unzip plugin {} to {}", pluginKey, dir);
+        cleanPluginDir(pluginDir);
+        unzip(jar, dir, filter);
+      }
+    }
+    return dir;
+  }
+
+  static String checksum(File file) throws IOException {
+    try (InputStream input = Files.newInputStream(file.toPath())) {
+      return DigestUtils.md5Hex(input);
+    }
+  }
+
+  /**
+   * Versions of the plugin other than the current one are obsolete. They are dropped
+   * in order to not fill the disk with previous versions.
+   */
+  private static void cleanPluginDir(File pluginDir) {
+    File[] children = pluginDir.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        if (!LOCK_FILENAME.equals(child.getName())) {
+          deleteQuietly(child);
+        }
+      }
+    }
+  }
+
+  private static void unzip(File jar, File toDir, Predicate<ZipEntry> filter) throws IOException {
+    File tempDir = new File(toDir.getParentFile(), toDir.getName() + TEMP_SUFFIX);
+    forceMkdir(tempDir);
+    copyFile(jar, new File(tempDir, jar.getName()));
+    ZipUtils.unzip(jar, tempDir, filter);
+    writeManifest(tempDir);
+    moveDirectory(tempDir, toDir);
+  }
+
+  private static void writeManifest(File dir) throws IOException {
+    Properties manifest = new Properties();
+    Path root = dir.toPath();
+    try (Stream<Path> files = Files.walk(root)) {
+      files
+        .filter(Files::isRegularFile)
+        .forEach(file -> manifest.setProperty(relativePath(root, file), String.valueOf(file.toFile().length())));
+    }
+    try (OutputStream output = Files.newOutputStream(new File(dir, MANIFEST_FILENAME).toPath())) {
+      manifest.store(output, null);
+    }
+  }
+
+  /**
+   * Integrity is verified by comparing the files and their sizes to the manifest. That
+   * is much cheaper than unzipping the JAR again.
+   */
+  private static boolean isValid(File dir, File jar) throws IOException {
+    File manifestFile = new File(dir, MANIFEST_FILENAME);
+    if (!manifestFile.isFile() || !new File(dir, jar.getName()).isFile()) {
+      return false;
+    }
+    Properties manifest = new Properties();
+    try (InputStream input = Files.newInputStream(manifestFile.toPath())) {
+      manifest.load(input);
+    }
+    for (String path : manifest.stringPropertyNames()) {
+      File file = new File(dir, path);
+      if (!file.isFile() || file.length() != Long.parseLong(manifest.getProperty(path))) {
+        LOG.warn("Exploded plugin is corrupted and is going to be unzipped again: {}", file);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String relativePath(Path root, Path file) {
+    return root.relativize(file).toString().replace(File.separatorChar, '/');
+  }
+}
@@ -20,10 +20,10 @@
 package org.sonar.server.plugins;
 
 import java.io.File;
+import java.io.IOException;
 import org.apache.commons.io.FileUtils;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.server.ServerSide;
-import org.sonar.api.utils.ZipUtils;
 import org.sonar.core.platform.ExplodedPlugin;
 import org.sonar.core.platform.PluginInfo;
 import org.sonar.core.platform.PluginJarExploder;
@@ -43,24 +43,35 @@ public class ServerPluginJarExploder extends PluginJarExploder {
 
   /**
    * JAR files of directory extensions/plugins can be moved when server is up and plugins are uninstalled.
-   * For this reason these files must not be locked by classloaders. They are copied to the directory
-   * web/deploy/plugins in order to be loaded by {@link org.sonar.core.platform.PluginLoader}.
+   * For this reason these files must not be locked by classloaders. They are unzipped to the
+   * directory shared with compute engine (see {@link ExplodedPluginCache}) in order to be loaded
+   * by {@link org.sonar.core.platform.PluginLoader}. The JAR is also copied to web/deploy/plugins
+   * in order to be downloaded by scanners.
    */
   @Override
   public ExplodedPlugin explode(PluginInfo pluginInfo) {
-    File toDir = new File(fs.getDeployedPluginsDir(), pluginInfo.getKey());
+    File jarSource = pluginInfo.getNonNullJarFile();
+    File deployDir = new File(fs.getDeployedPluginsDir(), pluginInfo.getKey());
     try {
-      forceMkdir(toDir);
-      org.sonar.core.util.FileUtils.cleanDirectory(toDir);
-
-      File jarSource = pluginInfo.getNonNullJarFile();
-      File jarTarget = new File(toDir, jarSource.getName());
-      FileUtils.copyFile(jarSource, jarTarget);
-      ZipUtils.unzip(jarSource, toDir, newLibFilter());
-      return explodeFromUnzippedDir(pluginInfo.getKey(), jarTarget, toDir);
+      File unzippedDir = new ExplodedPluginCache(fs.getExplodedPluginsDir()).explode(pluginInfo.getKey(), jarSource, newLibFilter());
+      deploy(jarSource, deployDir);
+      return explodeFromUnzippedDir(pluginInfo.getKey(), new File(unzippedDir, jarSource.getName()), unzippedDir);
     } catch (Exception e) {
       throw new IllegalStateException(String.format(
-        "Fail to unzip plugin [%s] %s to %s", pluginInfo.getKey(), pluginInfo.getNonNullJarFile().getAbsolutePath(), toDir.getAbsolutePath()), e);
+        "Fail to unzip plugin [%s] %s to %s", pluginInfo.getKey(), jarSource.getAbsolutePath(), deployDir.getAbsolutePath()), e);
+    }
+  }
+
+  /**
+   * The JAR is not copied again if it has not changed since previous startup
+   */
+  private static void deploy(File jarSource, File deployDir) throws IOException {
+    File jarTarget = new File(deployDir, jarSource.getName());
+    if (jarTarget.isFile() && jarTarget.length() == jarSource.length() && jarTarget.lastModified() == jarSource.lastModified()) {
+      return;
     }
+    forceMkdir(deployDir);
+    org.sonar.core.util.FileUtils.cleanDirectory(deployDir);
+    FileUtils.copyFile(jarSource, jarTarget, true);
   }
 }
@@ -21,6 +21,7 @@ package org.sonar.server.property;
 
 import java.util.Optional;
 import javax.annotation.Nullable;
+import org.sonar.db.property.PropertiesDao;
 
 /**
  * Allows to read and write internal properties.
@@ -34,6 +35,11 @@ public interface InternalProperties {
 
   String ORGANIZATION_ENABLED = "organization.enabled";
 
+  /**
+   * Stamp changed on every write of global settings, so that all nodes refresh their snapshot of settings.
+   */
+  String GLOBAL_SETTINGS_VERSION = PropertiesDao.GLOBAL_PROPERTIES_VERSION;
+
   /**
    * Read the value of the specified property.
    *
@@ -42,6 +42,7 @@ import org.sonar.db.rule.RuleDto.Format;
 import org.sonar.db.rule.RuleMetadataDto;
 import org.sonar.db.rule.RuleParamDto;
 import org.sonar.server.exceptions.BadRequestException;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.rule.index.RuleIndexer;
 import org.sonar.server.util.TypeValidations;
@@ -59,13 +60,16 @@ public class RuleCreator {
   private final DbClient dbClient;
   private final TypeValidations typeValidations;
   private final DefaultOrganizationProvider defaultOrganizationProvider;
+  private final IssueReferenceCache issueReferenceCache;
 
-  public RuleCreator(System2 system2, RuleIndexer ruleIndexer, DbClient dbClient, TypeValidations typeValidations, DefaultOrganizationProvider defaultOrganizationProvider) {
+  public RuleCreator(System2 system2, RuleIndexer ruleIndexer, DbClient dbClient, TypeValidations typeValidations, DefaultOrganizationProvider defaultOrganizationProvider,
+    IssueReferenceCache issueReferenceCache) {
     this.system2 = system2;
     this.ruleIndexer = ruleIndexer;
     this.dbClient = dbClient;
     this.typeValidations = typeValidations;
     this.defaultOrganizationProvider = defaultOrganizationProvider;
+    this.issueReferenceCache = issueReferenceCache;
   }
 
   public RuleKey create(DbSession dbSession, NewCustomRule newRule) {
@@ -87,6 +91,8 @@ public class RuleCreator {
       .orElseGet(() -> createCustomRule(customRuleKey, newRule, templateRule, dbSession));
 
     dbSession.commit();
+    // a removed custom rule may have been reactivated
+    issueReferenceCache.invalidateRule(customRuleKey);
     ruleIndexer.indexRuleDefinition(customRuleKey);
     return customRuleKey;
   }
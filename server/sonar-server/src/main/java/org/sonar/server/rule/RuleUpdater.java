@@ -47,6 +47,7 @@ import org.sonar.db.qualityprofile.OrgActiveRuleDto;
 import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.db.rule.RuleParamDto;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.rule.index.RuleIndexer;
 import org.sonar.server.user.UserSession;
 
@@ -62,11 +63,13 @@ public class RuleUpdater {
   private final DbClient dbClient;
   private final RuleIndexer ruleIndexer;
   private final System2 system;
+  private final IssueReferenceCache issueReferenceCache;
 
-  public RuleUpdater(DbClient dbClient, RuleIndexer ruleIndexer, System2 system) {
+  public RuleUpdater(DbClient dbClient, RuleIndexer ruleIndexer, System2 system, IssueReferenceCache issueReferenceCache) {
     this.dbClient = dbClient;
     this.ruleIndexer = ruleIndexer;
     this.system = system;
+    this.issueReferenceCache = issueReferenceCache;
   }
 
   /**
@@ -87,6 +90,7 @@ public class RuleUpdater {
     RuleKey ruleKey = rule.getKey();
     ruleIndexer.indexRuleDefinition(ruleKey);
     ruleIndexer.indexRuleExtension(organization, ruleKey);
+    issueReferenceCache.invalidateRule(ruleKey);
     return true;
   }
 
@@ -20,35 +20,92 @@
 package org.sonar.server.setting;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
-import org.sonar.db.property.PropertyDto;
 
 import static org.apache.commons.lang.StringUtils.defaultString;
 
+/**
+ * Loads global settings from an immutable snapshot of db table "properties", shared by all threads. The snapshot
+ * is reloaded only when the {@link GlobalSettingsVersion version stamp} changes. The stamp is checked at most
+ * once every {@link #VERSION_CHECK_INTERVAL_MS} ms, or immediately after a change made by this process.
+ */
 public class DatabaseSettingLoader implements SettingLoader {
 
+  static final long VERSION_CHECK_INTERVAL_MS = 1_000L;
+
   private final DbClient dbClient;
+  private final GlobalSettingsVersion settingsVersion;
+  private final System2 system2;
+  private final AtomicLong nextVersionCheck = new AtomicLong(0L);
+  private volatile Snapshot snapshot = null;
 
-  public DatabaseSettingLoader(DbClient dbClient) {
+  public DatabaseSettingLoader(DbClient dbClient, GlobalSettingsVersion settingsVersion, System2 system2) {
     this.dbClient = dbClient;
+    this.settingsVersion = settingsVersion;
+    this.system2 = system2;
   }
 
   @Override
   public String load(String key) {
-    PropertyDto dto = dbClient.propertiesDao().selectGlobalProperty(key);
-    if (dto != null) {
-      return defaultString(dto.getValue());
-    }
-    return null;
+    return getSnapshot().properties.get(key);
   }
 
   @Override
   public void loadAll(ImmutableMap.Builder<String, String> appendTo) {
+    appendTo.putAll(getSnapshot().properties);
+  }
+
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    long localBumps = settingsVersion.getLocalBumps();
+    if (current != null && current.localBumps == localBumps && !isVersionCheckDue()) {
+      return current;
+    }
+    nextVersionCheck.set(system2.now() + VERSION_CHECK_INTERVAL_MS);
     try (DbSession dbSession = dbClient.openSession(false)) {
+      // version is read before properties. A change committed in-between is loaded
+      // but its version is not, so it will be loaded again at next check.
+      String version = settingsVersion.read(dbSession);
+      if (current != null && Objects.equals(version, current.version)) {
+        Snapshot unchanged = new Snapshot(version, localBumps, current.properties);
+        snapshot = unchanged;
+        return unchanged;
+      }
+      ImmutableMap.Builder<String, String> properties = ImmutableMap.builder();
       dbClient.propertiesDao().selectGlobalProperties(dbSession)
-        .forEach(p -> appendTo.put(p.getKey(), defaultString(p.getValue())));
+        .forEach(p -> properties.put(p.getKey(), defaultString(p.getValue())));
+      Snapshot loaded = new Snapshot(version, localBumps, properties.build());
+      snapshot = loaded;
+      return loaded;
     }
   }
 
+  /**
+   * Only one thread checks the version when the interval is elapsed. The others keep
+   * on reading the current snapshot.
+   */
+  private boolean isVersionCheckDue() {
+    long now = system2.now();
+    long next = nextVersionCheck.get();
+    return now >= next && nextVersionCheck.compareAndSet(next, now + VERSION_CHECK_INTERVAL_MS);
+  }
+
+  private static final class Snapshot {
+    @CheckForNull
+    private final String version;
+    private final long localBumps;
+    private final ImmutableMap<String, String> properties;
+
+    private Snapshot(@Nullable String version, long localBumps, ImmutableMap<String, String> properties) {
+      this.version = version;
+      this.localBumps = localBumps;
+      this.properties = properties;
+    }
+  }
 }
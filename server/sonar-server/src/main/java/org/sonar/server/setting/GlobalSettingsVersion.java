@@ -0,0 +1,63 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.setting;
+
+import javax.annotation.CheckForNull;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+
+import static org.sonar.server.property.InternalProperties.GLOBAL_SETTINGS_VERSION;
+
+/**
+ * Version stamp of the global settings stored in db table "properties". The stamp is persisted in
+ * table "internal_properties" so that changes are detected by all the nodes of a cluster.
+ * <p>
+ * The stamp is changed by {@link org.sonar.db.property.PropertiesDao} itself, in the same session, each time
+ * global settings are written or deleted.
+ * </p>
+ */
+@ComputeEngineSide
+@ServerSide
+public class GlobalSettingsVersion {
+
+  private final DbClient dbClient;
+
+  public GlobalSettingsVersion(DbClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  /**
+   * @return the persisted stamp, or {@code null} if global settings have never been changed
+   */
+  @CheckForNull
+  public String read(DbSession dbSession) {
+    return dbClient.internalPropertiesDao().selectByKey(dbSession, GLOBAL_SETTINGS_VERSION).orElse(null);
+  }
+
+  /**
+   * Number of changes of global settings in this process. Allows to detect local changes without
+   * waiting for the next check of the persisted stamp.
+   */
+  public long getLocalBumps() {
+    return dbClient.propertiesDao().getLocalGlobalChanges();
+  }
+}
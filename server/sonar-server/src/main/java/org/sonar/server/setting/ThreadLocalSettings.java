@@ -85,7 +85,7 @@ public class ThreadLocalSettings extends Settings {
     // search for the first value available in
     // 1. system properties
     // 2. thread local cache (if enabled)
-    // 3. db
+    // 3. db, through the snapshot shared by all threads (see DatabaseSettingLoader)
 
     String value = systemProps.getProperty(key);
     if (value != null) {
@@ -28,6 +28,7 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.server.es.BulkIndexer;
+import org.sonar.server.es.BulkIndexer.RefreshPolicy;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.es.IndexType;
@@ -54,6 +55,11 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
 
   @Override
   public void indexProject(String projectUuid, Cause cause) {
+    indexProject(projectUuid, cause, RefreshPolicy.IMMEDIATE);
+  }
+
+  @Override
+  public void indexProject(String projectUuid, Cause cause, RefreshPolicy refreshPolicy) {
     switch (cause) {
       case PROJECT_CREATION:
         // no need to index, not tests at that time
@@ -63,7 +69,7 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
         break;
       case NEW_ANALYSIS:
         deleteProject(projectUuid);
-        doIndex(projectUuid, Size.REGULAR);
+        doIndex(projectUuid, Size.REGULAR, refreshPolicy);
         break;
       default:
         // defensive case
@@ -78,7 +84,7 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
 
   @Override
   public void indexOnStartup(Set<IndexType> emptyIndexTypes) {
-    doIndex(null, Size.LARGE);
+    doIndex(null, Size.LARGE, RefreshPolicy.IMMEDIATE);
   }
 
   public long index(Iterator<FileSourcesUpdaterHelper.Row> dbRows) {
@@ -86,8 +92,8 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
     return doIndex(bulk, dbRows);
   }
 
-  private long doIndex(@Nullable String projectUuid, Size bulkSize) {
-    final BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_TEST.getIndex(), bulkSize);
+  private long doIndex(@Nullable String projectUuid, Size bulkSize, RefreshPolicy refreshPolicy) {
+    final BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_TEST.getIndex(), bulkSize, refreshPolicy);
 
     try (DbSession dbSession = dbClient.openSession(false)) {
       TestResultSetIterator rowIt = TestResultSetIterator.create(dbClient, dbSession, projectUuid);
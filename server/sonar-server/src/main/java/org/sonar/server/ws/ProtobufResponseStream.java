@@ -0,0 +1,259 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.ws;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.function.Consumer;
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.util.CompiledProtobufJsonFormat;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.sonarqube.ws.MediaTypes.JSON;
+import static org.sonarqube.ws.MediaTypes.PROTOBUF;
+
+/**
+ * Writes a protobuf response whose repeated field is sent element by element, so that the complete response message
+ * is never built in memory. Note that it does not bound the memory used by a request on its own: the data the
+ * elements are formatted from is still loaded by the caller, unless the caller loads and writes it page by page.
+ * The output is the same as {@link WsUtils#writeProtobuf(Message, Request, Response)}
+ * for the complete message, except that in JSON the streamed field is the last one of the object.
+ * <ul>
+ *   <li>in protobuf, the header is written first, then each element is appended as a length-delimited
+ *   occurrence of the repeated field. Clients parse it as a single message.</li>
+ *   <li>in JSON, the fields of the header are written first, then each element is appended to the array.</li>
+ * </ul>
+ *
+ * If the elements fail to be loaded or written, the response must not be completed, otherwise the client would get a
+ * well-formed response silently missing elements. As the status and the beginning of the response are already sent,
+ * the stream is then {@link #abort() aborted}: the footer is not written and, in protobuf, an incomplete field is
+ * appended, so that the response can't be parsed.
+ *
+ * <pre>
+ *   ProtobufResponseStream.write(header, "measures", request, response, stream -> {
+ *     for (...) {
+ *       stream.write(measure);
+ *     }
+ *   });
+ * </pre>
+ *
+ * @since 6.5
+ */
+public abstract class ProtobufResponseStream implements AutoCloseable {
+
+  private static final Logger LOG = Loggers.get(ProtobufResponseStream.class);
+
+  private final Descriptors.FieldDescriptor field;
+  private boolean aborted = false;
+
+  private ProtobufResponseStream(Descriptors.FieldDescriptor field) {
+    this.field = field;
+  }
+
+  /**
+   * Writes the response, its elements being written by {@code elementsWriter}. The stream is aborted if
+   * {@code elementsWriter} fails, then the failure is rethrown.
+   */
+  public static void write(Message header, String repeatedFieldName, Request request, Response response, Consumer<ProtobufResponseStream> elementsWriter) {
+    ProtobufResponseStream stream = start(header, repeatedFieldName, request, response);
+    try {
+      elementsWriter.accept(stream);
+    } catch (RuntimeException | Error e) {
+      stream.abort();
+      throw e;
+    } finally {
+      stream.close();
+    }
+  }
+
+  /**
+   * @param header the response, without any element in the repeated field {@code repeatedFieldName}
+   * @param repeatedFieldName name of the repeated message field of the response which is streamed
+   */
+  public static ProtobufResponseStream start(Message header, String repeatedFieldName, Request request, Response response) {
+    Descriptors.FieldDescriptor field = header.getDescriptorForType().findFieldByName(repeatedFieldName);
+    checkArgument(field != null && field.isRepeated() && !field.isMapField() && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE,
+      "Field '%s' is not a repeated message field of %s", repeatedFieldName, header.getDescriptorForType().getFullName());
+    checkArgument(header.getRepeatedFieldCount(field) == 0, "Header must not contain elements of field '%s'", repeatedFieldName);
+
+    OutputStream output = response.stream().output();
+    try {
+      ProtobufResponseStream stream;
+      if (request.getMediaType().equals(PROTOBUF)) {
+        response.stream().setMediaType(PROTOBUF);
+        stream = new ProtobufStream(field, output);
+      } else {
+        response.stream().setMediaType(JSON);
+        stream = new JsonStream(field, output);
+      }
+      stream.writeHeader(header);
+      return stream;
+    } catch (Exception e) {
+      IOUtils.closeQuietly(output);
+      throw new IllegalStateException("Error while writing protobuf message", e);
+    }
+  }
+
+  public void write(Message element) {
+    checkArgument(element.getDescriptorForType().equals(field.getMessageType()), "Expected element of type %s but got %s",
+      field.getMessageType().getFullName(), element.getDescriptorForType().getFullName());
+    try {
+      writeElement(element);
+    } catch (Exception e) {
+      // the element may be partially written
+      abort();
+      throw new IllegalStateException("Error while writing protobuf message", e);
+    }
+  }
+
+  /**
+   * Marks the response as failed. {@link #close()} then leaves it incomplete instead of writing its footer.
+   */
+  public void abort() {
+    aborted = true;
+  }
+
+  @Override
+  public void close() {
+    if (aborted) {
+      // the failure which caused the abortion is the one to be reported
+      try {
+        writeAbortion();
+      } catch (Exception e) {
+        LOG.debug("Fail to abort protobuf message", e);
+      }
+      return;
+    }
+    try {
+      writeFooter();
+    } catch (Exception e) {
+      throw new IllegalStateException("Error while writing protobuf message", e);
+    }
+  }
+
+  Descriptors.FieldDescriptor field() {
+    return field;
+  }
+
+  abstract void writeHeader(Message header) throws IOException;
+
+  abstract void writeElement(Message element) throws IOException;
+
+  abstract void writeFooter() throws IOException;
+
+  abstract void writeAbortion() throws IOException;
+
+  private static class ProtobufStream extends ProtobufResponseStream {
+    private final OutputStream output;
+    private final CodedOutputStream codedOutput;
+
+    private ProtobufStream(Descriptors.FieldDescriptor field, OutputStream output) {
+      super(field);
+      this.output = output;
+      this.codedOutput = CodedOutputStream.newInstance(output);
+    }
+
+    @Override
+    void writeHeader(Message header) throws IOException {
+      header.writeTo(codedOutput);
+    }
+
+    @Override
+    void writeElement(Message element) throws IOException {
+      codedOutput.writeMessage(field().getNumber(), element);
+    }
+
+    @Override
+    void writeFooter() throws IOException {
+      try {
+        codedOutput.flush();
+      } finally {
+        IOUtils.closeQuietly(output);
+      }
+    }
+
+    @Override
+    void writeAbortion() throws IOException {
+      try {
+        // first byte of a tag which is never completed, so that parsing fails on truncated message
+        codedOutput.writeRawByte(0x80);
+        codedOutput.flush();
+      } finally {
+        IOUtils.closeQuietly(output);
+      }
+    }
+  }
+
+  private static class JsonStream extends ProtobufResponseStream {
+    private final Writer output;
+    private final JsonWriter writer;
+
+    private JsonStream(Descriptors.FieldDescriptor field, OutputStream output) {
+      super(field);
+      this.output = new OutputStreamWriter(output, UTF_8);
+      this.writer = JsonWriter.of(this.output);
+    }
+
+    @Override
+    void writeHeader(Message header) {
+      writer.setSerializeNulls(false).setSerializeEmptys(true);
+      writer.beginObject();
+      CompiledProtobufJsonFormat.writeFields(header, field().getName(), writer);
+      writer.name(field().getName());
+      writer.beginArray();
+    }
+
+    @Override
+    void writeElement(Message element) {
+      CompiledProtobufJsonFormat.writeValue(element, writer);
+    }
+
+    @Override
+    void writeFooter() {
+      try {
+        writer.endArray();
+        writer.endObject();
+      } finally {
+        writer.close();
+      }
+    }
+
+    @Override
+    void writeAbortion() throws IOException {
+      // the array and the object are left open. JsonWriter is not closed as it fails on incomplete documents.
+      try {
+        output.flush();
+      } finally {
+        IOUtils.closeQuietly(output);
+      }
+    }
+  }
+}
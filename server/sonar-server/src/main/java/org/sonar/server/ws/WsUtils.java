@@ -29,7 +29,7 @@ import org.apache.commons.io.IOUtils;
 import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.Response;
 import org.sonar.api.utils.text.JsonWriter;
-import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonar.core.util.CompiledProtobufJsonFormat;
 import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.NotFoundException;
 
@@ -53,7 +53,7 @@ public class WsUtils {
       } else {
         response.stream().setMediaType(JSON);
         try (JsonWriter writer = JsonWriter.of(new OutputStreamWriter(output, UTF_8))) {
-          ProtobufJsonFormat.write(msg, writer);
+          CompiledProtobufJsonFormat.write(msg, writer);
         }
       }
     } catch (Exception e) {
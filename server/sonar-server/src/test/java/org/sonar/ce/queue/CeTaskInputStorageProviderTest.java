@@ -0,0 +1,72 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.utils.MessageException;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class CeTaskInputStorageProviderTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private MapSettings settings = new MapSettings();
+  private CeTaskInputStorageProvider underTest = new CeTaskInputStorageProvider();
+
+  @Test
+  public void database_storage_by_default() {
+    assertThat(provide()).isInstanceOf(DatabaseCeTaskInputStorage.class);
+  }
+
+  @Test
+  public void file_system_storage_if_configured() {
+    settings.setProperty(CeTaskInputStorageProvider.PROPERTY_STORAGE, "fs");
+
+    assertThat(provide()).isInstanceOf(FileSystemCeTaskInputStorage.class);
+  }
+
+  @Test
+  public void storage_is_instantiated_once() {
+    assertThat(provide()).isSameAs(provide());
+  }
+
+  @Test
+  public void fail_if_storage_is_not_supported() {
+    settings.setProperty(CeTaskInputStorageProvider.PROPERTY_STORAGE, "s3");
+
+    expectedException.expect(MessageException.class);
+    expectedException.expectMessage("Unsupported value 's3' of property sonar.ce.taskInputStorage. Supported values are: db, fs");
+
+    provide();
+  }
+
+  private CeTaskInputStorage provide() {
+    return underTest.provide(settings, mock(DbClient.class), mock(ServerFileSystem.class), System2.INSTANCE);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.io.InputStream;
+import java.util.Optional;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskTypes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DatabaseCeTaskInputStorageTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbSession dbSession = db.getSession();
+  private DatabaseCeTaskInputStorage underTest = new DatabaseCeTaskInputStorage(db.getDbClient());
+
+  @Test
+  public void read_stored_data() throws Exception {
+    underTest.store(dbSession, "TASK_1", IOUtils.toInputStream("{report}", UTF_8));
+
+    assertThat(readData("TASK_1")).contains("{report}");
+    assertThat(readData("TASK_2")).isEmpty();
+  }
+
+  @Test
+  public void delete_data() throws Exception {
+    underTest.store(dbSession, "TASK_1", IOUtils.toInputStream("{report1}", UTF_8));
+    underTest.store(dbSession, "TASK_2", IOUtils.toInputStream("{report2}", UTF_8));
+    underTest.store(dbSession, "TASK_3", IOUtils.toInputStream("{report3}", UTF_8));
+
+    underTest.delete(dbSession, asList("TASK_1", "TASK_2", "UNKNOWN"));
+    dbSession.commit();
+
+    assertThat(readData("TASK_1")).isEmpty();
+    assertThat(readData("TASK_2")).isEmpty();
+    assertThat(readData("TASK_3")).contains("{report3}");
+  }
+
+  @Test
+  public void deleteOrphans_drops_data_of_tasks_not_in_queue() throws Exception {
+    insertInQueue("TASK_1");
+    underTest.store(dbSession, "TASK_1", IOUtils.toInputStream("{report1}", UTF_8));
+    underTest.store(dbSession, "TASK_2", IOUtils.toInputStream("{report2}", UTF_8));
+
+    underTest.deleteOrphans(dbSession);
+    dbSession.commit();
+
+    assertThat(readData("TASK_1")).contains("{report1}");
+    assertThat(readData("TASK_2")).isEmpty();
+  }
+
+  private Optional<String> readData(String taskUuid) throws Exception {
+    Optional<InputStream> data = underTest.read(dbSession, taskUuid);
+    if (!data.isPresent()) {
+      return Optional.empty();
+    }
+    try (InputStream input = data.get()) {
+      return Optional.of(IOUtils.toString(input, UTF_8));
+    }
+  }
+
+  private void insertInQueue(String taskUuid) {
+    CeQueueDto dto = new CeQueueDto();
+    dto.setTaskType(CeTaskTypes.REPORT);
+    dto.setUuid(taskUuid);
+    dto.setStatus(CeQueueDto.Status.PENDING);
+    db.getDbClient().ceQueueDao().insert(dbSession, dto);
+    dbSession.commit();
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.ce.queue.FileSystemCeTaskInputStorage.ORPHAN_GRACE_PERIOD_MS;
+
+public class FileSystemCeTaskInputStorageTest {
+
+  private static final long NOW = 1_500_000_000_000L;
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private TestSystem2 system2 = new TestSystem2().setNow(NOW);
+  private DbSession dbSession = db.getSession();
+  private File dataDir;
+  private FileSystemCeTaskInputStorage underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    dataDir = temp.newFolder();
+    ServerFileSystem fs = mock(ServerFileSystem.class);
+    when(fs.getDataDir()).thenReturn(dataDir);
+    underTest = new FileSystemCeTaskInputStorage(db.getDbClient(), fs, system2);
+  }
+
+  @Test
+  public void store_data_in_file_named_by_its_hash() throws Exception {
+    store("TASK_1", "{report}");
+
+    assertThat(readData("TASK_1")).contains("{report}");
+    assertThat(contentFile("{report}")).exists().hasContent("{report}");
+    assertThat(db.countRowsOfTable(dbSession, "ce_task_input")).isZero();
+  }
+
+  @Test
+  public void read_returns_empty_if_task_is_unknown() throws Exception {
+    assertThat(readData("TASK_1")).isEmpty();
+  }
+
+  @Test
+  public void read_falls_back_to_data_stored_in_database() throws Exception {
+    db.getDbClient().ceTaskInputDao().insert(dbSession, "TASK_1", IOUtils.toInputStream("{db report}", UTF_8));
+
+    assertThat(readData("TASK_1")).contains("{db report}");
+  }
+
+  @Test
+  public void tasks_with_same_data_share_the_same_file() throws Exception {
+    store("TASK_1", "{report}");
+    store("TASK_2", "{report}");
+
+    assertThat(new File(dataDir, "ce/inputs/data").list()).hasSize(1);
+    assertThat(readData("TASK_1")).contains("{report}");
+    assertThat(readData("TASK_2")).contains("{report}");
+  }
+
+  @Test
+  public void delete_drops_file_when_it_is_not_referenced_anymore() throws Exception {
+    store("TASK_1", "{report}");
+    store("TASK_2", "{report}");
+    store("TASK_3", "{other report}");
+
+    underTest.delete(dbSession, asList("TASK_1", "TASK_3"));
+
+    assertThat(readData("TASK_1")).isEmpty();
+    assertThat(readData("TASK_3")).isEmpty();
+    assertThat(contentFile("{other report}")).doesNotExist();
+    assertThat(readData("TASK_2")).contains("{report}");
+
+    underTest.delete(dbSession, singletonList("TASK_2"));
+
+    assertThat(readData("TASK_2")).isEmpty();
+    assertThat(contentFile("{report}")).doesNotExist();
+  }
+
+  @Test
+  public void delete_drops_data_stored_in_database() throws Exception {
+    db.getDbClient().ceTaskInputDao().insert(dbSession, "TASK_1", IOUtils.toInputStream("{db report}", UTF_8));
+
+    underTest.delete(dbSession, singletonList("TASK_1"));
+    dbSession.commit();
+
+    assertThat(readData("TASK_1")).isEmpty();
+  }
+
+  @Test
+  public void deleteOrphans_drops_data_of_tasks_not_in_queue() throws Exception {
+    insertInQueue("TASK_1");
+    store("TASK_1", "{report1}");
+    store("TASK_2", "{report2}");
+    makeOld(contentFile("{report2}").toPath());
+
+    underTest.deleteOrphans(dbSession);
+
+    assertThat(readData("TASK_1")).contains("{report1}");
+    assertThat(readData("TASK_2")).isEmpty();
+    assertThat(contentFile("{report2}")).doesNotExist();
+  }
+
+  @Test
+  public void deleteOrphans_keeps_recent_files_which_may_belong_to_a_submission_in_progress() throws Exception {
+    store("TASK_1", "{report}");
+    Path tmpDir = new File(dataDir, "ce/inputs/tmp").toPath();
+    Path recentTmp = Files.createFile(tmpDir.resolve("recent.tmp"));
+    Path oldTmp = Files.createFile(tmpDir.resolve("old.tmp"));
+    makeOld(oldTmp);
+
+    underTest.deleteOrphans(dbSession);
+
+    assertThat(readData("TASK_1")).isEmpty();
+    assertThat(contentFile("{report}")).exists();
+    assertThat(recentTmp).exists();
+    assertThat(oldTmp).doesNotExist();
+  }
+
+  @Test
+  public void data_stored_while_the_same_data_of_another_task_is_deleted_is_not_lost() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int i = 0; i < 100; i++) {
+        String previousTask = "TASK_" + i;
+        String newTask = "TASK_" + (i + 1);
+        if (i == 0) {
+          store(previousTask, "{report}");
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?> submit = executor.submit(() -> {
+          await(start);
+          try (DbSession session = db.getDbClient().openSession(false)) {
+            underTest.store(session, newTask, IOUtils.toInputStream("{report}", UTF_8));
+          }
+        });
+        Future<?> delete = executor.submit(() -> {
+          await(start);
+          try (DbSession session = db.getDbClient().openSession(false)) {
+            underTest.delete(session, singletonList(previousTask));
+            session.commit();
+          }
+        });
+        start.countDown();
+        submit.get();
+        delete.get();
+
+        assertThat(readData(newTask)).contains("{report}");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void store(String taskUuid, String data) {
+    underTest.store(dbSession, taskUuid, IOUtils.toInputStream(data, UTF_8));
+  }
+
+  private Optional<String> readData(String taskUuid) throws Exception {
+    Optional<InputStream> data = underTest.read(dbSession, taskUuid);
+    if (!data.isPresent()) {
+      return Optional.empty();
+    }
+    try (InputStream input = data.get()) {
+      return Optional.of(IOUtils.toString(input, UTF_8));
+    }
+  }
+
+  private File contentFile(String data) {
+    return new File(dataDir, "ce/inputs/data/" + DigestUtils.sha256Hex(data));
+  }
+
+  private static void makeOld(Path file) throws Exception {
+    Files.setLastModifiedTime(file, FileTime.fromMillis(NOW - ORPHAN_GRACE_PERIOD_MS - 1));
+  }
+
+  private void insertInQueue(String taskUuid) {
+    CeQueueDto dto = new CeQueueDto();
+    dto.setTaskType(CeTaskTypes.REPORT);
+    dto.setUuid(taskUuid);
+    dto.setStatus(CeQueueDto.Status.PENDING);
+    db.getDbClient().ceQueueDao().insert(dbSession, dto);
+    dbSession.commit();
+  }
+}
@@ -31,6 +31,7 @@ import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
 import org.sonar.db.organization.OrganizationDto;
@@ -106,6 +107,21 @@ public class ActivityStatusActionTest {
     assertThat(result.getFailing()).isEqualTo(1);
   }
 
+  @Test
+  public void status_for_a_project_ignores_purge_tasks() {
+    ComponentDto project = db.components().insertPrivateProject();
+    userSession.logIn().addProjectPermission(UserRole.ADMIN, project);
+    insertInQueue(CeQueueDto.Status.PENDING, project.uuid());
+    insertInQueue(CeQueueDto.Status.PENDING, project.uuid(), CeTaskTypes.PROJECT_PURGE);
+    insertActivity(CeActivityDto.Status.SUCCESS, project.uuid());
+    insertActivity(CeActivityDto.Status.FAILED, project.uuid(), CeTaskTypes.PROJECT_PURGE);
+
+    WsCe.ActivityStatusWsResponse result = call(project.uuid());
+
+    assertThat(result.getPending()).isEqualTo(1);
+    assertThat(result.getFailing()).isEqualTo(0);
+  }
+
   @Test
   public void empty_status() {
     WsCe.ActivityStatusWsResponse result = call();
@@ -159,15 +175,25 @@ public class ActivityStatusActionTest {
   }
 
   private void insertInQueue(CeQueueDto.Status status, @Nullable String componentUuid) {
+    insertInQueue(status, componentUuid, CeTaskTypes.REPORT);
+  }
+
+  private void insertInQueue(CeQueueDto.Status status, @Nullable String componentUuid, String taskType) {
     dbClient.ceQueueDao().insert(dbSession, newCeQueueDto(Uuids.createFast())
       .setStatus(status)
+      .setTaskType(taskType)
       .setComponentUuid(componentUuid));
     db.commit();
   }
 
   private void insertActivity(CeActivityDto.Status status, @Nullable String componentUuid) {
+    insertActivity(status, componentUuid, CeTaskTypes.REPORT);
+  }
+
+  private void insertActivity(CeActivityDto.Status status, @Nullable String componentUuid, String taskType) {
     dbClient.ceActivityDao().insert(dbSession, new CeActivityDto(
       newCeQueueDto(Uuids.createFast())
+        .setTaskType(taskType)
         .setComponentUuid(componentUuid))
           .setStatus(status));
     db.commit();
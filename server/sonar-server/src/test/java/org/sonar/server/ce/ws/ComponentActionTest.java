@@ -95,6 +95,23 @@ public class ComponentActionTest {
     assertThat(response.getCurrent().getOrganization()).isEqualTo(organizationDto.getKey());
   }
 
+  @Test
+  public void purge_tasks_are_not_returned() {
+    OrganizationDto organizationDto = dbTester.organizations().insert();
+    ComponentDto project = dbTester.components().insertComponent(newPrivateProjectDto(organizationDto, "PROJECT_1"));
+    userSession.addProjectPermission(UserRole.USER, project);
+    insertActivity("T1", "PROJECT_1", CeActivityDto.Status.SUCCESS);
+    insertActivity("T2", "PROJECT_1", CeActivityDto.Status.SUCCESS, CeTaskTypes.PROJECT_PURGE);
+    insertQueue("T3", "PROJECT_1", CeQueueDto.Status.PENDING, CeTaskTypes.PROJECT_PURGE);
+    insertQueue("T4", "PROJECT_1", CeQueueDto.Status.PENDING);
+
+    WsCe.ProjectResponse response = ws.newRequest()
+      .setParam("componentId", "PROJECT_1")
+      .executeProtobuf(WsCe.ProjectResponse.class);
+    assertThat(response.getQueueList()).extracting(WsCe.Task::getId).containsExactly("T4");
+    assertThat(response.getCurrent().getId()).isEqualTo("T1");
+  }
+
   @Test
   public void search_tasks_by_component_key() {
     ComponentDto project = dbTester.components().insertPrivateProject();
@@ -161,8 +178,12 @@ public class ComponentActionTest {
   }
 
   private CeQueueDto insertQueue(String taskUuid, String componentUuid, CeQueueDto.Status status) {
+    return insertQueue(taskUuid, componentUuid, status, CeTaskTypes.REPORT);
+  }
+
+  private CeQueueDto insertQueue(String taskUuid, String componentUuid, CeQueueDto.Status status, String taskType) {
     CeQueueDto queueDto = new CeQueueDto();
-    queueDto.setTaskType(CeTaskTypes.REPORT);
+    queueDto.setTaskType(taskType);
     queueDto.setComponentUuid(componentUuid);
     queueDto.setUuid(taskUuid);
     queueDto.setStatus(status);
@@ -172,8 +193,12 @@ public class ComponentActionTest {
   }
 
   private CeActivityDto insertActivity(String taskUuid, String componentUuid, CeActivityDto.Status status) {
+    return insertActivity(taskUuid, componentUuid, status, CeTaskTypes.REPORT);
+  }
+
+  private CeActivityDto insertActivity(String taskUuid, String componentUuid, CeActivityDto.Status status, String taskType) {
     CeQueueDto queueDto = new CeQueueDto();
-    queueDto.setTaskType(CeTaskTypes.REPORT);
+    queueDto.setTaskType(taskType);
     queueDto.setComponentUuid(componentUuid);
     queueDto.setUuid(taskUuid);
     CeActivityDto activityDto = new CeActivityDto(queueDto);
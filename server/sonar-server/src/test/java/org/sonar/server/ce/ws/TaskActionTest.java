@@ -19,6 +19,7 @@
  */
 package org.sonar.server.ce.ws;
 
+import com.google.common.collect.ImmutableMap;
 import javax.annotation.Nullable;
 import org.junit.Before;
 import org.junit.Rule;
@@ -30,6 +31,7 @@ import org.sonar.core.util.CloseableIterator;
 import org.sonar.db.DbTester;
 import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskProgressDto;
 import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.organization.OrganizationDto;
@@ -41,6 +43,7 @@ import org.sonarqube.ws.WsCe;
 
 import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.sonar.db.permission.OrganizationPermission.SCAN;
 
 public class TaskActionTest {
@@ -304,6 +307,79 @@ public class TaskActionTest {
     call(task.getUuid());
   }
 
+  @Test
+  public void submitter_of_issue_bulk_change_can_get_it_without_admin_nor_scan_permissions() {
+    userSession.logIn("john");
+    CeQueueDto task = createAndPersistQueueTask(project, CeTaskTypes.ISSUE_BULK_CHANGE);
+
+    call(task.getUuid());
+  }
+
+  @Test
+  public void submitter_of_permission_template_bulk_apply_can_get_it_without_admin_nor_scan_permissions() {
+    userSession.logIn("john");
+    CeQueueDto task = createAndPersistQueueTask(null, CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY);
+
+    call(task.getUuid());
+  }
+
+  @Test
+  public void submitter_of_analysis_report_can_not_get_it_without_admin_nor_scan_permissions() {
+    userSession.logIn("john");
+    CeQueueDto task = createAndPersistQueueTask(project);
+
+    expectedException.expect(ForbiddenException.class);
+
+    call(task.getUuid());
+  }
+
+  @Test
+  public void return_progress_of_task_in_queue() {
+    logInAsRoot();
+    CeQueueDto task = createAndPersistQueueTask(project);
+    dbTester.getDbClient().ceTaskProgressDao().insertOrUpdate(dbTester.getSession(),
+      new CeTaskProgressDto().setTaskUuid(task.getUuid()).setTotal(1_000).setProcessed(500).setFailures(3));
+    dbTester.commit();
+
+    WsCe.Task wsTask = ws.newRequest()
+      .setParam("id", task.getUuid())
+      .executeProtobuf(WsCe.TaskResponse.class)
+      .getTask();
+
+    assertThat(wsTask.getProgress().getTotal()).isEqualTo(1_000L);
+    assertThat(wsTask.getProgress().getProcessed()).isEqualTo(500L);
+    assertThat(wsTask.getProgress().getFailures()).isEqualTo(3L);
+  }
+
+  @Test
+  public void do_not_return_progress_of_task_without_progress() {
+    logInAsRoot();
+    CeActivityDto task = createAndPersistArchivedTask(project);
+
+    WsCe.Task wsTask = ws.newRequest()
+      .setParam("id", task.getUuid())
+      .executeProtobuf(WsCe.TaskResponse.class)
+      .getTask();
+
+    assertThat(wsTask.hasProgress()).isFalse();
+  }
+
+  @Test
+  public void return_counters_of_archived_task() {
+    logInAsRoot();
+    CeActivityDto task = createAndPersistArchivedTask(project);
+    dbTester.getDbClient().ceTaskCountersDao().replace(dbTester.getSession(), task.getUuid(), ImmutableMap.of("snapshots", 10L, "issues", 3L));
+    dbTester.commit();
+
+    WsCe.Task wsTask = ws.newRequest()
+      .setParam("id", task.getUuid())
+      .executeProtobuf(WsCe.TaskResponse.class)
+      .getTask();
+
+    assertThat(wsTask.getCountersList()).extracting(WsCe.Counter::getKey, WsCe.Counter::getValue)
+      .containsExactly(tuple("issues", 3L), tuple("snapshots", 10L));
+  }
+
   private CeActivityDto createAndPersistArchivedTask(@Nullable ComponentDto component) {
     CeQueueDto queueDto = new CeQueueDto();
     queueDto.setTaskType(CeTaskTypes.REPORT);
@@ -332,8 +408,12 @@ public class TaskActionTest {
   }
 
   private CeQueueDto createAndPersistQueueTask(@Nullable ComponentDto component) {
+    return createAndPersistQueueTask(component, CeTaskTypes.REPORT);
+  }
+
+  private CeQueueDto createAndPersistQueueTask(@Nullable ComponentDto component, String taskType) {
     CeQueueDto dto = new CeQueueDto();
-    dto.setTaskType(CeTaskTypes.REPORT);
+    dto.setTaskType(taskType);
     dto.setUuid(SOME_TASK_UUID);
     dto.setStatus(CeQueueDto.Status.PENDING);
     dto.setSubmitterLogin("john");
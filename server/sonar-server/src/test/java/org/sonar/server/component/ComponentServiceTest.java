@@ -30,6 +30,7 @@ import org.sonar.db.component.ComponentDbTester;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
 import org.sonar.server.es.ProjectIndexer;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.tester.UserSessionRule;
 
 import static org.assertj.guava.api.Assertions.assertThat;
@@ -51,7 +52,7 @@ public class ComponentServiceTest {
   private DbSession dbSession = dbTester.getSession();
   private ProjectIndexer projectIndexer = mock(ProjectIndexer.class);
 
-  private ComponentService underTest = new ComponentService(dbClient, userSession, projectIndexer);
+  private ComponentService underTest = new ComponentService(dbClient, userSession, mock(IssueReferenceCache.class), projectIndexer);
 
   @Test
   public void bulk_update() {
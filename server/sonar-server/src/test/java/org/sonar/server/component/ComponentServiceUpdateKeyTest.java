@@ -33,6 +33,7 @@ import org.sonar.db.component.ComponentTesting;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.tester.UserSessionRule;
 
 import static org.assertj.guava.api.Assertions.assertThat;
@@ -56,7 +57,8 @@ public class ComponentServiceUpdateKeyTest {
   private DbClient dbClient = db.getDbClient();
   private DbSession dbSession = db.getSession();
   private ProjectIndexer projectIndexer = mock(ProjectIndexer.class);
-  private ComponentService underTest = new ComponentService(dbClient, userSession, projectIndexer);
+  private IssueReferenceCache issueReferenceCache = mock(IssueReferenceCache.class);
+  private ComponentService underTest = new ComponentService(dbClient, userSession, issueReferenceCache, projectIndexer);
 
   @Test
   public void update_project_key() {
@@ -81,6 +83,7 @@ public class ComponentServiceUpdateKeyTest {
     assertThat(dbClient.componentDao().selectByKey(dbSession, inactiveFile.getKey())).isPresent();
 
     verify(projectIndexer).indexProject(project.uuid(), ProjectIndexer.Cause.PROJECT_KEY_UPDATE);
+    verify(issueReferenceCache).invalidateProject(project.uuid());
   }
 
   @Test
@@ -101,6 +104,7 @@ public class ComponentServiceUpdateKeyTest {
     assertComponentKeyHasBeenUpdated(file.key(), "sample:root2:module:src/File.xoo");
 
     verify(projectIndexer).indexProject(module.uuid(), ProjectIndexer.Cause.PROJECT_KEY_UPDATE);
+    verify(issueReferenceCache).invalidateProject(project.uuid());
   }
 
   @Test
@@ -188,6 +192,7 @@ public class ComponentServiceUpdateKeyTest {
     assertComponentKeyUpdated(file.key(), "your_project:root:module:src/File.xoo");
     assertComponentKeyNotUpdated(inactiveModule.key());
     assertComponentKeyNotUpdated(inactiveFile.key());
+    verify(issueReferenceCache).invalidateProject(project.uuid());
   }
 
   private void assertComponentKeyUpdated(String oldKey, String newKey) {
@@ -0,0 +1,99 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.dbcleaner;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.config.MapSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.computation.dbcleaner.DbLoadPurgeThrottler.PROPERTY_RATIO;
+
+public class DbLoadPurgeThrottlerTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private MapSettings settings = new MapSettings();
+  private List<Long> pauses = new ArrayList<>();
+
+  @Test
+  public void pause_as_long_as_chunk_duration_by_default() {
+    DbLoadPurgeThrottler underTest = new DbLoadPurgeThrottler(settings, pauses::add);
+
+    underTest.afterChunk(500L);
+
+    assertThat(pauses).containsExactly(500L);
+  }
+
+  @Test
+  public void pause_is_proportional_to_ratio() {
+    settings.setProperty(PROPERTY_RATIO, "0.5");
+    DbLoadPurgeThrottler underTest = new DbLoadPurgeThrottler(settings, pauses::add);
+
+    underTest.afterChunk(500L);
+    underTest.afterChunk(2_000L);
+
+    assertThat(pauses).containsExactly(250L, 1_000L);
+  }
+
+  @Test
+  public void do_not_pause_after_fast_chunks() {
+    DbLoadPurgeThrottler underTest = new DbLoadPurgeThrottler(settings, pauses::add);
+
+    underTest.afterChunk(0L);
+    underTest.afterChunk(DbLoadPurgeThrottler.FAST_CHUNK_MS - 1);
+
+    assertThat(pauses).isEmpty();
+  }
+
+  @Test
+  public void pause_is_limited() {
+    settings.setProperty(PROPERTY_RATIO, "3");
+    DbLoadPurgeThrottler underTest = new DbLoadPurgeThrottler(settings, pauses::add);
+
+    underTest.afterChunk(60_000L);
+
+    assertThat(pauses).containsExactly(DbLoadPurgeThrottler.MAX_PAUSE_MS);
+  }
+
+  @Test
+  public void throttling_is_disabled_when_ratio_is_zero() {
+    settings.setProperty(PROPERTY_RATIO, "0");
+    DbLoadPurgeThrottler underTest = new DbLoadPurgeThrottler(settings, pauses::add);
+
+    underTest.afterChunk(5_000L);
+
+    assertThat(pauses).isEmpty();
+  }
+
+  @Test
+  public void fail_if_ratio_is_negative() {
+    settings.setProperty(PROPERTY_RATIO, "-1");
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Property sonar.ce.purgeThrottlingRatio must be positive or zero. Got -1.0");
+
+    new DbLoadPurgeThrottler(settings, pauses::add);
+  }
+}
@@ -20,7 +20,9 @@
 package org.sonar.server.computation.dbcleaner;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.config.Settings;
 import org.sonar.api.config.MapSettings;
@@ -32,9 +34,12 @@ import org.sonar.db.purge.PurgeConfiguration;
 import org.sonar.db.purge.PurgeDao;
 import org.sonar.db.purge.PurgeListener;
 import org.sonar.db.purge.PurgeProfiler;
+import org.sonar.db.purge.PurgeThrottler;
 import org.sonar.db.purge.period.DefaultPeriodCleaner;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
@@ -42,9 +47,13 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class ProjectCleanerTest {
 
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   private ProjectCleaner underTest;
   private PurgeDao dao = mock(PurgeDao.class);
   private PurgeProfiler profiler = mock(PurgeProfiler.class);
@@ -102,4 +111,49 @@ public class ProjectCleanerTest {
 
     verify(periodCleaner).clean(any(DbSession.class), anyString(), any(Settings.class));
   }
+
+  @Test
+  public void purgeDisabledComponents_does_not_clean_history() {
+    DbSession session = mock(DbSession.class);
+
+    underTest.purgeDisabledComponents(session, new IdUuidPair(1L, "P1"), settings, singletonList("C1"));
+
+    verify(dao).purgeDisabledComponents(eq(session), any(PurgeConfiguration.class), eq(purgeListener));
+    verify(session).commit();
+    verifyZeroInteractions(periodCleaner);
+  }
+
+  @Test
+  public void if_purge_of_disabled_components_fails_it_should_not_interrupt_program_execution() {
+    doThrow(RuntimeException.class).when(dao).purgeDisabledComponents(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class));
+
+    underTest.purgeDisabledComponents(mock(DbSession.class), new IdUuidPair(1L, "P1"), settings, singletonList("C1"));
+
+    verify(dao).purgeDisabledComponents(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class));
+  }
+
+  @Test
+  public void purgeHistory_calls_period_cleaner_and_purge_dao_with_throttler() {
+    DbSession session = mock(DbSession.class);
+    PurgeProfiler taskProfiler = mock(PurgeProfiler.class);
+    PurgeThrottler throttler = mock(PurgeThrottler.class);
+
+    underTest.purgeHistory(session, new IdUuidPair(1L, "P1"), settings, taskProfiler, throttler);
+
+    verify(periodCleaner).clean(session, "P1", settings, taskProfiler, throttler);
+    verify(dao).purgeHistory(eq(session), any(PurgeConfiguration.class), eq(purgeListener), eq(taskProfiler), eq(throttler));
+    verify(dao, never()).purgeDisabledComponents(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class));
+    verify(session).commit();
+  }
+
+  @Test
+  public void purgeHistory_fails_if_dao_fails() {
+    doThrow(new IllegalStateException("DB is down")).when(dao)
+      .purgeHistory(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class), any(PurgeThrottler.class));
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("DB is down");
+
+    underTest.purgeHistory(mock(DbSession.class), new IdUuidPair(1L, "P1"), settings, profiler, PurgeThrottler.NONE);
+  }
 }
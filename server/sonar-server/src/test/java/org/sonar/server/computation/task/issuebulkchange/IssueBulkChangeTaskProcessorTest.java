@@ -0,0 +1,218 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.issuebulkchange;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.utils.System2;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeTaskProgressDto;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.issue.IssueChangeDto;
+import org.sonar.db.issue.IssueDto;
+import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.rule.RuleDto;
+import org.sonar.db.user.UserDto;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.issue.IssueFieldsSetter;
+import org.sonar.server.issue.ServerIssueStorage;
+import org.sonar.server.issue.index.IssueIndex;
+import org.sonar.server.issue.index.IssueIndexDefinition;
+import org.sonar.server.issue.index.IssueIndexer;
+import org.sonar.server.issue.index.IssueIteratorFactory;
+import org.sonar.server.issue.notification.IssueBulkChangeNotification;
+import org.sonar.server.issue.workflow.FunctionExecutor;
+import org.sonar.server.issue.workflow.IssueWorkflow;
+import org.sonar.server.notification.NotificationManager;
+import org.sonar.server.organization.TestDefaultOrganizationProvider;
+import org.sonar.server.permission.index.AuthorizationTypeSupport;
+import org.sonar.server.rule.DefaultRuleFinder;
+import org.sonar.server.tester.UserSessionRule;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonar.api.issue.Issue.RESOLUTION_FIXED;
+import static org.sonar.api.issue.Issue.STATUS_CLOSED;
+import static org.sonar.api.issue.Issue.STATUS_OPEN;
+import static org.sonar.api.rule.Severity.BLOCKER;
+import static org.sonar.api.rule.Severity.MAJOR;
+import static org.sonar.api.rule.Severity.MINOR;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+import static org.sonar.db.issue.IssueChangeDto.TYPE_COMMENT;
+import static org.sonar.db.issue.IssueTesting.newDto;
+import static org.sonar.db.rule.RuleTesting.newRuleDto;
+
+public class IssueBulkChangeTaskProcessorTest {
+
+  private static final long NOW = 2_000_000_000_000L;
+  private static final String TASK_UUID = "TASK_1";
+
+  private System2 system2 = mock(System2.class);
+
+  @Rule
+  public DbTester db = DbTester.create(system2);
+  @Rule
+  public EsTester es = new EsTester(new IssueIndexDefinition(new MapSettings()));
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+
+  private DbClient dbClient = db.getDbClient();
+  private IssueIndexer issueIndexer = new IssueIndexer(es.client(), new IssueIteratorFactory(dbClient));
+  private IssueIndex issueIndex = new IssueIndex(es.client(), system2, userSession, new AuthorizationTypeSupport(userSession));
+  private IssueFieldsSetter issueFieldsSetter = new IssueFieldsSetter();
+  private IssueWorkflow workflow = new IssueWorkflow(new FunctionExecutor(issueFieldsSetter), issueFieldsSetter);
+  private ServerIssueStorage issueStorage = new ServerIssueStorage(system2, new DefaultRuleFinder(dbClient, TestDefaultOrganizationProvider.from(db)), dbClient,
+    issueIndexer);
+  private NotificationManager notificationManager = mock(NotificationManager.class);
+
+  private IssueBulkChangeTaskProcessor underTest = new IssueBulkChangeTaskProcessor(dbClient, issueIndex, issueFieldsSetter, workflow, issueStorage,
+    notificationManager, system2);
+
+  private RuleDto rule;
+  private OrganizationDto organization;
+  private ComponentDto project;
+  private ComponentDto file;
+
+  @Before
+  public void setUp() {
+    when(system2.now()).thenReturn(NOW);
+    workflow.start();
+    rule = db.rules().insertRule(newRuleDto());
+    organization = db.organizations().insert();
+    project = db.components().insertPrivateProject(organization);
+    file = db.components().insertComponent(newFileDto(project));
+  }
+
+  @Test
+  public void handles_issue_bulk_change_tasks() {
+    assertThat(underTest.getHandledCeTaskTypes()).containsOnly(CeTaskTypes.ISSUE_BULK_CHANGE);
+  }
+
+  @Test
+  public void change_issues_matching_query_and_report_progress() {
+    IssueDto major1 = insertIssue(newUnresolvedIssue().setSeverity(MAJOR));
+    IssueDto major2 = insertIssue(newUnresolvedIssue().setSeverity(MAJOR));
+    IssueDto minor = insertIssue(newUnresolvedIssue().setSeverity(MINOR));
+    ComponentDto otherProject = db.components().insertPrivateProject(organization);
+    IssueDto majorOfOtherProject = insertIssue(newDto(rule, db.components().insertComponent(newFileDto(otherProject)), otherProject)
+      .setStatus(STATUS_OPEN).setResolution(null).setSeverity(MAJOR));
+    submit(new IssueBulkChangeRequest()
+      .setList("severities", asList(MAJOR))
+      .set("set_severity", BLOCKER)
+      .set("comment", "Raised by bulk change"));
+
+    underTest.process(newTask());
+
+    assertThat(selectSeverity(major1)).isEqualTo(BLOCKER);
+    assertThat(selectSeverity(major2)).isEqualTo(BLOCKER);
+    assertThat(selectSeverity(minor)).isEqualTo(MINOR);
+    assertThat(selectSeverity(majorOfOtherProject)).isEqualTo(MAJOR);
+    assertThat(dbClient.issueChangeDao().selectByTypeAndIssueKeys(db.getSession(), asList(major1.getKey(), minor.getKey()), TYPE_COMMENT))
+      .extracting(IssueChangeDto::getIssueKey)
+      .containsExactly(major1.getKey());
+    assertThat(es.getDocumentFieldValues(IssueIndexDefinition.INDEX_TYPE_ISSUE, IssueIndexDefinition.FIELD_ISSUE_SEVERITY))
+      .containsOnly(BLOCKER, BLOCKER, MINOR, MAJOR);
+    CeTaskProgressDto progress = dbClient.ceTaskProgressDao().selectByUuid(db.getSession(), TASK_UUID).get();
+    assertThat(progress.getTotal()).isEqualTo(2);
+    assertThat(progress.getProcessed()).isEqualTo(2);
+    assertThat(progress.getFailures()).isEqualTo(0);
+  }
+
+  @Test
+  public void ignore_resolved_issues_when_changing_fields() {
+    IssueDto resolved = insertIssue(newDto(rule, file, project).setStatus(STATUS_CLOSED).setResolution(RESOLUTION_FIXED).setSeverity(MAJOR));
+    submit(new IssueBulkChangeRequest().set("set_severity", BLOCKER));
+
+    underTest.process(newTask());
+
+    assertThat(selectSeverity(resolved)).isEqualTo(MAJOR);
+  }
+
+  @Test
+  public void send_a_single_notification_per_assignee() {
+    UserDto simon = db.users().insertUser("simon");
+    db.organizations().addMember(organization, simon);
+    insertIssue(newUnresolvedIssue().setSeverity(MAJOR));
+    insertIssue(newUnresolvedIssue().setSeverity(MAJOR));
+    submit(new IssueBulkChangeRequest()
+      .set("assign", "simon")
+      .set("sendNotifications", "true"));
+
+    underTest.process(newTask());
+
+    ArgumentCaptor<IssueBulkChangeNotification> notification = ArgumentCaptor.forClass(IssueBulkChangeNotification.class);
+    verify(notificationManager).scheduleForSending(notification.capture());
+    assertThat(notification.getValue().getFieldValue("assignee")).isEqualTo("simon");
+    assertThat(notification.getValue().getFieldValue("changeAuthor")).isEqualTo("john");
+    assertThat(notification.getValue().getFieldValue("issueCount")).isEqualTo("2");
+  }
+
+  @Test
+  public void do_not_send_notifications_if_not_requested() {
+    UserDto simon = db.users().insertUser("simon");
+    db.organizations().addMember(organization, simon);
+    insertIssue(newUnresolvedIssue());
+    submit(new IssueBulkChangeRequest().set("assign", "simon"));
+
+    underTest.process(newTask());
+
+    verify(notificationManager, never()).scheduleForSending(any(IssueBulkChangeNotification.class));
+  }
+
+  private IssueDto newUnresolvedIssue() {
+    return newDto(rule, file, project).setStatus(STATUS_OPEN).setResolution(null);
+  }
+
+  private IssueDto insertIssue(IssueDto issue) {
+    IssueDto inserted = db.issues().insertIssue(issue);
+    issueIndexer.index(asList(inserted.getKey()));
+    return inserted;
+  }
+
+  private String selectSeverity(IssueDto issue) {
+    return dbClient.issueDao().selectOrFailByKey(db.getSession(), issue.getKey()).getSeverity();
+  }
+
+  private void submit(IssueBulkChangeRequest request) {
+    dbClient.ceTaskInputDao().insert(db.getSession(), TASK_UUID, request.toInputStream());
+    db.commit();
+  }
+
+  private CeTask newTask() {
+    return new CeTask.Builder()
+      .setOrganizationUuid(organization.getUuid())
+      .setUuid(TASK_UUID)
+      .setType(CeTaskTypes.ISSUE_BULK_CHANGE)
+      .setComponentUuid(project.uuid())
+      .setSubmitterLogin("john")
+      .build();
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.permissiontemplate;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.resources.Qualifiers;
+import org.sonar.api.web.UserRole;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeTaskProgressDto;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.component.ComponentTesting;
+import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.permission.PermissionQuery;
+import org.sonar.db.permission.template.PermissionTemplateDto;
+import org.sonar.db.user.UserDto;
+import org.sonar.server.permission.PermissionTemplateService;
+import org.sonar.server.permission.index.PermissionIndexer;
+import org.sonar.server.permission.ws.template.DefaultTemplatesResolverRule;
+import org.sonar.server.tester.UserSessionRule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.sonar.server.permission.PermissionTemplateService.BATCH_SIZE;
+
+public class BulkApplyPermissionTemplateTaskProcessorTest {
+
+  private static final String TASK_UUID = "TASK_1";
+
+  @Rule
+  public DbTester db = DbTester.create();
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+  @Rule
+  public DefaultTemplatesResolverRule defaultTemplatesResolver = DefaultTemplatesResolverRule.withoutGovernance();
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private DbClient dbClient = db.getDbClient();
+  private PermissionIndexer permissionIndexer = mock(PermissionIndexer.class);
+  private PermissionTemplateService permissionTemplateService = new PermissionTemplateService(dbClient, permissionIndexer, userSession, defaultTemplatesResolver);
+  private BulkApplyPermissionTemplateTaskProcessor underTest = new BulkApplyPermissionTemplateTaskProcessor(dbClient, permissionTemplateService);
+
+  private OrganizationDto organization;
+  private UserDto user;
+  private PermissionTemplateDto template;
+
+  @Before
+  public void setUp() {
+    organization = db.organizations().insert();
+    user = db.users().insertUser();
+    db.organizations().addMember(organization, user);
+    template = db.permissionTemplates().insertTemplate(organization);
+    dbClient.permissionTemplateDao().insertUserPermission(db.getSession(), template.getId(), user.getId(), UserRole.ADMIN);
+    db.commit();
+  }
+
+  @Test
+  public void handles_permission_template_bulk_apply_tasks() {
+    assertThat(underTest.getHandledCeTaskTypes()).containsOnly(CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY);
+  }
+
+  @Test
+  public void apply_template_to_projects_matching_query_and_report_progress() {
+    ComponentDto project1 = db.components().insertComponent(ComponentTesting.newPrivateProjectDto(organization).setName("Sonar Java"));
+    ComponentDto project2 = db.components().insertComponent(ComponentTesting.newPrivateProjectDto(organization).setName("Sonar PHP"));
+    ComponentDto notMatchingName = db.components().insertComponent(ComponentTesting.newPrivateProjectDto(organization).setName("Other"));
+    ComponentDto notMatchingOrganization = db.components().insertPrivateProject(db.organizations().insert());
+    ComponentDto view = db.components().insertView(organization);
+    submit(new BulkApplyPermissionTemplateRequest()
+      .setTemplateUuid(template.getUuid())
+      .setQuery("sonar")
+      .setQualifiers(Qualifiers.PROJECT));
+
+    underTest.process(newTask());
+
+    assertThat(selectAdmins(project1)).containsExactly(user.getId());
+    assertThat(selectAdmins(project2)).containsExactly(user.getId());
+    assertThat(selectAdmins(notMatchingName)).isEmpty();
+    assertThat(selectAdmins(notMatchingOrganization)).isEmpty();
+    assertThat(selectAdmins(view)).isEmpty();
+    CeTaskProgressDto progress = dbClient.ceTaskProgressDao().selectByUuid(db.getSession(), TASK_UUID).get();
+    assertThat(progress.getTotal()).isEqualTo(2);
+    assertThat(progress.getProcessed()).isEqualTo(2);
+    verify(permissionIndexer).indexProjectsByUuids(any(DbSession.class), anyListOf(String.class));
+  }
+
+  @Test
+  public void commit_and_index_projects_by_batches() {
+    DbSession dbSession = db.getSession();
+    for (int i = 0; i <= BATCH_SIZE; i++) {
+      dbClient.componentDao().insert(dbSession, ComponentTesting.newPrivateProjectDto(organization));
+    }
+    db.commit();
+    submit(new BulkApplyPermissionTemplateRequest()
+      .setTemplateUuid(template.getUuid())
+      .setQualifiers(Qualifiers.PROJECT));
+
+    underTest.process(newTask());
+
+    verify(permissionIndexer, times(2)).indexProjectsByUuids(any(DbSession.class), anyListOf(String.class));
+    CeTaskProgressDto progress = dbClient.ceTaskProgressDao().selectByUuid(db.getSession(), TASK_UUID).get();
+    assertThat(progress.getTotal()).isEqualTo(BATCH_SIZE + 1);
+    assertThat(progress.getProcessed()).isEqualTo(BATCH_SIZE + 1);
+  }
+
+  @Test
+  public void fail_if_template_does_not_exist() {
+    submit(new BulkApplyPermissionTemplateRequest()
+      .setTemplateUuid("unknown")
+      .setQualifiers(Qualifiers.PROJECT));
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Permission template 'unknown' does not exist");
+
+    underTest.process(newTask());
+  }
+
+  private List<Integer> selectAdmins(ComponentDto project) {
+    PermissionQuery query = PermissionQuery.builder().setOrganizationUuid(project.getOrganizationUuid()).setPermission(UserRole.ADMIN)
+      .setComponentUuid(project.uuid()).build();
+    return dbClient.userPermissionDao().selectUserIdsByQuery(db.getSession(), query);
+  }
+
+  private void submit(BulkApplyPermissionTemplateRequest request) {
+    dbClient.ceTaskInputDao().insert(db.getSession(), TASK_UUID, request.toInputStream());
+    db.commit();
+  }
+
+  private CeTask newTask() {
+    return new CeTask.Builder()
+      .setOrganizationUuid(organization.getUuid())
+      .setUuid(TASK_UUID)
+      .setType(CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY)
+      .setSubmitterLogin("john")
+      .build();
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.component;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.DIRECTORY;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.FILE;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.MODULE;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.PROJECT;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.VIEW;
+
+public class CompactComponentTreeTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private CompactComponentTree.Builder builder = CompactComponentTree.builder();
+
+  @Test
+  public void children_are_views_on_the_tree() {
+    CompactComponentTree tree = buildTree();
+
+    Component root = tree.getRoot();
+    assertThat(root.getType()).isEqualTo(PROJECT);
+    assertThat(root.getChildren()).extracting(Component::getKey).containsExactly("module");
+    Component module = root.getChildren().get(0);
+    assertThat(module.getChildren()).extracting(Component::getKey).containsExactly("module:src", "module:pom.xml");
+    Component directory = module.getChildren().get(0);
+    assertThat(directory.getChildren()).extracting(Component::getKey).containsExactly("module:src/A.java", "module:src/B.java");
+    assertThat(directory.getChildren().get(0).getChildren()).isEmpty();
+    assertThat(tree.size()).isEqualTo(6);
+  }
+
+  @Test
+  public void attributes_of_components() {
+    CompactComponentTree tree = buildTree();
+
+    Component root = tree.getRoot();
+    assertThat(root.getUuid()).isEqualTo("U1");
+    assertThat(root.getKey()).isEqualTo("project");
+    assertThat(root.getName()).isEqualTo("Project");
+    assertThat(root.getDescription()).isEqualTo("the project");
+    assertThat(root.getReportAttributes().getRef()).isEqualTo(1);
+    assertThat(root.getReportAttributes().getVersion()).isEqualTo("1.0");
+    assertThat(root.getReportAttributes().getPath()).isNull();
+
+    Component file = tree.getByRef(5);
+    assertThat(file.getType()).isEqualTo(FILE);
+    assertThat(file.getUuid()).isEqualTo("U5");
+    assertThat(file.getKey()).isEqualTo("module:src/B.java");
+    assertThat(file.getName()).isEqualTo("module:src/B.java");
+    assertThat(file.getDescription()).isNull();
+    assertThat(file.getReportAttributes().getRef()).isEqualTo(5);
+    assertThat(file.getReportAttributes().getVersion()).isNull();
+    assertThat(file.getReportAttributes().getPath()).isEqualTo("src/B.java");
+    assertThat(file.getFileAttributes().getLines()).isEqualTo(20);
+    assertThat(file.getFileAttributes().getLanguageKey()).isEqualTo("java");
+    assertThat(file.getFileAttributes().isUnitTest()).isTrue();
+
+    Component fileWithoutLanguage = tree.getByRef(6);
+    assertThat(fileWithoutLanguage.getReportAttributes().getPath()).isEqualTo("pom.xml");
+    assertThat(fileWithoutLanguage.getFileAttributes().getLanguageKey()).isNull();
+    assertThat(fileWithoutLanguage.getFileAttributes().isUnitTest()).isFalse();
+  }
+
+  @Test
+  public void key_not_built_from_module_key_and_path_is_stored() {
+    int root = builder.addRoot(PROJECT, "U1", "project", "project", null, ReportAttributes.newBuilder(1).build(), null);
+    builder.addChild(root, DIRECTORY, "U2", "project:", "project:", null, ReportAttributes.newBuilder(2).build(), null);
+
+    CompactComponentTree tree = builder.build();
+
+    assertThat(tree.getByRef(2).getKey()).isEqualTo("project:");
+    assertThat(tree.getByKey("project:")).isEqualTo(tree.getByRef(2));
+  }
+
+  @Test
+  public void root_can_be_a_file() {
+    builder.addRoot(FILE, "U1", "project:Foo.java", "Foo.java", null, ReportAttributes.newBuilder(1).setPath("Foo.java").build(),
+      new FileAttributes(false, "java", 3));
+
+    Component root = builder.build().getRoot();
+
+    assertThat(root.getKey()).isEqualTo("project:Foo.java");
+    assertThat(root.getName()).isEqualTo("Foo.java");
+    assertThat(root.getFileAttributes().getLines()).isEqualTo(3);
+  }
+
+  @Test
+  public void getByRef_and_getByKey_return_null_if_component_does_not_exist() {
+    CompactComponentTree tree = buildTree();
+
+    assertThat(tree.getByRef(4).getKey()).isEqualTo("module:src/A.java");
+    assertThat(tree.getByRef(42)).isNull();
+    assertThat(tree.getByKey("module:src/A.java").getReportAttributes().getRef()).isEqualTo(4);
+    assertThat(tree.getByKey("module")).isEqualTo(tree.getRoot().getChildren().get(0));
+    assertThat(tree.getByKey("module:src/C.java")).isNull();
+  }
+
+  @Test
+  public void getByKey_fails_if_keys_are_not_unique() {
+    int root = builder.addRoot(PROJECT, "U1", "project", "project", null, ReportAttributes.newBuilder(1).build(), null);
+    builder.addChild(root, MODULE, "U2", "project", "project", null, ReportAttributes.newBuilder(2).build(), null);
+    CompactComponentTree tree = builder.build();
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Component key 'project' is not unique");
+
+    tree.getByKey("project");
+  }
+
+  @Test
+  public void views_of_the_same_component_are_equal() {
+    CompactComponentTree tree = buildTree();
+    CompactComponentTree otherTree = buildTree();
+
+    assertThat(tree.getByRef(4)).isEqualTo(tree.getByKey("module:src/A.java"));
+    assertThat(tree.getByRef(4).hashCode()).isEqualTo(tree.getByKey("module:src/A.java").hashCode());
+    assertThat(tree.getByRef(4)).isNotEqualTo(tree.getByRef(5));
+    assertThat(tree.getByRef(4)).isNotEqualTo(otherTree.getByRef(4));
+  }
+
+  @Test
+  public void indexOf_and_treeOf() {
+    CompactComponentTree tree = buildTree();
+
+    assertThat(tree.indexOf(tree.getRoot())).isEqualTo(0);
+    assertThat(tree.indexOf(tree.getByRef(6))).isEqualTo(3);
+    assertThat(CompactComponentTree.treeOf(tree.getByRef(6))).isSameAs(tree);
+    assertThat(CompactComponentTree.treeOf(ReportComponent.DUMB_PROJECT)).isNull();
+  }
+
+  @Test
+  public void indexOf_fails_if_component_does_not_belong_to_tree() {
+    CompactComponentTree tree = buildTree();
+
+    expectedException.expect(IllegalArgumentException.class);
+
+    tree.indexOf(buildTree().getRoot());
+  }
+
+  @Test
+  public void getFileAttributes_fails_if_component_is_not_a_file() {
+    Component root = buildTree().getRoot();
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Only component of type FILE have a FileAttributes object");
+
+    root.getFileAttributes();
+  }
+
+  @Test
+  public void fail_if_children_are_not_added_in_breadth_first_order() {
+    int root = builder.addRoot(PROJECT, "U1", "project", "project", null, ReportAttributes.newBuilder(1).build(), null);
+    int module = builder.addChild(root, MODULE, "U2", "module", "module", null, ReportAttributes.newBuilder(2).build(), null);
+    builder.addChild(module, DIRECTORY, "U3", "module:src", "module:src", null, ReportAttributes.newBuilder(3).setPath("src").build(), null);
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Children of component 0 must be added in breadth-first order");
+
+    builder.addChild(root, MODULE, "U4", "module2", "module2", null, ReportAttributes.newBuilder(4).build(), null);
+  }
+
+  @Test
+  public void fail_if_type_is_not_a_report_type() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Unsupported component type VIEW");
+
+    builder.addRoot(VIEW, "U1", "view", "view", null, ReportAttributes.newBuilder(1).build(), null);
+  }
+
+  /**
+   * project (1)
+   *   module (2)
+   *     src (3)
+   *       src/A.java (4)
+   *       src/B.java (5)
+   *     pom.xml (6)
+   */
+  private static CompactComponentTree buildTree() {
+    CompactComponentTree.Builder builder = CompactComponentTree.builder();
+    int project = builder.addRoot(PROJECT, "U1", "project", "Project", "the project",
+      ReportAttributes.newBuilder(1).setVersion("1.0").build(), null);
+    int module = builder.addChild(project, MODULE, "U2", "module", "Module", null,
+      ReportAttributes.newBuilder(2).setPath("module").build(), null);
+    int directory = builder.addChild(module, DIRECTORY, "U3", "module:src", "module:src", null,
+      ReportAttributes.newBuilder(3).setPath("src").build(), null);
+    builder.addChild(module, FILE, "U6", "module:pom.xml", "module:pom.xml", null,
+      ReportAttributes.newBuilder(6).setPath("pom.xml").build(), new FileAttributes(false, null, 5));
+    builder.addChild(directory, FILE, "U4", "module:src/A.java", "module:src/A.java", null,
+      ReportAttributes.newBuilder(4).setPath("src/A.java").build(), new FileAttributes(false, "java", 10));
+    builder.addChild(directory, FILE, "U5", "module:src/B.java", "module:src/B.java", null,
+      ReportAttributes.newBuilder(5).setPath("src/B.java").build(), new FileAttributes(true, "java", 20));
+    return builder.build();
+  }
+}
@@ -24,6 +24,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.MODULE;
 import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.PROJECT;
 
 public class DbIdsRepositoryImplTest {
@@ -61,6 +62,23 @@ public class DbIdsRepositoryImplTest {
     cache.setComponentId(SOME_COMPONENT, 11L);
   }
 
+  @Test
+  public void add_and_get_id_of_components_of_compact_tree() {
+    CompactComponentTree.Builder builder = CompactComponentTree.builder();
+    int root = builder.addRoot(PROJECT, "U1", "project", "project", null, ReportAttributes.newBuilder(1).build(), null);
+    builder.addChild(root, MODULE, "U2", "module", "module", null, ReportAttributes.newBuilder(2).build(), null);
+    CompactComponentTree tree = builder.build();
+    DbIdsRepositoryImpl cache = new DbIdsRepositoryImpl();
+
+    cache.setComponentId(tree.getRoot(), 10L);
+    cache.setComponentId(tree.getByRef(2), 20L);
+    cache.setComponentId(SOME_COMPONENT, 30L);
+
+    assertThat(cache.getComponentId(tree.getByKey("project"))).isEqualTo(10L);
+    assertThat(cache.getComponentId(tree.getByKey("module"))).isEqualTo(20L);
+    assertThat(cache.getComponentId(SOME_COMPONENT)).isEqualTo(30L);
+  }
+
   @Test
   public void add_and_get_developer_id() {
     DbIdsRepositoryImpl cache = new DbIdsRepositoryImpl();
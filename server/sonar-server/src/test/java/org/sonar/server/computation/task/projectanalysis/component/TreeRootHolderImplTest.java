@@ -197,6 +197,26 @@ public class TreeRootHolderImplTest {
     assertThat(underTest.hasComponentWithKey("toto")).isFalse();
   }
 
+  @Test
+  public void lookups_are_delegated_to_compact_tree_of_root() {
+    CompactComponentTree.Builder builder = CompactComponentTree.builder();
+    int root = builder.addRoot(PROJECT, "U1", "project", "project", null, ReportAttributes.newBuilder(1).build(), null);
+    builder.addChild(root, FILE, "U2", "project:Foo.java", "Foo.java", null, ReportAttributes.newBuilder(2).setPath("Foo.java").build(),
+      new FileAttributes(false, "java", 1));
+    CompactComponentTree tree = builder.build();
+    underTest.setRoot(tree.getRoot());
+
+    assertThat(underTest.getComponentByRef(2)).isEqualTo(tree.getByRef(2));
+    assertThat(underTest.getComponentByKey("project:Foo.java")).isEqualTo(tree.getByRef(2));
+    assertThat(underTest.hasComponentWithKey("project:Foo.java")).isTrue();
+    assertThat(underTest.hasComponentWithKey("project:Bar.java")).isFalse();
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Component with ref '3' can't be found");
+
+    underTest.getComponentByRef(3);
+  }
+
   private void expectNotInitialized_ISE() {
     expectedException.expect(IllegalStateException.class);
     expectedException.expectMessage("Holder has not been initialized yet");
@@ -21,12 +21,16 @@ package org.sonar.server.computation.task.projectanalysis.step;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
 import org.sonar.server.computation.task.projectanalysis.batch.BatchReportReaderRule;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolderRule;
 import org.sonar.server.computation.task.projectanalysis.component.ViewsComponent;
 import org.sonar.server.computation.task.step.ComputationStep;
+import org.sonar.server.es.BulkIndexer.RefreshPolicy;
 import org.sonar.server.es.ProjectIndexer;
 
 import static org.mockito.Mockito.mock;
@@ -43,9 +47,12 @@ public class IndexAnalysisStepTest extends BaseStepTest {
   public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
   @Rule
   public BatchReportReaderRule reportReader = new BatchReportReaderRule();
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
 
+  private Settings settings = new MapSettings();
   private ProjectIndexer componentIndexer = mock(ProjectIndexer.class);
-  private IndexAnalysisStep underTest = new IndexAnalysisStep(treeRootHolder, componentIndexer);
+  private IndexAnalysisStep underTest = new IndexAnalysisStep(treeRootHolder, settings, componentIndexer);
 
   @Test
   public void call_indexByProjectUuid_of_indexer_for_project() {
@@ -54,7 +61,7 @@ public class IndexAnalysisStepTest extends BaseStepTest {
 
     underTest.execute();
 
-    verify(componentIndexer).indexProject(PROJECT_UUID, ProjectIndexer.Cause.NEW_ANALYSIS);
+    verify(componentIndexer).indexProject(PROJECT_UUID, ProjectIndexer.Cause.NEW_ANALYSIS, RefreshPolicy.IMMEDIATE);
   }
 
   @Test
@@ -64,7 +71,28 @@ public class IndexAnalysisStepTest extends BaseStepTest {
 
     underTest.execute();
 
-    verify(componentIndexer).indexProject(PROJECT_UUID, ProjectIndexer.Cause.NEW_ANALYSIS);
+    verify(componentIndexer).indexProject(PROJECT_UUID, ProjectIndexer.Cause.NEW_ANALYSIS, RefreshPolicy.IMMEDIATE);
+  }
+
+  @Test
+  public void use_refresh_policy_defined_in_settings() {
+    settings.setProperty(IndexAnalysisStep.REFRESH_POLICY_PROPERTY, "coalesced");
+    treeRootHolder.setRoot(ReportComponent.builder(PROJECT, 1).setUuid(PROJECT_UUID).setKey(PROJECT_KEY).build());
+
+    underTest.execute();
+
+    verify(componentIndexer).indexProject(PROJECT_UUID, ProjectIndexer.Cause.NEW_ANALYSIS, RefreshPolicy.COALESCED);
+  }
+
+  @Test
+  public void fail_if_refresh_policy_is_not_supported() {
+    settings.setProperty(IndexAnalysisStep.REFRESH_POLICY_PROPERTY, "never");
+    treeRootHolder.setRoot(ReportComponent.builder(PROJECT, 1).setUuid(PROJECT_UUID).setKey(PROJECT_KEY).build());
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Unsupported value of property sonar.ce.indexAnalysis.refreshPolicy: never");
+
+    underTest.execute();
   }
 
   @Override
@@ -23,6 +23,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -117,6 +119,26 @@ public class PersistCrossProjectDuplicationIndexStepTest {
     assertThat(dtos).extracting("ANALYSIS_UUID").containsOnly(ANALYSIS_UUID);
   }
 
+  @Test
+  public void persist_more_cpd_text_blocks_than_inserted_at_once() throws Exception {
+    when(crossProjectDuplicationStatusHolder.isEnabled()).thenReturn(true);
+    reportReader.putDuplicationBlocks(FILE_REF, IntStream.range(0, 2_500)
+      .mapToObj(i -> ScannerReport.CpdTextBlock.newBuilder()
+        .setHash("hash" + i)
+        .setStartLine(i + 1)
+        .setEndLine(i + 10)
+        .build())
+      .collect(Collectors.toList()));
+
+    underTest.execute();
+
+    assertThat(dbTester.countRowsOfTable("duplications_index")).isEqualTo(2_500);
+    Map<String, Object> dto = dbTester.selectFirst("select START_LINE, END_LINE, INDEX_IN_FILE from duplications_index where hash='hash2499'");
+    assertThat(dto.get("START_LINE")).isEqualTo(2_500L);
+    assertThat(dto.get("END_LINE")).isEqualTo(2_509L);
+    assertThat(dto.get("INDEX_IN_FILE")).isEqualTo(2_499L);
+  }
+
   @Test
   public void nothing_to_persist_when_no_cpd_text_blocks_in_report() throws Exception {
     when(crossProjectDuplicationStatusHolder.isEnabled()).thenReturn(true);
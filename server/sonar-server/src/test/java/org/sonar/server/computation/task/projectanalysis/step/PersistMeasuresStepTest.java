@@ -21,6 +21,7 @@ package org.sonar.server.computation.task.projectanalysis.step;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -29,6 +30,10 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDto;
+import org.sonar.db.component.SnapshotDto;
+import org.sonar.db.measure.MeasureDto;
+import org.sonar.db.measure.MeasureHistoryDto;
+import org.sonar.db.measure.MeasureHistoryPoint;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.server.computation.task.projectanalysis.analysis.MutableAnalysisMetadataHolderRule;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
@@ -43,6 +48,8 @@ import org.sonar.server.computation.task.projectanalysis.measure.MeasureToMeasur
 import org.sonar.server.computation.task.projectanalysis.metric.MetricRepositoryRule;
 import org.sonar.server.computation.task.step.ComputationStep;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.sonar.api.measures.CoreMetrics.CLASS_COMPLEXITY_DISTRIBUTION;
 import static org.sonar.api.measures.CoreMetrics.CLASS_COMPLEXITY_DISTRIBUTION_KEY;
@@ -66,17 +73,20 @@ public class PersistMeasuresStepTest extends BaseStepTest {
   private static final String INT_METRIC_KEY = "int-metric-key";
   private static final String LONG_METRIC_KEY = "long-metric-key";
   private static final String OPTIMIZED_METRIC_KEY = "optimized-metric-key";
+  private static final String NEW_INT_METRIC_KEY = "new_int-metric-key";
 
   private static final Metric STRING_METRIC = new Metric.Builder(STRING_METRIC_KEY, "String metric", Metric.ValueType.STRING).create();
   private static final Metric DOUBLE_METRIC = new Metric.Builder(DOUBLE_METRIC_KEY, "Double metric", Metric.ValueType.FLOAT).create();
   private static final Metric INT_METRIC = new Metric.Builder(INT_METRIC_KEY, "int metric", Metric.ValueType.INT).create();
   private static final Metric LONG_METRIC = new Metric.Builder(LONG_METRIC_KEY, "long metric", Metric.ValueType.WORK_DUR).create();
+  private static final Metric NEW_INT_METRIC = new Metric.Builder(NEW_INT_METRIC_KEY, "new int metric", Metric.ValueType.INT).create();
 
   private static final int ROOT_REF = 1;
   private static final int INTERMEDIATE_1_REF = 2;
   private static final int INTERMEDIATE_2_REF = 3;
   private static final int LEAF_REF = 4;
   private static final String ANALYSIS_UUID = "a1";
+  private static final long ANALYSIS_DATE = 1_500_000_000_000L;
 
   @Rule
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
@@ -103,8 +113,10 @@ public class PersistMeasuresStepTest extends BaseStepTest {
 
   @Before
   public void setUp() {
-    underTest = new PersistMeasuresStep(dbClient, metricRepository, new MeasureToMeasureDto(dbIdsRepository, analysisMetadataHolder), treeRootHolder, measureRepository);
+    underTest = new PersistMeasuresStep(dbClient, metricRepository, new MeasureToMeasureDto(dbIdsRepository, analysisMetadataHolder), treeRootHolder, measureRepository,
+      analysisMetadataHolder);
     analysisMetadataHolder.setUuid(ANALYSIS_UUID);
+    analysisMetadataHolder.setAnalysisDate(ANALYSIS_DATE);
   }
 
   private void setupReportComponents() {
@@ -379,6 +391,64 @@ public class PersistMeasuresStepTest extends BaseStepTest {
     assertThat(dto.get("developerId")).isEqualTo(10L);
   }
 
+  @Test
+  public void append_numerical_values_of_root_to_history() {
+    setupReportComponents();
+    metricRepository.add(1, STRING_METRIC);
+    metricRepository.add(2, DOUBLE_METRIC);
+    metricRepository.add(3, INT_METRIC);
+    metricRepository.add(4, NEW_INT_METRIC);
+    measureRepository.addRawMeasure(ROOT_REF, STRING_METRIC_KEY, newMeasureBuilder().create("measure-data"));
+    measureRepository.addRawMeasure(ROOT_REF, DOUBLE_METRIC_KEY, newMeasureBuilder().create(12.5d, 1));
+    measureRepository.addRawMeasure(INTERMEDIATE_1_REF, INT_METRIC_KEY, newMeasureBuilder().create(12));
+    measureRepository.addRawMeasure(ROOT_REF, NEW_INT_METRIC_KEY, newMeasureBuilder().setVariation(3d).createNoValue());
+    dbClient.measureHistoryDao().insertOrUpdate(dbTester.getSession(), new MeasureHistoryDto().setComponentUuid(rootDto.uuid()).setMetricId(2)
+      .setPoints(asList(new MeasureHistoryPoint(ANALYSIS_DATE - 2, 10d), new MeasureHistoryPoint(ANALYSIS_DATE, 11d))));
+    dbTester.commit();
+
+    underTest.execute();
+
+    assertThat(selectHistory(rootDto.uuid(), 1)).isEmpty();
+    assertThat(selectHistory(rootDto.uuid(), 2)).containsExactly(new MeasureHistoryPoint(ANALYSIS_DATE - 2, 10d), new MeasureHistoryPoint(ANALYSIS_DATE, 12.5d));
+    assertThat(selectHistory(rootDto.uuid(), 4)).containsExactly(new MeasureHistoryPoint(ANALYSIS_DATE, 3d));
+    assertThat(selectHistory(intermediate1Dto.uuid(), 3)).isEmpty();
+  }
+
+  @Test
+  public void load_history_from_previous_analyses_when_missing() {
+    setupReportComponents();
+    metricRepository.add(3, INT_METRIC);
+    measureRepository.addRawMeasure(ROOT_REF, INT_METRIC_KEY, newMeasureBuilder().create(12));
+    SnapshotDto firstAnalysis = dbTester.components().insertSnapshot(rootDto, a -> a.setCreatedAt(ANALYSIS_DATE - 20).setStatus(SnapshotDto.STATUS_PROCESSED));
+    SnapshotDto secondAnalysis = dbTester.components().insertSnapshot(rootDto, a -> a.setCreatedAt(ANALYSIS_DATE - 10).setStatus(SnapshotDto.STATUS_PROCESSED));
+    SnapshotDto unprocessedAnalysis = dbTester.components().insertSnapshot(rootDto, a -> a.setCreatedAt(ANALYSIS_DATE - 5).setStatus(SnapshotDto.STATUS_UNPROCESSED));
+    insertPastMeasure(secondAnalysis, 3, 8d);
+    insertPastMeasure(firstAnalysis, 3, 5d);
+    insertPastMeasure(unprocessedAnalysis, 3, 7d);
+
+    underTest.execute();
+
+    assertThat(selectHistory(rootDto.uuid(), 3)).containsExactly(
+      new MeasureHistoryPoint(ANALYSIS_DATE - 20, 5d),
+      new MeasureHistoryPoint(ANALYSIS_DATE - 10, 8d),
+      new MeasureHistoryPoint(ANALYSIS_DATE, 12d));
+  }
+
+  private void insertPastMeasure(SnapshotDto analysis, int metricId, double value) {
+    dbClient.measureDao().insert(dbTester.getSession(), new MeasureDto()
+      .setComponentUuid(rootDto.uuid())
+      .setAnalysisUuid(analysis.getUuid())
+      .setMetricId(metricId)
+      .setValue(value));
+    dbTester.commit();
+  }
+
+  private List<MeasureHistoryPoint> selectHistory(String componentUuid, int metricId) {
+    return dbClient.measureHistoryDao().selectByComponentUuidAndMetricIds(dbTester.getSession(), componentUuid, singletonList(metricId)).stream()
+      .flatMap(history -> history.getPoints().stream())
+      .collect(Collectors.toList());
+  }
+
   private ComponentDto addComponent(String key, String uuid) {
     ComponentDto componentDto = new ComponentDto()
       .setOrganizationUuid("org1")
@@ -0,0 +1,151 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.purge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.settings.ProjectSettingsFactory;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.component.SnapshotDto;
+import org.sonar.db.purge.IdUuidPair;
+import org.sonar.db.purge.PurgeListener;
+import org.sonar.db.purge.PurgeProfiler;
+import org.sonar.db.purge.PurgeThrottler;
+import org.sonar.db.purge.period.DefaultPeriodCleaner;
+import org.sonar.server.computation.dbcleaner.DbLoadPurgeThrottler;
+import org.sonar.server.computation.dbcleaner.ProjectCleaner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonar.db.component.SnapshotTesting.newAnalysis;
+
+public class ProjectPurgeTaskProcessorTest {
+
+  private static final String TASK_UUID = "TASK_1";
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private DbClient dbClient = db.getDbClient();
+  private ProjectSettingsFactory projectSettingsFactory = mock(ProjectSettingsFactory.class);
+  private ProjectCleaner projectCleaner = new ProjectCleaner(dbClient.purgeDao(), mock(DefaultPeriodCleaner.class), new PurgeProfiler(), mock(PurgeListener.class));
+  private ProjectPurgeTaskProcessor underTest = new ProjectPurgeTaskProcessor(dbClient, projectCleaner, projectSettingsFactory, mock(DbLoadPurgeThrottler.class));
+
+  @Test
+  public void handles_only_project_purge_tasks() {
+    assertThat(underTest.getHandledCeTaskTypes()).containsExactly(CeTaskTypes.PROJECT_PURGE);
+  }
+
+  @Test
+  public void purge_history_of_project_and_save_deleted_rows() {
+    ComponentDto project = db.components().insertPrivateProject();
+    SnapshotDto abortedAnalysis = db.components().insertSnapshot(newAnalysis(project).setStatus(SnapshotDto.STATUS_UNPROCESSED).setLast(false));
+    SnapshotDto lastAnalysis = db.components().insertSnapshot(newAnalysis(project).setStatus(SnapshotDto.STATUS_PROCESSED).setLast(true));
+    when(projectSettingsFactory.newProjectSettings(project.getKey())).thenReturn(new MapSettings());
+
+    underTest.process(newTask(project.uuid()));
+
+    assertThat(dbClient.snapshotDao().selectByUuid(db.getSession(), abortedAnalysis.getUuid()).isPresent()).isFalse();
+    assertThat(dbClient.snapshotDao().selectByUuid(db.getSession(), lastAnalysis.getUuid()).isPresent()).isTrue();
+    assertThat(dbClient.ceTaskCountersDao().selectByUuid(db.getSession(), TASK_UUID)).contains(entry("snapshots", 1L));
+  }
+
+  @Test
+  public void do_nothing_if_component_does_not_exist_anymore() {
+    underTest.process(newTask("DELETED_PROJECT"));
+
+    assertThat(dbClient.ceTaskCountersDao().selectByUuid(db.getSession(), TASK_UUID)).isEmpty();
+  }
+
+  @Test
+  public void retry_purge_if_it_fails() {
+    ComponentDto project = db.components().insertPrivateProject();
+    when(projectSettingsFactory.newProjectSettings(project.getKey())).thenReturn(new MapSettings());
+    ProjectCleaner failingCleaner = mock(ProjectCleaner.class);
+    doThrow(new IllegalStateException("DB is down")).doNothing().when(failingCleaner)
+      .purgeHistory(any(DbSession.class), any(IdUuidPair.class), any(Settings.class), any(PurgeProfiler.class), any(PurgeThrottler.class));
+    underTest = new ProjectPurgeTaskProcessor(dbClient, failingCleaner, projectSettingsFactory, mock(DbLoadPurgeThrottler.class));
+
+    underTest.process(newTask(project.uuid()));
+
+    verify(failingCleaner, times(2))
+      .purgeHistory(any(DbSession.class), any(IdUuidPair.class), any(Settings.class), any(PurgeProfiler.class), any(PurgeThrottler.class));
+  }
+
+  @Test
+  public void fail_if_purge_fails_on_all_attempts() {
+    ComponentDto project = db.components().insertPrivateProject();
+    when(projectSettingsFactory.newProjectSettings(project.getKey())).thenReturn(new MapSettings());
+    ProjectCleaner failingCleaner = mock(ProjectCleaner.class);
+    doThrow(new IllegalStateException("DB is down")).when(failingCleaner)
+      .purgeHistory(any(DbSession.class), any(IdUuidPair.class), any(Settings.class), any(PurgeProfiler.class), any(PurgeThrottler.class));
+    underTest = new ProjectPurgeTaskProcessor(dbClient, failingCleaner, projectSettingsFactory, mock(DbLoadPurgeThrottler.class));
+
+    try {
+      underTest.process(newTask(project.uuid()));
+      fail("An IllegalStateException should have been raised");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("DB is down");
+    }
+    verify(failingCleaner, times(ProjectPurgeTaskProcessor.MAX_ATTEMPTS))
+      .purgeHistory(any(DbSession.class), any(IdUuidPair.class), any(Settings.class), any(PurgeProfiler.class), any(PurgeThrottler.class));
+  }
+
+  @Test
+  public void fail_if_task_has_no_component() {
+    CeTask task = new CeTask.Builder()
+      .setOrganizationUuid("ORG_1")
+      .setUuid(TASK_UUID)
+      .setType(CeTaskTypes.PROJECT_PURGE)
+      .build();
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Component of task 'TASK_1' is missing");
+
+    underTest.process(task);
+  }
+
+  private static CeTask newTask(String componentUuid) {
+    return new CeTask.Builder()
+      .setOrganizationUuid("ORG_1")
+      .setUuid(TASK_UUID)
+      .setType(CeTaskTypes.PROJECT_PURGE)
+      .setComponentUuid(componentUuid)
+      .build();
+  }
+}
@@ -19,12 +19,17 @@
  */
 package org.sonar.server.computation.task.step;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.InOrder;
+import org.sonar.api.config.MapSettings;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.server.computation.task.ChangeLogLevel;
@@ -152,6 +157,142 @@ public class ComputationStepExecutorTest {
     new ComputationStepExecutor(mockComputationSteps(computationStep1), listener).execute();
   }
 
+  @Test
+  public void execute_annotated_step_concurrently_with_steps_declared_after_its_dependencies() {
+    CountDownLatch latch = new CountDownLatch(1);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    ComputationStep first = new FirstStep(executed);
+    ComputationStep waiting = new RecordingStep("waiting", executed) {
+      @Override
+      public void execute() {
+        try {
+          assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        super.execute();
+      }
+    };
+    ComputationStep concurrent = new DependsOnFirstStep(executed) {
+      @Override
+      public void execute() {
+        super.execute();
+        latch.countDown();
+      }
+    };
+    ComputationStep last = new RecordingStep("last", executed);
+
+    new ComputationStepExecutor(mockComputationSteps(first, waiting, concurrent, last), 2, listener).execute();
+
+    assertThat(executed).containsExactly("first", "dependsOnFirst", "waiting", "last");
+    verify(listener).finished(true);
+  }
+
+  @Test
+  public void execute_steps_sequentially_when_single_thread() {
+    List<String> executed = new ArrayList<>();
+
+    new ComputationStepExecutor(mockComputationSteps(new FirstStep(executed), new RecordingStep("second", executed),
+      new DependsOnFirstStep(executed)), 1, null).execute();
+
+    assertThat(executed).containsExactly("first", "second", "dependsOnFirst");
+  }
+
+  @Test
+  public void execute_reads_number_of_threads_from_settings() {
+    CountDownLatch latch = new CountDownLatch(1);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    ComputationStep waiting = new RecordingStep("waiting", executed) {
+      @Override
+      public void execute() {
+        try {
+          assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        super.execute();
+      }
+    };
+    ComputationStep concurrent = new DependsOnFirstStep(executed) {
+      @Override
+      public void execute() {
+        super.execute();
+        latch.countDown();
+      }
+    };
+    MapSettings settings = new MapSettings();
+    settings.setProperty(ComputationStepExecutor.PROPERTY_THREADS, 4);
+
+    new ComputationStepExecutor(mockComputationSteps(new FirstStep(executed), waiting, concurrent), settings).execute();
+
+    assertThat(executed).containsExactly("first", "dependsOnFirst", "waiting");
+  }
+
+  @Test
+  public void execute_does_not_start_steps_after_failure_of_concurrent_step() {
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    RuntimeException toBeThrown = new RuntimeException("simulating failing execute Step method");
+    ComputationStep failing = new RecordingStep("failing", executed) {
+      @Override
+      public void execute() {
+        throw toBeThrown;
+      }
+    };
+
+    try {
+      new ComputationStepExecutor(mockComputationSteps(new FirstStep(executed), failing, new RecordingStep("last", executed)), 2, listener)
+        .execute();
+      fail("exception toBeThrown should have been raised");
+    } catch (RuntimeException e) {
+      assertThat(e).isSameAs(toBeThrown);
+      assertThat(executed).containsExactly("first");
+      verify(listener).finished(false);
+    }
+  }
+
+  @Test
+  public void execute_fails_if_dependency_is_not_executed_before_annotated_step() {
+    List<String> executed = new ArrayList<>();
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Step 'dependsOnFirst' depends on " + FirstStep.class.getName() + " which is not executed before it");
+
+    new ComputationStepExecutor(mockComputationSteps(new DependsOnFirstStep(executed), new FirstStep(executed)), 2, null).execute();
+  }
+
+  private static class RecordingStep implements ComputationStep {
+    private final String description;
+    private final List<String> executed;
+
+    private RecordingStep(String description, List<String> executed) {
+      this.description = description;
+      this.executed = executed;
+    }
+
+    @Override
+    public void execute() {
+      executed.add(description);
+    }
+
+    @Override
+    public String getDescription() {
+      return description;
+    }
+  }
+
+  private static class FirstStep extends RecordingStep {
+    private FirstStep(List<String> executed) {
+      super("first", executed);
+    }
+  }
+
+  @DependsOn(FirstStep.class)
+  private static class DependsOnFirstStep extends RecordingStep {
+    private DependsOnFirstStep(List<String> executed) {
+      super("dependsOnFirst", executed);
+    }
+  }
+
   private static ComputationSteps mockComputationSteps(ComputationStep... computationSteps) {
     ComputationSteps steps = mock(ComputationSteps.class);
     when(steps.instances()).thenReturn(Arrays.asList(computationSteps));
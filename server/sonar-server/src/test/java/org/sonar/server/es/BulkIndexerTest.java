@@ -27,6 +27,7 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.server.es.BulkIndexer.RefreshPolicy;
 import org.sonar.server.es.BulkIndexer.Size;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -62,6 +63,25 @@ public class BulkIndexerTest {
     assertThat(count()).isEqualTo(2);
   }
 
+  @Test
+  public void documents_are_visible_when_refresh_is_waited_for() {
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX, Size.REGULAR, RefreshPolicy.WAIT_FOR);
+    indexer.start();
+    indexer.add(newIndexRequest(42));
+    indexer.add(newIndexRequest(78));
+    indexer.stop();
+
+    assertThat(count()).isEqualTo(2);
+  }
+
+  @Test
+  public void coalesced_refreshes_of_same_index_are_merged() {
+    IndexRefresher refresher = esTester.client().getIndexRefresher();
+
+    assertThat(refresher.requestRefresh(INDEX)).isSameAs(refresher.requestRefresh(INDEX));
+    refresher.requestRefresh(INDEX).join();
+  }
+
   @Test
   public void large_indexing() {
     // index has one replica
@@ -0,0 +1,162 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.user.UserDto;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+
+public class IssueReferenceCacheTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbClient dbClient = db.getDbClient();
+  private DbSession dbSession = db.getSession();
+  private AtomicLong nanos = new AtomicLong();
+  private IssueReferenceCache underTest = new IssueReferenceCache(dbClient, new Ticker() {
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+  });
+
+  @Test
+  public void load_users_from_db_then_from_cache() {
+    UserDto user1 = db.users().insertUser();
+    UserDto user2 = db.users().insertUser();
+
+    assertThat(underTest.getUsers(dbSession, asList(user1.getLogin(), user2.getLogin(), "unknown")))
+      .extracting(UserDto::getLogin)
+      .containsOnly(user1.getLogin(), user2.getLogin());
+
+    renameUser(user1, "new name");
+
+    assertThat(underTest.getUsers(dbSession, singletonList(user1.getLogin()))).extracting(UserDto::getName).containsExactly(user1.getName());
+  }
+
+  @Test
+  public void invalidate_user() {
+    UserDto user = db.users().insertUser();
+    underTest.getUsers(dbSession, singletonList(user.getLogin()));
+    renameUser(user, "new name");
+
+    underTest.invalidateUser(user.getLogin());
+
+    assertThat(underTest.getUsers(dbSession, singletonList(user.getLogin()))).extracting(UserDto::getName).containsExactly("new name");
+  }
+
+  @Test
+  public void entries_expire() {
+    UserDto user = db.users().insertUser();
+    underTest.getUsers(dbSession, singletonList(user.getLogin()));
+    renameUser(user, "new name");
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(IssueReferenceCache.EXPIRATION_SECONDS - 1));
+    assertThat(underTest.getUsers(dbSession, singletonList(user.getLogin()))).extracting(UserDto::getName).containsExactly(user.getName());
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    assertThat(underTest.getUsers(dbSession, singletonList(user.getLogin()))).extracting(UserDto::getName).containsExactly("new name");
+  }
+
+  @Test
+  public void load_rules() {
+    RuleDefinitionDto rule = db.rules().insert();
+
+    assertThat(underTest.getRules(dbSession, asList(rule.getKey(), RuleKey.of("unknown", "unknown"))))
+      .extracting(RuleDefinitionDto::getKey)
+      .containsExactly(rule.getKey());
+    assertThat(underTest.getRules(dbSession, singletonList(rule.getKey()))).extracting(RuleDefinitionDto::getKey).containsExactly(rule.getKey());
+  }
+
+  @Test
+  public void load_components_and_organizations() {
+    OrganizationDto organization = db.organizations().insert();
+    ComponentDto project = db.components().insertPrivateProject(organization);
+
+    assertThat(underTest.getComponents(dbSession, asList(project.uuid(), "unknown"))).extracting(ComponentDto::uuid).containsExactly(project.uuid());
+    assertThat(underTest.getOrganizations(dbSession, singletonList(organization.getUuid()))).extracting(OrganizationDto::getUuid)
+      .containsExactly(organization.getUuid());
+  }
+
+  @Test
+  public void invalidate_rule() {
+    RuleDefinitionDto rule = db.rules().insert();
+    underTest.getRules(dbSession, singletonList(rule.getKey()));
+    dbClient.ruleDao().update(dbSession, dbClient.ruleDao().selectOrFailDefinitionByKey(dbSession, rule.getKey()).setName("new name"));
+    db.commit();
+
+    underTest.invalidateRule(rule.getKey());
+
+    assertThat(underTest.getRules(dbSession, singletonList(rule.getKey()))).extracting(RuleDefinitionDto::getName).containsExactly("new name");
+  }
+
+  @Test
+  public void invalidate_project_evicts_all_its_components() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project).setKey(project.getKey() + ":src/File.xoo"));
+    ComponentDto otherProject = db.components().insertPrivateProject();
+    underTest.getComponents(dbSession, asList(project.uuid(), file.uuid(), otherProject.uuid()));
+    dbClient.componentKeyUpdaterDao().updateKey(dbSession, project.uuid(), "new_key");
+    dbClient.componentKeyUpdaterDao().updateKey(dbSession, otherProject.uuid(), "other_new_key");
+    db.commit();
+
+    underTest.invalidateProject(project.uuid());
+
+    assertThat(underTest.getComponents(dbSession, asList(project.uuid(), file.uuid(), otherProject.uuid())))
+      .extracting(ComponentDto::getKey)
+      .containsOnly("new_key", "new_key:src/File.xoo", otherProject.getKey());
+  }
+
+  @Test
+  public void invalidate_organization() {
+    OrganizationDto organization = db.organizations().insert();
+    underTest.getOrganizations(dbSession, singletonList(organization.getUuid()));
+    dbClient.organizationDao().update(dbSession, dbClient.organizationDao().selectByUuid(dbSession, organization.getUuid()).get().setName("new name"));
+    db.commit();
+
+    underTest.invalidateOrganization(organization.getUuid());
+
+    assertThat(underTest.getOrganizations(dbSession, singletonList(organization.getUuid()))).extracting(OrganizationDto::getName)
+      .containsExactly("new name");
+  }
+
+  private void renameUser(UserDto user, String name) {
+    UserDto copy = dbClient.userDao().selectByLogin(dbSession, user.getLogin());
+    dbClient.userDao().update(dbSession, copy.setName(name));
+    db.commit();
+  }
+}
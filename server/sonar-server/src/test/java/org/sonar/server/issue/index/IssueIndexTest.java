@@ -1327,6 +1327,21 @@ public class IssueIndexTest {
     assertThat(Lists.newArrayList(underTest.selectIssuesForBatch(project2))).isEmpty();
   }
 
+  @Test
+  public void searchKeys_returns_keys_of_all_matching_issues_without_checking_authorization() {
+    ComponentDto project = newPrivateProjectDto(newOrganizationDto());
+    ComponentDto file = newFileDto(project, null);
+    indexIssues(
+      newDoc("ISSUE1", file).setSeverity(Severity.MAJOR),
+      newDoc("ISSUE2", file).setSeverity(Severity.MAJOR),
+      newDoc("ISSUE3", file).setSeverity(Severity.INFO));
+    userSessionRule.logIn();
+
+    assertThat(newArrayList(underTest.searchKeys(IssueQuery.builder().severities(asList(Severity.MAJOR)).checkAuthorization(false).build())))
+      .containsOnly("ISSUE1", "ISSUE2");
+    assertThat(newArrayList(underTest.searchKeys(IssueQuery.builder().severities(asList(Severity.MAJOR)).build()))).isEmpty();
+  }
+
   @Test
   public void list_tags() {
     RuleDefinitionDto r1 = db.rules().insert();
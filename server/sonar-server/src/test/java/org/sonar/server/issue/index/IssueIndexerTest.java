@@ -36,6 +36,7 @@ import org.sonar.db.component.ComponentTesting;
 import org.sonar.db.issue.IssueDto;
 import org.sonar.db.issue.IssueTesting;
 import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.protobuf.DbIssues;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.es.ProjectIndexer;
@@ -111,6 +112,24 @@ public class IssueIndexerTest {
     verifyDoc(docs.get(0), org, project, file, rule, issue1);
   }
 
+  @Test
+  public void index_stores_locations_of_issues() {
+    OrganizationDto org = dbTester.organizations().insert();
+    ComponentDto project = dbTester.components().insertPrivateProject(org);
+    ComponentDto file = dbTester.components().insertComponent(ComponentTesting.newFileDto(project));
+    RuleDto rule = dbTester.rules().insertRule();
+    DbIssues.Locations locations = DbIssues.Locations.newBuilder()
+      .addFlow(DbIssues.Flow.newBuilder().addLocation(DbIssues.Location.newBuilder().setComponentId(file.uuid()).setMsg("flow")))
+      .build();
+    IssueDto issue = dbTester.issues().insertIssue(IssueTesting.newDto(rule, file, project).setLocations(locations));
+
+    underTest.index(asList(issue.getKey()));
+
+    List<IssueDoc> docs = esTester.getDocuments(IssueIndexDefinition.INDEX_TYPE_ISSUE, IssueDoc.class);
+    assertThat(docs).hasSize(1);
+    assertThat(docs.get(0).locations()).isEqualTo(locations.toByteArray());
+  }
+
   @Test
   public void index_throws_NoSuchElementException_if_the_specified_key_does_not_exist() {
     try {
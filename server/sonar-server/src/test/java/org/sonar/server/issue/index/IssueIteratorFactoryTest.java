@@ -64,6 +64,7 @@ public class IssueIteratorFactoryTest {
     assertThat(issue.gap()).isEqualTo(2d);
     assertThat(issue.attribute("JIRA")).isEqualTo("http://jira.com");
     assertThat(issue.type().getDbConstant()).isEqualTo(2);
+    assertThat(issue.locations()).isNull();
   }
 
   @Test
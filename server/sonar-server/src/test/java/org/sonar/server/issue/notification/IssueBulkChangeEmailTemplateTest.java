@@ -0,0 +1,69 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.notification;
+
+import org.junit.Test;
+import org.sonar.api.config.EmailSettings;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.api.notifications.Notification;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.plugins.emailnotifications.api.EmailMessage;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.api.CoreProperties.SERVER_BASE_URL;
+import static org.sonar.db.component.ComponentTesting.newPrivateProjectDto;
+import static org.sonar.db.organization.OrganizationTesting.newOrganizationDto;
+
+public class IssueBulkChangeEmailTemplateTest {
+
+  private Settings settings = new MapSettings().setProperty(SERVER_BASE_URL, "http://nemo.sonarsource.org");
+
+  private IssueBulkChangeEmailTemplate underTest = new IssueBulkChangeEmailTemplate(new EmailSettings(settings));
+
+  @Test
+  public void ignore_other_notifications() {
+    assertThat(underTest.format(new Notification("other"))).isNull();
+  }
+
+  @Test
+  public void format_summary_of_changes() {
+    ComponentDto project = newPrivateProjectDto(newOrganizationDto()).setKey("org.apache:struts").setLongName("Struts");
+    Notification notification = new IssueBulkChangeNotification()
+      .setProject(project)
+      .setAssignee("simon")
+      .setChangeAuthorLogin("olivier")
+      .setIssues(asList("ABCDE", "FGHIJ"))
+      .setChanges(asList("Severity: BLOCKER", "Tags added: [security]"));
+
+    EmailMessage email = underTest.format(notification);
+
+    assertThat(email.getMessageId()).isEqualTo("issues-bulk-change/org.apache:struts");
+    assertThat(email.getSubject()).isEqualTo("Struts, bulk change on 2 issues");
+    assertThat(email.getMessage()).isEqualTo("Struts\n" +
+      "2 of your issues have been changed by olivier\n" +
+      "\n" +
+      "Severity: BLOCKER\n" +
+      "Tags added: [security]\n" +
+      "\n" +
+      "See them in SonarQube: http://nemo.sonarsource.org/project/issues?id=org.apache%3Astruts&issues=ABCDE,FGHIJ\n");
+  }
+}
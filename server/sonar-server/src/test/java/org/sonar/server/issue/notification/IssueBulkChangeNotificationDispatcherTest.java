@@ -0,0 +1,82 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.notification;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import org.junit.Test;
+import org.sonar.api.notifications.Notification;
+import org.sonar.api.notifications.NotificationChannel;
+import org.sonar.server.notification.NotificationDispatcher;
+import org.sonar.server.notification.NotificationManager;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class IssueBulkChangeNotificationDispatcherTest {
+
+  private NotificationManager notifications = mock(NotificationManager.class);
+  private NotificationDispatcher.Context context = mock(NotificationDispatcher.Context.class);
+  private NotificationChannel emailChannel = mock(NotificationChannel.class);
+  private ChangesOnMyIssueNotificationDispatcher changesOnMyIssueDispatcher = new ChangesOnMyIssueNotificationDispatcher(notifications);
+
+  private IssueBulkChangeNotificationDispatcher underTest = new IssueBulkChangeNotificationDispatcher(notifications, changesOnMyIssueDispatcher);
+
+  @Test
+  public void does_not_dispatch_other_notification_types() {
+    underTest.performDispatch(new Notification("other-notif"), context);
+
+    verify(context, never()).addUser(any(String.class), any(NotificationChannel.class));
+  }
+
+  @Test
+  public void dispatch_to_assignee_subscribed_to_changes_on_his_issues() {
+    Multimap<String, NotificationChannel> recipients = HashMultimap.create();
+    recipients.put("simon", emailChannel);
+    recipients.put("freddy", emailChannel);
+    when(notifications.findNotificationSubscribers(changesOnMyIssueDispatcher, "struts")).thenReturn(recipients);
+
+    underTest.performDispatch(new IssueBulkChangeNotification()
+      .setFieldValue("projectKey", "struts")
+      .setAssignee("freddy")
+      .setChangeAuthorLogin("olivier"), context);
+
+    verify(context).addUser("freddy", emailChannel);
+    verifyNoMoreInteractions(context);
+  }
+
+  @Test
+  public void does_not_dispatch_to_author_of_changes() {
+    Multimap<String, NotificationChannel> recipients = HashMultimap.create();
+    recipients.put("simon", emailChannel);
+    when(notifications.findNotificationSubscribers(changesOnMyIssueDispatcher, "struts")).thenReturn(recipients);
+
+    underTest.performDispatch(new IssueBulkChangeNotification()
+      .setFieldValue("projectKey", "struts")
+      .setAssignee("simon")
+      .setChangeAuthorLogin("simon"), context);
+
+    verifyNoMoreInteractions(context);
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.System2;
+import org.sonar.ce.queue.CeQueue;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskSubmit;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.user.UserDto;
+import org.sonar.server.component.TestComponentFinder;
+import org.sonar.server.computation.task.issuebulkchange.IssueBulkChangeRequest;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.exceptions.UnauthorizedException;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.ws.TestRequest;
+import org.sonar.server.ws.WsActionTester;
+import org.sonarqube.ws.WsCe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonar.api.web.UserRole.ISSUE_ADMIN;
+import static org.sonar.api.web.UserRole.USER;
+
+public class BulkChangeByQueryActionTest {
+
+  private static final String TASK_UUID = "TASK_1";
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+
+  private CeQueue queue = mock(CeQueue.class);
+  private WsActionTester ws = new WsActionTester(new BulkChangeByQueryAction(userSession, db.getDbClient(), TestComponentFinder.from(db), queue));
+
+  private OrganizationDto organization;
+  private ComponentDto project;
+
+  @Before
+  public void setUp() {
+    organization = db.organizations().insert();
+    project = db.components().insertPrivateProject(organization);
+    when(queue.prepareSubmit()).thenReturn(new CeTaskSubmit.Builder(TASK_UUID));
+    CeTask task = mock(CeTask.class);
+    when(task.getUuid()).thenReturn(TASK_UUID);
+    when(queue.submit(any(CeTaskSubmit.class))).thenReturn(task);
+  }
+
+  @Test
+  public void definition() {
+    WebService.Action definition = ws.getDef();
+
+    assertThat(definition.isPost()).isTrue();
+    assertThat(definition.since()).isEqualTo("6.5");
+    assertThat(definition.responseExampleAsString()).isNotEmpty();
+    assertThat(definition.param("project").isRequired()).isTrue();
+  }
+
+  @Test
+  public void submit_task_with_query_and_changes_as_input() {
+    logInAsIssueAdmin();
+
+    WsCe.SubmitResponse response = newRequest()
+      .setParam("severities", "MAJOR,MINOR")
+      .setParam("resolved", "false")
+      .setParam("set_severity", "BLOCKER")
+      .setParam("add_tags", "security,java8")
+      .setParam("comment", "Fixed by bulk change")
+      .setParam("sendNotifications", "true")
+      .executeProtobuf(WsCe.SubmitResponse.class);
+
+    assertThat(response.getTaskId()).isEqualTo(TASK_UUID);
+    assertThat(response.getProjectId()).isEqualTo(project.uuid());
+    ArgumentCaptor<CeTaskSubmit> submit = ArgumentCaptor.forClass(CeTaskSubmit.class);
+    verify(queue).submit(submit.capture());
+    assertThat(submit.getValue().getType()).isEqualTo(CeTaskTypes.ISSUE_BULK_CHANGE);
+    assertThat(submit.getValue().getComponentUuid()).isEqualTo(project.uuid());
+    assertThat(submit.getValue().getSubmitterLogin()).isEqualTo("john");
+
+    IssueBulkChangeRequest input = loadInput();
+    assertThat(input.getList("severities")).containsExactly("MAJOR", "MINOR");
+    assertThat(input.get("resolved")).isEqualTo("false");
+    assertThat(input.get("set_severity")).isEqualTo("BLOCKER");
+    assertThat(input.getList("add_tags")).containsExactly("security", "java8");
+    assertThat(input.get("comment")).isEqualTo("Fixed by bulk change");
+    assertThat(input.get("set_type")).isNull();
+    assertThat(input.isSendNotifications()).isTrue();
+  }
+
+  @Test
+  public void fail_if_no_action_is_provided() {
+    logInAsIssueAdmin();
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("At least one action must be provided");
+
+    newRequest().setParam("comment", "only a comment").execute();
+  }
+
+  @Test
+  public void fail_if_assignee_is_not_member_of_organization() {
+    logInAsIssueAdmin();
+    UserDto assignee = db.users().insertUser("simon");
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("User 'simon' is not member of organization of project '" + project.getKey() + "'");
+
+    newRequest().setParam("assign", assignee.getLogin()).execute();
+  }
+
+  @Test
+  public void fail_if_not_issue_admin_of_project() {
+    userSession.logIn("john").addProjectPermission(USER, project);
+
+    expectedException.expect(ForbiddenException.class);
+
+    try {
+      newRequest().setParam("set_severity", "BLOCKER").execute();
+    } finally {
+      verify(queue, never()).submit(any(CeTaskSubmit.class));
+    }
+  }
+
+  @Test
+  public void fail_if_not_authenticated() {
+    expectedException.expect(UnauthorizedException.class);
+
+    newRequest().setParam("set_severity", "BLOCKER").execute();
+  }
+
+  private TestRequest newRequest() {
+    return ws.newRequest()
+      .setMethod("POST")
+      .setParam("project", project.getKey());
+  }
+
+  private void logInAsIssueAdmin() {
+    userSession.logIn("john").addProjectPermission(USER, project).addProjectPermission(ISSUE_ADMIN, project);
+  }
+
+  private IssueBulkChangeRequest loadInput() {
+    try (CeTaskInputDao.DataStream data = db.getDbClient().ceTaskInputDao().selectData(db.getSession(), TASK_UUID).get()) {
+      return IssueBulkChangeRequest.load(data.getInputStream());
+    }
+  }
+}
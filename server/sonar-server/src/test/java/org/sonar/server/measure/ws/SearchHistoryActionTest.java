@@ -37,6 +37,8 @@ import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.SnapshotDto;
+import org.sonar.db.measure.MeasureHistoryDto;
+import org.sonar.db.measure.MeasureHistoryPoint;
 import org.sonar.db.metric.MetricDto;
 import org.sonar.server.component.TestComponentFinder;
 import org.sonar.server.exceptions.ForbiddenException;
@@ -51,6 +53,7 @@ import org.sonarqube.ws.WsMeasures.SearchHistoryResponse.HistoryValue;
 import org.sonarqube.ws.client.measure.SearchHistoryRequest;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
@@ -66,6 +69,7 @@ import static org.sonar.db.metric.MetricTesting.newMetricDto;
 import static org.sonar.test.JsonAssert.assertJson;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_COMPONENT;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_FROM;
+import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_MAX_POINTS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRICS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_TO;
 
@@ -190,6 +194,53 @@ public class SearchHistoryActionTest {
       analysisDates.get(3), analysisDates.get(4), analysisDates.get(5));
   }
 
+  @Test
+  public void return_measures_from_history_of_project() {
+    SnapshotDto laterAnalysis = dbClient.snapshotDao().insert(dbSession, newAnalysis(project).setCreatedAt(analysis.getCreatedAt() + 42_000));
+    dbClient.measureHistoryDao().insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid(project.uuid()).setMetricId(complexityMetric.getId())
+      .setPoints(asList(
+        new MeasureHistoryPoint(analysis.getCreatedAt(), 101d),
+        new MeasureHistoryPoint(analysis.getCreatedAt() + 1_000, 500d),
+        new MeasureHistoryPoint(laterAnalysis.getCreatedAt(), 100d))));
+    dbClient.measureHistoryDao().insertOrUpdate(dbSession, new MeasureHistoryDto().setComponentUuid(project.uuid()).setMetricId(newViolationMetric.getId())
+      .setPoints(singletonList(new MeasureHistoryPoint(laterAnalysis.getCreatedAt(), 10d))));
+    // measures without history are loaded from project_measures
+    dbClient.measureDao().insert(dbSession, newMeasureDto(nclocMetric, project, analysis).setValue(201d));
+    db.commit();
+
+    SearchHistoryResponse result = call();
+
+    assertThat(result.getMeasuresList()).extracting(HistoryMeasure::getMetric)
+      .containsExactly(complexityMetric.getKey(), nclocMetric.getKey(), newViolationMetric.getKey());
+    String analysisDate = formatDateTime(analysis.getCreatedAt());
+    String laterAnalysisDate = formatDateTime(laterAnalysis.getCreatedAt());
+    assertThat(result.getMeasures(0).getHistoryList()).extracting(HistoryValue::getDate, HistoryValue::getValue)
+      .containsExactly(tuple(analysisDate, "101"), tuple(laterAnalysisDate, "100"));
+    assertThat(result.getMeasures(1).getHistoryList()).extracting(HistoryValue::getDate, HistoryValue::getValue)
+      .containsExactly(tuple(analysisDate, "201"));
+    assertThat(result.getMeasures(2).getHistoryList()).extracting(HistoryValue::getDate, HistoryValue::getValue)
+      .containsExactly(tuple(laterAnalysisDate, "10"));
+  }
+
+  @Test
+  public void downsample_analyses_when_max_points_is_set() {
+    project = db.components().insertPrivateProject();
+    userSession.addProjectPermission(UserRole.USER, project);
+    List<String> analysisDates = LongStream.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 12)
+      .mapToObj(i -> dbClient.snapshotDao().insert(dbSession, newAnalysis(project).setCreatedAt(i * 1_000_000_000)))
+      .peek(a -> dbClient.measureDao().insert(dbSession, newMeasureDto(complexityMetric, project, a).setValue(101d)))
+      .map(a -> formatDateTime(a.getCreatedAt()))
+      .collect(MoreCollectors.toList());
+    db.commit();
+    wsRequest.setComponent(project.getKey()).setMaxPoints(3);
+
+    SearchHistoryResponse result = call();
+
+    assertThat(result.getPaging()).extracting(Paging::getPageIndex, Paging::getPageSize, Paging::getTotal).containsExactly(1, 100, 3);
+    assertThat(result.getMeasures(0).getHistoryList()).extracting(HistoryValue::getDate).containsExactly(
+      analysisDates.get(3), analysisDates.get(7), analysisDates.get(9));
+  }
+
   @Test
   public void inclusive_from_and_to_dates() {
     project = db.components().insertPrivateProject();
@@ -295,6 +346,30 @@ public class SearchHistoryActionTest {
       .execute();
   }
 
+  @Test
+  public void fail_if_max_points_is_zero() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Max points (0) must be greater than 0");
+
+    ws.newRequest()
+      .setParam(PARAM_COMPONENT, "project-key")
+      .setParam(PARAM_METRICS, "ncloc")
+      .setParam(PARAM_MAX_POINTS, "0")
+      .execute();
+  }
+
+  @Test
+  public void fail_if_max_points_is_negative() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Max points (-1) must be greater than 0");
+
+    ws.newRequest()
+      .setParam(PARAM_COMPONENT, "project-key")
+      .setParam(PARAM_METRICS, "ncloc")
+      .setParam(PARAM_MAX_POINTS, "-1")
+      .execute();
+  }
+
   @Test
   public void definition() {
     WebService.Action definition = ws.getDef();
@@ -336,6 +411,7 @@ public class SearchHistoryActionTest {
     request.setParam(PARAM_METRICS, String.join(",", wsRequest.getMetrics()));
     setNullable(wsRequest.getFrom(), from -> request.setParam(PARAM_FROM, from));
     setNullable(wsRequest.getTo(), to -> request.setParam(PARAM_TO, to));
+    setNullable(wsRequest.getMaxPoints(), maxPoints -> request.setParam(PARAM_MAX_POINTS, String.valueOf(maxPoints)));
     setNullable(wsRequest.getPage(), p -> request.setParam(Param.PAGE, String.valueOf(p)));
     setNullable(wsRequest.getPageSize(), ps -> request.setParam(Param.PAGE_SIZE, String.valueOf(ps)));
 
@@ -347,6 +423,7 @@ public class SearchHistoryActionTest {
       .setWorstValue(null)
       .setOptimizedBestValue(false)
       .setBestValue(null)
+      .setDeleteHistoricalData(false)
       .setUserManaged(false);
   }
 
@@ -29,6 +29,7 @@ import org.sonar.db.DbTester;
 import org.sonar.db.organization.OrganizationDto;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.UnauthorizedException;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.OrganizationValidationImpl;
 import org.sonar.server.organization.TestOrganizationFlags;
 import org.sonar.server.tester.UserSessionRule;
@@ -38,6 +39,7 @@ import org.sonarqube.ws.Organizations;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonar.db.permission.OrganizationPermission.ADMINISTER;
 import static org.sonar.server.organization.ws.OrganizationsWsTestSupport.STRING_257_CHARS_LONG;
@@ -59,7 +61,9 @@ public class UpdateActionTest {
   public ExpectedException expectedException = ExpectedException.none();
 
   private TestOrganizationFlags organizationFlags = TestOrganizationFlags.standalone().setEnabled(true);
-  private UpdateAction underTest = new UpdateAction(userSession, new OrganizationsWsSupport(new OrganizationValidationImpl()), dbTester.getDbClient(), organizationFlags);
+  private IssueReferenceCache issueReferenceCache = mock(IssueReferenceCache.class);
+  private UpdateAction underTest = new UpdateAction(userSession, new OrganizationsWsSupport(new OrganizationValidationImpl()), dbTester.getDbClient(), organizationFlags,
+    issueReferenceCache);
   private WsActionTester wsTester = new WsActionTester(underTest);
 
   @Test
@@ -190,6 +194,16 @@ public class UpdateActionTest {
     verifyResponseAndDb(executeKeyRequest(org.getKey(), "ab"), org, "ab", DATE_2);
   }
 
+  @Test
+  public void request_invalidates_organization_in_issue_reference_cache() {
+    OrganizationDto org = mockForSuccessfulUpdate(DATE_1, DATE_2);
+    logInAsAdministrator(org);
+
+    executeKeyRequest(org.getKey(), "ab");
+
+    verify(issueReferenceCache).invalidateOrganization(org.getUuid());
+  }
+
   @Test
   public void request_fails_if_name_is_65_chars_long() {
     userSession.logIn();
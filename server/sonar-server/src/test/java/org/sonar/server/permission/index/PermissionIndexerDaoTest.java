@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -113,6 +114,43 @@ public class PermissionIndexerDaoTest {
     isPublic(view2Authorization, VIEW);
   }
 
+  @Test
+  public void scroll_returns_each_project_once_ordered_by_uuid() {
+    insertTestDataForProjectsAndViews();
+    List<PermissionIndexerDao.Dto> dtos = new ArrayList<>();
+
+    underTest.scroll(dbClient, dbSession, null, null, dtos::add);
+
+    assertThat(dtos)
+      .extracting(PermissionIndexerDao.Dto::getProjectUuid)
+      .containsExactly(Stream.of(publicProject, privateProject1, privateProject2, view1, view2).map(ComponentDto::uuid).sorted().toArray(String[]::new));
+    assertThat(getByProjectUuid(privateProject1.uuid(), dtos).getUserIds()).containsOnly(user1.getId(), user2.getId());
+  }
+
+  @Test
+  public void scroll_by_ranges_of_uuids() {
+    List<String> projectUuids = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      ComponentDto project = ComponentTesting.newPrivateProjectDto(dbTester.getDefaultOrganization(), "uuid_" + i);
+      dbClient.componentDao().insert(dbSession, project);
+      projectUuids.add(project.uuid());
+    }
+    // projects and views created in setUp() are included
+    projectUuids.addAll(asList(publicProject.uuid(), privateProject1.uuid(), privateProject2.uuid(), view1.uuid(), view2.uuid()));
+    dbSession.commit();
+
+    List<String> bounds = underTest.selectUuidRangeBounds(dbClient, dbSession, 4);
+    assertThat(bounds).hasSize(3);
+
+    List<String> scrolledUuids = new ArrayList<>();
+    underTest.scroll(dbClient, dbSession, null, bounds.get(0), dto -> scrolledUuids.add(dto.getProjectUuid()));
+    assertThat(scrolledUuids).hasSize(4);
+    underTest.scroll(dbClient, dbSession, bounds.get(0), bounds.get(1), dto -> scrolledUuids.add(dto.getProjectUuid()));
+    underTest.scroll(dbClient, dbSession, bounds.get(1), bounds.get(2), dto -> scrolledUuids.add(dto.getProjectUuid()));
+    underTest.scroll(dbClient, dbSession, bounds.get(2), null, dto -> scrolledUuids.add(dto.getProjectUuid()));
+    assertThat(scrolledUuids).containsExactlyElementsOf(projectUuids.stream().sorted().collect(MoreCollectors.toList()));
+  }
+
   @Test
   public void selectByUuids() throws Exception {
     insertTestDataForProjectsAndViews();
@@ -19,10 +19,12 @@
  */
 package org.sonar.server.permission.index;
 
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
 import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDbTester;
 import org.sonar.db.component.ComponentDto;
@@ -36,6 +38,9 @@ import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.tester.UserSessionRule;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.spy;
 import static org.sonar.api.web.UserRole.ADMIN;
 import static org.sonar.api.web.UserRole.USER;
 
@@ -234,6 +239,26 @@ public class PermissionIndexerTest {
     verifyAuthorized(projectOnOrg2, user);
   }
 
+  @Test
+  public void indexOnStartup_restores_index_settings_when_indexing_of_a_range_fails() {
+    createAndIndexPublicProject();
+    DbClient dbClient = spy(dbTester.getDbClient());
+    // the first session is used to compute the ranges, the next ones to read them
+    doCallRealMethod().doThrow(new IllegalStateException("db error")).when(dbClient).openSession(false);
+    underTest = new PermissionIndexer(dbClient, esTester.client(), fooIndexer);
+
+    try {
+      indexOnStartup();
+      fail("An IllegalStateException should have been raised");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Fail to index authorizations");
+    }
+
+    String index = INDEX_TYPE_FOO_AUTH.getIndex();
+    GetSettingsResponse settings = esTester.client().nativeClient().admin().indices().prepareGetSettings(index).get();
+    assertThat(settings.getSetting(index, "index.refresh_interval")).isNotEqualTo("-1");
+  }
+
   private void indexOnStartup() {
     underTest.indexOnStartup(underTest.getIndexTypes());
   }
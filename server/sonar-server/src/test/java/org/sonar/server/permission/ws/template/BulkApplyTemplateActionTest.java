@@ -22,8 +22,15 @@ package org.sonar.server.permission.ws.template;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.sonar.api.server.ws.WebService.Param;
 import org.sonar.api.web.UserRole;
+import org.sonar.ce.queue.CeQueue;
+import org.sonar.ce.queue.CeTask;
+import org.sonar.ce.queue.CeTaskSubmit;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
 import org.sonar.db.organization.OrganizationDto;
@@ -36,11 +43,19 @@ import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.i18n.I18nRule;
 import org.sonar.server.permission.PermissionTemplateService;
 import org.sonar.server.permission.index.PermissionIndexer;
+import org.sonar.server.computation.task.permissiontemplate.BulkApplyPermissionTemplateRequest;
 import org.sonar.server.permission.ws.BasePermissionWsTest;
+import org.sonar.server.ws.TestResponse;
+import org.sonarqube.ws.WsCe;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sonar.db.component.ComponentTesting.newView;
+import static org.sonar.server.permission.PermissionTemplateService.BATCH_SIZE;
 import static org.sonarqube.ws.client.permission.PermissionsWsParameters.PARAM_ORGANIZATION;
 import static org.sonarqube.ws.client.permission.PermissionsWsParameters.PARAM_QUALIFIER;
 import static org.sonarqube.ws.client.permission.PermissionsWsParameters.PARAM_TEMPLATE_ID;
@@ -59,12 +74,14 @@ public class BulkApplyTemplateActionTest extends BasePermissionWsTest<BulkApplyT
   private PermissionTemplateDto template1;
   private PermissionTemplateDto template2;
   private PermissionIndexer issuePermissionIndexer = mock(PermissionIndexer.class);
+  private CeQueue queue = mock(CeQueue.class);
 
   @Override
   protected BulkApplyTemplateAction buildWsAction() {
     PermissionTemplateService permissionTemplateService = new PermissionTemplateService(db.getDbClient(),
       issuePermissionIndexer, userSession, defaultTemplatesResolver);
-    return new BulkApplyTemplateAction(db.getDbClient(), userSession, permissionTemplateService, newPermissionWsSupport(), new I18nRule(), newRootResourceTypes());
+    return new BulkApplyTemplateAction(db.getDbClient(), userSession, permissionTemplateService, newPermissionWsSupport(), new I18nRule(), newRootResourceTypes(),
+      queue);
   }
 
   @Before
@@ -199,6 +216,51 @@ public class BulkApplyTemplateActionTest extends BasePermissionWsTest<BulkApplyT
     assertNoPermissionOnProject(projectUntouched);
   }
 
+  @Test
+  public void apply_template_synchronously_when_few_projects_match() throws Exception {
+    ComponentDto project = db.components().insertPrivateProject(organization);
+    loginAsAdmin(organization);
+
+    TestResponse response = newRequest().setParam(PARAM_TEMPLATE_ID, template1.getUuid()).execute();
+
+    assertThat(response.getStatus()).isEqualTo(204);
+    assertTemplate1AppliedToPrivateProject(project);
+    verify(queue, never()).submit(any(CeTaskSubmit.class));
+  }
+
+  @Test
+  public void submit_task_when_more_projects_than_a_batch_match() throws Exception {
+    DbSession dbSession = db.getSession();
+    ComponentDto project = null;
+    for (int i = 0; i <= BATCH_SIZE; i++) {
+      project = ComponentTesting.newPrivateProjectDto(organization);
+      db.getDbClient().componentDao().insert(dbSession, project);
+    }
+    db.commit();
+    loginAsAdmin(organization);
+    when(queue.prepareSubmit()).thenReturn(new CeTaskSubmit.Builder("TASK_1"));
+    CeTask task = mock(CeTask.class);
+    when(task.getUuid()).thenReturn("TASK_1");
+    when(queue.submit(any(CeTaskSubmit.class))).thenReturn(task);
+
+    WsCe.SubmitResponse response = newRequest()
+      .setParam(PARAM_TEMPLATE_ID, template1.getUuid())
+      .setParam(Param.TEXT_QUERY, "name")
+      .executeProtobuf(WsCe.SubmitResponse.class);
+
+    assertThat(response.getTaskId()).isEqualTo("TASK_1");
+    ArgumentCaptor<CeTaskSubmit> submit = ArgumentCaptor.forClass(CeTaskSubmit.class);
+    verify(queue).submit(submit.capture());
+    assertThat(submit.getValue().getType()).isEqualTo(CeTaskTypes.PERMISSION_TEMPLATE_BULK_APPLY);
+    assertThat(submit.getValue().getComponentUuid()).isNull();
+    assertThat(submit.getValue().getSubmitterLogin()).isEqualTo(userSession.getLogin());
+    BulkApplyPermissionTemplateRequest taskRequest = loadTaskRequest("TASK_1");
+    assertThat(taskRequest.getTemplateUuid()).isEqualTo(template1.getUuid());
+    assertThat(taskRequest.getQuery()).isEqualTo("name");
+    // permissions are applied by Compute Engine
+    assertNoPermissionOnProject(project);
+  }
+
   @Test
   public void fail_if_no_template_parameter() throws Exception {
     loginAsAdmin(db.getDefaultOrganization());
@@ -246,6 +308,12 @@ public class BulkApplyTemplateActionTest extends BasePermissionWsTest<BulkApplyT
     assertThat(selectProjectPermissionUsers(project, UserRole.USER)).isEmpty();
   }
 
+  private BulkApplyPermissionTemplateRequest loadTaskRequest(String taskUuid) {
+    try (CeTaskInputDao.DataStream data = db.getDbClient().ceTaskInputDao().selectData(db.getSession(), taskUuid).get()) {
+      return BulkApplyPermissionTemplateRequest.load(data.getInputStream());
+    }
+  }
+
   private void addUserToTemplate(UserDto user, PermissionTemplateDto permissionTemplate, String permission) {
     db.getDbClient().permissionTemplateDao().insertUserPermission(db.getSession(), permissionTemplate.getId(), user.getId(), permission);
     db.commit();
@@ -0,0 +1,55 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.Test;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProcessMetricsMonitorTest {
+
+  private ProcessMetricsReader reader = mock(ProcessMetricsReader.class);
+  private ProcessMetricsMonitor underTest = new ProcessMetricsMonitor(reader);
+
+  @Test
+  public void name_is_not_empty() {
+    assertThat(underTest.name()).isNotEmpty();
+  }
+
+  @Test
+  public void attributes_are_prefixed_by_process_key() {
+    Map<ProcessId, Map<ProcessMetric, Long>> metrics = new EnumMap<>(ProcessId.class);
+    metrics.put(ProcessId.ELASTICSEARCH, ImmutableMap.of(ProcessMetric.ES_BULK_REJECTIONS, 5L));
+    metrics.put(ProcessId.WEB_SERVER, ImmutableMap.of(ProcessMetric.HTTP_ACTIVE_REQUESTS, 3L));
+    when(reader.read()).thenReturn(metrics);
+
+    assertThat(underTest.attributes()).containsExactly(
+      entry("es.es_bulk_rejected_total", 5L),
+      entry("web.http_active_requests", 3L));
+  }
+}
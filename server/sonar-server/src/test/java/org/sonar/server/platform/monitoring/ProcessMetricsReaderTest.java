@@ -0,0 +1,66 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.io.File;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.config.MapSettings;
+import org.sonar.process.DefaultProcessCommands;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+public class ProcessMetricsReaderTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private MapSettings settings = new MapSettings();
+  private ProcessMetricsReader underTest = new ProcessMetricsReader(settings);
+
+  @Test
+  public void read_nothing_if_shared_path_is_not_set() {
+    assertThat(underTest.read()).isEmpty();
+  }
+
+  @Test
+  public void read_metrics_published_by_processes() throws Exception {
+    File sharedDir = temp.newFolder();
+    settings.setProperty(PROPERTY_SHARED_PATH, sharedDir.getAbsolutePath());
+    try (DefaultProcessCommands web = DefaultProcessCommands.main(sharedDir, ProcessId.WEB_SERVER.getIpcIndex());
+      DefaultProcessCommands ce = DefaultProcessCommands.main(sharedDir, ProcessId.COMPUTE_ENGINE.getIpcIndex())) {
+      web.setMetric(ProcessMetric.HTTP_ACTIVE_REQUESTS, 3L);
+      ce.setMetric(ProcessMetric.CE_WORKERS, 2L);
+      ce.setMetric(ProcessMetric.JVM_THREADS, 40L);
+    }
+
+    Map<ProcessId, Map<ProcessMetric, Long>> metrics = underTest.read();
+
+    assertThat(metrics).containsOnlyKeys(ProcessId.WEB_SERVER, ProcessId.COMPUTE_ENGINE);
+    assertThat(metrics.get(ProcessId.WEB_SERVER)).containsOnly(entry(ProcessMetric.HTTP_ACTIVE_REQUESTS, 3L));
+    assertThat(metrics.get(ProcessId.COMPUTE_ENGINE)).containsOnly(entry(ProcessMetric.CE_WORKERS, 2L), entry(ProcessMetric.JVM_THREADS, 40L));
+  }
+}
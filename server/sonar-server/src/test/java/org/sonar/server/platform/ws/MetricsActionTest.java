@@ -0,0 +1,98 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.ws;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.platform.monitoring.ProcessMetricsReader;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.ws.TestResponse;
+import org.sonar.server.ws.WsActionTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsActionTest {
+
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private ProcessMetricsReader reader = mock(ProcessMetricsReader.class);
+  private WsActionTester actionTester = new WsActionTester(new MetricsAction(userSession, reader));
+
+  @Test
+  public void test_definition() {
+    assertThat(actionTester.getDef().key()).isEqualTo("metrics");
+    assertThat(actionTester.getDef().isInternal()).isTrue();
+    assertThat(actionTester.getDef().since()).isEqualTo("6.5");
+    assertThat(actionTester.getDef().params()).isEmpty();
+    assertThat(actionTester.getDef().responseExampleAsString()).isNotEmpty();
+  }
+
+  @Test
+  public void request_fails_with_ForbiddenException_when_user_is_not_system_administrator() {
+    userSession.logIn();
+
+    expectedException.expect(ForbiddenException.class);
+
+    actionTester.newRequest().execute();
+  }
+
+  @Test
+  public void export_metrics_in_prometheus_text_format() {
+    userSession.logIn().setSystemAdministrator();
+    Map<ProcessId, Map<ProcessMetric, Long>> metrics = new EnumMap<>(ProcessId.class);
+    metrics.put(ProcessId.WEB_SERVER, ImmutableMap.of(ProcessMetric.JVM_HEAP_USED, 100L, ProcessMetric.HTTP_ACTIVE_REQUESTS, 3L));
+    metrics.put(ProcessId.COMPUTE_ENGINE, ImmutableMap.of(ProcessMetric.JVM_HEAP_USED, 50L));
+    when(reader.read()).thenReturn(metrics);
+
+    TestResponse response = actionTester.newRequest().execute();
+
+    assertThat(response.getMediaType()).isEqualTo(MetricsAction.MEDIA_TYPE);
+    assertThat(response.getInput()).isEqualTo(
+      "# HELP sonarqube_jvm_heap_used_bytes Used heap memory\n" +
+        "# TYPE sonarqube_jvm_heap_used_bytes gauge\n" +
+        "sonarqube_jvm_heap_used_bytes{process=\"web\"} 100\n" +
+        "sonarqube_jvm_heap_used_bytes{process=\"ce\"} 50\n" +
+        "# HELP sonarqube_http_active_requests Number of HTTP requests being processed\n" +
+        "# TYPE sonarqube_http_active_requests gauge\n" +
+        "sonarqube_http_active_requests{process=\"web\"} 3\n");
+  }
+
+  @Test
+  public void export_nothing_if_no_metrics_are_published() {
+    userSession.logIn().setSystemAdministrator();
+    when(reader.read()).thenReturn(new EnumMap<>(ProcessId.class));
+
+    TestResponse response = actionTester.newRequest().execute();
+
+    assertThat(response.getInput()).isEmpty();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.plugins;
+
+import java.io.File;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExplodedPluginCacheTest {
+
+  private static final Predicate<ZipEntry> LIB_FILTER = ze -> ze.getName().startsWith("META-INF/lib");
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File cacheDir;
+  private ExplodedPluginCache underTest;
+  private File jar = TestProjectUtils.jarOf("test-libs-plugin");
+
+  @Before
+  public void setUp() throws Exception {
+    cacheDir = temp.newFolder();
+    underTest = new ExplodedPluginCache(cacheDir);
+  }
+
+  @Test
+  public void unzip_jar_in_directory_named_after_checksum() throws Exception {
+    File dir = underTest.explode("testlibs", jar, LIB_FILTER);
+
+    assertThat(dir).isDirectory().hasName(ExplodedPluginCache.checksum(jar));
+    assertThat(dir.getParentFile()).isEqualTo(new File(cacheDir, "testlibs"));
+    assertThat(new File(dir, jar.getName())).hasContentEqualTo(jar);
+    assertThat(new File(dir, "META-INF/lib")).isDirectory();
+    assertThat(new File(dir, ExplodedPluginCache.MANIFEST_FILENAME)).isFile();
+  }
+
+  @Test
+  public void reuse_valid_directory() throws Exception {
+    File dir1 = underTest.explode("testlibs", jar, LIB_FILTER);
+    File marker = new File(dir1, "marker");
+    FileUtils.touch(marker);
+
+    File dir2 = new ExplodedPluginCache(cacheDir).explode("testlibs", jar, LIB_FILTER);
+
+    assertThat(dir2).isEqualTo(dir1);
+    assertThat(marker).exists();
+  }
+
+  @Test
+  public void unzip_again_if_a_file_is_missing() throws Exception {
+    File dir = underTest.explode("testlibs", jar, LIB_FILTER);
+    File lib = new File(dir, "META-INF/lib/commons-daemon-1.0.15.jar");
+    assertThat(lib.delete()).isTrue();
+
+    underTest.explode("testlibs", jar, LIB_FILTER);
+
+    assertThat(lib).isFile();
+  }
+
+  @Test
+  public void unzip_again_if_a_file_is_truncated() throws Exception {
+    File dir = underTest.explode("testlibs", jar, LIB_FILTER);
+    File lib = new File(dir, "META-INF/lib/commons-daemon-1.0.15.jar");
+    long size = lib.length();
+    FileUtils.write(lib, "truncated");
+
+    underTest.explode("testlibs", jar, LIB_FILTER);
+
+    assertThat(lib.length()).isEqualTo(size);
+  }
+
+  @Test
+  public void unzip_again_if_manifest_is_missing() throws Exception {
+    File dir = underTest.explode("testlibs", jar, LIB_FILTER);
+    File marker = new File(dir, "marker");
+    FileUtils.touch(marker);
+    assertThat(new File(dir, ExplodedPluginCache.MANIFEST_FILENAME).delete()).isTrue();
+
+    underTest.explode("testlibs", jar, LIB_FILTER);
+
+    assertThat(marker).doesNotExist();
+    assertThat(new File(dir, ExplodedPluginCache.MANIFEST_FILENAME)).isFile();
+  }
+
+  @Test
+  public void drop_previous_versions_of_plugin() throws Exception {
+    File obsolete = new File(cacheDir, "testlibs/0123456789");
+    FileUtils.forceMkdir(obsolete);
+
+    File dir = underTest.explode("testlibs", jar, LIB_FILTER);
+
+    assertThat(obsolete).doesNotExist();
+    assertThat(dir).isDirectory();
+  }
+}
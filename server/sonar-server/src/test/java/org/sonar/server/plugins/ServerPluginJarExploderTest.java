@@ -20,6 +20,7 @@
 package org.sonar.server.plugins;
 
 import java.io.File;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -38,26 +39,62 @@ public class ServerPluginJarExploderTest {
 
   ServerFileSystem fs = mock(ServerFileSystem.class);
   ServerPluginJarExploder underTest = new ServerPluginJarExploder(fs);
+  File deployDir;
+  File explodedDir;
+
+  @Before
+  public void setUp() throws Exception {
+    deployDir = temp.newFolder();
+    explodedDir = temp.newFolder();
+    when(fs.getDeployedPluginsDir()).thenReturn(deployDir);
+    when(fs.getExplodedPluginsDir()).thenReturn(explodedDir);
+  }
 
   @Test
   public void copy_all_classloader_files_to_dedicated_directory() throws Exception {
-    File deployDir = temp.newFolder();
-    when(fs.getDeployedPluginsDir()).thenReturn(deployDir);
     File jar = TestProjectUtils.jarOf("test-libs-plugin");
     PluginInfo info = PluginInfo.create(jar);
 
     ExplodedPlugin exploded = underTest.explode(info);
 
-    // all the files loaded by classloaders (JAR + META-INF/libs/*.jar) are copied to the dedicated directory
-    // web/deploy/{pluginKey}
-    File pluginDeployDir = new File(deployDir, "testlibs");
+    // all the files loaded by classloaders (JAR + META-INF/libs/*.jar) are copied to the directory
+    // shared with compute engine
+    File pluginExplodedDir = new File(explodedDir, "testlibs");
 
     assertThat(exploded.getKey()).isEqualTo("testlibs");
-    assertThat(exploded.getMain()).isFile().exists().hasParent(pluginDeployDir);
+    assertThat(exploded.getMain()).isFile().exists();
+    assertThat(exploded.getMain().getCanonicalPath()).startsWith(pluginExplodedDir.getCanonicalPath());
     assertThat(exploded.getLibs()).extracting("name").containsOnly("commons-daemon-1.0.15.jar", "commons-email-20030310.165926.jar");
     for (File lib : exploded.getLibs()) {
       assertThat(lib).exists().isFile();
-      assertThat(lib.getCanonicalPath()).startsWith(pluginDeployDir.getCanonicalPath());
+      assertThat(lib.getCanonicalPath()).startsWith(pluginExplodedDir.getCanonicalPath());
     }
   }
+
+  @Test
+  public void deploy_jar_for_scanners() throws Exception {
+    File jar = TestProjectUtils.jarOf("test-libs-plugin");
+    PluginInfo info = PluginInfo.create(jar);
+
+    underTest.explode(info);
+
+    // scanners download web/deploy/plugins/{pluginKey}/{jar}
+    File pluginDeployDir = new File(deployDir, "testlibs");
+    assertThat(pluginDeployDir.list()).containsOnly(jar.getName());
+    assertThat(new File(pluginDeployDir, jar.getName())).hasContentEqualTo(jar);
+  }
+
+  @Test
+  public void explode_is_reentrant() throws Exception {
+    File jar = TestProjectUtils.jarOf("test-libs-plugin");
+    PluginInfo info = PluginInfo.create(jar);
+
+    ExplodedPlugin exploded1 = underTest.explode(info);
+    long lastModified = exploded1.getMain().lastModified();
+    ExplodedPlugin exploded2 = underTest.explode(info);
+
+    assertThat(exploded2.getMain()).isEqualTo(exploded1.getMain());
+    assertThat(exploded2.getLibs()).containsOnlyElementsOf(exploded1.getLibs());
+    assertThat(exploded2.getMain().lastModified()).isEqualTo(lastModified);
+  }
 }
@@ -49,6 +49,7 @@ import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.exceptions.UnauthorizedException;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.BillingValidations;
 import org.sonar.server.organization.BillingValidationsProxy;
 import org.sonar.server.permission.index.PermissionIndexer;
@@ -90,9 +91,10 @@ public class UpdateVisibilityActionTest {
   private DbSession dbSession = dbTester.getSession();
   private PermissionIndexer permissionIndexer = mock(PermissionIndexer.class);
   private BillingValidationsProxy billingValidations = mock(BillingValidationsProxy.class);
+  private IssueReferenceCache issueReferenceCache = mock(IssueReferenceCache.class);
 
   private UpdateVisibilityAction underTest = new UpdateVisibilityAction(dbClient, TestComponentFinder.from(dbTester), userSessionRule, permissionIndexer,
-    new ProjectsWsSupport(dbClient, billingValidations));
+    new ProjectsWsSupport(dbClient, billingValidations), issueReferenceCache);
   private WsActionTester actionTester = new WsActionTester(underTest);
 
   private final Random random = new Random();
@@ -447,6 +449,19 @@ public class UpdateVisibilityActionTest {
     verify(permissionIndexer).indexProjectsByUuids(any(DbSession.class), eq(Collections.singletonList(project.uuid())));
   }
 
+  @Test
+  public void execute_invalidates_issue_reference_cache_of_specified_project_when_changing_visibility() {
+    ComponentDto project = randomPublicOrPrivateProject();
+    boolean initiallyPrivate = project.isPrivate();
+    userSessionRule.addProjectPermission(UserRole.ADMIN, project);
+
+    request.setParam(PARAM_PROJECT, project.key())
+      .setParam(PARAM_VISIBILITY, initiallyPrivate ? PUBLIC : PRIVATE)
+      .execute();
+
+    verify(issueReferenceCache).invalidateProject(project.uuid());
+  }
+
   @Test
   public void execute_does_not_update_permission_of_specified_project_in_indexes_if_already_has_specified_visibility() {
     ComponentDto project = randomPublicOrPrivateProject();
@@ -457,7 +472,7 @@ public class UpdateVisibilityActionTest {
       .setParam(PARAM_VISIBILITY, initiallyPrivate ? PRIVATE : PUBLIC)
       .execute();
 
-    verifyZeroInteractions(permissionIndexer);
+    verifyZeroInteractions(permissionIndexer, issueReferenceCache);
   }
 
   @Test
@@ -45,6 +45,7 @@ import org.sonar.db.rule.RuleParamDto;
 import org.sonar.db.rule.RuleRepositoryDto;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.es.SearchOptions;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.OrganizationFlags;
 import org.sonar.server.organization.TestOrganizationFlags;
 import org.sonar.server.qualityprofile.RuleActivator;
@@ -87,6 +88,7 @@ public class RegisterRulesTest {
 
   private RuleActivator ruleActivator = mock(RuleActivator.class);
   private WebServerRuleFinder webServerRuleFinder = mock(WebServerRuleFinder.class);
+  private IssueReferenceCache issueReferenceCache = mock(IssueReferenceCache.class);
   private DbClient dbClient = dbTester.getDbClient();
   private RuleIndexer ruleIndexer;
   private ActiveRuleIndexer activeRuleIndexer;
@@ -244,6 +246,10 @@ public class RegisterRulesTest {
     // verify index
     assertThat(ruleIndex.search(new RuleQuery(), new SearchOptions()).getIds()).containsOnly(RULE_KEY1, RULE_KEY3);
 
+    // verify issue reference cache
+    verify(issueReferenceCache).invalidateRule(RULE_KEY1);
+    verify(issueReferenceCache).invalidateRule(RULE_KEY2);
+
     // verify repositories
     assertThat(dbClient.ruleRepositoryDao().selectAll(dbTester.getSession())).extracting(RuleRepositoryDto::getKey).containsOnly("fake");
   }
@@ -485,9 +491,10 @@ public class RegisterRulesTest {
     RuleDefinitionsLoader loader = new RuleDefinitionsLoader(mock(DeprecatedRulesDefinitionLoader.class), mock(CommonRuleDefinitionsImpl.class), defs);
     Languages languages = mock(Languages.class);
     when(languages.get("java")).thenReturn(mock(Language.class));
-    reset(webServerRuleFinder);
+    reset(webServerRuleFinder, issueReferenceCache);
 
-    RegisterRules task = new RegisterRules(loader, ruleActivator, dbClient, ruleIndexer, activeRuleIndexer, languages, system, organizationFlags, webServerRuleFinder);
+    RegisterRules task = new RegisterRules(loader, ruleActivator, dbClient, ruleIndexer, activeRuleIndexer, languages, system, organizationFlags, webServerRuleFinder,
+      issueReferenceCache);
     task.start();
     // Execute a commit to refresh session state as the task is using its own session
     dbTester.getSession().commit();
@@ -49,6 +49,7 @@ import org.sonar.db.rule.RuleParamDto;
 import org.sonar.db.rule.RuleTesting;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.es.SearchOptions;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
 import org.sonar.server.qualityprofile.QProfileTesting;
 import org.sonar.server.rule.index.RuleIndex;
@@ -84,7 +85,7 @@ public class RuleUpdaterTest {
   private DbSession dbSession = db.getSession();
   private TestDefaultOrganizationProvider defaultOrganizationProvider = TestDefaultOrganizationProvider.from(db);
 
-  private RuleUpdater underTest = new RuleUpdater(db.getDbClient(), ruleIndexer, system2);
+  private RuleUpdater underTest = new RuleUpdater(db.getDbClient(), ruleIndexer, system2, mock(IssueReferenceCache.class));
 
   @Test
   public void do_not_update_rule_with_removed_status() {
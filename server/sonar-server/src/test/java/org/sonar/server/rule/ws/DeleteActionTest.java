@@ -30,6 +30,7 @@ import org.sonar.db.DbTester;
 import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.UnauthorizedException;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
 import org.sonar.server.qualityprofile.RuleActivator;
@@ -58,7 +59,8 @@ public class DeleteActionTest {
   private RuleActivator ruleActivator = mock(RuleActivator.class);
   private DefaultOrganizationProvider defaultOrganizationProvider = TestDefaultOrganizationProvider.fromUuid("ORG1");
   private RuleWsSupport ruleWsSupport = new RuleWsSupport(mock(DbClient.class), userSession, defaultOrganizationProvider);
-  private DeleteAction underTest = new DeleteAction(System2.INSTANCE, ruleIndexer, dbClient, ruleActivator, ruleWsSupport);
+  private IssueReferenceCache issueReferenceCache = mock(IssueReferenceCache.class);
+  private DeleteAction underTest = new DeleteAction(System2.INSTANCE, ruleIndexer, dbClient, ruleActivator, ruleWsSupport, issueReferenceCache);
   private WsActionTester tester = new WsActionTester(underTest);
 
   @Test
@@ -81,6 +83,7 @@ public class DeleteActionTest {
 
     Mockito.verify(ruleIndexer).indexRuleDefinition(eq(customRule.getKey()));
     Mockito.verifyNoMoreInteractions(ruleIndexer);
+    Mockito.verify(issueReferenceCache).invalidateRule(customRule.getKey());
 
     // Verify custom rule has status REMOVED
     RuleDefinitionDto customRuleReloaded = dbClient.ruleDao().selectOrFailDefinitionByKey(dbSession, customRule.getKey());
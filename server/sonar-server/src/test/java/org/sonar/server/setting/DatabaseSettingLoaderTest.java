@@ -22,12 +22,21 @@ package org.sonar.server.setting;
 import com.google.common.collect.ImmutableMap;
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.measures.MetricFinder;
 import org.sonar.api.utils.System2;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.property.PropertyDto;
+import org.sonar.db.qualitygate.QualityGateDto;
+import org.sonar.server.qualitygate.QualityGates;
+import org.sonar.server.tester.UserSessionRule;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.MapEntry.entry;
+import static org.mockito.Mockito.mock;
+import static org.sonar.db.property.PropertiesDao.GLOBAL_PROPERTIES_VERSION;
+import static org.sonar.server.qualitygate.QualityGates.SONAR_QUALITYGATE_PROPERTY;
 
 public class DatabaseSettingLoaderTest {
 
@@ -35,8 +44,12 @@ public class DatabaseSettingLoaderTest {
 
   @Rule
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
 
-  private DatabaseSettingLoader underTest = new DatabaseSettingLoader(dbTester.getDbClient());
+  private TestSystem2 system2 = new TestSystem2().setNow(1_000_000L);
+  private GlobalSettingsVersion settingsVersion = new GlobalSettingsVersion(dbTester.getDbClient());
+  private DatabaseSettingLoader underTest = new DatabaseSettingLoader(dbTester.getDbClient(), settingsVersion, system2);
 
   @Test
   public void test_load() {
@@ -74,6 +87,77 @@ public class DatabaseSettingLoaderTest {
   assertThat(map.build()).containsOnly(entry("foo", "1"), entry("bar", "2"));
  }
 
+  @Test
+  public void changes_are_not_loaded_if_version_is_not_bumped() {
+    insertPropertyIntoDb(A_KEY, "foo");
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+
+    updatePropertyWithoutDao(A_KEY, "bar");
+    system2.setNow(system2.now() + DatabaseSettingLoader.VERSION_CHECK_INTERVAL_MS);
+
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+  }
+
+  @Test
+  public void local_changes_are_loaded_immediately() {
+    insertPropertyIntoDb(A_KEY, "foo");
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+
+    insertPropertyIntoDb(A_KEY, "bar");
+
+    assertThat(underTest.load(A_KEY)).isEqualTo("bar");
+  }
+
+  @Test
+  public void change_of_default_quality_gate_is_loaded_immediately() {
+    userSession.logIn().setSystemAdministrator();
+    QualityGates qualityGates = new QualityGates(dbTester.getDbClient(), mock(MetricFinder.class), userSession);
+    QualityGateDto gate1 = dbTester.qualityGates().insertQualityGate();
+    QualityGateDto gate2 = dbTester.qualityGates().insertQualityGate();
+    qualityGates.setDefault(gate1.getId());
+    assertThat(underTest.load(SONAR_QUALITYGATE_PROPERTY)).isEqualTo(gate1.getId().toString());
+
+    qualityGates.setDefault(gate2.getId());
+    assertThat(underTest.load(SONAR_QUALITYGATE_PROPERTY)).isEqualTo(gate2.getId().toString());
+
+    qualityGates.delete(gate2.getId());
+    assertThat(underTest.load(SONAR_QUALITYGATE_PROPERTY)).isNull();
+  }
+
+  @Test
+  public void changes_of_other_nodes_are_loaded_when_version_is_checked() {
+    insertPropertyIntoDb(A_KEY, "foo");
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+
+    updatePropertyWithoutDao(A_KEY, "bar");
+    changeVersionAsOtherNode();
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+
+    system2.setNow(system2.now() + DatabaseSettingLoader.VERSION_CHECK_INTERVAL_MS);
+    assertThat(underTest.load(A_KEY)).isEqualTo("bar");
+  }
+
+  @Test
+  public void loadAll_uses_the_snapshot() {
+    insertPropertyIntoDb("foo", "1");
+    assertThat(underTest.load("foo")).isEqualTo("1");
+    dbTester.executeInsert("properties", "prop_key", "bar", "text_value", "2", "is_empty", false, "created_at", 1_000L);
+
+    ImmutableMap.Builder<String, String> map = ImmutableMap.builder();
+    underTest.loadAll(map);
+    assertThat(map.build()).containsOnly(entry("foo", "1"));
+  }
+
+  private void changeVersionAsOtherNode() {
+    DbSession dbSession = dbTester.getSession();
+    dbTester.getDbClient().internalPropertiesDao().save(dbSession, GLOBAL_PROPERTIES_VERSION, "changed by other node");
+    dbSession.commit();
+  }
+
+  private void updatePropertyWithoutDao(String key, String value) {
+    dbTester.executeUpdateSql("update properties set text_value=? where prop_key=?", value, key);
+  }
+
   private void insertPropertyIntoDb(String key, String value) {
     dbTester.getDbClient().propertiesDao().saveProperty(new PropertyDto().setKey(key).setValue(value));
   }
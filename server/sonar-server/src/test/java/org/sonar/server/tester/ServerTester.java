@@ -43,6 +43,7 @@ import org.sonar.core.platform.ComponentContainer;
 import org.sonar.process.ProcessEntryPoint;
 import org.sonar.process.ProcessProperties;
 import org.sonar.server.es.EsServerHolder;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.platform.BackendCleanup;
 import org.sonar.server.platform.Platform;
 import org.sonar.server.platform.ServerTesterPlatform;
@@ -264,6 +265,11 @@ public class ServerTester extends ExternalResource {
   public void clearDbAndIndexes() {
     checkStarted();
     get(BackendCleanup.class).clearAll();
+    // reference data are cached by web server
+    IssueReferenceCache issueReferenceCache = get(IssueReferenceCache.class);
+    if (issueReferenceCache != null) {
+      issueReferenceCache.invalidateAll();
+    }
   }
 
   public void clearIndexes() {
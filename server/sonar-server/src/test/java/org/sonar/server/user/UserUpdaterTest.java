@@ -41,6 +41,7 @@ import org.sonar.db.user.UserDto;
 import org.sonar.db.user.UserTesting;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.exceptions.BadRequestException;
+import org.sonar.server.issue.IssueReferenceCache;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.organization.OrganizationCreation;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
@@ -90,8 +91,9 @@ public class UserUpdaterTest {
   private OrganizationCreation organizationCreation = mock(OrganizationCreation.class);
   private DefaultOrganizationProvider defaultOrganizationProvider = TestDefaultOrganizationProvider.from(db);
   private TestOrganizationFlags organizationFlags = TestOrganizationFlags.standalone();
+  private IssueReferenceCache issueReferenceCache = mock(IssueReferenceCache.class);
   private UserUpdater underTest = new UserUpdater(newUserNotifier, dbClient, userIndexer, system2, organizationFlags, defaultOrganizationProvider, organizationCreation,
-    new DefaultGroupFinder(dbClient));
+    new DefaultGroupFinder(dbClient), issueReferenceCache);
 
   @Before
   public void setUp() {
@@ -721,6 +723,7 @@ public class UserUpdaterTest {
     UserDto updatedUser = dbClient.userDao().selectByLogin(session, DEFAULT_LOGIN);
     assertThat(updatedUser.isActive()).isTrue();
     assertThat(updatedUser.getName()).isEqualTo("Marius2");
+    verify(issueReferenceCache).invalidateUser(DEFAULT_LOGIN);
     assertThat(updatedUser.getEmail()).isEqualTo("marius2@mail.com");
     assertThat(updatedUser.getScmAccountsAsList()).containsOnly("ma2");
 
@@ -0,0 +1,167 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.ws;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.MediaTypes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.sonar.test.JsonAssert.assertJson;
+
+public class ProtobufResponseStreamTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private TestRequest request = new TestRequest();
+  private DumbResponse response = new DumbResponse();
+
+  private Issues.SearchWsResponse header = Issues.SearchWsResponse.newBuilder()
+    .setTotal(2)
+    .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(100).setTotal(2))
+    .addComponents(Issues.Component.newBuilder().setKey("PROJECT"))
+    .build();
+  private Issues.Issue issue1 = Issues.Issue.newBuilder().setKey("I1").setLine(10).build();
+  private Issues.Issue issue2 = Issues.Issue.newBuilder().setKey("I2").build();
+
+  @Test
+  public void stream_protobuf_elements_as_a_single_message() throws Exception {
+    request.setMediaType(MediaTypes.PROTOBUF);
+
+    try (ProtobufResponseStream underTest = ProtobufResponseStream.start(header, "issues", request, response)) {
+      underTest.write(issue1);
+      underTest.write(issue2);
+    }
+
+    assertThat(response.stream().mediaType()).isEqualTo(MediaTypes.PROTOBUF);
+    Issues.SearchWsResponse result = Issues.SearchWsResponse.parseFrom(response.getFlushedOutput());
+    assertThat(result).isEqualTo(header.toBuilder().addIssues(issue1).addIssues(issue2).build());
+  }
+
+  @Test
+  public void stream_json_elements_in_array() throws Exception {
+    try (ProtobufResponseStream underTest = ProtobufResponseStream.start(header, "issues", request, response)) {
+      underTest.write(issue1);
+      underTest.write(issue2);
+    }
+
+    assertThat(response.stream().mediaType()).isEqualTo(MediaTypes.JSON);
+    assertThat(response.outputAsString()).endsWith("\"issues\":[{\"key\":\"I1\",\"line\":10},{\"key\":\"I2\"}]}");
+    assertJson(response.outputAsString()).isSimilarTo(ProtobufJsonFormat.toJson(header.toBuilder().addIssues(issue1).addIssues(issue2).build()));
+  }
+
+  @Test
+  public void stream_empty_json_array() throws Exception {
+    try (ProtobufResponseStream underTest = ProtobufResponseStream.start(header, "issues", request, response)) {
+      // no elements
+    }
+
+    assertJson(response.outputAsString()).isSimilarTo(ProtobufJsonFormat.toJson(header));
+  }
+
+  @Test
+  public void write_response_with_elements() throws Exception {
+    request.setMediaType(MediaTypes.PROTOBUF);
+
+    ProtobufResponseStream.write(header, "issues", request, response, stream -> {
+      stream.write(issue1);
+      stream.write(issue2);
+    });
+
+    Issues.SearchWsResponse result = Issues.SearchWsResponse.parseFrom(response.getFlushedOutput());
+    assertThat(result).isEqualTo(header.toBuilder().addIssues(issue1).addIssues(issue2).build());
+  }
+
+  @Test
+  public void protobuf_response_can_not_be_parsed_if_writing_of_elements_fails() throws Exception {
+    request.setMediaType(MediaTypes.PROTOBUF);
+
+    try {
+      ProtobufResponseStream.write(header, "issues", request, response, stream -> {
+        stream.write(issue1);
+        throw new IllegalStateException("Fail to load issues");
+      });
+      fail("An IllegalStateException should have been raised");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Fail to load issues");
+    }
+
+    expectedException.expect(InvalidProtocolBufferException.class);
+    Issues.SearchWsResponse.parseFrom(response.getFlushedOutput());
+  }
+
+  @Test
+  public void json_response_is_not_completed_if_writing_of_elements_fails() {
+    try {
+      ProtobufResponseStream.write(header, "issues", request, response, stream -> {
+        stream.write(issue1);
+        throw new IllegalStateException("Fail to load issues");
+      });
+      fail("An IllegalStateException should have been raised");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Fail to load issues");
+    }
+
+    assertThat(response.outputAsString()).endsWith("\"issues\":[{\"key\":\"I1\",\"line\":10}");
+  }
+
+  @Test
+  public void footer_is_not_written_if_stream_is_aborted() {
+    try (ProtobufResponseStream underTest = ProtobufResponseStream.start(header, "issues", request, response)) {
+      underTest.write(issue1);
+      underTest.abort();
+    }
+
+    assertThat(response.outputAsString()).endsWith("\"issues\":[{\"key\":\"I1\",\"line\":10}");
+  }
+
+  @Test
+  public void fail_if_field_is_not_a_repeated_message() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Field 'total' is not a repeated message field of sonarqube.ws.issues.SearchWsResponse");
+
+    ProtobufResponseStream.start(header, "total", request, response);
+  }
+
+  @Test
+  public void fail_if_header_already_contains_elements() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Header must not contain elements of field 'components'");
+
+    ProtobufResponseStream.start(header, "components", request, response);
+  }
+
+  @Test
+  public void fail_if_element_has_not_the_type_of_field() {
+    ProtobufResponseStream underTest = ProtobufResponseStream.start(header, "issues", request, response);
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Expected element of type sonarqube.ws.issues.Issue but got sonarqube.ws.issues.Component");
+
+    underTest.write(Issues.Component.newBuilder().setKey("FILE").build());
+  }
+}
@@ -29,6 +29,9 @@ import org.sonar.application.process.JavaProcessLauncher;
 import org.sonar.application.process.JavaProcessLauncherImpl;
 import org.sonar.application.process.StopRequestWatcher;
 import org.sonar.application.process.StopRequestWatcherImpl;
+import org.sonar.process.DefaultProcessCommands;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetricsPublisher;
 import org.sonar.process.SystemExit;
 
 import static org.sonar.application.config.SonarQubeVersionHelper.getSonarqubeVersion;
@@ -52,7 +55,10 @@ public class App {
       JavaCommandFactory javaCommandFactory = new JavaCommandFactoryImpl(settings);
       fileSystem.reset();
 
-      try (JavaProcessLauncher javaProcessLauncher = new JavaProcessLauncherImpl(fileSystem.getTempDir())) {
+      try (JavaProcessLauncher javaProcessLauncher = new JavaProcessLauncherImpl(fileSystem.getTempDir());
+        DefaultProcessCommands appCommands = DefaultProcessCommands.secondary(fileSystem.getTempDir(), ProcessId.APP.getIpcIndex());
+        ProcessMetricsPublisher metricsPublisher = new ProcessMetricsPublisher(appCommands).registerJvmMetrics()) {
+        metricsPublisher.start(ProcessMetricsPublisher.DEFAULT_PERIOD_MS);
         Scheduler scheduler = new SchedulerImpl(settings, appReloader, javaCommandFactory, javaProcessLauncher, appState);
 
         // intercepts CTRL-C
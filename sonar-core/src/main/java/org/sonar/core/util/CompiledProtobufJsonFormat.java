@@ -0,0 +1,561 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.util;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.MapEntry;
+import com.google.protobuf.Message;
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.text.JsonWriter;
+
+/**
+ * Converts a Protocol Buffers message to JSON, with exactly the same output as {@link ProtobufJsonFormat}.
+ * <p>
+ * A writer is compiled once per message class. It calls the accessors generated by protoc through
+ * method handles of exact primitive types, so that serialization neither goes through the reflective
+ * {@link Message#getField(Descriptors.FieldDescriptor)} nor boxes primitive values. Map fields are still
+ * read through {@link Message#getField(Descriptors.FieldDescriptor)}. Message types which can't be
+ * compiled, for example because of unsupported field types, are written by {@link ProtobufJsonFormat}.
+ * </p>
+ *
+ * @since 6.5
+ */
+public class CompiledProtobufJsonFormat {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+  private static final ClassValue<MessageWriter> WRITERS = new ClassValue<MessageWriter>() {
+    @Override
+    protected MessageWriter computeValue(Class<?> type) {
+      return MessageWriter.compile(type.asSubclass(Message.class));
+    }
+  };
+
+  private CompiledProtobufJsonFormat() {
+    // only statics
+  }
+
+  public static void write(Message message, JsonWriter writer) {
+    writer.setSerializeNulls(false).setSerializeEmptys(true);
+    writer.beginObject();
+    writeMessage(message, writer);
+    writer.endObject();
+  }
+
+  public static String toJson(Message message) {
+    StringWriter json = new StringWriter();
+    try (JsonWriter jsonWriter = JsonWriter.of(json)) {
+      write(message, jsonWriter);
+    }
+    return json.toString();
+  }
+
+  /**
+   * Writes the fields of {@code message}, except {@code excludedFieldName}, into the current
+   * JSON object. It allows to write the excluded field afterwards, for example to stream its values.
+   */
+  public static void writeFields(Message message, String excludedFieldName, JsonWriter writer) {
+    writeMessage(message, excludedFieldName, writer);
+  }
+
+  /**
+   * Writes {@code message} as a value, for example as an element of an array.
+   */
+  public static void writeValue(Message message, JsonWriter writer) {
+    writeMessageValue(message, writer);
+  }
+
+  private static void writeMessage(Message message, JsonWriter writer) {
+    writeMessage(message, null, writer);
+  }
+
+  private static void writeMessage(Message message, @Nullable String excludedFieldName, JsonWriter writer) {
+    MessageWriter messageWriter = WRITERS.get(message.getClass());
+    if (messageWriter.fields == null) {
+      ProtobufJsonFormat.writeMessage(message, excludedFieldName, writer);
+      return;
+    }
+    try {
+      for (FieldWriter field : messageWriter.fields) {
+        if (!field.name.equals(excludedFieldName) && field.isPresent(message)) {
+          writer.name(field.name);
+          field.writeValue(message, writer);
+        }
+      }
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Fail to write message " + message.getClass().getName(), t);
+    }
+  }
+
+  private static void writeMessageValue(Message message, JsonWriter writer) {
+    MessageWriter messageWriter = WRITERS.get(message.getClass());
+    if (messageWriter.fields == null) {
+      ProtobufJsonFormat.writeMessageValue(message, writer);
+    } else if (messageWriter.doesWrapRepeated) {
+      try {
+        messageWriter.fields[0].writeValue(message, writer);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalStateException("Fail to write message " + message.getClass().getName(), t);
+      }
+    } else {
+      writer.beginObject();
+      writeMessage(message, writer);
+      writer.endObject();
+    }
+  }
+
+  private static void writeObjectValue(Descriptors.FieldDescriptor.JavaType type, Object value, JsonWriter writer) {
+    switch (type) {
+      case INT:
+      case LONG:
+      case DOUBLE:
+        writer.value((Number) value);
+        break;
+      case BOOLEAN:
+        writer.value((boolean) (Boolean) value);
+        break;
+      case STRING:
+        writer.value((String) value);
+        break;
+      case ENUM:
+        writer.value(value instanceof Descriptors.EnumValueDescriptor ? ((Descriptors.EnumValueDescriptor) value).getName() : ((Enum) value).name());
+        break;
+      case MESSAGE:
+        writeMessageValue((Message) value, writer);
+        break;
+      default:
+        throw new IllegalStateException(String.format("JSON format does not support type '%s'", type));
+    }
+  }
+
+  /**
+   * Same conversion of field names to accessor names as protoc
+   */
+  static String toCamelCase(String fieldName) {
+    StringBuilder sb = new StringBuilder(fieldName.length());
+    boolean capitalizeNext = true;
+    for (int i = 0; i < fieldName.length(); i++) {
+      char c = fieldName.charAt(i);
+      if (c == '_') {
+        capitalizeNext = true;
+      } else if (Character.isDigit(c)) {
+        sb.append(c);
+        capitalizeNext = true;
+      } else if (capitalizeNext) {
+        sb.append(Character.toUpperCase(c));
+        capitalizeNext = false;
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static class MessageWriter {
+    /**
+     * {@code null} if the message type is written by {@link ProtobufJsonFormat}
+     */
+    @CheckForNull
+    private final FieldWriter[] fields;
+    private final boolean doesWrapRepeated;
+
+    private MessageWriter(@CheckForNull FieldWriter[] fields, boolean doesWrapRepeated) {
+      this.fields = fields;
+      this.doesWrapRepeated = doesWrapRepeated;
+    }
+
+    static MessageWriter compile(Class<? extends Message> type) {
+      Descriptors.Descriptor descriptor;
+      try {
+        descriptor = ((Message) type.getMethod("getDefaultInstance").invoke(null)).getDescriptorForType();
+      } catch (ReflectiveOperationException e) {
+        return new MessageWriter(null, false);
+      }
+      List<Descriptors.FieldDescriptor> fieldDescriptors = descriptor.getFields();
+      boolean doesWrapRepeated = fieldDescriptors.size() == 1 && fieldDescriptors.get(0).isRepeated()
+        && descriptor.getName().equalsIgnoreCase(fieldDescriptors.get(0).getName());
+      List<FieldWriter> fields = new ArrayList<>(fieldDescriptors.size());
+      try {
+        for (Descriptors.FieldDescriptor fieldDescriptor : fieldDescriptors) {
+          FieldWriter field = compileField(type, fieldDescriptor);
+          if (field == null) {
+            return new MessageWriter(null, doesWrapRepeated);
+          }
+          fields.add(field);
+        }
+      } catch (ReflectiveOperationException e) {
+        // accessors do not follow the naming conventions of protoc
+        return new MessageWriter(null, doesWrapRepeated);
+      }
+      return new MessageWriter(fields.toArray(new FieldWriter[fields.size()]), doesWrapRepeated);
+    }
+
+    /**
+     * @return {@code null} if the field is not supported
+     */
+    @CheckForNull
+    private static FieldWriter compileField(Class<?> type, Descriptors.FieldDescriptor fieldDescriptor) throws ReflectiveOperationException {
+      String name = fieldDescriptor.getName();
+      String camelName = toCamelCase(name);
+      Descriptors.FieldDescriptor.JavaType javaType = fieldDescriptor.getJavaType();
+      if (fieldDescriptor.isMapField()) {
+        return new MapField(fieldDescriptor);
+      }
+      if (fieldDescriptor.isRepeated()) {
+        return compileRepeatedField(type, name, camelName, javaType);
+      }
+      MethodHandle has = findHas(type, camelName);
+      if (has == null && fieldDescriptor.getContainingOneof() != null) {
+        return null;
+      }
+      switch (javaType) {
+        case INT:
+          return new IntField(name, has, getter(type, "get" + camelName, int.class));
+        case LONG:
+          return new LongField(name, has, getter(type, "get" + camelName, long.class));
+        case DOUBLE:
+          return new DoubleField(name, has, getter(type, "get" + camelName, double.class));
+        case BOOLEAN:
+          return new BooleanField(name, has, getter(type, "get" + camelName, boolean.class));
+        case STRING:
+        case ENUM:
+        case MESSAGE:
+          return new ObjectField(name, has, getter(type, "get" + camelName, Object.class), javaType, fieldDescriptor);
+        default:
+          return null;
+      }
+    }
+
+    @CheckForNull
+    private static FieldWriter compileRepeatedField(Class<?> type, String name, String camelName, Descriptors.FieldDescriptor.JavaType javaType)
+      throws ReflectiveOperationException {
+      MethodHandle count = getter(type, "get" + camelName + "Count", int.class);
+      switch (javaType) {
+        case INT:
+          return new RepeatedIntField(name, count, indexedGetter(type, "get" + camelName, int.class));
+        case LONG:
+          return new RepeatedLongField(name, count, indexedGetter(type, "get" + camelName, long.class));
+        case DOUBLE:
+          return new RepeatedDoubleField(name, count, indexedGetter(type, "get" + camelName, double.class));
+        case BOOLEAN:
+        case STRING:
+        case ENUM:
+        case MESSAGE:
+          return new RepeatedObjectField(name, count, indexedGetter(type, "get" + camelName, Object.class), javaType);
+        default:
+          return null;
+      }
+    }
+
+    @CheckForNull
+    private static MethodHandle findHas(Class<?> type, String camelName) throws IllegalAccessException {
+      try {
+        return getter(type, "has" + camelName, boolean.class);
+      } catch (NoSuchMethodException e) {
+        // proto3 scalar field
+        return null;
+      }
+    }
+
+    private static MethodHandle getter(Class<?> type, String methodName, Class<?> returnType) throws NoSuchMethodException, IllegalAccessException {
+      MethodHandle handle = LOOKUP.unreflect(type.getMethod(methodName));
+      return handle.asType(MethodType.methodType(returnType, Message.class));
+    }
+
+    private static MethodHandle indexedGetter(Class<?> type, String methodName, Class<?> returnType) throws NoSuchMethodException, IllegalAccessException {
+      MethodHandle handle = LOOKUP.unreflect(type.getMethod(methodName, int.class));
+      return handle.asType(MethodType.methodType(returnType, Message.class, int.class));
+    }
+  }
+
+  private abstract static class FieldWriter {
+    private final String name;
+
+    FieldWriter(String name) {
+      this.name = name;
+    }
+
+    abstract boolean isPresent(Message message) throws Throwable;
+
+    abstract void writeValue(Message message, JsonWriter writer) throws Throwable;
+  }
+
+  /**
+   * Singular field. When there is no {@code hasXxx()} accessor (proto3 scalar fields), the
+   * field is present if its value is not the default one, as in {@link Message#hasField(Descriptors.FieldDescriptor)}.
+   */
+  private abstract static class SingularField extends FieldWriter {
+    @CheckForNull
+    private final MethodHandle has;
+
+    SingularField(String name, @CheckForNull MethodHandle has) {
+      super(name);
+      this.has = has;
+    }
+
+    @Override
+    boolean isPresent(Message message) throws Throwable {
+      if (has != null) {
+        return (boolean) has.invokeExact(message);
+      }
+      return !isDefault(message);
+    }
+
+    abstract boolean isDefault(Message message) throws Throwable;
+  }
+
+  private static class IntField extends SingularField {
+    private final MethodHandle getter;
+
+    IntField(String name, @CheckForNull MethodHandle has, MethodHandle getter) {
+      super(name, has);
+      this.getter = getter;
+    }
+
+    @Override
+    boolean isDefault(Message message) throws Throwable {
+      return (int) getter.invokeExact(message) == 0;
+    }
+
+    @Override
+    void writeValue(Message message, JsonWriter writer) throws Throwable {
+      writer.value((long) (int) getter.invokeExact(message));
+    }
+  }
+
+  private static class LongField extends SingularField {
+    private final MethodHandle getter;
+
+    LongField(String name, @CheckForNull MethodHandle has, MethodHandle getter) {
+      super(name, has);
+      this.getter = getter;
+    }
+
+    @Override
+    boolean isDefault(Message message) throws Throwable {
+      return (long) getter.invokeExact(message) == 0L;
+    }
+
+    @Override
+    void writeValue(Message message, JsonWriter writer) throws Throwable {
+      writer.value((long) getter.invokeExact(message));
+    }
+  }
+
+  private static class DoubleField extends SingularField {
+    private final MethodHandle getter;
+
+    DoubleField(String name, @CheckForNull MethodHandle has, MethodHandle getter) {
+      super(name, has);
+      this.getter = getter;
+    }
+
+    @Override
+    boolean isDefault(Message message) throws Throwable {
+      // same as Double#equals(), -0.0 is not the default value
+      return Double.doubleToLongBits((double) getter.invokeExact(message)) == 0L;
+    }
+
+    @Override
+    void writeValue(Message message, JsonWriter writer) throws Throwable {
+      writer.value((double) getter.invokeExact(message));
+    }
+  }
+
+  private static class BooleanField extends SingularField {
+    private final MethodHandle getter;
+
+    BooleanField(String name, @CheckForNull MethodHandle has, MethodHandle getter) {
+      super(name, has);
+      this.getter = getter;
+    }
+
+    @Override
+    boolean isDefault(Message message) throws Throwable {
+      return !(boolean) getter.invokeExact(message);
+    }
+
+    @Override
+    void writeValue(Message message, JsonWriter writer) throws Throwable {
+      writer.value((boolean) getter.invokeExact(message));
+    }
+  }
+
+  private static class ObjectField extends SingularField {
+    private static final String UNRECOGNIZED_ENUM = "UNRECOGNIZED";
+
+    private final MethodHandle getter;
+    private final Descriptors.FieldDescriptor.JavaType javaType;
+    private final Descriptors.FieldDescriptor fieldDescriptor;
+
+    ObjectField(String name, @CheckForNull MethodHandle has, MethodHandle getter, Descriptors.FieldDescriptor.JavaType javaType,
+      Descriptors.FieldDescriptor fieldDescriptor) {
+      super(name, has);
+      this.getter = getter;
+      this.javaType = javaType;
+      this.fieldDescriptor = fieldDescriptor;
+    }
+
+    @Override
+    boolean isDefault(Message message) throws Throwable {
+      Object value = getter.invokeExact(message);
+      if (javaType == Descriptors.FieldDescriptor.JavaType.ENUM) {
+        // default value of proto3 enums is the first one
+        return ((Enum) value).ordinal() == 0;
+      }
+      return fieldDescriptor.getDefaultValue().equals(value);
+    }
+
+    @Override
+    void writeValue(Message message, JsonWriter writer) throws Throwable {
+      Object value = getter.invokeExact(message);
+      if (javaType == Descriptors.FieldDescriptor.JavaType.ENUM && UNRECOGNIZED_ENUM.equals(((Enum) value).name())) {
+        // unknown value of proto3 enum, only known by its descriptor
+        value = message.getField(fieldDescriptor);
+      }
+      writeObjectValue(javaType, value, writer);
+    }
+  }
+
+  private abstract static class RepeatedField extends FieldWriter {
+    final MethodHandle count;
+
+    RepeatedField(String name, MethodHandle count) {
+      super(name);
+      this.count = count;
+    }
+
+    @Override
+    boolean isPresent(Message message) {
+      // arrays are always written, even if empty
+      return true;
+    }
+
+    @Override
+    void writeValue(Message message, JsonWriter writer) throws Throwable {
+      writer.beginArray();
+      int size = (int) count.invokeExact(message);
+      for (int i = 0; i < size; i++) {
+        writeItem(message, i, writer);
+      }
+      writer.endArray();
+    }
+
+    abstract void writeItem(Message message, int index, JsonWriter writer) throws Throwable;
+  }
+
+  private static class RepeatedIntField extends RepeatedField {
+    private final MethodHandle getter;
+
+    RepeatedIntField(String name, MethodHandle count, MethodHandle getter) {
+      super(name, count);
+      this.getter = getter;
+    }
+
+    @Override
+    void writeItem(Message message, int index, JsonWriter writer) throws Throwable {
+      writer.value((long) (int) getter.invokeExact(message, index));
+    }
+  }
+
+  private static class RepeatedLongField extends RepeatedField {
+    private final MethodHandle getter;
+
+    RepeatedLongField(String name, MethodHandle count, MethodHandle getter) {
+      super(name, count);
+      this.getter = getter;
+    }
+
+    @Override
+    void writeItem(Message message, int index, JsonWriter writer) throws Throwable {
+      writer.value((long) getter.invokeExact(message, index));
+    }
+  }
+
+  private static class RepeatedDoubleField extends RepeatedField {
+    private final MethodHandle getter;
+
+    RepeatedDoubleField(String name, MethodHandle count, MethodHandle getter) {
+      super(name, count);
+      this.getter = getter;
+    }
+
+    @Override
+    void writeItem(Message message, int index, JsonWriter writer) throws Throwable {
+      writer.value((double) getter.invokeExact(message, index));
+    }
+  }
+
+  private static class RepeatedObjectField extends RepeatedField {
+    private final MethodHandle getter;
+    private final Descriptors.FieldDescriptor.JavaType javaType;
+
+    RepeatedObjectField(String name, MethodHandle count, MethodHandle getter, Descriptors.FieldDescriptor.JavaType javaType) {
+      super(name, count);
+      this.getter = getter;
+      this.javaType = javaType;
+    }
+
+    @Override
+    void writeItem(Message message, int index, JsonWriter writer) throws Throwable {
+      Object value = getter.invokeExact(message, index);
+      writeObjectValue(javaType, value, writer);
+    }
+  }
+
+  private static class MapField extends FieldWriter {
+    private final Descriptors.FieldDescriptor fieldDescriptor;
+    private final Descriptors.FieldDescriptor.JavaType valueType;
+
+    MapField(Descriptors.FieldDescriptor fieldDescriptor) {
+      super(fieldDescriptor.getName());
+      this.fieldDescriptor = fieldDescriptor;
+      this.valueType = fieldDescriptor.getMessageType().findFieldByName("value").getJavaType();
+    }
+
+    @Override
+    boolean isPresent(Message message) {
+      return true;
+    }
+
+    @Override
+    void writeValue(Message message, JsonWriter writer) {
+      writer.beginObject();
+      for (MapEntry mapEntry : (Collection<MapEntry>) message.getField(fieldDescriptor)) {
+        // Key fields are always double-quoted in json
+        writer.name(mapEntry.getKey().toString());
+        writeObjectValue(valueType, mapEntry.getValue(), writer);
+      }
+      writer.endObject();
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.io.StringWriter;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.text.JsonWriter;
 
 /**
@@ -167,9 +168,16 @@ public class ProtobufJsonFormat {
     return json.toString();
   }
 
-  private static void writeMessage(Message message, JsonWriter writer) {
+  static void writeMessage(Message message, JsonWriter writer) {
+    writeMessage(message, null, writer);
+  }
+
+  static void writeMessage(Message message, @Nullable String excludedFieldName, JsonWriter writer) {
     MessageType type = MessageType.of(message);
     for (Descriptors.FieldDescriptor fieldDescriptor : type.fieldDescriptors) {
+      if (fieldDescriptor.getName().equals(excludedFieldName)) {
+        continue;
+      }
       if (fieldDescriptor.isRepeated()) {
         writer.name(fieldDescriptor.getName());
         if (fieldDescriptor.isMapField()) {
@@ -232,7 +240,7 @@ public class ProtobufJsonFormat {
     }
   }
 
-  private static void writeMessageValue(Message message, JsonWriter writer) {
+  static void writeMessageValue(Message message, JsonWriter writer) {
     MessageType messageType = MessageType.of(message);
     if (messageType.doesWrapRepeated) {
       Descriptors.FieldDescriptor repeatedDescriptor = messageType.fieldDescriptors[0];
@@ -0,0 +1,199 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.util;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import java.io.StringWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.test.Test.Countries;
+import org.sonar.core.test.Test.Country;
+import org.sonar.core.test.Test.FakeEnum;
+import org.sonar.core.test.Test.NestedMsg;
+import org.sonar.core.test.Test.PrimitiveTypeMsg;
+import org.sonar.core.test.Test.TestArray;
+import org.sonar.core.test.Test.TestMap;
+import org.sonar.core.test.Test.TestMapOfArray;
+import org.sonar.core.test.Test.TestNullableArray;
+import org.sonar.core.test.Test.TestNullableMap;
+import org.sonar.core.test.Test.Translations;
+import org.sonar.core.test.Test3.Proto3Enum;
+import org.sonar.core.test.Test3.Proto3Msg;
+import org.sonar.core.test.Test3.Proto3Nested;
+import org.sonar.test.TestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.core.util.CompiledProtobufJsonFormat.toJson;
+
+public class CompiledProtobufJsonFormatTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void write_string_field() {
+    NestedMsg msg = NestedMsg.newBuilder().setLabel("foo").build();
+
+    assertSameJson(msg, "{\"label\":\"foo\"}");
+  }
+
+  @Test
+  public void write_proto2_fields_only_if_present() {
+    TestNullableArray msg = TestNullableArray.newBuilder().setLabel("").build();
+
+    assertSameJson(msg, "{\"label\":\"\"}");
+  }
+
+  @Test
+  public void message_with_unsupported_field_types_is_written_by_ProtobufJsonFormat() {
+    PrimitiveTypeMsg msg = PrimitiveTypeMsg.newBuilder()
+      .setStringField("foo")
+      .setIntField(10)
+      .setLongField(100L)
+      .setDoubleField(3.14)
+      .setBooleanField(true)
+      .setEnumField(FakeEnum.GREEN)
+      .build();
+
+    assertSameJson(msg, "{\"stringField\":\"foo\",\"intField\":10,\"longField\":100,\"doubleField\":3.14,\"booleanField\":true,\"enumField\":\"GREEN\"}");
+  }
+
+  @Test
+  public void bytes_field_can_not_be_converted() {
+    expectedException.expect(RuntimeException.class);
+    expectedException.expectMessage("JSON format does not support type 'BYTE_STRING' of field 'bytesField'");
+
+    PrimitiveTypeMsg protobuf = PrimitiveTypeMsg.newBuilder()
+      .setBytesField(ByteString.copyFrom(new byte[] {2, 4}))
+      .build();
+
+    CompiledProtobufJsonFormat.write(protobuf, JsonWriter.of(new StringWriter()));
+  }
+
+  @Test
+  public void write_proto3_scalar_fields_only_if_not_default() {
+    assertSameJson(Proto3Msg.newBuilder().build(), "{\"ints\":[],\"longs\":[],\"doubles\":[],\"booleans\":[],\"enums\":[]}");
+
+    Proto3Msg msg = Proto3Msg.newBuilder()
+      .setStringField("foo")
+      .setIntField(10)
+      .setLongField(100L)
+      .setDoubleField(-0.0)
+      .setBooleanField(true)
+      .setEnumField(Proto3Enum.ONE)
+      .setNested(Proto3Nested.newBuilder())
+      .addInts(1).addInts(2)
+      .addLongs(3L)
+      .addDoubles(1.5)
+      .addBooleans(true)
+      .addEnums(Proto3Enum.ZERO).addEnums(Proto3Enum.ONE)
+      .build();
+    assertSameJson(msg, "{\"stringField\":\"foo\",\"intField\":10,\"longField\":100,\"doubleField\":-0.0,\"booleanField\":true,\"enumField\":\"ONE\",\"nested\":{}," +
+      "\"ints\":[1,2],\"longs\":[3],\"doubles\":[1.5],\"booleans\":[true],\"enums\":[\"ZERO\",\"ONE\"]}");
+  }
+
+  @Test
+  public void write_array() {
+    TestArray msg = TestArray.newBuilder()
+      .addStrings("one").addStrings("two")
+      .addNesteds(NestedMsg.newBuilder().setLabel("nestedOne")).addNesteds(NestedMsg.newBuilder().setLabel("nestedTwo"))
+      .build();
+
+    assertSameJson(msg, "{\"strings\":[\"one\",\"two\"],\"nesteds\":[{\"label\":\"nestedOne\"},{\"label\":\"nestedTwo\"}]}");
+    assertSameJson(TestArray.newBuilder().build(), "{\"strings\":[],\"nesteds\":[]}");
+  }
+
+  @Test
+  public void inline_wrapper_of_array() {
+    assertSameJson(TestNullableArray.newBuilder().setLabel("world").build(), "{\"label\":\"world\"}");
+
+    TestNullableArray msg = TestNullableArray.newBuilder()
+      .setLabel("world")
+      .setCountries(Countries.newBuilder().addCountries(Country.newBuilder().setName("France").setContinent("Europe")))
+      .build();
+    assertSameJson(msg, "{\"label\":\"world\",\"countries\":[{\"name\":\"France\",\"continent\":\"Europe\"}]}");
+  }
+
+  @Test
+  public void write_map() {
+    TestMap.Builder builder = TestMap.newBuilder();
+    builder.getMutableStringMap().put("one", "un");
+    builder.getMutableNestedMap().put("three", NestedMsg.newBuilder().setLabel("trois").build());
+
+    assertSameJson(builder.build(), "{\"stringMap\":{\"one\":\"un\"},\"nestedMap\":{\"three\":{\"label\":\"trois\"}}}");
+  }
+
+  @Test
+  public void inline_wrapper_of_map() {
+    Translations.Builder translations = Translations.newBuilder();
+    translations.getMutableTranslations().put("one", "un");
+    TestNullableMap msg = TestNullableMap.newBuilder()
+      .setLabel("world")
+      .setTranslations(translations)
+      .build();
+
+    assertSameJson(msg, "{\"label\":\"world\",\"translations\":{\"one\":\"un\"}}");
+  }
+
+  @Test
+  public void write_map_of_arrays() {
+    TestMapOfArray.Builder msg = TestMapOfArray.newBuilder();
+    msg.getMutableMoneys().put("eur", Countries.newBuilder().addCountries(Country.newBuilder().setName("France")).build());
+
+    assertSameJson(msg.build(), "{\"moneys\":{\"eur\":[{\"name\":\"France\"}]}}");
+  }
+
+  @Test
+  public void write_fields_except_excluded_one() {
+    TestArray msg = TestArray.newBuilder().addStrings("one").build();
+    StringWriter json = new StringWriter();
+    try (JsonWriter writer = JsonWriter.of(json)) {
+      writer.beginObject();
+      CompiledProtobufJsonFormat.writeFields(msg, "nesteds", writer);
+      writer.name("nesteds").beginArray();
+      CompiledProtobufJsonFormat.writeValue(NestedMsg.newBuilder().setLabel("streamed").build(), writer);
+      writer.endArray().endObject();
+    }
+
+    assertThat(json.toString()).isEqualTo("{\"strings\":[\"one\"],\"nesteds\":[{\"label\":\"streamed\"}]}");
+  }
+
+  @Test
+  public void convert_field_names_to_accessor_names_as_protoc() {
+    assertThat(CompiledProtobufJsonFormat.toCamelCase("stringField")).isEqualTo("StringField");
+    assertThat(CompiledProtobufJsonFormat.toCamelCase("FileDataByPath")).isEqualTo("FileDataByPath");
+    assertThat(CompiledProtobufJsonFormat.toCamelCase("created_at")).isEqualTo("CreatedAt");
+    assertThat(CompiledProtobufJsonFormat.toCamelCase("sha1_hash")).isEqualTo("Sha1Hash");
+    assertThat(CompiledProtobufJsonFormat.toCamelCase("v2value")).isEqualTo("V2Value");
+  }
+
+  @Test
+  public void constructor_is_private() {
+    assertThat(TestUtils.hasOnlyPrivateConstructors(CompiledProtobufJsonFormat.class)).isTrue();
+  }
+
+  private static void assertSameJson(Message msg, String expectedJson) {
+    assertThat(toJson(msg)).isEqualTo(expectedJson);
+    assertThat(toJson(msg)).isEqualTo(ProtobufJsonFormat.toJson(msg));
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.detector.suffixtree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Alternative to {@link Search}, which reports the same groups, but finds them with a
+ * <a href="http://en.wikipedia.org/wiki/Suffix_array">suffix array</a> and its LCP array instead of a suffix tree.
+ * <p>
+ * Each inner node of the suffix tree corresponds to an lcp-interval of the suffix array, so the tree never
+ * needs to be materialized: all computations are done on arrays of primitives, which avoids the creation of
+ * one {@link Node} and one {@link Edge} per symbol.
+ * </p>
+ * <p>
+ * Groups of same length might be reported in a different order than by {@link Search}.
+ * </p>
+ */
+public final class SuffixArraySearch {
+
+  private final TextSet text;
+  private final Search.Collector reporter;
+  private final int[] suffixArray;
+  private final int[] lcp;
+
+  // lcp-intervals with lcp > 0, i.e. inner nodes of the suffix tree
+  private int intervals = 0;
+  private int[] intervalDepths = new int[16];
+  private int[] intervalStarts = new int[16];
+  private int[] intervalEnds = new int[16];
+
+  private SuffixArraySearch(TextSet text, Search.Collector reporter) {
+    this.text = text;
+    this.reporter = reporter;
+    int[] symbols = toSymbols(text);
+    this.suffixArray = suffixArray(symbols);
+    this.lcp = lcp(symbols, suffixArray);
+  }
+
+  public static void perform(TextSet text, Search.Collector reporter) {
+    new SuffixArraySearch(text, reporter).compute();
+  }
+
+  private void compute() {
+    collectIntervals();
+    for (int interval : sortByDescendingDepth()) {
+      int depth = intervalDepths[interval];
+      int start = intervalStarts[interval];
+      int end = intervalEnds[interval];
+      if (containsOrigin(depth, start, end)) {
+        report(depth, start, end);
+      }
+    }
+  }
+
+  private boolean containsOrigin(int depth, int start, int end) {
+    for (int i = start; i <= end; i++) {
+      if (text.isInsideOrigin(suffixArray[i] + depth)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void report(int depth, int start, int end) {
+    reporter.startOfGroup(end - start + 1, depth);
+    for (int i = start; i <= end; i++) {
+      reporter.part(suffixArray[i], suffixArray[i] + depth);
+    }
+    reporter.endOfGroup();
+  }
+
+  /**
+   * Replaces symbols by integers in range [0, number of distinct symbols). Terminators are all distinct.
+   */
+  private static int[] toSymbols(TextSet text) {
+    int n = text.length();
+    int[] symbols = new int[n];
+    Map<Object, Integer> ids = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      Object symbol = text.symbolAt(i);
+      Integer id = ids.get(symbol);
+      if (id == null) {
+        id = ids.size();
+        ids.put(symbol, id);
+      }
+      symbols[i] = id;
+    }
+    return symbols;
+  }
+
+  /**
+   * Prefix doubling with radix sort, O(N * log(N)).
+   */
+  static int[] suffixArray(int[] symbols) {
+    int n = symbols.length;
+    int[] sa = new int[n];
+    int[] rank = new int[n];
+    int[] tmp = new int[n];
+    int[] bySecondKey = new int[n];
+    int[] count = new int[n + 1];
+
+    for (int i = 0; i < n; i++) {
+      rank[i] = symbols[i];
+      count[rank[i]]++;
+    }
+    cumulate(count);
+    for (int i = n - 1; i >= 0; i--) {
+      sa[--count[rank[i]]] = i;
+    }
+
+    for (int k = 1; k < n; k <<= 1) {
+      // suffixes without second key come first, then the others in order of their second key
+      int p = 0;
+      for (int i = n - k; i < n; i++) {
+        bySecondKey[p++] = i;
+      }
+      for (int i = 0; i < n; i++) {
+        if (sa[i] >= k) {
+          bySecondKey[p++] = sa[i] - k;
+        }
+      }
+      // stable sort by first key
+      Arrays.fill(count, 0);
+      for (int i = 0; i < n; i++) {
+        count[rank[i]]++;
+      }
+      cumulate(count);
+      for (int i = n - 1; i >= 0; i--) {
+        sa[--count[rank[bySecondKey[i]]]] = bySecondKey[i];
+      }
+
+      tmp[sa[0]] = 0;
+      for (int i = 1; i < n; i++) {
+        int current = sa[i];
+        int previous = sa[i - 1];
+        boolean same = rank[current] == rank[previous] && rankAt(rank, current + k) == rankAt(rank, previous + k);
+        tmp[current] = same ? tmp[previous] : (tmp[previous] + 1);
+      }
+      int[] swap = rank;
+      rank = tmp;
+      tmp = swap;
+      if (rank[sa[n - 1]] == n - 1) {
+        // all suffixes are distinct
+        break;
+      }
+    }
+    return sa;
+  }
+
+  private static int rankAt(int[] rank, int index) {
+    return index < rank.length ? rank[index] : -1;
+  }
+
+  private static void cumulate(int[] count) {
+    for (int i = 1; i < count.length; i++) {
+      count[i] += count[i - 1];
+    }
+  }
+
+  /**
+   * Kasai's algorithm, O(N). {@code lcp[i]} is the length of the longest common prefix of suffixes {@code sa[i - 1]} and {@code sa[i]}.
+   */
+  static int[] lcp(int[] symbols, int[] sa) {
+    int n = symbols.length;
+    int[] rank = new int[n];
+    for (int i = 0; i < n; i++) {
+      rank[sa[i]] = i;
+    }
+    int[] lcp = new int[n];
+    int h = 0;
+    for (int i = 0; i < n; i++) {
+      if (rank[i] > 0) {
+        int j = sa[rank[i] - 1];
+        while (i + h < n && j + h < n && symbols[i + h] == symbols[j + h]) {
+          h++;
+        }
+        lcp[rank[i]] = h;
+        if (h > 0) {
+          h--;
+        }
+      } else {
+        h = 0;
+      }
+    }
+    return lcp;
+  }
+
+  /**
+   * Bottom-up traversal of lcp-intervals, see "Replacing suffix trees with enhanced suffix arrays" (Abouelhoda, Kurtz, Ohlebusch).
+   */
+  private void collectIntervals() {
+    int n = suffixArray.length;
+    int[] stackDepths = new int[16];
+    int[] stackStarts = new int[16];
+    int top = 0;
+    stackDepths[0] = 0;
+    stackStarts[0] = 0;
+    for (int i = 1; i <= n; i++) {
+      int current = i < n ? lcp[i] : 0;
+      int start = i - 1;
+      while (current < stackDepths[top]) {
+        start = stackStarts[top];
+        addInterval(stackDepths[top], start, i - 1);
+        top--;
+      }
+      if (current > stackDepths[top]) {
+        top++;
+        if (top == stackDepths.length) {
+          stackDepths = Arrays.copyOf(stackDepths, top * 2);
+          stackStarts = Arrays.copyOf(stackStarts, top * 2);
+        }
+        stackDepths[top] = current;
+        stackStarts[top] = start;
+      }
+    }
+  }
+
+  private void addInterval(int depth, int start, int end) {
+    if (intervals == intervalDepths.length) {
+      intervalDepths = Arrays.copyOf(intervalDepths, intervals * 2);
+      intervalStarts = Arrays.copyOf(intervalStarts, intervals * 2);
+      intervalEnds = Arrays.copyOf(intervalEnds, intervals * 2);
+    }
+    intervalDepths[intervals] = depth;
+    intervalStarts[intervals] = start;
+    intervalEnds[intervals] = end;
+    intervals++;
+  }
+
+  /**
+   * Counting sort, as depths are bounded by the length of text.
+   */
+  private int[] sortByDescendingDepth() {
+    int maxDepth = 0;
+    for (int i = 0; i < intervals; i++) {
+      maxDepth = Math.max(maxDepth, intervalDepths[i]);
+    }
+    int[] count = new int[maxDepth + 2];
+    for (int i = 0; i < intervals; i++) {
+      count[maxDepth - intervalDepths[i] + 1]++;
+    }
+    cumulate(count);
+    int[] sorted = new int[intervals];
+    for (int i = 0; i < intervals; i++) {
+      sorted[count[maxDepth - intervalDepths[i]]++] = i;
+    }
+    return sorted;
+  }
+
+}
@@ -42,6 +42,15 @@ public final class SuffixTreeCloneDetectionAlgorithm {
   }
 
   public static List<CloneGroup> detect(CloneIndex cloneIndex, Collection<Block> fileBlocks) {
+    return detect(cloneIndex, fileBlocks, false);
+  }
+
+  /**
+   * @param useSuffixArray if {@code true}, clones are searched with {@link SuffixArraySearch}, which consumes less memory
+   *                       than {@link Search} on files with many similar blocks
+   * @since 6.5
+   */
+  public static List<CloneGroup> detect(CloneIndex cloneIndex, Collection<Block> fileBlocks, boolean useSuffixArray) {
     if (fileBlocks.isEmpty()) {
       return Collections.emptyList();
     }
@@ -50,7 +59,11 @@ public final class SuffixTreeCloneDetectionAlgorithm {
       return Collections.emptyList();
     }
     DuplicationsCollector reporter = new DuplicationsCollector(text);
-    Search.perform(text, reporter);
+    if (useSuffixArray) {
+      SuffixArraySearch.perform(text, reporter);
+    } else {
+      Search.perform(text, reporter);
+    }
     return reporter.getResult();
   }
 
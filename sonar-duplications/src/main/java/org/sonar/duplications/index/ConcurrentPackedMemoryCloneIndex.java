@@ -0,0 +1,145 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
+
+/**
+ * {@link PackedMemoryCloneIndex} which supports concurrent insertions.
+ * <p>
+ * Each thread appends blocks to its own segment, guarded by its own lock, so that inserting threads never
+ * contend with each other. Segments are merged into a single sorted index when the index is frozen, which
+ * is done by {@link #freeze()} or implicitly by the first query following insertions. Blocks inserted after
+ * a freeze are sorted separately and merged with the blocks already sorted, instead of sorting the whole index again.
+ * </p>
+ * <p>
+ * Queries are serialized. Blocks inserted concurrently with a query may or may not be visible to it, and
+ * {@link #iterator()} must not be used while other threads insert blocks.
+ * </p>
+ *
+ * @since 6.5
+ */
+public class ConcurrentPackedMemoryCloneIndex extends AbstractCloneIndex {
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+  private static final int DEFAULT_SEGMENT_CAPACITY = 1024;
+
+  private final int hashBytes;
+  private final PackedMemoryCloneIndex merged;
+  private final List<Segment> segments = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<Segment> localSegment = ThreadLocal.withInitial(this::newSegment);
+
+  /**
+   * Indicates that no block was inserted since the last freeze. Only written on transitions,
+   * so that insertions do not write to a shared field.
+   */
+  private volatile boolean frozen = true;
+
+  public ConcurrentPackedMemoryCloneIndex() {
+    this(8, DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param hashBytes size of hash in bytes
+   * @param initialCapacity the initial capacity of the merged index
+   */
+  public ConcurrentPackedMemoryCloneIndex(int hashBytes, int initialCapacity) {
+    this.hashBytes = hashBytes;
+    this.merged = new PackedMemoryCloneIndex(hashBytes, initialCapacity);
+  }
+
+  private Segment newSegment() {
+    Segment segment = new Segment(new PackedMemoryCloneIndex(hashBytes, DEFAULT_SEGMENT_CAPACITY));
+    segments.add(segment);
+    return segment;
+  }
+
+  @Override
+  public void insert(Block block) {
+    Segment segment = localSegment.get();
+    synchronized (segment) {
+      segment.blocks.insert(block);
+    }
+    if (frozen) {
+      frozen = false;
+    }
+  }
+
+  /**
+   * Merges the blocks of all the segments into the sorted index.
+   */
+  public synchronized void freeze() {
+    frozen = true;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        if (segment.blocks.size() > 0) {
+          merged.insertAll(segment.blocks);
+          segment.blocks = new PackedMemoryCloneIndex(hashBytes, DEFAULT_SEGMENT_CAPACITY);
+        }
+      }
+    }
+    // sort now rather than during the first query
+    merged.ensureSorted();
+  }
+
+  private void ensureFrozen() {
+    if (!frozen) {
+      freeze();
+    }
+  }
+
+  @Override
+  public synchronized Collection<Block> getByResourceId(String resourceId) {
+    ensureFrozen();
+    return merged.getByResourceId(resourceId);
+  }
+
+  @Override
+  public synchronized Collection<Block> getBySequenceHash(ByteArray hash) {
+    ensureFrozen();
+    return merged.getBySequenceHash(hash);
+  }
+
+  @Override
+  public synchronized Iterator<ResourceBlocks> iterator() {
+    ensureFrozen();
+    return merged.iterator();
+  }
+
+  @Override
+  public synchronized int noResources() {
+    ensureFrozen();
+    return merged.noResources();
+  }
+
+  private static class Segment {
+    private PackedMemoryCloneIndex blocks;
+
+    Segment(PackedMemoryCloneIndex blocks) {
+      this.blocks = blocks;
+    }
+  }
+}
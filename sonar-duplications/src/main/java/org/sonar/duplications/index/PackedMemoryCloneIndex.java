@@ -60,6 +60,12 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
    */
   private boolean sorted;
 
+  /**
+   * Number of blocks, at the beginning of the arrays, which were already sorted by a previous query.
+   * Blocks inserted afterwards are sorted separately and merged with them.
+   */
+  private int sortedSize;
+
   /**
    * Current number of blocks in index.
    */
@@ -82,6 +88,7 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
    */
   public PackedMemoryCloneIndex(int hashBytes, int initialCapacity) {
     this.sorted = false;
+    this.sortedSize = 0;
     this.hashInts = hashBytes / 4;
     this.blockInts = hashInts + BLOCK_INTS;
     this.size = 0;
@@ -269,14 +276,43 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
     size++;
   }
 
+  /**
+   * Appends all the blocks of another index, without creating intermediate {@link Block} objects.
+   */
+  void insertAll(PackedMemoryCloneIndex other) {
+    if (other.hashInts != hashInts) {
+      throw new IllegalArgumentException("Expected " + hashInts + " ints in hash, but got " + other.hashInts);
+    }
+    if (other.size == 0) {
+      return;
+    }
+    sorted = false;
+    ensureCapacity(size + other.size);
+    System.arraycopy(other.resourceIds, 0, resourceIds, size, other.size);
+    System.arraycopy(other.blockData, 0, blockData, size * blockInts, other.size * blockInts);
+    size += other.size;
+  }
+
+  int size() {
+    return size;
+  }
+
   /**
    * Increases the capacity, if necessary.
    */
   private void ensureCapacity() {
-    if (size < resourceIds.length) {
+    ensureCapacity(size + 1);
+  }
+
+  /**
+   * Increases the capacity, if necessary, so that it is strictly greater than {@code minSize}. One extra
+   * position is always required by the queries to store the searched value.
+   */
+  private void ensureCapacity(int minSize) {
+    if (minSize <= resourceIds.length) {
       return;
     }
-    int newCapacity = (resourceIds.length * 3) / 2 + 1;
+    int newCapacity = Math.max((resourceIds.length * 3) / 2 + 1, minSize);
     // Increase size of resourceIds
     String[] oldResourceIds = resourceIds;
     resourceIds = new String[newCapacity];
@@ -285,30 +321,109 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
     int[] oldBlockData = blockData;
     blockData = new int[newCapacity * blockInts];
     System.arraycopy(oldBlockData, 0, blockData, 0, oldBlockData.length);
-    // Increase size of byResourceIndices (no need to copy old, because would be restored in method ensureSorted)
+    // Increase size of byResourceIndices (old order is kept, because it is merged with new blocks in method ensureSorted)
+    int[] oldResourceIdsIndex = resourceIdsIndex;
     resourceIdsIndex = new int[newCapacity];
+    System.arraycopy(oldResourceIdsIndex, 0, resourceIdsIndex, 0, oldResourceIdsIndex.length);
     sorted = false;
   }
 
   /**
    * Performs sorting, if necessary.
    */
-  private void ensureSorted() {
+  void ensureSorted() {
     if (sorted) {
       return;
     }
 
     ensureCapacity();
 
-    DataUtils.sort(byBlockHash);
-    for (int i = 0; i < size; i++) {
-      resourceIdsIndex[i] = i;
+    if (sortedSize == 0) {
+      DataUtils.sort(byBlockHash);
+      for (int i = 0; i < size; i++) {
+        resourceIdsIndex[i] = i;
+      }
+      DataUtils.sort(byResourceId);
+    } else if (sortedSize < size) {
+      mergeNewBlocks();
     }
-    DataUtils.sort(byResourceId);
 
+    sortedSize = size;
     sorted = true;
   }
 
+  /**
+   * Sorts only the blocks inserted since the last sort, and merges them with the blocks already sorted,
+   * so that inserting after a query costs O(k log k + n) instead of a full sort in O(n log n).
+   */
+  private void mergeNewBlocks() {
+    DataUtils.sort(newBlocksByHash);
+    int newBlocks = size - sortedSize;
+    int[] newByResourceId = new int[newBlocks];
+    for (int i = 0; i < newBlocks; i++) {
+      newByResourceId[i] = sortedSize + i;
+    }
+    DataUtils.sort(new DataUtils.Sortable() {
+      @Override
+      public void swap(int i, int j) {
+        int tmp = newByResourceId[i];
+        newByResourceId[i] = newByResourceId[j];
+        newByResourceId[j] = tmp;
+      }
+
+      @Override
+      public boolean isLess(int i, int j) {
+        return FastStringComparator.INSTANCE.compare(resourceIds[newByResourceId[i]], resourceIds[newByResourceId[j]]) < 0;
+      }
+
+      @Override
+      public int size() {
+        return newBlocks;
+      }
+    });
+
+    // merge by hash, remembering the new position of each block
+    String[] mergedResourceIds = new String[resourceIds.length];
+    int[] mergedBlockData = new int[blockData.length];
+    int[] newPositions = new int[size];
+    int oldIndex = 0;
+    int newIndex = sortedSize;
+    for (int k = 0; k < size; k++) {
+      int from;
+      if (newIndex == size || (oldIndex < sortedSize && !isLessByHash(newIndex, oldIndex))) {
+        from = oldIndex;
+        oldIndex++;
+      } else {
+        from = newIndex;
+        newIndex++;
+      }
+      mergedResourceIds[k] = resourceIds[from];
+      System.arraycopy(blockData, from * blockInts, mergedBlockData, k * blockInts, blockInts);
+      newPositions[from] = k;
+    }
+
+    // merge by resource, translating positions
+    int[] mergedResourceIdsIndex = new int[resourceIdsIndex.length];
+    oldIndex = 0;
+    newIndex = 0;
+    for (int k = 0; k < size; k++) {
+      int from;
+      if (newIndex == newBlocks
+        || (oldIndex < sortedSize && FastStringComparator.INSTANCE.compare(resourceIds[newByResourceId[newIndex]], resourceIds[resourceIdsIndex[oldIndex]]) >= 0)) {
+        from = resourceIdsIndex[oldIndex];
+        oldIndex++;
+      } else {
+        from = newByResourceId[newIndex];
+        newIndex++;
+      }
+      mergedResourceIdsIndex[k] = newPositions[from];
+    }
+
+    resourceIds = mergedResourceIds;
+    blockData = mergedBlockData;
+    resourceIdsIndex = mergedResourceIdsIndex;
+  }
+
   private boolean isLessByHash(int i, int j) {
     int i2 = i * blockInts;
     int j2 = j * blockInts;
@@ -350,6 +465,23 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
     }
   };
 
+  private final DataUtils.Sortable newBlocksByHash = new DataUtils.Sortable() {
+    @Override
+    public void swap(int i, int j) {
+      byBlockHash.swap(sortedSize + i, sortedSize + j);
+    }
+
+    @Override
+    public boolean isLess(int i, int j) {
+      return isLessByHash(sortedSize + i, sortedSize + j);
+    }
+
+    @Override
+    public int size() {
+      return size - sortedSize;
+    }
+  };
+
   private final DataUtils.Sortable byResourceId = new DataUtils.Sortable() {
     @Override
     public void swap(int i, int j) {
@@ -0,0 +1,121 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.detector.suffixtree;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import net.sourceforge.pmd.cpd.JavaTokenizer;
+import org.junit.Test;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.detector.DetectorTestCase;
+import org.sonar.duplications.index.CloneGroup;
+import org.sonar.duplications.index.CloneIndex;
+import org.sonar.duplications.index.PackedMemoryCloneIndex;
+import org.sonar.duplications.internal.pmd.TokenizerBridge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuffixArraySearchTest extends DetectorTestCase {
+
+  @Override
+  protected List<CloneGroup> detect(CloneIndex index, Block[] fileBlocks) {
+    return SuffixTreeCloneDetectionAlgorithm.detect(index, Arrays.asList(fileBlocks), true);
+  }
+
+  @Test
+  public void sort_suffixes() {
+    // b a n a n a $, with a < b < n < $
+    int[] symbols = {1, 0, 2, 0, 2, 0, 3};
+    int[] sa = SuffixArraySearch.suffixArray(symbols);
+
+    assertThat(sa).containsExactly(1, 3, 5, 0, 2, 4, 6);
+    assertThat(SuffixArraySearch.lcp(symbols, sa)).containsExactly(0, 3, 1, 0, 0, 2, 0);
+  }
+
+  @Test
+  public void same_result_as_suffix_tree_on_test_resources() throws IOException {
+    List<File> files = Arrays.asList(
+      new File("test-resources/org/sonar/duplications/cpd/CPDTest/CPDFile1.java"),
+      new File("test-resources/org/sonar/duplications/cpd/CPDTest/CPDFile2.java"),
+      new File("test-resources/org/sonar/duplications/cpd/CPDTest/CPDFile3.java"),
+      new File("src/test/files/java/MessageResources.java"),
+      new File("src/test/files/java/RequestUtils.java"));
+    for (int blockSize : new int[] {2, 5, 10}) {
+      PackedMemoryCloneIndex index = new PackedMemoryCloneIndex();
+      TokenizerBridge bridge = new TokenizerBridge(new JavaTokenizer(), blockSize);
+      for (File file : files) {
+        for (Block block : bridge.chunk(file.getAbsolutePath(), file.getAbsolutePath(), Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+          index.insert(block);
+        }
+      }
+      for (File file : files) {
+        assertSameResult(index, new ArrayList<>(index.getByResourceId(file.getAbsolutePath())));
+      }
+    }
+  }
+
+  @Test
+  public void same_result_as_suffix_tree_on_random_blocks() {
+    Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      PackedMemoryCloneIndex index = new PackedMemoryCloneIndex();
+      for (int resource = 0; resource < 5; resource++) {
+        for (Block block : randomBlocks(random, "r" + resource, 20 + random.nextInt(100))) {
+          index.insert(block);
+        }
+      }
+      List<Block> fileBlocks = randomBlocks(random, "origin", 1 + random.nextInt(200));
+      fileBlocks.forEach(index::insert);
+
+      assertSameResult(index, fileBlocks);
+    }
+  }
+
+  private static void assertSameResult(CloneIndex index, List<Block> fileBlocks) {
+    List<CloneGroup> expected = SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks, false);
+    List<CloneGroup> actual = SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks, true);
+
+    assertThat(actual).hasSameSizeAs(expected);
+    assertThat(new HashSet<>(actual)).isEqualTo(new HashSet<>(expected));
+  }
+
+  private static List<Block> randomBlocks(Random random, String resourceId, int count) {
+    List<Block> blocks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      blocks.add(Block.builder()
+        .setResourceId(resourceId)
+        .setBlockHash(new ByteArray((long) random.nextInt(4)))
+        .setIndexInFile(i)
+        .setLines(i, i + LINES_PER_BLOCK)
+        .setUnit(i, i + 1)
+        .build());
+    }
+    return blocks;
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentPackedMemoryCloneIndexTest {
+
+  private ConcurrentPackedMemoryCloneIndex underTest = new ConcurrentPackedMemoryCloneIndex();
+
+  @Test
+  public void query_blocks_inserted_by_current_thread() {
+    underTest.insert(newBlock("a", 1));
+    underTest.insert(newBlock("a", 2));
+    underTest.insert(newBlock("b", 1));
+
+    assertThat(underTest.noResources()).isEqualTo(2);
+    assertThat(underTest.getBySequenceHash(new ByteArray(1L))).hasSize(2);
+    assertThat(underTest.getByResourceId("a")).hasSize(2);
+    assertThat(Iterators.size(underTest.iterator())).isEqualTo(2);
+  }
+
+  @Test
+  public void blocks_inserted_after_freeze_are_visible_to_next_queries() {
+    underTest.insert(newBlock("a", 1));
+    underTest.freeze();
+    assertThat(underTest.getBySequenceHash(new ByteArray(1L))).hasSize(1);
+
+    underTest.insert(newBlock("b", 1));
+
+    assertThat(underTest.getBySequenceHash(new ByteArray(1L))).extracting(Block::getResourceId).containsOnly("a", "b");
+    assertThat(underTest.noResources()).isEqualTo(2);
+  }
+
+  @Test
+  public void merge_blocks_inserted_by_several_threads() throws Exception {
+    int threads = 8;
+    int resourcesPerThread = 50;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int r = 0; r < resourcesPerThread; r++) {
+            for (int b = 0; b < 10; b++) {
+              underTest.insert(newBlock("t" + thread + "r" + r, b));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(underTest.noResources()).isEqualTo(threads * resourcesPerThread);
+    assertThat(underTest.getBySequenceHash(new ByteArray(3L))).hasSize(threads * resourcesPerThread);
+    assertThat(underTest.getByResourceId("t5r7")).hasSize(10);
+  }
+
+  private static Block newBlock(String resourceId, long hash) {
+    return Block.builder()
+      .setResourceId(resourceId)
+      .setBlockHash(new ByteArray(hash))
+      .setIndexInFile(1)
+      .setLines(1, 2)
+      .build();
+  }
+}
@@ -28,6 +28,7 @@ import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -110,6 +111,83 @@ public class PackedMemoryCloneIndexTest {
     
   }
 
+  /**
+   * Given: index already sorted by a query.
+   * Expected: blocks inserted afterwards are merged with blocks already sorted.
+   */
+  @Test
+  public void should_merge_blocks_inserted_after_query() {
+    index.insert(newBlock("c", 3));
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("c", 1));
+    assertThat(index.getBySequenceHash(new ByteArray(1L)).size(), is(2));
+
+    index.insert(newBlock("b", 2));
+    index.insert(newBlock("a", 3));
+    index.insert(newBlock("d", 1));
+    index.insert(newBlock("b", 1));
+
+    assertThat(index.noResources()).isEqualTo(4);
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).extracting(Block::getResourceId).containsOnly("a", "b", "c", "d");
+    assertThat(index.getBySequenceHash(new ByteArray(2L))).extracting(Block::getResourceId).containsExactly("b");
+    assertThat(index.getBySequenceHash(new ByteArray(3L))).extracting(Block::getResourceId).containsOnly("a", "c");
+    assertThat(index.getByResourceId("a")).extracting(Block::getBlockHash).containsOnly(new ByteArray(1L), new ByteArray(3L));
+    assertThat(index.getByResourceId("b")).hasSize(2);
+    assertThat(index.getByResourceId("c")).hasSize(2);
+    assertThat(index.getByResourceId("d")).hasSize(1);
+
+    Iterator<ResourceBlocks> it = index.iterator();
+    ArrayList<String> resourceIds = new ArrayList<>();
+    while (it.hasNext()) {
+      resourceIds.add(it.next().resourceId());
+    }
+    assertThat(resourceIds).containsExactly("a", "b", "c", "d");
+  }
+
+  @Test
+  public void should_merge_many_blocks_inserted_after_queries() {
+    PackedMemoryCloneIndex expected = new PackedMemoryCloneIndex(8, 1);
+    index = new PackedMemoryCloneIndex(8, 1);
+    Random random = new Random(1);
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 100; i++) {
+        Block block = newBlock("r" + random.nextInt(30), random.nextInt(50));
+        index.insert(block);
+        expected.insert(block);
+      }
+      assertThat(index.getBySequenceHash(new ByteArray(0L)).size(), is(expected.getBySequenceHash(new ByteArray(0L)).size()));
+      // force a full sort of the expected index
+      expected = copy(expected);
+    }
+    for (long hash = 0; hash < 50; hash++) {
+      assertThat(index.getBySequenceHash(new ByteArray(hash)).size(), is(expected.getBySequenceHash(new ByteArray(hash)).size()));
+    }
+    for (int r = 0; r < 30; r++) {
+      assertThat(index.getByResourceId("r" + r).size(), is(expected.getByResourceId("r" + r).size()));
+    }
+    assertThat(index.noResources()).isEqualTo(expected.noResources());
+  }
+
+  private static PackedMemoryCloneIndex copy(PackedMemoryCloneIndex index) {
+    PackedMemoryCloneIndex copy = new PackedMemoryCloneIndex();
+    copy.insertAll(index);
+    return copy;
+  }
+
+  @Test
+  public void should_insert_all_blocks_of_other_index() {
+    PackedMemoryCloneIndex other = new PackedMemoryCloneIndex(8, 1);
+    other.insert(newBlock("b", 1));
+    other.insert(newBlock("b", 2));
+    index.insert(newBlock("a", 1));
+
+    index.insertAll(other);
+
+    assertThat(index.noResources()).isEqualTo(2);
+    assertThat(index.getBySequenceHash(new ByteArray(1L)).size(), is(2));
+    assertThat(index.getByResourceId("b").size(), is(2));
+  }
+
   /**
    * Given: index with initial capacity 1.
    * Expected: size and capacity should be increased after insertion of two blocks.
@@ -22,6 +22,8 @@ package org.sonar.api.batch.fs;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.util.SortedSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import javax.annotation.CheckForNull;
 import org.sonar.api.batch.ScannerSide;
 
@@ -173,5 +175,25 @@ public interface FileSystem {
      * @since 6.3
      */
     Iterable<InputFile> getFilesByExtension(String extension);
+
+    /**
+     * Implementations should override this method when they maintain an index of files by language.
+     * @since 6.5
+     */
+    default Iterable<InputFile> getFilesByLanguage(String language) {
+      return StreamSupport.stream(inputFiles().spliterator(), false)
+        .filter(f -> language.equals(f.language()))
+        .collect(Collectors.toList());
+    }
+
+    /**
+     * Implementations should override this method when they maintain an index of files by type.
+     * @since 6.5
+     */
+    default Iterable<InputFile> getFilesByType(InputFile.Type type) {
+      return StreamSupport.stream(inputFiles().spliterator(), false)
+        .filter(f -> type == f.type())
+        .collect(Collectors.toList());
+    }
   }
 }
@@ -83,14 +83,29 @@ class AndPredicate extends AbstractFilePredicate {
     if (predicates.isEmpty()) {
       return index.inputFiles();
     }
-    // Optimization, use get on first predicate then filter with next predicates
+    // Optimization, use get on the most selective indexed predicate then filter with the other predicates
+    int selected = 0;
     Iterable<InputFile> result = predicates.get(0).get(index);
-    for (int i = 1; i < predicates.size(); i++) {
-      result = predicates.get(i).filter(result);
+    for (int i = 1; i < predicates.size() && predicates.get(i).priority() >= USE_INDEX; i++) {
+      Iterable<InputFile> candidates = predicates.get(i).get(index);
+      if (sizeOf(candidates) < sizeOf(result)) {
+        selected = i;
+        result = candidates;
+      }
+    }
+    for (int i = 0; i < predicates.size(); i++) {
+      if (i != selected) {
+        result = predicates.get(i).filter(result);
+      }
     }
     return result;
   }
 
+  private static int sizeOf(Iterable<InputFile> files) {
+    // size of lazy iterables is unknown, they are considered as the least selective
+    return files instanceof Collection ? ((Collection<InputFile>) files).size() : Integer.MAX_VALUE;
+  }
+
   @VisibleForTesting
   Collection<OptimizedFilePredicate> predicates() {
     return predicates;
@@ -219,6 +219,16 @@ public class DefaultInputFile extends DefaultInputComponent implements InputFile
     return metadata.originalLineOffsets();
   }
 
+  /**
+   * Hashes of lines used by issue tracking, when computed while reading the metadata of the file.
+   * @since 6.5
+   */
+  @CheckForNull
+  public byte[][] lineHashes() {
+    checkMetadata();
+    return metadata.lineHashes();
+  }
+
   @Override
   public TextPointer newPointer(int line, int lineOffset) {
     checkMetadata();
@@ -39,6 +39,11 @@ public class FileExtensionPredicate extends AbstractFilePredicate {
     return extension.equals(getExtension(inputFile));
   }
 
+  @Override
+  public int priority() {
+    return USE_INDEX;
+  }
+
   @Override
   public Iterable<InputFile> get(FileSystem.Index index) {
     return index.getFilesByExtension(extension);
@@ -19,7 +19,6 @@
  */
 package org.sonar.api.batch.fs.internal;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,8 +32,10 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
-import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import org.apache.commons.codec.binary.Hex;
@@ -56,6 +57,7 @@ public class FileMetadata {
 
   private static final char LINE_FEED = '\n';
   private static final char CARRIAGE_RETURN = '\r';
+  private static final int BUFFER_SIZE = 16 * 1024;
 
   public abstract static class CharHandler {
 
@@ -72,107 +74,132 @@ public class FileMetadata {
     }
   }
 
-  private static class LineCounter extends CharHandler {
+  /**
+   * Computes in a single handler the number of lines, the offsets of lines, the hash of the file and
+   * optionally the hashes of lines, so that each char is dispatched only once.
+   */
+  private static class MetadataComputer extends CharHandler {
+    private static final int HASH_BUFFER_SIZE = 8192;
+
+    private final String filePath;
+    private final Charset encoding;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
     private int lines = 1;
     private int nonBlankLines = 0;
     private boolean blankLine = true;
-    boolean alreadyLoggedInvalidCharacter = false;
-    private final String filePath;
-    private final Charset encoding;
+    private boolean alreadyLoggedInvalidCharacter = false;
 
-    LineCounter(String filePath, Charset encoding) {
+    private long currentOriginalOffset = 0;
+    private final IntArrayList originalLineOffsets = new IntArrayList();
+    private long lastValidOffset = 0;
+
+    private final MessageDigest globalMd5Digest = DigestUtils.getMd5Digest();
+    // buffer of the lines to hash, flushed at end of lines only so that surrogate pairs are never split
+    private final StringBuilder fileBuffer = new StringBuilder();
+
+    @Nullable
+    private final MessageDigest lineMd5Digest;
+    private final StringBuilder lineBuffer = new StringBuilder();
+    private final List<byte[]> lineHashes;
+
+    MetadataComputer(String filePath, Charset encoding, boolean computeLineHashes) {
       this.filePath = filePath;
       this.encoding = encoding;
+      this.originalLineOffsets.add(0);
+      this.lineMd5Digest = computeLineHashes ? DigestUtils.getMd5Digest() : null;
+      this.lineHashes = computeLineHashes ? new ArrayList<>() : Collections.emptyList();
     }
 
     @Override
     protected void handleAll(char c) {
-      if (!alreadyLoggedInvalidCharacter && c == '\ufffd') {
+      currentOriginalOffset++;
+      if (c == '\ufffd' && !alreadyLoggedInvalidCharacter) {
         LOG.warn("Invalid character encountered in file {} at line {} for encoding {}. Please fix file content or configure the encoding to be used using property '{}'.", filePath,
           lines, encoding, CoreProperties.ENCODING_PROPERTY);
         alreadyLoggedInvalidCharacter = true;
       }
     }
 
-    @Override
-    protected void newLine() {
-      lines++;
-      if (!blankLine) {
-        nonBlankLines++;
-      }
-      blankLine = true;
-    }
-
     @Override
     protected void handleIgnoreEoL(char c) {
+      fileBuffer.append(c);
       if (!Character.isWhitespace(c)) {
         blankLine = false;
+        if (lineMd5Digest != null) {
+          lineBuffer.append(c);
+        }
       }
     }
 
     @Override
-    protected void eof() {
+    protected void newLine() {
       if (!blankLine) {
         nonBlankLines++;
       }
-    }
-
-    public int lines() {
-      return lines;
-    }
-
-    public int nonBlankLines() {
-      return nonBlankLines;
-    }
-
-  }
-
-  private static class FileHashComputer extends CharHandler {
-    private MessageDigest globalMd5Digest = DigestUtils.getMd5Digest();
-    private StringBuilder sb = new StringBuilder();
-    private final CharsetEncoder encoder;
-    private final String filePath;
-
-    public FileHashComputer(String filePath) {
-      encoder = StandardCharsets.UTF_8.newEncoder()
-        .onMalformedInput(CodingErrorAction.REPLACE)
-        .onUnmappableCharacter(CodingErrorAction.REPLACE);
-      this.filePath = filePath;
+      blankLine = true;
+      if (currentOriginalOffset > Integer.MAX_VALUE) {
+        throw new IllegalStateException("File is too big: " + currentOriginalOffset);
+      }
+      originalLineOffsets.add((int) currentOriginalOffset);
+      fileBuffer.append(LINE_FEED);
+      if (fileBuffer.length() >= HASH_BUFFER_SIZE) {
+        flushFileBuffer();
+      }
+      if (lineMd5Digest != null) {
+        flushLineBuffer();
+      }
+      lines++;
     }
 
     @Override
-    protected void handleIgnoreEoL(char c) {
-      sb.append(c);
+    protected void eof() {
+      if (!blankLine) {
+        nonBlankLines++;
+      }
+      lastValidOffset = currentOriginalOffset;
+      flushFileBuffer();
+      if (lineMd5Digest != null) {
+        flushLineBuffer();
+      }
     }
 
-    @Override
-    protected void newLine() {
-      sb.append(LINE_FEED);
-      processBuffer();
-      sb.setLength(0);
+    private void flushFileBuffer() {
+      if (fileBuffer.length() > 0) {
+        ByteBuffer encoded = encode(fileBuffer);
+        globalMd5Digest.update(encoded.array(), 0, encoded.limit());
+        fileBuffer.setLength(0);
+      }
     }
 
-    @Override
-    protected void eof() {
-      if (sb.length() > 0) {
-        processBuffer();
+    private void flushLineBuffer() {
+      byte[] hash = null;
+      if (lineBuffer.length() > 0) {
+        ByteBuffer encoded = encode(lineBuffer);
+        lineMd5Digest.update(encoded.array(), 0, encoded.limit());
+        hash = lineMd5Digest.digest();
+        lineBuffer.setLength(0);
       }
+      lineHashes.add(hash);
     }
 
-    private void processBuffer() {
+    private ByteBuffer encode(CharSequence chars) {
       try {
-        if (sb.length() > 0) {
-          ByteBuffer encoded = encoder.encode(CharBuffer.wrap(sb));
-          globalMd5Digest.update(encoded.array(), 0, encoded.limit());
-        }
+        return encoder.encode(CharBuffer.wrap(chars));
       } catch (CharacterCodingException e) {
         throw new IllegalStateException("Error encoding line hash in file: " + filePath, e);
       }
     }
 
-    @CheckForNull
-    public String getHash() {
-      return Hex.encodeHexString(globalMd5Digest.digest());
+    Metadata toMetadata() {
+      if (lastValidOffset > Integer.MAX_VALUE) {
+        throw new IllegalStateException("File is too big: " + lastValidOffset);
+      }
+      byte[][] hashes = lineMd5Digest != null ? lineHashes.toArray(new byte[lineHashes.size()][]) : null;
+      return new Metadata(lines, nonBlankLines, Hex.encodeHexString(globalMd5Digest.digest()), originalLineOffsets.trimAndGet(),
+        (int) lastValidOffset, hashes);
     }
   }
 
@@ -226,64 +253,23 @@ public class FileMetadata {
     }
   }
 
-  private static class LineOffsetCounter extends CharHandler {
-    private long currentOriginalOffset = 0;
-    private IntArrayList originalLineOffsets = new IntArrayList();
-    private long lastValidOffset = 0;
-
-    public LineOffsetCounter() {
-      originalLineOffsets.add(0);
-    }
-
-    @Override
-    protected void handleAll(char c) {
-      currentOriginalOffset++;
-    }
-
-    @Override
-    protected void newLine() {
-      if (currentOriginalOffset > Integer.MAX_VALUE) {
-        throw new IllegalStateException("File is too big: " + currentOriginalOffset);
-      }
-      originalLineOffsets.add((int) currentOriginalOffset);
-    }
-
-    @Override
-    protected void eof() {
-      lastValidOffset = currentOriginalOffset;
-    }
-
-    public int[] getOriginalLineOffsets() {
-      return originalLineOffsets.trimAndGet();
-    }
-
-    public int getLastValidOffset() {
-      if (lastValidOffset > Integer.MAX_VALUE) {
-        throw new IllegalStateException("File is too big: " + lastValidOffset);
-      }
-      return (int) lastValidOffset;
-    }
-
-  }
-
   /**
    * Compute hash of a file ignoring line ends differences.
    * Maximum performance is needed.
+   *
+   * @param computeLineHashes whether hashes of lines used by issue tracking are computed in the same pass
+   *                          and kept in the returned {@link Metadata}
+   * @since 6.5
    */
+  public Metadata readMetadata(InputStream stream, Charset encoding, String filePath, @Nullable CharHandler otherHandler, boolean computeLineHashes) {
+    MetadataComputer computer = new MetadataComputer(filePath, encoding, computeLineHashes);
+    CharHandler[] handlers = otherHandler != null ? new CharHandler[] {computer, otherHandler} : new CharHandler[] {computer};
+    readFile(stream, encoding, filePath, handlers);
+    return computer.toMetadata();
+  }
+
   public Metadata readMetadata(InputStream stream, Charset encoding, String filePath, @Nullable CharHandler otherHandler) {
-    LineCounter lineCounter = new LineCounter(filePath, encoding);
-    FileHashComputer fileHashComputer = new FileHashComputer(filePath);
-    LineOffsetCounter lineOffsetCounter = new LineOffsetCounter();
-
-    if (otherHandler != null) {
-      CharHandler[] handlers = {lineCounter, fileHashComputer, lineOffsetCounter, otherHandler};
-      readFile(stream, encoding, filePath, handlers);
-    } else {
-      CharHandler[] handlers = {lineCounter, fileHashComputer, lineOffsetCounter};
-      readFile(stream, encoding, filePath, handlers);
-    }
-    return new Metadata(lineCounter.lines(), lineCounter.nonBlankLines(), fileHashComputer.getHash(), lineOffsetCounter.getOriginalLineOffsets(),
-      lineOffsetCounter.getLastValidOffset());
+    return readMetadata(stream, encoding, filePath, otherHandler, false);
   }
 
   public Metadata readMetadata(InputStream stream, Charset encoding, String filePath) {
@@ -294,22 +280,18 @@ public class FileMetadata {
    * For testing purpose
    */
   public Metadata readMetadata(Reader reader) {
-    LineCounter lineCounter = new LineCounter("fromString", StandardCharsets.UTF_16);
-    FileHashComputer fileHashComputer = new FileHashComputer("fromString");
-    LineOffsetCounter lineOffsetCounter = new LineOffsetCounter();
-    CharHandler[] handlers = {lineCounter, fileHashComputer, lineOffsetCounter};
-
+    MetadataComputer computer = new MetadataComputer("fromString", StandardCharsets.UTF_16, false);
     try {
-      read(reader, handlers);
+      read(reader, new CharHandler[] {computer});
     } catch (IOException e) {
       throw new IllegalStateException("Should never occur", e);
     }
-    return new Metadata(lineCounter.lines(), lineCounter.nonBlankLines(), fileHashComputer.getHash(), lineOffsetCounter.getOriginalLineOffsets(),
-      lineOffsetCounter.getLastValidOffset());
+    return computer.toMetadata();
   }
 
   public static void readFile(InputStream stream, Charset encoding, String filePath, CharHandler[] handlers) {
-    try (Reader reader = new BufferedReader(new InputStreamReader(stream, encoding))) {
+    // chars are read by blocks, so no need to buffer the reader
+    try (Reader reader = new InputStreamReader(stream, encoding)) {
       read(reader, handlers);
     } catch (IOException e) {
       throw new IllegalStateException(String.format("Fail to read file '%s' with encoding '%s'", filePath, encoding), e);
@@ -317,43 +299,44 @@ public class FileMetadata {
   }
 
   private static void read(Reader reader, CharHandler[] handlers) throws IOException {
-    char c;
-    int i = reader.read();
+    char[] buffer = new char[BUFFER_SIZE];
     boolean afterCR = false;
-    while (i != -1) {
-      c = (char) i;
-      if (afterCR) {
-        for (CharHandler handler : handlers) {
-          if (c == CARRIAGE_RETURN) {
-            handler.newLine();
-            handler.handleAll(c);
-          } else if (c == LINE_FEED) {
+    int read;
+    while ((read = reader.read(buffer, 0, BUFFER_SIZE)) != -1) {
+      for (int i = 0; i < read; i++) {
+        char c = buffer[i];
+        if (afterCR) {
+          for (CharHandler handler : handlers) {
+            if (c == CARRIAGE_RETURN) {
+              handler.newLine();
+              handler.handleAll(c);
+            } else if (c == LINE_FEED) {
+              handler.handleAll(c);
+              handler.newLine();
+            } else {
+              handler.newLine();
+              handler.handleIgnoreEoL(c);
+              handler.handleAll(c);
+            }
+          }
+          afterCR = c == CARRIAGE_RETURN;
+        } else if (c == LINE_FEED) {
+          for (CharHandler handler : handlers) {
             handler.handleAll(c);
             handler.newLine();
-          } else {
-            handler.newLine();
+          }
+        } else if (c == CARRIAGE_RETURN) {
+          afterCR = true;
+          for (CharHandler handler : handlers) {
+            handler.handleAll(c);
+          }
+        } else {
+          for (CharHandler handler : handlers) {
             handler.handleIgnoreEoL(c);
             handler.handleAll(c);
           }
         }
-        afterCR = c == CARRIAGE_RETURN;
-      } else if (c == LINE_FEED) {
-        for (CharHandler handler : handlers) {
-          handler.handleAll(c);
-          handler.newLine();
-        }
-      } else if (c == CARRIAGE_RETURN) {
-        afterCR = true;
-        for (CharHandler handler : handlers) {
-          handler.handleAll(c);
-        }
-      } else {
-        for (CharHandler handler : handlers) {
-          handler.handleIgnoreEoL(c);
-          handler.handleAll(c);
-        }
       }
-      i = reader.read();
     }
     for (CharHandler handler : handlers) {
       if (afterCR) {
@@ -372,6 +355,16 @@ public class FileMetadata {
    * Compute a MD5 hash of each line of the file after removing of all blank chars
    */
   public static void computeLineHashesForIssueTracking(InputFile f, LineHashConsumer consumer) {
+    byte[][] lineHashes = f instanceof DefaultInputFile ? ((DefaultInputFile) f).lineHashes() : null;
+    if (lineHashes != null) {
+      // already computed while reading metadata
+      for (int i = 0; i < lineHashes.length; i++) {
+        if (lineHashes[i] != null) {
+          consumer.consume(i + 1, lineHashes[i]);
+        }
+      }
+      return;
+    }
     try {
       readFile(f.inputStream(), f.charset(), f.absolutePath(), new CharHandler[] {new LineHashComputer(consumer, f.file())});
     } catch (IOException e) {
@@ -37,6 +37,11 @@ public class FilenamePredicate extends AbstractFilePredicate {
     return filename.equals(getFilename(inputFile));
   }
 
+  @Override
+  public int priority() {
+    return USE_INDEX;
+  }
+
   @Override
   public Iterable<InputFile> get(FileSystem.Index index) {
     return index.getFilesByName(filename);
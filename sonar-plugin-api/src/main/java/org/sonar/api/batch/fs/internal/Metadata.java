@@ -19,19 +19,31 @@
  */
 package org.sonar.api.batch.fs.internal;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
 public class Metadata {
   private final int lines;
   private final int nonBlankLines;
   private final String hash;
   private final int[] originalLineOffsets;
   private final int lastValidOffset;
+  private final byte[][] lineHashes;
 
   public Metadata(int lines, int nonBlankLines, String hash, int[] originalLineOffsets, int lastValidOffset) {
+    this(lines, nonBlankLines, hash, originalLineOffsets, lastValidOffset, null);
+  }
+
+  /**
+   * @since 6.5
+   */
+  public Metadata(int lines, int nonBlankLines, String hash, int[] originalLineOffsets, int lastValidOffset, @Nullable byte[][] lineHashes) {
     this.lines = lines;
     this.nonBlankLines = nonBlankLines;
     this.hash = hash;
     this.originalLineOffsets = originalLineOffsets;
     this.lastValidOffset = lastValidOffset;
+    this.lineHashes = lineHashes;
   }
 
   public int lines() {
@@ -54,4 +66,15 @@ public class Metadata {
     return lastValidOffset;
   }
 
+  /**
+   * MD5 hashes of lines used by issue tracking, indexed by line - 1. Hashes of blank lines are {@code null}.
+   *
+   * @return {@code null} if hashes were not computed with the other metadata
+   * @since 6.5
+   */
+  @CheckForNull
+  public byte[][] lineHashes() {
+    return lineHashes;
+  }
+
 }
@@ -19,6 +19,7 @@
  */
 package org.sonar.api.batch.fs.internal;
 
+import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 
 /**
@@ -37,4 +38,13 @@ class TypePredicate extends AbstractFilePredicate {
     return type == f.type();
   }
 
+  @Override
+  public Iterable<InputFile> get(FileSystem.Index index) {
+    return index.getFilesByType(type);
+  }
+
+  @Override
+  public int priority() {
+    return USE_INDEX;
+  }
 }
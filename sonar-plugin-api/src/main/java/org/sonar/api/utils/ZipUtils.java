@@ -198,6 +198,19 @@ public final class ZipUtils {
     }
   }
 
+  /**
+   * Compresses the content of a directory into a stream. The stream is not closed, so that
+   * zipped content can be followed by other data.
+   *
+   * @since 6.5
+   */
+  public static void zipDir(File dir, OutputStream out) throws IOException {
+    ZipOutputStream zout = new ZipOutputStream(out);
+    doZipDir(dir, zout);
+    zout.finish();
+    zout.flush();
+  }
+
   private static void doZip(String entryName, InputStream in, ZipOutputStream out) throws IOException {
     ZipEntry entry = new ZipEntry(entryName);
     out.putNextEntry(entry);
@@ -72,4 +72,22 @@ public class AndPredicateTest {
     assertThat(andPredicate).isEqualTo(FalsePredicate.FALSE);
   }
 
+  @Test
+  public void get_files_from_most_selective_index() {
+    InputFile foo = new TestInputFileBuilder("foo", "src/Foo.java").setLanguage("java").build();
+    InputFile bar = new TestInputFileBuilder("foo", "src/Bar.java").setLanguage("java").build();
+    InputFile otherFoo = new TestInputFileBuilder("foo", "other/Foo.java").setLanguage("java").setType(InputFile.Type.TEST).build();
+    InputFile baz = new TestInputFileBuilder("foo", "src/Baz.php").setLanguage("php").build();
+    FileSystem.Index index = mock(FileSystem.Index.class);
+    when(index.getFilesByLanguage("java")).thenReturn(Arrays.asList(foo, bar, otherFoo));
+    when(index.getFilesByName("Foo.java")).thenReturn(Arrays.asList(foo, otherFoo));
+    when(index.getFilesByType(InputFile.Type.MAIN)).thenReturn(Arrays.asList(foo, bar, baz));
+
+    OptimizedFilePredicate andPredicate = (OptimizedFilePredicate) AndPredicate.create(Arrays.<FilePredicate>asList(
+      new TypePredicate(InputFile.Type.MAIN), new LanguagePredicate("java"), new FilenamePredicate("Foo.java")));
+
+    assertThat(andPredicate.get(index)).containsExactly(foo);
+    verify(index, never()).inputFiles();
+  }
+
 }
@@ -24,6 +24,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
 
 import java.io.File;
 import java.nio.charset.Charset;
@@ -124,6 +125,22 @@ public class DefaultFileSystemTest {
     assertThat(iterator.hasNext()).isFalse();
   }
 
+  @Test
+  public void files_by_language_and_type() {
+    DefaultInputFile javaFile = new TestInputFileBuilder("foo", "src/Foo.java").setLanguage("java").build();
+    DefaultInputFile javaTestFile = new TestInputFileBuilder("foo", "test/FooTest.java").setLanguage("java").setType(InputFile.Type.TEST).build();
+    DefaultInputFile phpFile = new TestInputFileBuilder("foo", "src/Foo.php").setLanguage("php").build();
+    fs.add(javaFile);
+    fs.add(javaTestFile);
+    fs.add(phpFile);
+
+    assertThat(fs.inputFiles(fs.predicates().hasLanguage("java"))).containsOnly(javaFile, javaTestFile);
+    assertThat(fs.inputFiles(fs.predicates().hasType(InputFile.Type.MAIN))).containsOnly(javaFile, phpFile);
+    assertThat(fs.inputFiles(fs.predicates().and(fs.predicates().hasLanguage("java"), fs.predicates().hasType(InputFile.Type.MAIN))))
+      .containsOnly(javaFile);
+    assertThat(fs.inputFiles(fs.predicates().hasLanguage("cobol"))).isEmpty();
+  }
+
   @Test
   public void input_file_returns_null_if_file_not_found() {
     assertThat(fs.inputFile(fs.predicates().hasRelativePath("src/Bar.java"))).isNull();
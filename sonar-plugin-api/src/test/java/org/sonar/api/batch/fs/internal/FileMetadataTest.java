@@ -21,6 +21,8 @@ package org.sonar.api.batch.fs.internal;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.HashMap;
+import java.util.Map;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
@@ -264,6 +266,56 @@ public class FileMetadataTest {
     });
   }
 
+  @Test
+  public void compute_line_hashes_with_other_metadata() throws Exception {
+    File tempFile = temp.newFile();
+    FileUtils.write(tempFile, "foo\r\n\n  b a r\r\nbaz", StandardCharsets.UTF_8, true);
+
+    Metadata metadata = new FileMetadata().readMetadata(new FileInputStream(tempFile), StandardCharsets.UTF_8, tempFile.getName(), null, true);
+
+    assertThat(metadata.lines()).isEqualTo(4);
+    assertThat(metadata.lineHashes()).hasSize(4);
+    assertThat(Hex.encodeHexString(metadata.lineHashes()[0])).isEqualTo(md5Hex("foo"));
+    assertThat(metadata.lineHashes()[1]).isNull();
+    assertThat(Hex.encodeHexString(metadata.lineHashes()[2])).isEqualTo(md5Hex("bar"));
+    assertThat(Hex.encodeHexString(metadata.lineHashes()[3])).isEqualTo(md5Hex("baz"));
+    assertThat(new FileMetadata().readMetadata(new FileInputStream(tempFile), StandardCharsets.UTF_8, tempFile.getName()).lineHashes()).isNull();
+  }
+
+  @Test
+  public void line_hashes_are_not_computed_again_if_already_in_metadata() throws Exception {
+    byte[] fooHash = new byte[] {1, 2, 3};
+    DefaultInputFile f = new TestInputFileBuilder("foo", "does/not/exist.txt").build();
+    f.setMetadata(new Metadata(2, 1, "hash", new int[] {0, 4}, 7, new byte[][] {fooHash, null}));
+    Map<Integer, byte[]> hashes = new HashMap<>();
+
+    FileMetadata.computeLineHashesForIssueTracking(f, hashes::put);
+
+    assertThat(hashes).containsOnlyKeys(1);
+    assertThat(hashes.get(1)).isSameAs(fooHash);
+  }
+
+  @Test
+  public void read_file_larger_than_buffer() throws Exception {
+    StringBuilder content = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    int lines = 0;
+    while (content.length() < 100_000) {
+      content.append("line ").append(lines).append("\r\n");
+      expected.append("line ").append(lines).append("\n");
+      lines++;
+    }
+    File tempFile = temp.newFile();
+    FileUtils.write(tempFile, content, StandardCharsets.UTF_8, true);
+
+    Metadata metadata = new FileMetadata().readMetadata(new FileInputStream(tempFile), StandardCharsets.UTF_8, tempFile.getName());
+
+    assertThat(metadata.lines()).isEqualTo(lines + 1);
+    assertThat(metadata.nonBlankLines()).isEqualTo(lines);
+    assertThat(metadata.hash()).isEqualTo(md5Hex(expected.toString()));
+    assertThat(metadata.lastValidOffset()).isEqualTo(content.length());
+  }
+
   @Test
   public void line_feed_is_included_into_hash() throws Exception {
     File file1 = temp.newFile();
@@ -37,6 +37,7 @@ import org.sonar.scanner.scan.report.IssuesReportBuilder;
 import org.sonar.scanner.scan.report.JSONReport;
 import org.sonar.scanner.scan.report.RuleNameProvider;
 import org.sonar.scanner.scan.report.SourceProvider;
+import org.sonar.scanner.scm.BlameCache;
 import org.sonar.scanner.scm.ScmConfiguration;
 import org.sonar.scanner.scm.ScmPublisher;
 import org.sonar.scanner.source.ZeroCoverageSensor;
@@ -64,6 +65,7 @@ public class BatchComponents {
       // SCM
       components.add(ScmConfiguration.class);
       components.add(ScmPublisher.class);
+      components.add(BlameCache.class);
 
       components.add(ZeroCoverageSensor.class);
 
@@ -63,6 +63,7 @@ public class CpdExecutor {
   private static final int TIMEOUT = 5 * 60 * 1000;
   static final int MAX_CLONE_GROUP_PER_FILE = 100;
   static final int MAX_CLONE_PART_PER_GROUP = 100;
+  static final String SUFFIX_ARRAY_PROPERTY = "sonar.cpd.suffixArray";
 
   private final SonarCpdBlockIndex index;
   private final ReportPublisher publisher;
@@ -127,7 +128,8 @@ public class CpdExecutor {
     progressReport.message(String.format("%d/%d - current file: %s", count, total, inputFile.absolutePath()));
 
     List<CloneGroup> duplications;
-    Future<List<CloneGroup>> futureResult = executorService.submit(() -> SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks));
+    boolean useSuffixArray = settings.getBoolean(SUFFIX_ARRAY_PROPERTY);
+    Future<List<CloneGroup>> futureResult = executorService.submit(() -> SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks, useSuffixArray));
     try {
       duplications = futureResult.get(timeout, TimeUnit.MILLISECONDS);
     } catch (TimeoutException e) {
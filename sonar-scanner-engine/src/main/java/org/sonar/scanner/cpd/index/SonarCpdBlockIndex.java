@@ -20,9 +20,9 @@
 package org.sonar.scanner.cpd.index;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.CoreProperties;
@@ -35,7 +35,7 @@ import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
 import org.sonar.duplications.index.AbstractCloneIndex;
 import org.sonar.duplications.index.CloneIndex;
-import org.sonar.duplications.index.PackedMemoryCloneIndex;
+import org.sonar.duplications.index.ConcurrentPackedMemoryCloneIndex;
 import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
 import org.sonar.scanner.protocol.output.FileStructure;
 import org.sonar.scanner.protocol.output.ScannerReport;
@@ -43,11 +43,12 @@ import org.sonar.scanner.report.ReportPublisher;
 
 public class SonarCpdBlockIndex extends AbstractCloneIndex {
   private static final Logger LOG = Loggers.get(SonarCpdBlockIndex.class);
-  private final CloneIndex mem = new PackedMemoryCloneIndex();
+  // blocks may be inserted concurrently by sensors executed on several threads
+  private final CloneIndex mem = new ConcurrentPackedMemoryCloneIndex();
   private final ReportPublisher publisher;
   private final Settings settings;
   // Files already tokenized
-  private final Set<InputFile> indexedFiles = new HashSet<>();
+  private final Set<InputFile> indexedFiles = ConcurrentHashMap.newKeySet();
 
   public SonarCpdBlockIndex(ReportPublisher publisher, Settings settings) {
     this.publisher = publisher;
@@ -25,6 +25,7 @@ import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Table;
 import com.google.common.collect.TreeBasedTable;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -62,6 +63,13 @@ public class InputComponentStore {
   private final Map<String, InputComponent> inputComponents = new HashMap<>();
   private final SetMultimap<String, InputFile> filesByNameCache = LinkedHashMultimap.create();
   private final SetMultimap<String, InputFile> filesByExtensionCache = LinkedHashMultimap.create();
+  private final SetMultimap<String, InputFile> filesByLanguageCache = LinkedHashMultimap.create();
+  private final SetMultimap<InputFile.Type, InputFile> filesByTypeCache = LinkedHashMultimap.create();
+  // same as the four above, but by module
+  private final Map<String, SetMultimap<String, InputFile>> moduleFilesByNameCache = new HashMap<>();
+  private final Map<String, SetMultimap<String, InputFile>> moduleFilesByExtensionCache = new HashMap<>();
+  private final Map<String, SetMultimap<String, InputFile>> moduleFilesByLanguageCache = new HashMap<>();
+  private final Map<String, SetMultimap<InputFile.Type, InputFile>> moduleFilesByTypeCache = new HashMap<>();
   private InputModule root;
 
   public InputComponentStore(PathResolver pathResolver) {
@@ -104,6 +112,7 @@ public class InputComponentStore {
   }
 
   public InputComponentStore removeModule(String moduleKey) {
+    new ArrayList<>(inputFileCache.row(moduleKey).values()).forEach(this::removeFromIndexes);
     inputFileCache.row(moduleKey).clear();
     inputDirCache.row(moduleKey).clear();
     return this;
@@ -111,10 +120,41 @@ public class InputComponentStore {
 
   public InputComponentStore remove(InputFile inputFile) {
     DefaultInputFile file = (DefaultInputFile) inputFile;
-    inputFileCache.remove(file.moduleKey(), inputFile.relativePath());
+    if (inputFileCache.remove(file.moduleKey(), inputFile.relativePath()) != null) {
+      removeFromIndexes(file);
+    }
     return this;
   }
 
+  private void removeFromIndexes(InputFile inputFile) {
+    DefaultInputFile file = (DefaultInputFile) inputFile;
+    String filename = FilenamePredicate.getFilename(file);
+    String extension = FileExtensionPredicate.getExtension(file);
+    filesByNameCache.remove(filename, file);
+    filesByExtensionCache.remove(extension, file);
+    filesByTypeCache.remove(file.type(), file);
+    SetMultimap<String, InputFile> moduleFilesByName = moduleFilesByNameCache.get(file.moduleKey());
+    if (moduleFilesByName != null) {
+      moduleFilesByName.remove(filename, file);
+    }
+    SetMultimap<String, InputFile> moduleFilesByExtension = moduleFilesByExtensionCache.get(file.moduleKey());
+    if (moduleFilesByExtension != null) {
+      moduleFilesByExtension.remove(extension, file);
+    }
+    SetMultimap<InputFile.Type, InputFile> moduleFilesByType = moduleFilesByTypeCache.get(file.moduleKey());
+    if (moduleFilesByType != null) {
+      moduleFilesByType.remove(file.type(), file);
+    }
+    String language = file.language();
+    if (language != null) {
+      filesByLanguageCache.remove(language, file);
+      SetMultimap<String, InputFile> moduleFilesByLanguage = moduleFilesByLanguageCache.get(file.moduleKey());
+      if (moduleFilesByLanguage != null) {
+        moduleFilesByLanguage.remove(language, file);
+      }
+    }
+  }
+
   public InputComponentStore remove(InputDir inputDir) {
     DefaultInputDir dir = (DefaultInputDir) inputDir;
     inputDirCache.remove(dir.moduleKey(), inputDir.relativePath());
@@ -127,8 +167,14 @@ public class InputComponentStore {
     inputFileCache.put(file.moduleKey(), inputFile.relativePath(), inputFile);
     globalInputFileCache.put(getProjectRelativePath(file), inputFile);
     inputComponents.put(inputFile.key(), inputFile);
-    filesByNameCache.put(FilenamePredicate.getFilename(inputFile), inputFile);
-    filesByExtensionCache.put(FileExtensionPredicate.getExtension(inputFile), inputFile);
+    String filename = FilenamePredicate.getFilename(inputFile);
+    String extension = FileExtensionPredicate.getExtension(inputFile);
+    filesByNameCache.put(filename, inputFile);
+    filesByExtensionCache.put(extension, inputFile);
+    moduleFilesByNameCache.computeIfAbsent(file.moduleKey(), k -> LinkedHashMultimap.create()).put(filename, inputFile);
+    moduleFilesByExtensionCache.computeIfAbsent(file.moduleKey(), k -> LinkedHashMultimap.create()).put(extension, inputFile);
+    filesByTypeCache.put(file.type(), inputFile);
+    moduleFilesByTypeCache.computeIfAbsent(file.moduleKey(), k -> LinkedHashMultimap.create()).put(file.type(), inputFile);
     return this;
   }
 
@@ -137,6 +183,8 @@ public class InputComponentStore {
     if (language != null) {
       globalLanguagesCache.add(language);
       languagesCache.computeIfAbsent(inputFile.moduleKey(), k -> new TreeSet<>()).add(language);
+      filesByLanguageCache.put(language, inputFile);
+      moduleFilesByLanguageCache.computeIfAbsent(inputFile.moduleKey(), k -> LinkedHashMultimap.create()).put(language, inputFile);
     }
   }
 
@@ -203,10 +251,38 @@ public class InputComponentStore {
     return filesByNameCache.get(filename);
   }
 
+  public Iterable<InputFile> getFilesByName(String moduleKey, String filename) {
+    SetMultimap<String, InputFile> moduleFilesByName = moduleFilesByNameCache.get(moduleKey);
+    return moduleFilesByName == null ? Collections.emptySet() : moduleFilesByName.get(filename);
+  }
+
   public Iterable<InputFile> getFilesByExtension(String extension) {
     return filesByExtensionCache.get(extension);
   }
 
+  public Iterable<InputFile> getFilesByExtension(String moduleKey, String extension) {
+    SetMultimap<String, InputFile> moduleFilesByExtension = moduleFilesByExtensionCache.get(moduleKey);
+    return moduleFilesByExtension == null ? Collections.emptySet() : moduleFilesByExtension.get(extension);
+  }
+
+  public Collection<InputFile> getFilesByLanguage(String language) {
+    return filesByLanguageCache.get(language);
+  }
+
+  public Collection<InputFile> getFilesByLanguage(String moduleKey, String language) {
+    SetMultimap<String, InputFile> moduleFilesByLanguage = moduleFilesByLanguageCache.get(moduleKey);
+    return moduleFilesByLanguage == null ? Collections.emptySet() : moduleFilesByLanguage.get(language);
+  }
+
+  public Collection<InputFile> getFilesByType(InputFile.Type type) {
+    return filesByTypeCache.get(type);
+  }
+
+  public Collection<InputFile> getFilesByType(String moduleKey, InputFile.Type type) {
+    SetMultimap<InputFile.Type, InputFile> moduleFilesByType = moduleFilesByTypeCache.get(moduleKey);
+    return moduleFilesByType == null ? Collections.emptySet() : moduleFilesByType.get(type);
+  }
+
   public SortedSet<String> getLanguages() {
     return globalLanguagesCache;
   }
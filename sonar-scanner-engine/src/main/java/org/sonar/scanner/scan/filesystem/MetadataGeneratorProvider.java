@@ -20,6 +20,7 @@
 package org.sonar.scanner.scan.filesystem;
 
 import org.picocontainer.injectors.ProviderAdapter;
+import org.sonar.api.batch.AnalysisMode;
 import org.sonar.api.batch.ScannerSide;
 import org.sonar.api.batch.fs.internal.DefaultInputModule;
 import org.sonar.api.batch.fs.internal.FileMetadata;
@@ -28,7 +29,7 @@ import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader;
 @ScannerSide
 public class MetadataGeneratorProvider extends ProviderAdapter {
   public MetadataGenerator provide(DefaultInputModule inputModule, StatusDetectionFactory statusDetectionFactory, FileMetadata fileMetadata,
-    IssueExclusionsLoader exclusionsScanner) {
-    return new MetadataGenerator(inputModule, statusDetectionFactory.create(), fileMetadata, exclusionsScanner);
+    IssueExclusionsLoader exclusionsScanner, AnalysisMode analysisMode) {
+    return new MetadataGenerator(inputModule, statusDetectionFactory.create(), fileMetadata, exclusionsScanner, analysisMode);
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.scm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonar.api.batch.InstantiationStrategy;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.scanner.protocol.output.ScannerReport;
+import org.sonar.scanner.scan.ImmutableProjectReactor;
+
+/**
+ * Local cache of the blame information of files, stored in the work directory of the project so that
+ * it's kept between analyses. Entries are keyed by the key (module key and path) and the hash of the content of files,
+ * so a file that didn't change since it was blamed is never blamed again. Entries which are not used by an
+ * analysis are deleted at its end, see {@link #prune()}.
+ */
+@InstantiationStrategy(InstantiationStrategy.PER_BATCH)
+@ScannerSide
+public class BlameCache {
+
+  public static final String DIR_NAME = "scm-blame-cache";
+
+  private static final Logger LOG = Loggers.get(BlameCache.class);
+
+  private final Path dir;
+  // names of the entries read or written by the current analysis
+  private final Set<String> usedEntries = ConcurrentHashMap.newKeySet();
+
+  public BlameCache(ImmutableProjectReactor projectReactor) {
+    this(new File(projectReactor.getRoot().getWorkDir(), DIR_NAME).toPath());
+  }
+
+  BlameCache(Path dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * @return the changesets of the file, without component reference, or {@code null} if the file is not in cache
+   */
+  @CheckForNull
+  public ScannerReport.Changesets get(DefaultInputFile file) {
+    Path entry = entryOf(file);
+    if (!Files.exists(entry)) {
+      return null;
+    }
+    try (InputStream input = Files.newInputStream(entry)) {
+      ScannerReport.Changesets changesets = ScannerReport.Changesets.parseFrom(input);
+      usedEntries.add(entry.getFileName().toString());
+      return changesets;
+    } catch (IOException e) {
+      LOG.debug("Ignoring corrupted blame cache entry of file {}", file.relativePath(), e);
+      return null;
+    }
+  }
+
+  public void put(DefaultInputFile file, ScannerReport.Changesets changesets) {
+    Path entry = entryOf(file);
+    try {
+      Files.createDirectories(dir);
+      // written to a temporary file then moved, as files may be blamed concurrently
+      Path tmp = Files.createTempFile(dir, entry.getFileName().toString(), ".tmp");
+      try (OutputStream output = Files.newOutputStream(tmp)) {
+        changesets.toBuilder().clearComponentRef().build().writeTo(output);
+      }
+      Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      usedEntries.add(entry.getFileName().toString());
+    } catch (IOException e) {
+      // the cache is an optimization only
+      LOG.debug("Fail to cache blame of file {}", file.relativePath(), e);
+    }
+  }
+
+  /**
+   * Deletes the entries which were neither read nor written by the current analysis, for example the entries
+   * of deleted files or of previous versions of files. Must be called once all the files of the project are processed.
+   */
+  public void prune() {
+    if (!Files.isDirectory(dir)) {
+      return;
+    }
+    try (Stream<Path> entries = Files.list(dir)) {
+      entries
+        .filter(entry -> !usedEntries.contains(entry.getFileName().toString()))
+        .forEach(BlameCache::delete);
+    } catch (IOException e) {
+      LOG.debug("Fail to prune blame cache", e);
+    }
+  }
+
+  private static void delete(Path entry) {
+    try {
+      Files.deleteIfExists(entry);
+    } catch (IOException e) {
+      LOG.debug("Fail to delete blame cache entry {}", entry, e);
+    }
+  }
+
+  private Path entryOf(DefaultInputFile file) {
+    // the relative path is not enough, as it's relative to the module
+    return dir.resolve(DigestUtils.md5Hex(file.key() + ":" + file.hash()));
+  }
+}
@@ -21,11 +21,13 @@ package org.sonar.scanner.scm;
 
 import com.google.common.base.Preconditions;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.batch.fs.InputFile;
@@ -39,27 +41,36 @@ import org.sonar.scanner.protocol.output.ScannerReport.Changesets.Builder;
 import org.sonar.scanner.util.ProgressReport;
 import org.sonar.scanner.protocol.output.ScannerReportWriter;
 
+/**
+ * Thread-safe, so that the files to blame can be partitioned between several concurrent blame commands.
+ */
 class DefaultBlameOutput implements BlameOutput {
 
   private static final Logger LOG = Loggers.get(DefaultBlameOutput.class);
 
   private final ScannerReportWriter writer;
-  private final Set<InputFile> allFilesToBlame = new HashSet<>();
-  private ProgressReport progressReport;
-  private int count;
-  private int total;
+  @CheckForNull
+  private final BlameCache cache;
+  private final Set<InputFile> allFilesToBlame = ConcurrentHashMap.newKeySet();
+  private final ProgressReport progressReport;
+  private final AtomicInteger count = new AtomicInteger();
+  private final int total;
 
   DefaultBlameOutput(ScannerReportWriter writer, List<InputFile> filesToBlame) {
+    this(writer, filesToBlame, null);
+  }
+
+  DefaultBlameOutput(ScannerReportWriter writer, List<InputFile> filesToBlame, @Nullable BlameCache cache) {
     this.writer = writer;
+    this.cache = cache;
     this.allFilesToBlame.addAll(filesToBlame);
-    count = 0;
     total = filesToBlame.size();
     progressReport = new ProgressReport("Report about progress of SCM blame", TimeUnit.SECONDS.toMillis(10));
     progressReport.start(total + " files to be analyzed");
   }
 
   @Override
-  public synchronized void blameResult(InputFile file, List<BlameLine> lines) {
+  public void blameResult(InputFile file, List<BlameLine> lines) {
     Preconditions.checkNotNull(file);
     Preconditions.checkNotNull(lines);
     Preconditions.checkArgument(allFilesToBlame.contains(file), "It was not expected to blame file %s", file.relativePath());
@@ -86,10 +97,16 @@ class DefaultBlameOutput implements BlameOutput {
       scmBuilder.addChangesetIndexByLine(changesetId);
       lineId++;
     }
-    writer.writeComponentChangesets(scmBuilder.build());
-    allFilesToBlame.remove(file);
-    count++;
-    progressReport.message(count + "/" + total + " files analyzed");
+    if (!allFilesToBlame.remove(file)) {
+      // blame result already provided by a concurrent command
+      return;
+    }
+    ScannerReport.Changesets changesets = scmBuilder.build();
+    writer.writeComponentChangesets(changesets);
+    if (cache != null) {
+      cache.put(inputFile, changesets);
+    }
+    progressReport.message(count.incrementAndGet() + "/" + total + " files analyzed");
   }
 
   private static void validateLine(BlameLine line, int lineId, InputFile file) {
@@ -116,7 +133,7 @@ class DefaultBlameOutput implements BlameOutput {
   }
 
   public void finish(boolean success) {
-    progressReport.stop(count + "/" + total + " files analyzed");
+    progressReport.stop(count.get() + "/" + total + " files analyzed");
     if (success && !allFilesToBlame.isEmpty()) {
       LOG.warn("Missing blame information for the following files:");
       for (InputFile f : allFilesToBlame) {
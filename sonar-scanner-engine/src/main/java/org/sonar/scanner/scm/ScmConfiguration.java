@@ -47,7 +47,17 @@ import org.sonar.scanner.scan.ImmutableProjectReactor;
     project = false,
     module = false,
     global = false,
-    type = PropertyType.BOOLEAN)
+    type = PropertyType.BOOLEAN),
+  @Property(
+    key = ScmConfiguration.BLAME_THREADS_KEY,
+    defaultValue = "1",
+    name = "Number of threads used to blame files",
+    description = "Files to blame are partitioned between this number of threads. The SCM provider must support concurrent blame commands.",
+    category = CoreProperties.CATEGORY_SCM,
+    project = false,
+    module = false,
+    global = false,
+    type = PropertyType.INTEGER)
 })
 @InstantiationStrategy(InstantiationStrategy.PER_BATCH)
 @ScannerSide
@@ -55,6 +65,7 @@ public final class ScmConfiguration implements Startable {
   private static final Logger LOG = Loggers.get(ScmConfiguration.class);
 
   public static final String FORCE_RELOAD_KEY = "sonar.scm.forceReloadAll";
+  public static final String BLAME_THREADS_KEY = "sonar.scm.blame.threads";
 
   private final ImmutableProjectReactor projectReactor;
   private final Settings settings;
@@ -147,6 +158,10 @@ public final class ScmConfiguration implements Startable {
     return settings.getBoolean(FORCE_RELOAD_KEY);
   }
 
+  public int blameThreads() {
+    return settings.hasKey(BLAME_THREADS_KEY) ? Math.max(1, settings.getInt(BLAME_THREADS_KEY)) : 1;
+  }
+
   @Override
   public void stop() {
     // Nothing to do
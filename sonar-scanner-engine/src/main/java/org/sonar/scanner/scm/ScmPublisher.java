@@ -19,8 +19,14 @@
  */
 package org.sonar.scanner.scm;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.InstantiationStrategy;
@@ -29,13 +35,13 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputFile.Status;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputModule;
+import org.sonar.api.batch.scm.BlameCommand;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.scanner.protocol.output.ScannerReport;
 import org.sonar.scanner.protocol.output.ScannerReportWriter;
 import org.sonar.scanner.report.ReportPublisher;
 import org.sonar.scanner.protocol.output.ScannerReport.Changesets.Builder;
-import org.sonar.scanner.repository.FileData;
 import org.sonar.scanner.repository.ProjectRepositories;
 import org.sonar.scanner.scan.filesystem.DefaultModuleFileSystem;
 import org.sonar.scanner.scan.filesystem.ModuleInputComponentStore;
@@ -52,15 +58,17 @@ public final class ScmPublisher {
   private final ModuleInputComponentStore componentStore;
   private final DefaultModuleFileSystem fs;
   private final ScannerReportWriter writer;
+  private final BlameCache blameCache;
 
   public ScmPublisher(DefaultInputModule inputModule, ScmConfiguration configuration, ProjectRepositories projectRepositories,
-    ModuleInputComponentStore componentStore, DefaultModuleFileSystem fs, ReportPublisher reportPublisher) {
+    ModuleInputComponentStore componentStore, DefaultModuleFileSystem fs, ReportPublisher reportPublisher, BlameCache blameCache) {
     this.inputModule = inputModule;
     this.configuration = configuration;
     this.projectRepositories = projectRepositories;
     this.componentStore = componentStore;
     this.fs = fs;
     this.writer = reportPublisher.getWriter();
+    this.blameCache = blameCache;
   }
 
   public void publish() {
@@ -77,15 +85,63 @@ public final class ScmPublisher {
     if (!filesToBlame.isEmpty()) {
       String key = configuration.provider().key();
       LOG.info("SCM provider for this project is: " + key);
-      DefaultBlameOutput output = new DefaultBlameOutput(writer, filesToBlame);
+      DefaultBlameOutput output = new DefaultBlameOutput(writer, filesToBlame, blameCache);
       try {
-        configuration.provider().blameCommand().blame(new DefaultBlameInput(fs, filesToBlame), output);
+        blame(configuration.provider().blameCommand(), filesToBlame, output);
       } catch (Exception e) {
         output.finish(false);
         throw e;
       }
       output.finish(true);
     }
+    if (inputModule.definition().getParent() == null) {
+      // modules are processed before their parent, so the files of the whole project have been processed
+      blameCache.prune();
+    }
+  }
+
+  private void blame(BlameCommand blameCommand, List<InputFile> filesToBlame, DefaultBlameOutput output) {
+    int threads = Math.min(configuration.blameThreads(), filesToBlame.size());
+    if (threads <= 1) {
+      blameCommand.blame(new DefaultBlameInput(fs, filesToBlame), output);
+      return;
+    }
+    LOG.debug("Blame files with {} threads", threads);
+    List<List<InputFile>> partitions = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      partitions.add(new ArrayList<>());
+    }
+    int index = 0;
+    for (InputFile f : filesToBlame) {
+      partitions.get(index % threads).add(f);
+      index++;
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "SCM blame " + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<?>> futures = new ArrayList<>(threads);
+      for (List<InputFile> partition : partitions) {
+        futures.add(executor.submit(() -> blameCommand.blame(new DefaultBlameInput(fs, partition), output)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while blaming files", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Fail to blame files", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
   }
 
   private List<InputFile> collectFilesToBlame(ScannerReportWriter writer) {
@@ -93,26 +149,47 @@ public final class ScmPublisher {
       LOG.warn("Forced reloading of SCM data for all files.");
     }
     List<InputFile> filesToBlame = new LinkedList<>();
+    int cached = 0;
     for (InputFile f : componentStore.inputFiles()) {
       DefaultInputFile inputFile = (DefaultInputFile) f;
       if (!inputFile.publish()) {
         continue;
       }
-      if (configuration.forceReloadAll() || f.status() != Status.SAME) {
+      if (configuration.forceReloadAll()) {
         addIfNotEmpty(filesToBlame, f);
-      } else {
-        // File status is SAME so that mean fileData exists
-        FileData fileData = projectRepositories.fileData(inputModule.definition().getKeyWithBranch(), f.relativePath());
-        if (StringUtils.isEmpty(fileData.revision())) {
-          addIfNotEmpty(filesToBlame, f);
+      } else if (f.status() != Status.SAME || StringUtils.isEmpty(previousRevision(f))) {
+        if (f.isEmpty()) {
+          continue;
+        }
+        if (copyFromBlameCache(inputFile, writer)) {
+          cached++;
         } else {
-          askToCopyDataFromPreviousAnalysis((DefaultInputFile) f, writer);
+          filesToBlame.add(f);
         }
+      } else {
+        askToCopyDataFromPreviousAnalysis(inputFile, writer);
       }
     }
+    if (cached > 0) {
+      LOG.info("Blame of {} unchanged files loaded from cache", cached);
+    }
     return filesToBlame;
   }
 
+  private String previousRevision(InputFile f) {
+    // File status is SAME so that mean fileData exists
+    return projectRepositories.fileData(inputModule.definition().getKeyWithBranch(), f.relativePath()).revision();
+  }
+
+  private boolean copyFromBlameCache(DefaultInputFile f, ScannerReportWriter writer) {
+    ScannerReport.Changesets changesets = blameCache.get(f);
+    if (changesets == null) {
+      return false;
+    }
+    writer.writeComponentChangesets(changesets.toBuilder().setComponentRef(f.batchId()).build());
+    return true;
+  }
+
   private static void askToCopyDataFromPreviousAnalysis(DefaultInputFile f, ScannerReportWriter writer) {
     Builder scmBuilder = ScannerReport.Changesets.newBuilder();
     scmBuilder.setComponentRef(f.batchId());
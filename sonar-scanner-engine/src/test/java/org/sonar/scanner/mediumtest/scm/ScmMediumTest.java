@@ -41,6 +41,7 @@ import org.sonar.scanner.mediumtest.ScannerMediumTester.TaskBuilder;
 import org.sonar.scanner.protocol.output.ScannerReport;
 import org.sonar.scanner.protocol.output.ScannerReport.Changesets.Changeset;
 import org.sonar.scanner.repository.FileData;
+import org.sonar.scanner.scm.BlameCache;
 import org.sonar.scanner.protocol.output.ScannerReport.Component;
 import org.sonar.scanner.protocol.output.ScannerReportReader;
 import org.sonar.xoo.XooPlugin;
@@ -334,6 +335,71 @@ public class ScmMediumTest {
     assertThat(file1Scm).isNotNull();
   }
 
+  @Test
+  public void blame_files_in_parallel() throws IOException, URISyntaxException {
+    File baseDir = prepareProject();
+    for (int i = 1; i <= 5; i++) {
+      FileUtils.write(new File(baseDir, "src/parallel" + i + ".xoo"), "Sample xoo\ncontent");
+      FileUtils.write(new File(baseDir, "src/parallel" + i + ".xoo.scm"), "1,author" + i + ",2013-01-04\n2,author" + i + ",2013-01-04\n");
+    }
+
+    tester.newTask()
+      .properties(ImmutableMap.<String, String>builder()
+        .put("sonar.task", "scan")
+        .put("sonar.projectBaseDir", baseDir.getAbsolutePath())
+        .put("sonar.projectKey", "com.foo.project")
+        .put("sonar.projectName", "Foo Project")
+        .put("sonar.projectVersion", "1.0-SNAPSHOT")
+        .put("sonar.projectDescription", "Description of Foo Project")
+        .put("sonar.sources", "src")
+        .put("sonar.scm.provider", "xoo")
+        .put("sonar.scm.blame.threads", "3")
+        .build())
+      .start();
+
+    assertThat(getChangesets(baseDir, "src/sample.xoo").getChangesetIndexByLineList()).hasSize(5);
+    for (int i = 1; i <= 5; i++) {
+      ScannerReport.Changesets changesets = getChangesets(baseDir, "src/parallel" + i + ".xoo");
+      assertThat(changesets.getChangesetIndexByLineList()).hasSize(2);
+      assertThat(changesets.getChangeset(changesets.getChangesetIndexByLine(0)).getAuthor()).isEqualTo("author" + i);
+    }
+    assertThat(blameCacheEntries(baseDir)).hasSize(6);
+  }
+
+  @Test
+  public void prune_blame_cache_entries_of_files_not_analyzed_anymore() throws IOException, URISyntaxException {
+    File baseDir = prepareProject();
+    File removedFile = new File(baseDir, "src/removed.xoo");
+    FileUtils.write(removedFile, "Sample xoo\ncontent");
+    File removedScmFile = new File(baseDir, "src/removed.xoo.scm");
+    FileUtils.write(removedScmFile, "1,foo,2013-01-04\n2,bar,2013-01-04\n");
+    ImmutableMap<String, String> properties = ImmutableMap.<String, String>builder()
+      .put("sonar.task", "scan")
+      .put("sonar.projectBaseDir", baseDir.getAbsolutePath())
+      .put("sonar.projectKey", "com.foo.project")
+      .put("sonar.projectName", "Foo Project")
+      .put("sonar.projectVersion", "1.0-SNAPSHOT")
+      .put("sonar.projectDescription", "Description of Foo Project")
+      .put("sonar.sources", "src")
+      .put("sonar.scm.provider", "xoo")
+      .build();
+
+    tester.newTask().properties(properties).start();
+    assertThat(blameCacheEntries(baseDir)).hasSize(2);
+
+    FileUtils.forceDelete(removedFile);
+    FileUtils.forceDelete(removedScmFile);
+    tester.newTask().properties(properties).start();
+
+    assertThat(logTester.logs()).contains("Blame of 1 unchanged files loaded from cache");
+    assertThat(getChangesets(baseDir, "src/sample.xoo").getChangesetIndexByLineList()).hasSize(5);
+    assertThat(blameCacheEntries(baseDir)).hasSize(1);
+  }
+
+  private static File[] blameCacheEntries(File baseDir) {
+    return new File(baseDir, ".sonar/" + BlameCache.DIR_NAME).listFiles();
+  }
+
   private String getNonAsciiAuthor() throws URISyntaxException {
     return Files.contentOf(new File(this.getClass().getResource("/mediumtest/blameAuthor.txt").toURI()), StandardCharsets.UTF_8);
 
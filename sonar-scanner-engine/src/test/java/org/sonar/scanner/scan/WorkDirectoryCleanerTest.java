@@ -27,6 +27,7 @@ import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.bootstrap.ProjectReactor;
 import org.sonar.home.cache.DirectoryLock;
 import org.sonar.scanner.scan.WorkDirectoryCleaner;
+import org.sonar.scanner.scm.BlameCache;
 import java.io.File;
 import java.io.IOException;
 
@@ -76,4 +77,14 @@ public class WorkDirectoryCleanerTest {
     assertThat(temp.getRoot().list()).containsOnly(DirectoryLock.LOCK_FILE_NAME);
   }
 
+  @Test
+  public void keep_blame_cache() {
+    File blameCache = new File(temp.getRoot(), BlameCache.DIR_NAME);
+    blameCache.mkdir();
+
+    cleaner.execute();
+
+    assertThat(temp.getRoot().list()).containsOnly(DirectoryLock.LOCK_FILE_NAME, BlameCache.DIR_NAME);
+  }
+
 }
@@ -140,4 +140,29 @@ public class InputComponentStoreTest {
     assertThat(tester.filesByModule(mod2Key)).containsExactly(mod2File);
     assertThat(tester.allFiles()).containsExactlyInAnyOrder(mod1File, mod2File);
   }
+
+  @Test
+  public void should_find_files_by_language_and_type_per_module_and_globally() throws IOException {
+    InputComponentStoreTester tester = new InputComponentStoreTester();
+
+    InputFile mod1File = tester.addFile("mod1", "src/main/java/Foo.java", "java");
+    InputFile mod2File = tester.addFile("mod2", "src/main/java/Bar.java", "java");
+    tester.addFile("mod2", "src/main/groovy/Foo.groovy", "groovy");
+
+    assertThat(tester.getFilesByLanguage("java")).containsExactly(mod1File, mod2File);
+    assertThat(tester.getFilesByLanguage("mod1", "java")).containsExactly(mod1File);
+    assertThat(tester.getFilesByLanguage("mod3", "java")).isEmpty();
+    assertThat(tester.getFilesByType(Type.MAIN)).hasSize(3);
+    assertThat(tester.getFilesByType("mod2", Type.MAIN)).hasSize(2);
+    assertThat(tester.getFilesByType(Type.TEST)).isEmpty();
+
+    tester.remove(mod1File);
+    assertThat(tester.getFilesByLanguage("java")).containsExactly(mod2File);
+    assertThat(tester.getFilesByLanguage("mod1", "java")).isEmpty();
+    assertThat(tester.getFilesByName("Foo.java")).isEmpty();
+
+    tester.removeModule("mod2");
+    assertThat(tester.getFilesByLanguage("java")).isEmpty();
+    assertThat(tester.getFilesByType(Type.MAIN)).isEmpty();
+  }
 }
@@ -20,6 +20,7 @@
 package org.sonar.scanner.scan.filesystem;
 
 import org.junit.Test;
+import org.sonar.api.batch.AnalysisMode;
 import org.mockito.Mockito;
 import org.sonar.api.batch.fs.internal.DefaultInputModule;
 import org.sonar.api.batch.fs.internal.FileMetadata;
@@ -37,6 +38,6 @@ public class MetadataGeneratorProviderTest {
     IssueExclusionsLoader issueExclusionsLoader = new IssueExclusionsLoader(mock(IssueExclusionPatternInitializer.class), mock(PatternMatcher.class));
 
     MetadataGeneratorProvider factory = new MetadataGeneratorProvider();
-    assertThat(factory.provide(new DefaultInputModule("module"), statusDetectionFactory, new FileMetadata(), issueExclusionsLoader)).isNotNull();
+    assertThat(factory.provide(new DefaultInputModule("module"), statusDetectionFactory, new FileMetadata(), issueExclusionsLoader, mock(AnalysisMode.class))).isNotNull();
   }
 }
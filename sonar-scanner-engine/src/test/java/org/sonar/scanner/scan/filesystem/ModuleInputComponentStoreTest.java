@@ -35,6 +35,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ModuleInputComponentStoreTest {
   @Rule
@@ -111,8 +112,49 @@ public class ModuleInputComponentStoreTest {
     assertThat(store.getFilesByExtension("nonexistent")).isEmpty();
   }
 
+  @Test
+  public void should_find_files_by_name_and_extension_of_module_only_with_non_global_strategy() throws IOException {
+    String otherModuleKey = "other key";
+    componentStore.put(TestInputFileBuilder.newDefaultInputModule(otherModuleKey, temp.newFolder()));
+    SensorStrategy strategy = new SensorStrategy();
+    ModuleInputComponentStore store = new ModuleInputComponentStore(newModule(moduleKey), componentStore, strategy);
+    ModuleInputComponentStore otherStore = new ModuleInputComponentStore(newModule(otherModuleKey), componentStore, strategy);
+
+    InputFile inputFile = new TestInputFileBuilder(moduleKey, "src/pom.xml").build();
+    store.doAdd(inputFile);
+    InputFile otherInputFile = new TestInputFileBuilder(otherModuleKey, "src/pom.xml").build();
+    otherStore.doAdd(otherInputFile);
+
+    assertThat(store.getFilesByName("pom.xml")).containsExactly(inputFile);
+    assertThat(store.getFilesByExtension("xml")).containsExactly(inputFile);
+    assertThat(otherStore.getFilesByName("pom.xml")).containsExactly(otherInputFile);
+    assertThat(otherStore.getFilesByExtension("xml")).containsExactly(otherInputFile);
+
+    strategy.setGlobal(true);
+    assertThat(store.getFilesByName("pom.xml")).containsExactlyInAnyOrder(inputFile, otherInputFile);
+    assertThat(store.getFilesByExtension("xml")).containsExactlyInAnyOrder(inputFile, otherInputFile);
+  }
+
+  @Test
+  public void should_not_find_removed_files_by_name_and_extension() {
+    ModuleInputComponentStore store = newModuleInputComponentStore();
+    InputFile inputFile = new TestInputFileBuilder(moduleKey, "src/pom.xml").build();
+    store.doAdd(inputFile);
+
+    componentStore.remove(inputFile);
+
+    assertThat(store.getFilesByName("pom.xml")).isEmpty();
+    assertThat(store.getFilesByExtension("xml")).isEmpty();
+  }
+
   private ModuleInputComponentStore newModuleInputComponentStore() {
-    return new ModuleInputComponentStore(mock(InputModule.class), componentStore, mock(SensorStrategy.class));
+    return new ModuleInputComponentStore(newModule(moduleKey), componentStore, mock(SensorStrategy.class));
+  }
+
+  private static InputModule newModule(String key) {
+    InputModule module = mock(InputModule.class);
+    when(module.key()).thenReturn(key);
+    return module;
   }
 
   @Test
@@ -133,6 +175,12 @@ public class ModuleInputComponentStoreTest {
 
     store.languages();
     verify(inputComponentStore).getLanguages(any(String.class));
+
+    store.getFilesByName("pom.xml");
+    verify(inputComponentStore).getFilesByName(any(String.class), eq("pom.xml"));
+
+    store.getFilesByExtension("xml");
+    verify(inputComponentStore).getFilesByExtension(any(String.class), eq("xml"));
   }
 
   @Test
@@ -155,5 +203,11 @@ public class ModuleInputComponentStoreTest {
 
     store.languages();
     verify(inputComponentStore).getLanguages();
+
+    store.getFilesByName("pom.xml");
+    verify(inputComponentStore).getFilesByName("pom.xml");
+
+    store.getFilesByExtension("xml");
+    verify(inputComponentStore).getFilesByExtension("xml");
   }
 }
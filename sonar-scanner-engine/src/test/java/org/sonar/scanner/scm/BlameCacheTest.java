@@ -0,0 +1,131 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.scm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.scanner.protocol.output.ScannerReport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlameCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private Path dir;
+  private BlameCache underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = temp.newFolder().toPath().resolve(BlameCache.DIR_NAME);
+    underTest = new BlameCache(dir);
+  }
+
+  @Test
+  public void return_null_if_file_is_not_in_cache() {
+    assertThat(underTest.get(newFile("src/Foo.java", "abc"))).isNull();
+  }
+
+  @Test
+  public void get_changesets_without_component_ref() {
+    underTest.put(newFile("src/Foo.java", "abc"), newChangesets(42, "rev1"));
+
+    ScannerReport.Changesets changesets = underTest.get(newFile("src/Foo.java", "abc"));
+
+    assertThat(changesets.getComponentRef()).isEqualTo(0);
+    assertThat(changesets.getChangeset(0).getRevision()).isEqualTo("rev1");
+    assertThat(changesets.getChangesetIndexByLineList()).containsExactly(0);
+  }
+
+  @Test
+  public void entries_are_keyed_by_path_and_content_hash() {
+    underTest.put(newFile("src/Foo.java", "abc"), newChangesets(42, "rev1"));
+
+    assertThat(underTest.get(newFile("src/Foo.java", "def"))).isNull();
+    assertThat(underTest.get(newFile("src/Bar.java", "abc"))).isNull();
+  }
+
+  @Test
+  public void files_of_different_modules_with_same_path_and_content_do_not_share_entries() {
+    underTest.put(new TestInputFileBuilder("moduleA", "src/Foo.java").setHash("abc").setLines(1).build(), newChangesets(42, "rev1"));
+
+    assertThat(underTest.get(new TestInputFileBuilder("moduleB", "src/Foo.java").setHash("abc").setLines(1).build())).isNull();
+    assertThat(underTest.get(new TestInputFileBuilder("moduleA", "src/Foo.java").setHash("abc").setLines(1).build())).isNotNull();
+  }
+
+  @Test
+  public void ignore_corrupted_entries() throws IOException {
+    DefaultInputFile file = newFile("src/Foo.java", "abc");
+    underTest.put(file, newChangesets(42, "rev1"));
+    try (Stream<Path> entries = Files.list(dir)) {
+      Path entry = entries.findFirst().get();
+      Files.write(entry, new byte[] {(byte) 0xFF, 1, 2});
+    }
+
+    assertThat(underTest.get(file)).isNull();
+  }
+
+  @Test
+  public void prune_entries_not_used_by_the_analysis() throws IOException {
+    new BlameCache(dir).put(newFile("src/Foo.java", "abc"), newChangesets(42, "rev1"));
+    new BlameCache(dir).put(newFile("src/Bar.java", "abc"), newChangesets(43, "rev1"));
+    new BlameCache(dir).put(newFile("src/Baz.java", "abc"), newChangesets(44, "rev1"));
+
+    underTest.get(newFile("src/Foo.java", "abc"));
+    underTest.put(newFile("src/Bar.java", "def"), newChangesets(43, "rev2"));
+    underTest.prune();
+
+    assertThat(underTest.get(newFile("src/Foo.java", "abc"))).isNotNull();
+    assertThat(underTest.get(newFile("src/Bar.java", "def"))).isNotNull();
+    assertThat(underTest.get(newFile("src/Bar.java", "abc"))).isNull();
+    assertThat(underTest.get(newFile("src/Baz.java", "abc"))).isNull();
+    try (Stream<Path> entries = Files.list(dir)) {
+      assertThat(entries.count()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void prune_does_nothing_if_cache_does_not_exist() {
+    underTest.prune();
+
+    assertThat(dir).doesNotExist();
+  }
+
+  private static DefaultInputFile newFile(String path, String hash) {
+    return new TestInputFileBuilder("foo", path).setHash(hash).setLines(1).build();
+  }
+
+  private static ScannerReport.Changesets newChangesets(int componentRef, String revision) {
+    return ScannerReport.Changesets.newBuilder()
+      .setComponentRef(componentRef)
+      .addChangeset(ScannerReport.Changesets.Changeset.newBuilder().setRevision(revision).setDate(123L))
+      .addChangesetIndexByLine(0)
+      .build();
+  }
+}
@@ -19,20 +19,29 @@
  */
 package org.sonar.scanner.scm;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Date;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.scm.BlameLine;
+import org.sonar.scanner.protocol.output.FileStructure;
+import org.sonar.scanner.protocol.output.ScannerReportWriter;
 import org.sonar.scanner.scm.DefaultBlameOutput;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class DefaultBlameOutputTest {
 
   @Rule
   public ExpectedException thrown = ExpectedException.none();
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
 
   @Test
   public void shouldNotFailIfNotSameNumberOfLines() {
@@ -74,4 +83,21 @@ public class DefaultBlameOutputTest {
       .blameResult(file, Arrays.asList(new BlameLine().date(new Date()).author("guy")));
   }
 
+  @Test
+  public void write_blame_result_to_report_and_cache() throws IOException {
+    DefaultInputFile file = new TestInputFileBuilder("foo", "src/main/java/Foo.java").setLines(2).setHash("abc").build();
+    ScannerReportWriter writer = new ScannerReportWriter(temp.newFolder());
+    BlameCache cache = new BlameCache(temp.newFolder().toPath());
+
+    DefaultBlameOutput output = new DefaultBlameOutput(writer, Arrays.<InputFile>asList(file), cache);
+    output.blameResult(file, Arrays.asList(
+      new BlameLine().revision("1").date(new Date(10L)).author("Guy"),
+      new BlameLine().revision("1").date(new Date(10L)).author("Guy")));
+    output.finish(true);
+
+    assertThat(writer.hasComponentData(FileStructure.Domain.CHANGESETS, file.batchId())).isTrue();
+    assertThat(cache.get(file).getChangeset(0).getAuthor()).isEqualTo("guy");
+    assertThat(cache.get(file).getChangesetIndexByLineList()).containsExactly(0, 0);
+  }
+
 }
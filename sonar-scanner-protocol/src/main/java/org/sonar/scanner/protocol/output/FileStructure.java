@@ -20,6 +20,7 @@
 package org.sonar.scanner.protocol.output;
 
 import java.io.File;
+import java.util.OptionalInt;
 
 /**
  * Structure of files in the zipped report
@@ -78,7 +79,32 @@ public class FileStructure {
   public File contextProperties() {
     return new File(dir, "context-props.pb");
   }
-  
+
+  /**
+   * Single file containing the data of all the components, when report is packed.
+   * @see ReportSegmentWriter
+   */
+  public File segmentFile() {
+    return new File(dir, "report.seg");
+  }
+
+  /**
+   * Reverse operation of {@link #fileFor(Domain, int)}. Returns an empty {@link OptionalInt} if
+   * the file does not contain data of the given domain.
+   */
+  static OptionalInt componentRefOf(Domain domain, File file) {
+    String name = file.getName();
+    if (!name.startsWith(domain.filePrefix) || !name.endsWith(domain.fileSuffix)) {
+      return OptionalInt.empty();
+    }
+    String ref = name.substring(domain.filePrefix.length(), name.length() - domain.fileSuffix.length());
+    try {
+      return OptionalInt.of(Integer.parseInt(ref));
+    } catch (NumberFormatException e) {
+      return OptionalInt.empty();
+    }
+  }
+
   public File root() {
     return dir;
   }
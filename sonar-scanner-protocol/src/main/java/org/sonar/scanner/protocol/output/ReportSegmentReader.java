@@ -0,0 +1,175 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.protocol.output;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static org.sonar.scanner.protocol.output.ReportSegmentWriter.HEADER_SIZE;
+import static org.sonar.scanner.protocol.output.ReportSegmentWriter.MAGIC;
+import static org.sonar.scanner.protocol.output.ReportSegmentWriter.TRAILER_SIZE;
+import static org.sonar.scanner.protocol.output.ReportSegmentWriter.VERSION;
+
+/**
+ * Reads the file generated by {@link ReportSegmentWriter}. Only the index is loaded in memory, entries
+ * are read on demand from a memory-mapped buffer.
+ */
+public class ReportSegmentReader {
+
+  private final File file;
+  private final Map<Long, Region> index;
+  // null if the file is too big to be mapped at once. In this case entries are mapped one by one.
+  @CheckForNull
+  private final MappedByteBuffer content;
+
+  public ReportSegmentReader(File file) {
+    this.file = file;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE + TRAILER_SIZE) {
+        throw new IllegalStateException("Report segment is corrupted: " + file);
+      }
+      ByteBuffer header = channel.map(READ_ONLY, 0, HEADER_SIZE);
+      checkMagic(header.getInt());
+      int version = header.getInt();
+      if (version > VERSION) {
+        throw new IllegalStateException(format("Version %d of report segment %s is not supported", version, file));
+      }
+
+      ByteBuffer trailer = channel.map(READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE);
+      long indexOffset = trailer.getLong();
+      int entries = trailer.getInt();
+      checkMagic(trailer.getInt());
+      this.index = readIndex(channel.map(READ_ONLY, indexOffset, size - TRAILER_SIZE - indexOffset), entries);
+      this.content = indexOffset <= Integer.MAX_VALUE ? channel.map(READ_ONLY, 0, indexOffset) : null;
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read report segment " + file, e);
+    }
+  }
+
+  public boolean contains(FileStructure.Domain domain, int componentRef) {
+    return index.containsKey(key(domain, componentRef));
+  }
+
+  /**
+   * The content of the entry, or {@code null} if the segment does not have data for this component and domain.
+   * Closing the stream is not required.
+   */
+  @CheckForNull
+  public InputStream open(FileStructure.Domain domain, int componentRef) {
+    Region region = index.get(key(domain, componentRef));
+    if (region == null) {
+      return null;
+    }
+    return new ByteBufferInputStream(slice(region));
+  }
+
+  private ByteBuffer slice(Region region) {
+    if (content != null) {
+      ByteBuffer buffer = content.duplicate();
+      buffer.limit((int) (region.offset + region.length));
+      buffer.position((int) region.offset);
+      return buffer.slice();
+    }
+    if (region.length > Integer.MAX_VALUE) {
+      throw new IllegalStateException(format("Entry of %d bytes can't be read from report segment %s", region.length, file));
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return channel.map(READ_ONLY, region.offset, region.length);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read report segment " + file, e);
+    }
+  }
+
+  private static Map<Long, Region> readIndex(ByteBuffer buffer, int entries) throws IOException {
+    Map<Long, Region> result = new HashMap<>(entries * 4 / 3 + 1);
+    DataInputStream input = new DataInputStream(new ByteBufferInputStream(buffer));
+    for (int i = 0; i < entries; i++) {
+      FileStructure.Domain domain = FileStructure.Domain.valueOf(input.readUTF());
+      int componentRef = input.readInt();
+      long offset = input.readLong();
+      long length = input.readLong();
+      result.put(key(domain, componentRef), new Region(offset, length));
+    }
+    return result;
+  }
+
+  private void checkMagic(int magic) {
+    if (magic != MAGIC) {
+      throw new IllegalStateException("File is not a report segment: " + file);
+    }
+  }
+
+  private static long key(FileStructure.Domain domain, int componentRef) {
+    return ((long) domain.ordinal() << 32) | (componentRef & 0xFFFFFFFFL);
+  }
+
+  private static class Region {
+    private final long offset;
+    private final long length;
+
+    private Region(long offset, long length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(len, buffer.remaining());
+      buffer.get(bytes, off, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
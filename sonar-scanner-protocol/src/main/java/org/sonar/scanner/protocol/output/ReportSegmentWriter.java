@@ -0,0 +1,121 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.protocol.output;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.core.util.ContextException;
+
+/**
+ * Packs the data of components into a single append-only file, followed by an index of the entries keyed
+ * by domain and component ref. Compared to the directory layout of {@link FileStructure}, this avoids
+ * creating, compressing and extracting one file per component and per domain.
+ * <p>
+ * Layout of the file (big-endian):
+ * <pre>
+ * header:  int magic, int version
+ * entries: raw content of the entries, one after the other
+ * index:   for each entry, UTF domain name, int component ref, long offset, long length
+ * trailer: long offset of index, int number of entries, int magic
+ * </pre>
+ * </p>
+ * @see ReportSegmentReader
+ */
+public class ReportSegmentWriter implements Closeable {
+
+  static final int MAGIC = 0x534F4E52;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final int TRAILER_SIZE = 16;
+
+  private final File file;
+  private final DataOutputStream output;
+  private final List<Entry> entries = new ArrayList<>();
+  private long position;
+
+  public ReportSegmentWriter(File file) {
+    this.file = file;
+    try {
+      this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, false)));
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      this.position = HEADER_SIZE;
+    } catch (IOException e) {
+      throw ContextException.of("Unable to create report segment", e).addContext("file", file);
+    }
+  }
+
+  /**
+   * Appends the content of {@code from} as the data of the given component and domain. If the same key
+   * is appended multiple times, then the last entry wins.
+   */
+  public void append(FileStructure.Domain domain, int componentRef, File from) {
+    try {
+      long length = Files.copy(from.toPath(), output);
+      entries.add(new Entry(domain, componentRef, position, length));
+      position += length;
+    } catch (IOException e) {
+      throw ContextException.of("Unable to append file to report segment", e).addContext("file", from).addContext("segment", file);
+    }
+  }
+
+  /**
+   * Writes the index and closes the file. Entries can't be appended anymore.
+   */
+  @Override
+  public void close() {
+    try {
+      long indexOffset = position;
+      for (Entry entry : entries) {
+        output.writeUTF(entry.domain.name());
+        output.writeInt(entry.componentRef);
+        output.writeLong(entry.offset);
+        output.writeLong(entry.length);
+      }
+      output.writeLong(indexOffset);
+      output.writeInt(entries.size());
+      output.writeInt(MAGIC);
+      output.close();
+    } catch (IOException e) {
+      throw ContextException.of("Unable to write index of report segment", e).addContext("file", file);
+    }
+  }
+
+  private static class Entry {
+    private final FileStructure.Domain domain;
+    private final int componentRef;
+    private final long offset;
+    private final long length;
+
+    private Entry(FileStructure.Domain domain, int componentRef, long offset, long length) {
+      this.domain = domain;
+      this.componentRef = componentRef;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
@@ -19,8 +19,14 @@
  */
 package org.sonar.scanner.protocol.output;
 
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import javax.annotation.CheckForNull;
+import org.apache.commons.io.FileUtils;
 import org.sonar.core.util.CloseableIterator;
 import org.sonar.core.util.Protobuf;
 
@@ -29,9 +35,14 @@ import static org.sonar.core.util.CloseableIterator.emptyCloseableIterator;
 public class ScannerReportReader {
 
   private final FileStructure fileStructure;
+  // null if the data of components is not packed into a single file (see ScannerReportWriter#packComponentData())
+  @CheckForNull
+  private final ReportSegmentReader segmentReader;
 
   public ScannerReportReader(File dir) {
     this.fileStructure = new FileStructure(dir);
+    File segmentFile = fileStructure.segmentFile();
+    this.segmentReader = fileExists(segmentFile) ? new ReportSegmentReader(segmentFile) : null;
   }
 
   public ScannerReport.Metadata readMetadata() {
@@ -51,115 +62,95 @@ public class ScannerReportReader {
   }
 
   public CloseableIterator<ScannerReport.Measure> readComponentMeasures(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.MEASURES, componentRef);
-    if (fileExists(file)) {
-      return Protobuf.readStream(file, ScannerReport.Measure.parser());
-    }
-    return emptyCloseableIterator();
+    return readComponentStream(FileStructure.Domain.MEASURES, componentRef, ScannerReport.Measure.parser());
   }
 
   @CheckForNull
   public ScannerReport.Changesets readChangesets(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.CHANGESETS, componentRef);
-    if (fileExists(file)) {
-      return Protobuf.read(file, ScannerReport.Changesets.parser());
+    InputStream input = openComponentData(FileStructure.Domain.CHANGESETS, componentRef);
+    if (input != null) {
+      return Protobuf.read(input, ScannerReport.Changesets.parser());
     }
     return null;
   }
 
   public ScannerReport.Component readComponent(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.COMPONENT, componentRef);
-    if (!fileExists(file)) {
+    InputStream input = openComponentData(FileStructure.Domain.COMPONENT, componentRef);
+    if (input == null) {
+      File file = fileStructure.fileFor(FileStructure.Domain.COMPONENT, componentRef);
       throw new IllegalStateException("Unable to find report for component #" + componentRef + ". File does not exist: " + file);
     }
-    return Protobuf.read(file, ScannerReport.Component.parser());
+    return Protobuf.read(input, ScannerReport.Component.parser());
   }
 
   public CloseableIterator<ScannerReport.Issue> readComponentIssues(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.ISSUES, componentRef);
-    if (fileExists(file)) {
-      return Protobuf.readStream(file, ScannerReport.Issue.parser());
-    }
-    return emptyCloseableIterator();
+    return readComponentStream(FileStructure.Domain.ISSUES, componentRef, ScannerReport.Issue.parser());
   }
 
   public CloseableIterator<ScannerReport.Duplication> readComponentDuplications(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.DUPLICATIONS, componentRef);
-    if (fileExists(file)) {
-      return Protobuf.readStream(file, ScannerReport.Duplication.parser());
-    }
-    return emptyCloseableIterator();
+    return readComponentStream(FileStructure.Domain.DUPLICATIONS, componentRef, ScannerReport.Duplication.parser());
   }
 
   public CloseableIterator<ScannerReport.CpdTextBlock> readCpdTextBlocks(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.CPD_TEXT_BLOCKS, componentRef);
-    if (fileExists(file)) {
-      return Protobuf.readStream(file, ScannerReport.CpdTextBlock.parser());
-    }
-    return emptyCloseableIterator();
+    return readComponentStream(FileStructure.Domain.CPD_TEXT_BLOCKS, componentRef, ScannerReport.CpdTextBlock.parser());
   }
 
   public CloseableIterator<ScannerReport.Symbol> readComponentSymbols(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.SYMBOLS, componentRef);
-    if (fileExists(file)) {
-      return Protobuf.readStream(file, ScannerReport.Symbol.parser());
-    }
-    return emptyCloseableIterator();
+    return readComponentStream(FileStructure.Domain.SYMBOLS, componentRef, ScannerReport.Symbol.parser());
   }
 
   public boolean hasSyntaxHighlighting(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.SYNTAX_HIGHLIGHTINGS, componentRef);
-    return file.exists();
+    return hasComponentData(FileStructure.Domain.SYNTAX_HIGHLIGHTINGS, componentRef);
   }
 
   public CloseableIterator<ScannerReport.SyntaxHighlightingRule> readComponentSyntaxHighlighting(int fileRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.SYNTAX_HIGHLIGHTINGS, fileRef);
-    if (fileExists(file)) {
-      return Protobuf.readStream(file, ScannerReport.SyntaxHighlightingRule.parser());
-    }
-    return emptyCloseableIterator();
+    return readComponentStream(FileStructure.Domain.SYNTAX_HIGHLIGHTINGS, fileRef, ScannerReport.SyntaxHighlightingRule.parser());
   }
 
   public boolean hasCoverage(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.COVERAGES, componentRef);
-    return file.exists();
+    return hasComponentData(FileStructure.Domain.COVERAGES, componentRef);
   }
 
   public CloseableIterator<ScannerReport.LineCoverage> readComponentCoverage(int fileRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.COVERAGES, fileRef);
-    if (fileExists(file)) {
-      return Protobuf.readStream(file, ScannerReport.LineCoverage.parser());
-    }
-    return emptyCloseableIterator();
+    return readComponentStream(FileStructure.Domain.COVERAGES, fileRef, ScannerReport.LineCoverage.parser());
   }
 
+  /**
+   * @throws IllegalStateException if the report is packed, as its sources are not stored in files of their own
+   * @deprecated use {@link #openComponentData(FileStructure.Domain, int)} with {@link FileStructure.Domain#SOURCE}
+   */
+  @Deprecated
   @CheckForNull
   public File readFileSource(int fileRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.SOURCE, fileRef);
-    if (fileExists(file)) {
-      return file;
-    }
-    return null;
+    return componentFile(FileStructure.Domain.SOURCE, fileRef);
   }
 
+  /**
+   * @throws IllegalStateException if the report is packed, as its tests are not stored in files of their own
+   * @deprecated use {@link #readComponentTests(int)}
+   */
+  @Deprecated
   @CheckForNull
   public File readTests(int testFileRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.TESTS, testFileRef);
-    if (fileExists(file)) {
-      return file;
-    }
+    return componentFile(FileStructure.Domain.TESTS, testFileRef);
+  }
 
-    return null;
+  public CloseableIterator<ScannerReport.Test> readComponentTests(int testFileRef) {
+    return readComponentStream(FileStructure.Domain.TESTS, testFileRef, ScannerReport.Test.parser());
   }
 
+  /**
+   * @throws IllegalStateException if the report is packed, as its coverage details are not stored in files of their own
+   * @deprecated use {@link #readComponentCoverageDetails(int)}
+   */
+  @Deprecated
   @CheckForNull
   public File readCoverageDetails(int testFileRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.COVERAGE_DETAILS, testFileRef);
-    if (fileExists(file)) {
-      return file;
-    }
+    return componentFile(FileStructure.Domain.COVERAGE_DETAILS, testFileRef);
+  }
 
-    return null;
+  public CloseableIterator<ScannerReport.CoverageDetail> readComponentCoverageDetails(int testFileRef) {
+    return readComponentStream(FileStructure.Domain.COVERAGE_DETAILS, testFileRef, ScannerReport.CoverageDetail.parser());
   }
 
   public CloseableIterator<ScannerReport.ContextProperty> readContextProperties() {
@@ -170,6 +161,56 @@ public class ScannerReportReader {
     return Protobuf.readStream(file, ScannerReport.ContextProperty.parser());
   }
 
+  public boolean hasComponentData(FileStructure.Domain domain, int componentRef) {
+    if (segmentReader != null && segmentReader.contains(domain, componentRef)) {
+      return true;
+    }
+    return fileStructure.fileFor(domain, componentRef).exists();
+  }
+
+  /**
+   * Opens the data of a component, whatever the report is packed or not. Returns {@code null}
+   * if the component has no data for this domain. The stream must be closed by caller.
+   */
+  @CheckForNull
+  public InputStream openComponentData(FileStructure.Domain domain, int componentRef) {
+    if (segmentReader != null) {
+      InputStream input = segmentReader.open(domain, componentRef);
+      if (input != null) {
+        return input;
+      }
+    }
+    File file = fileStructure.fileFor(domain, componentRef);
+    if (fileExists(file)) {
+      try {
+        return FileUtils.openInputStream(file);
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to open file " + file, e);
+      }
+    }
+    return null;
+  }
+
+  private <MSG extends Message> CloseableIterator<MSG> readComponentStream(FileStructure.Domain domain, int componentRef, Parser<MSG> parser) {
+    InputStream input = openComponentData(domain, componentRef);
+    if (input == null) {
+      return emptyCloseableIterator();
+    }
+    return Protobuf.readStream(new BufferedInputStream(input), parser);
+  }
+
+  @CheckForNull
+  private File componentFile(FileStructure.Domain domain, int componentRef) {
+    if (segmentReader != null) {
+      throw new IllegalStateException("Data of component #" + componentRef + " is packed into " + fileStructure.segmentFile() + " and can't be read as a file");
+    }
+    File file = fileStructure.fileFor(domain, componentRef);
+    if (fileExists(file)) {
+      return file;
+    }
+    return null;
+  }
+
   private static boolean fileExists(File file) {
     return file.exists() && file.isFile();
   }
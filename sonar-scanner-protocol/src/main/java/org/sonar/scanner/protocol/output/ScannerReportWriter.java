@@ -22,7 +22,12 @@ package org.sonar.scanner.protocol.output;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
 import org.sonar.core.util.ContextException;
 import org.sonar.core.util.Protobuf;
 
@@ -144,4 +149,34 @@ public class ScannerReportWriter {
     return fileStructure.fileFor(FileStructure.Domain.SOURCE, componentRef);
   }
 
+  /**
+   * Moves the data of all the components into the single file {@link FileStructure#segmentFile()}, so that
+   * the size of the report directory does not depend on the number of components. Must be called once
+   * all the data has been written.
+   */
+  public File packComponentData() {
+    File[] files = fileStructure.root().listFiles();
+    List<File> packedFiles = new ArrayList<>();
+    try (ReportSegmentWriter segmentWriter = new ReportSegmentWriter(fileStructure.segmentFile())) {
+      for (File file : files) {
+        for (FileStructure.Domain domain : FileStructure.Domain.values()) {
+          OptionalInt componentRef = FileStructure.componentRefOf(domain, file);
+          if (componentRef.isPresent()) {
+            segmentWriter.append(domain, componentRef.getAsInt(), file);
+            packedFiles.add(file);
+            break;
+          }
+        }
+      }
+    }
+    for (File packedFile : packedFiles) {
+      try {
+        Files.delete(packedFile.toPath());
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to delete " + packedFile, e);
+      }
+    }
+    return fileStructure.segmentFile();
+  }
+
 }
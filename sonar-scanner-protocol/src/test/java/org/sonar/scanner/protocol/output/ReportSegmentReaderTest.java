@@ -0,0 +1,110 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.protocol.output;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReportSegmentReaderTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void read_entries_written_by_ReportSegmentWriter() throws Exception {
+    File segment = temp.newFile();
+    try (ReportSegmentWriter writer = new ReportSegmentWriter(segment)) {
+      writer.append(FileStructure.Domain.SOURCE, 1, newFile("foo"));
+      writer.append(FileStructure.Domain.SOURCE, 2, newFile("bar"));
+      writer.append(FileStructure.Domain.ISSUES, 1, newFile(""));
+      writer.append(FileStructure.Domain.SOURCE, 2, newFile("baz"));
+    }
+
+    ReportSegmentReader underTest = new ReportSegmentReader(segment);
+
+    assertThat(read(underTest.open(FileStructure.Domain.SOURCE, 1))).isEqualTo("foo");
+    // last entry wins
+    assertThat(read(underTest.open(FileStructure.Domain.SOURCE, 2))).isEqualTo("baz");
+    assertThat(read(underTest.open(FileStructure.Domain.ISSUES, 1))).isEmpty();
+    assertThat(underTest.contains(FileStructure.Domain.ISSUES, 1)).isTrue();
+    assertThat(underTest.contains(FileStructure.Domain.ISSUES, 2)).isFalse();
+    assertThat(underTest.open(FileStructure.Domain.MEASURES, 1)).isNull();
+  }
+
+  @Test
+  public void read_empty_segment() throws Exception {
+    File segment = temp.newFile();
+    new ReportSegmentWriter(segment).close();
+
+    ReportSegmentReader underTest = new ReportSegmentReader(segment);
+
+    assertThat(underTest.contains(FileStructure.Domain.COMPONENT, 1)).isFalse();
+  }
+
+  @Test
+  public void fail_if_file_is_not_a_segment() throws Exception {
+    File file = newFile("this is not a report segment");
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("File is not a report segment: " + file);
+
+    new ReportSegmentReader(file);
+  }
+
+  @Test
+  public void fail_if_version_is_not_supported() throws Exception {
+    File segment = temp.newFile();
+    try (DataOutputStream output = new DataOutputStream(new FileOutputStream(segment))) {
+      output.writeInt(ReportSegmentWriter.MAGIC);
+      output.writeInt(ReportSegmentWriter.VERSION + 1);
+      output.writeLong(ReportSegmentWriter.HEADER_SIZE);
+      output.writeInt(0);
+      output.writeInt(ReportSegmentWriter.MAGIC);
+    }
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("is not supported");
+
+    new ReportSegmentReader(segment);
+  }
+
+  private File newFile(String content) throws Exception {
+    File file = temp.newFile();
+    FileUtils.write(file, content, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static String read(InputStream input) throws Exception {
+    return IOUtils.toString(input, StandardCharsets.UTF_8);
+  }
+}
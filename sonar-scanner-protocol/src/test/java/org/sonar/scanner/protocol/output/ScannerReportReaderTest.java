@@ -28,6 +28,7 @@ import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 import org.sonar.core.util.CloseableIterator;
 import org.sonar.scanner.protocol.output.ScannerReport.Measure.StringValue;
@@ -44,6 +45,8 @@ public class ScannerReportReaderTest {
 
   @Rule
   public TemporaryFolder temp = new TemporaryFolder();
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
 
   File dir;
 
@@ -337,6 +340,21 @@ public class ScannerReportReaderTest {
     assertThat(underTest.readTests(UNKNOWN_COMPONENT_REF)).isNull();
   }
 
+  @Test
+  public void read_component_tests() {
+    ScannerReportWriter writer = new ScannerReportWriter(dir);
+    writer.writeTests(1, asList(
+      ScannerReport.Test.newBuilder().setName("test1").setStatus(TestStatus.OK).build(),
+      ScannerReport.Test.newBuilder().setName("test2").setStatus(TestStatus.FAILURE).build()));
+
+    assertThat(underTest.readComponentTests(1)).extracting(ScannerReport.Test::getName).containsExactly("test1", "test2");
+  }
+
+  @Test
+  public void return_empty_iterator_if_no_component_tests_found() {
+    assertThat(underTest.readComponentTests(UNKNOWN_COMPONENT_REF)).isEmpty();
+  }
+
   @Test
   public void read_coverage_details() throws Exception {
     ScannerReportWriter writer = new ScannerReportWriter(dir);
@@ -361,6 +379,30 @@ public class ScannerReportReaderTest {
     assertThat(underTest.readCoverageDetails(UNKNOWN_COMPONENT_REF)).isNull();
   }
 
+  @Test
+  public void read_component_coverage_details() {
+    ScannerReportWriter writer = new ScannerReportWriter(dir);
+    writer.writeCoverageDetails(1, asList(
+      ScannerReport.CoverageDetail.newBuilder()
+        .setTestName("test-name")
+        .addCoveredFile(ScannerReport.CoverageDetail.CoveredFile.newBuilder()
+          .addAllCoveredLine(asList(1, 2))
+          .setFileRef(2))
+        .build()));
+
+    try (CloseableIterator<ScannerReport.CoverageDetail> it = underTest.readComponentCoverageDetails(1)) {
+      ScannerReport.CoverageDetail coverageDetail = it.next();
+      assertThat(coverageDetail.getTestName()).isEqualTo("test-name");
+      assertThat(coverageDetail.getCoveredFile(0).getCoveredLineList()).containsExactly(1, 2);
+      assertThat(it.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  public void return_empty_iterator_if_no_component_coverage_details_found() {
+    assertThat(underTest.readComponentCoverageDetails(UNKNOWN_COMPONENT_REF)).isEmpty();
+  }
+
   @Test
   public void read_file_source() throws Exception {
     ScannerReportWriter writer = new ScannerReportWriter(dir);
@@ -377,4 +419,77 @@ public class ScannerReportReaderTest {
   public void return_null_when_no_file_source() throws Exception {
     assertThat(underTest.readFileSource(UNKNOWN_COMPONENT_REF)).isNull();
   }
+
+  @Test
+  public void read_packed_component_data() throws Exception {
+    ScannerReportWriter writer = new ScannerReportWriter(dir);
+    writer.writeComponent(ScannerReport.Component.newBuilder().setRef(1).setPath("src/main/java/Foo.java").build());
+    writer.writeComponentIssues(1, asList(ScannerReport.Issue.newBuilder().setMsg("msg").build()));
+    writer.appendComponentIssue(1, ScannerReport.Issue.newBuilder().setMsg("other msg").build());
+    try (FileOutputStream outputStream = new FileOutputStream(writer.getSourceFile(1))) {
+      IOUtils.write("line1\nline2", outputStream);
+    }
+    writer.packComponentData();
+
+    underTest = new ScannerReportReader(dir);
+    assertThat(underTest.readComponent(1).getPath()).isEqualTo("src/main/java/Foo.java");
+    assertThat(underTest.readComponentIssues(1)).extracting(ScannerReport.Issue::getMsg).containsExactly("msg", "other msg");
+    assertThat(underTest.readComponentMeasures(1)).isEmpty();
+    assertThat(underTest.hasComponentData(FileStructure.Domain.ISSUES, 1)).isTrue();
+    assertThat(underTest.hasComponentData(FileStructure.Domain.ISSUES, 2)).isFalse();
+    try (InputStream inputStream = underTest.openComponentData(FileStructure.Domain.SOURCE, 1)) {
+      assertThat(IOUtils.readLines(inputStream)).containsExactly("line1", "line2");
+    }
+    assertThat(underTest.openComponentData(FileStructure.Domain.SOURCE, 2)).isNull();
+  }
+
+  @Test
+  public void read_tests_and_coverage_details_of_packed_report() {
+    ScannerReportWriter writer = new ScannerReportWriter(dir);
+    writer.writeComponent(ScannerReport.Component.newBuilder().setRef(1).build());
+    writer.writeTests(1, asList(ScannerReport.Test.newBuilder().setName("test").build()));
+    writer.writeCoverageDetails(1, asList(ScannerReport.CoverageDetail.newBuilder().setTestName("test").build()));
+    writer.packComponentData();
+
+    underTest = new ScannerReportReader(dir);
+    assertThat(underTest.readComponentTests(1)).extracting(ScannerReport.Test::getName).containsExactly("test");
+    assertThat(underTest.readComponentCoverageDetails(1)).extracting(ScannerReport.CoverageDetail::getTestName).containsExactly("test");
+  }
+
+  @Test
+  public void fail_to_read_file_source_of_packed_report() {
+    underTest = newPackedReportReader();
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Data of component #1 is packed into");
+
+    underTest.readFileSource(1);
+  }
+
+  @Test
+  public void fail_to_read_tests_file_of_packed_report() {
+    underTest = newPackedReportReader();
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Data of component #1 is packed into");
+
+    underTest.readTests(1);
+  }
+
+  @Test
+  public void fail_to_read_coverage_details_file_of_packed_report() {
+    underTest = newPackedReportReader();
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Data of component #1 is packed into");
+
+    underTest.readCoverageDetails(1);
+  }
+
+  private ScannerReportReader newPackedReportReader() {
+    ScannerReportWriter writer = new ScannerReportWriter(dir);
+    writer.writeComponent(ScannerReport.Component.newBuilder().setRef(1).build());
+    writer.packComponentData();
+    return new ScannerReportReader(dir);
+  }
 }
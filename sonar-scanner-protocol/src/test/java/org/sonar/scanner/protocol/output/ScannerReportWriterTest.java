@@ -299,4 +299,16 @@ public class ScannerReportWriterTest {
 
     assertThat(underTest.hasComponentData(FileStructure.Domain.COVERAGE_DETAILS, 1)).isTrue();
   }
+
+  @Test
+  public void pack_component_data_into_single_file() {
+    underTest.writeMetadata(ScannerReport.Metadata.newBuilder().setProjectKey("PROJECT_A").build());
+    underTest.writeComponent(ScannerReport.Component.newBuilder().setRef(1).build());
+    underTest.writeComponentMeasures(2, asList(ScannerReport.Measure.newBuilder().setMetricKey("ncloc").build()));
+
+    File segment = underTest.packComponentData();
+
+    assertThat(segment).isEqualTo(underTest.getFileStructure().segmentFile()).isFile();
+    assertThat(dir.list()).containsOnly("metadata.pb", "report.seg");
+  }
 }
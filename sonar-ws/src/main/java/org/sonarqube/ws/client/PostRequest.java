@@ -20,8 +20,11 @@
 package org.sonarqube.ws.client;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.CheckForNull;
 
 /**
  * @since 5.3
@@ -50,20 +53,69 @@ public class PostRequest extends BaseRequest<PostRequest> {
 
   public static class Part {
     private final String mediaType;
+    private final String fileName;
     private final File file;
+    private final ContentWriter contentWriter;
 
     public Part(String mediaType, File file) {
       this.mediaType = mediaType;
+      this.fileName = file.getName();
       this.file = file;
+      this.contentWriter = null;
+    }
+
+    /**
+     * Part whose content is generated while the request is sent, so that it does not
+     * have to be stored in a temporary file. The length is unknown, so the request
+     * is sent with chunked transfer encoding.
+     *
+     * @since 6.5
+     */
+    public Part(String mediaType, String fileName, ContentWriter contentWriter) {
+      this.mediaType = mediaType;
+      this.fileName = fileName;
+      this.file = null;
+      this.contentWriter = contentWriter;
     }
 
     public String getMediaType() {
       return mediaType;
     }
 
+    public String getFileName() {
+      return fileName;
+    }
+
+    /**
+     * @return {@code null} if content is generated by {@link #getContentWriter()}
+     */
+    @CheckForNull
     public File getFile() {
       return file;
     }
+
+    /**
+     * @return {@code null} if content is read from {@link #getFile()}
+     * @since 6.5
+     */
+    @CheckForNull
+    public ContentWriter getContentWriter() {
+      return contentWriter;
+    }
+  }
+
+  /**
+   * Generates the content of a {@link Part}. It may be called multiple times for the same request,
+   * for example when the request is redirected, so it must produce the same content at each call.
+   *
+   * @since 6.5
+   */
+  @FunctionalInterface
+  public interface ContentWriter {
+    /**
+     * Writes the content to {@code output}. The stream must not be closed.
+     */
+    void writeTo(OutputStream output) throws IOException;
   }
 
 }
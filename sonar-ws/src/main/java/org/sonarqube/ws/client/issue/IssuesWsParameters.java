@@ -42,6 +42,7 @@ public class IssuesWsParameters {
   public static final String ACTION_SET_TAGS = "set_tags";
   public static final String ACTION_SET_TYPE = "set_type";
   public static final String ACTION_BULK_CHANGE = "bulk_change";
+  public static final String ACTION_BULK_CHANGE_BY_QUERY = "bulk_change_by_query";
   public static final String ACTION_TAGS = "tags";
 
   public static final String PARAM_ISSUE = "issue";
@@ -63,6 +64,7 @@ public class IssuesWsParameters {
   public static final String PARAM_COMPONENT_ROOTS = "componentRoots";
   public static final String PARAM_COMPONENT_ROOT_UUIDS = "componentRootUuids";
   public static final String PARAM_MODULE_UUIDS = "moduleUuids";
+  public static final String PARAM_PROJECT = "project";
   public static final String PARAM_PROJECTS = "projects";
   public static final String PARAM_PROJECT_KEYS = "projectKeys";
   public static final String PARAM_PROJECT_UUIDS = "projectUuids";
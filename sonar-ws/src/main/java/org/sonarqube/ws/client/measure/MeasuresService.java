@@ -41,6 +41,7 @@ import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_COMPONE
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_DEVELOPER_ID;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_DEVELOPER_KEY;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_FROM;
+import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_MAX_POINTS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRICS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRIC_KEYS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRIC_SORT;
@@ -94,6 +95,7 @@ public class MeasuresService extends BaseService {
       .setParam(PARAM_METRICS, inlineMultipleParamValue(request.getMetrics()))
       .setParam(PARAM_FROM, request.getFrom())
       .setParam(PARAM_TO, request.getTo())
+      .setParam(PARAM_MAX_POINTS, request.getMaxPoints())
       .setParam(Param.PAGE, request.getPage())
       .setParam(Param.PAGE_SIZE, request.getPageSize());
 
@@ -21,6 +21,7 @@ package org.sonarqube.ws.client.measure;
 
 import java.util.List;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 
 import static java.lang.String.format;
 
@@ -32,6 +33,7 @@ public class SearchHistoryRequest {
   private final List<String> metrics;
   private final String from;
   private final String to;
+  private final Integer maxPoints;
   private final int page;
   private final int pageSize;
 
@@ -40,6 +42,7 @@ public class SearchHistoryRequest {
     this.metrics = builder.metrics;
     this.from = builder.from;
     this.to = builder.to;
+    this.maxPoints = builder.maxPoints;
     this.page = builder.page;
     this.pageSize = builder.pageSize;
   }
@@ -62,6 +65,11 @@ public class SearchHistoryRequest {
     return to;
   }
 
+  @CheckForNull
+  public Integer getMaxPoints() {
+    return maxPoints;
+  }
+
   public int getPage() {
     return page;
   }
@@ -79,6 +87,7 @@ public class SearchHistoryRequest {
     private List<String> metrics;
     private String from;
     private String to;
+    private Integer maxPoints;
     private int page = 1;
     private int pageSize = DEFAULT_PAGE_SIZE;
 
@@ -106,6 +115,11 @@ public class SearchHistoryRequest {
       return this;
     }
 
+    public Builder setMaxPoints(@Nullable Integer maxPoints) {
+      this.maxPoints = maxPoints;
+      return this;
+    }
+
     public Builder setPage(int page) {
       this.page = page;
       return this;
@@ -120,6 +134,7 @@ public class SearchHistoryRequest {
       checkArgument(component != null && !component.isEmpty(), "Component key is required");
       checkArgument(metrics != null && !metrics.isEmpty(), "Metric keys are required");
       checkArgument(pageSize <= MAX_PAGE_SIZE, "Page size (%d) must be lower than or equal to %d", pageSize, MAX_PAGE_SIZE);
+      checkArgument(maxPoints == null || maxPoints > 0, "Max points (%s) must be greater than 0", maxPoints);
 
       return new SearchHistoryRequest(this);
     }
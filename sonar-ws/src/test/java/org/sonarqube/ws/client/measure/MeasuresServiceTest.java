@@ -40,6 +40,7 @@ import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_COMPONE
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_DEVELOPER_ID;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_DEVELOPER_KEY;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_FROM;
+import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_MAX_POINTS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRICS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRIC_KEYS;
 import static org.sonarqube.ws.client.measure.MeasuresWsParameters.PARAM_METRIC_SORT;
@@ -124,6 +125,7 @@ public class MeasuresServiceTest {
       .setMetrics(VALUE_METRICS)
       .setFrom(VALUE_FROM)
       .setTo(VALUE_TO)
+      .setMaxPoints(50)
       .setPage(VALUE_PAGE)
       .setPageSize(VALUE_PAGE_SIZE)
       .build();
@@ -137,6 +139,7 @@ public class MeasuresServiceTest {
       .hasParam(PARAM_METRICS, "ncloc,complexity")
       .hasParam(PARAM_FROM, VALUE_FROM)
       .hasParam(PARAM_TO, VALUE_TO)
+      .hasParam(PARAM_MAX_POINTS, 50)
       .hasParam("p", VALUE_PAGE)
       .hasParam("ps", VALUE_PAGE_SIZE)
       .andNoOtherParam();
@@ -0,0 +1,152 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.ce;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.utils.System2;
+import org.sonar.ce.queue.CeTaskInputStorage;
+import org.sonar.ce.queue.CeTaskInputStorageProvider;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.H2Database;
+import org.sonar.db.MyBatis;
+import org.sonar.db.ce.CeQueueDao;
+import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.process.ProcessProperties;
+import org.sonar.server.platform.ServerFileSystemImpl;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Latency of a report going through {@link CeTaskInputStorage}, from its submission by the Web Server to its
+ * reading by the Compute Engine, then its deletion. Report is read but not unzipped, as unzipping does not
+ * depend on storage.
+ * <p>
+ * Database is H2 in-memory, so the difference with a remote database, which also has to write
+ * the BLOB to its transaction log, is under-estimated.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CeTaskInputStorageBenchmark {
+
+  @Param({CeTaskInputStorageProvider.STORAGE_DATABASE, CeTaskInputStorageProvider.STORAGE_FILE_SYSTEM})
+  public String storage;
+
+  @Param({"10", "100"})
+  public int reportSizeMb;
+
+  private File workDir;
+  private Path report;
+  private H2Database database;
+  private DbClient dbClient;
+  private CeTaskInputStorage underTest;
+  private int taskCounter = 0;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    workDir = Files.createTempDirectory("ce-benchmark").toFile();
+    report = generateReport(new File(workDir, "report.zip").toPath(), reportSizeMb);
+
+    database = new H2Database("ce-benchmark-" + storage + "-" + reportSizeMb, true);
+    database.start();
+    MyBatis myBatis = new MyBatis(database);
+    myBatis.start();
+    dbClient = new DbClient(database, myBatis, new CeTaskInputDao(System2.INSTANCE), new CeQueueDao(System2.INSTANCE));
+
+    MapSettings settings = new MapSettings();
+    settings.setProperty(CeTaskInputStorageProvider.PROPERTY_STORAGE, storage);
+    settings.setProperty(ProcessProperties.PATH_HOME, workDir.getAbsolutePath());
+    settings.setProperty(ProcessProperties.PATH_DATA, new File(workDir, "data").getAbsolutePath());
+    settings.setProperty(ProcessProperties.PATH_TEMP, new File(workDir, "temp").getAbsolutePath());
+    underTest = new CeTaskInputStorageProvider().provide(settings, dbClient, new ServerFileSystemImpl(settings), System2.INSTANCE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    database.stop();
+    FileUtils.deleteQuietly(workDir);
+  }
+
+  @Benchmark
+  public long submitThenExtract() throws IOException {
+    String taskUuid = "TASK_" + (taskCounter++);
+    try (DbSession dbSession = dbClient.openSession(false);
+      InputStream input = Files.newInputStream(report)) {
+      underTest.store(dbSession, taskUuid, input);
+      dbSession.commit();
+    }
+
+    long size;
+    try (DbSession dbSession = dbClient.openSession(false);
+      InputStream input = underTest.read(dbSession, taskUuid).orElseThrow(() -> new IllegalStateException("Missing report of task " + taskUuid))) {
+      size = IOUtils.copyLarge(input, NullOutputStream.NULL_OUTPUT_STREAM);
+    }
+
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      underTest.delete(dbSession, singletonList(taskUuid));
+      dbSession.commit();
+    }
+    return size;
+  }
+
+  /**
+   * Random bytes, as the content of a zip file is not compressible
+   */
+  private static Path generateReport(Path path, int sizeMb) throws IOException {
+    Random random = new Random(42);
+    byte[] buffer = new byte[1024 * 1024];
+    try (OutputStream output = Files.newOutputStream(path)) {
+      for (int i = 0; i < sizeMb; i++) {
+        random.nextBytes(buffer);
+        output.write(buffer);
+      }
+    }
+    return path;
+  }
+}
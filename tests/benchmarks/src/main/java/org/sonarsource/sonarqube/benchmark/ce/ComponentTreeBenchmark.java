@@ -0,0 +1,173 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.ce;
+
+import com.google.common.base.Optional;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.core.util.Uuids;
+import org.sonar.scanner.protocol.output.ScannerReport;
+import org.sonar.scanner.protocol.output.ScannerReport.Component.ComponentType;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.ComponentImpl;
+import org.sonar.server.computation.task.projectanalysis.component.ComponentRootBuilder;
+import org.sonar.server.computation.task.projectanalysis.component.FileAttributes;
+import org.sonar.server.computation.task.projectanalysis.component.ReportAttributes;
+
+import static org.sonar.core.component.ComponentKeys.createEffectiveKey;
+
+/**
+ * Heap retained by the tree of components of a synthetic report (one project, {@link #modules} modules,
+ * 100 files per directory):
+ * <ul>
+ *   <li>"compact": {@link org.sonar.server.computation.task.projectanalysis.component.CompactComponentTree}
+ *   built by {@link ComponentRootBuilder}</li>
+ *   <li>"objects": tree of {@link ComponentImpl}, ie. one object per component and per attribute</li>
+ * </ul>
+ * Retained heap is the secondary result "retainedBytes". The primary result, the time to build the tree,
+ * includes two full GCs.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ComponentTreeBenchmark {
+
+  private static final int FILES_PER_DIRECTORY = 100;
+  private static final String PROJECT_KEY = "org.sonarsource:monorepo";
+
+  @State(Scope.Benchmark)
+  public static class SyntheticReport {
+    @Param({"compact", "objects"})
+    public String tree;
+
+    @Param({"300000"})
+    public int files;
+
+    @Param({"50"})
+    public int modules;
+
+    private final Map<Integer, ScannerReport.Component> componentsByRef = new HashMap<>();
+    private final Map<String, String> uuidsByKey = new HashMap<>();
+    private ScannerReport.Component project;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      int ref = 1;
+      ScannerReport.Component.Builder projectBuilder = ScannerReport.Component.newBuilder()
+        .setRef(ref).setType(ComponentType.PROJECT).setKey(PROJECT_KEY).setName("Monorepo");
+      int directories = Math.max(1, files / FILES_PER_DIRECTORY);
+      for (int m = 0; m < modules; m++) {
+        ScannerReport.Component.Builder module = ScannerReport.Component.newBuilder()
+          .setRef(++ref).setType(ComponentType.MODULE).setKey(PROJECT_KEY + ":module" + m).setName("Module " + m).setPath("module" + m);
+        projectBuilder.addChildRef(ref);
+        for (int d = m; d < directories; d += modules) {
+          String directoryPath = "src/main/java/org/sonarsource/module" + m + "/package" + d;
+          ScannerReport.Component.Builder directory = ScannerReport.Component.newBuilder()
+            .setRef(++ref).setType(ComponentType.DIRECTORY).setPath(directoryPath);
+          module.addChildRef(ref);
+          for (int f = 0; f < FILES_PER_DIRECTORY; f++) {
+            put(ScannerReport.Component.newBuilder()
+              .setRef(++ref).setType(ComponentType.FILE).setPath(directoryPath + "/File" + f + ".java")
+              .setLanguage("java").setLines(100 + f).setIsTest(f % 10 == 0));
+            directory.addChildRef(ref);
+          }
+          put(directory);
+        }
+        put(module);
+      }
+      project = projectBuilder.build();
+      componentsByRef.put(project.getRef(), project);
+    }
+
+    private void put(ScannerReport.Component.Builder builder) {
+      ScannerReport.Component component = builder.build();
+      componentsByRef.put(component.getRef(), component);
+    }
+
+    private String uuidOf(String key) {
+      return uuidsByKey.computeIfAbsent(key, k -> Uuids.createFast());
+    }
+
+    private Component build() {
+      if ("compact".equals(tree)) {
+        return new ComponentRootBuilder(null, this::uuidOf, componentsByRef::get, Optional::absent, projectUuid -> Optional.absent())
+          .build(project, PROJECT_KEY);
+      }
+      return buildObject(project, PROJECT_KEY);
+    }
+
+    private ComponentImpl buildObject(ScannerReport.Component reportComponent, String latestModuleKey) {
+      String moduleKey = reportComponent.getType() == ComponentType.MODULE ? reportComponent.getKey() : latestModuleKey;
+      String key = reportComponent.getType() == ComponentType.DIRECTORY || reportComponent.getType() == ComponentType.FILE
+        ? createEffectiveKey(moduleKey, reportComponent.getPath())
+        : moduleKey;
+      ComponentImpl.Builder builder = ComponentImpl.builder(Component.Type.valueOf(reportComponent.getType().name()))
+        .setUuid(uuidOf(key))
+        .setKey(key)
+        .setName(reportComponent.getName().isEmpty() ? key : reportComponent.getName())
+        .setReportAttributes(ReportAttributes.newBuilder(reportComponent.getRef()).setPath(reportComponent.getPath()).build());
+      if (reportComponent.getType() == ComponentType.FILE) {
+        builder.setFileAttributes(new FileAttributes(reportComponent.getIsTest(), reportComponent.getLanguage(), reportComponent.getLines()));
+      }
+      for (Integer childRef : reportComponent.getChildRefList()) {
+        builder.addChildren(buildObject(componentsByRef.get(childRef), moduleKey));
+      }
+      return builder.build();
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long retainedBytes;
+  }
+
+  @Benchmark
+  public Component buildTree(SyntheticReport report, Footprint footprint) {
+    long before = usedHeapAfterGc();
+    Component root = report.build();
+    footprint.retainedBytes = usedHeapAfterGc() - before;
+    return root;
+  }
+
+  private static long usedHeapAfterGc() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    memory.gc();
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
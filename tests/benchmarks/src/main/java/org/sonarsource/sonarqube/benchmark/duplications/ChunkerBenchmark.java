@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.duplications;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.duplications.statement.Statement;
+import org.sonar.duplications.token.Token;
+import org.sonar.duplications.token.TokenQueue;
+
+/**
+ * Time to chunk the whole corpus at each stage: source to tokens, tokens to statements and statements to blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChunkerBenchmark {
+
+  @Benchmark
+  public void tokenChunker(CorpusState corpus, Blackhole blackhole) {
+    for (String source : corpus.sources.values()) {
+      blackhole.consume(corpus.tokenChunker.chunk(source));
+    }
+  }
+
+  /**
+   * {@link org.sonar.duplications.statement.StatementChunker} consumes its input queue, so a new queue
+   * is created for each file. The copy is linear in the number of tokens and negligible compared to the chunking.
+   */
+  @Benchmark
+  public void statementChunker(CorpusState corpus, Blackhole blackhole) {
+    for (List<Token> fileTokens : corpus.tokens) {
+      blackhole.consume(corpus.statementChunker.chunk(new TokenQueue(fileTokens)));
+    }
+  }
+
+  @Benchmark
+  public void blockChunker(CorpusState corpus, Blackhole blackhole) {
+    for (int i = 0; i < corpus.resourceIds.size(); i++) {
+      List<Statement> fileStatements = corpus.statements.get(i);
+      blackhole.consume(corpus.blockChunker.chunk(corpus.resourceIds.get(i), fileStatements));
+    }
+  }
+
+  @Benchmark
+  public void fullChunking(CorpusState corpus, Blackhole blackhole) {
+    for (Map.Entry<String, String> source : corpus.sources.entrySet()) {
+      List<Statement> fileStatements = corpus.statementChunker.chunk(corpus.tokenChunker.chunk(source.getValue()));
+      blackhole.consume(corpus.blockChunker.chunk(source.getKey(), fileStatements));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.duplications;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.index.PackedMemoryCloneIndex;
+
+/**
+ * Insertion of all the blocks of the corpus into a {@link PackedMemoryCloneIndex}, and lookups of
+ * every resource and every block hash of the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CloneIndexBenchmark {
+
+  /**
+   * Blocks are sorted on first lookup, so a single lookup is done to include the sort in the measure.
+   */
+  @Benchmark
+  public PackedMemoryCloneIndex insert(CorpusState corpus) {
+    PackedMemoryCloneIndex index = corpus.newIndex();
+    index.getByResourceId(corpus.resourceIds.get(0));
+    return index;
+  }
+
+  @Benchmark
+  public void getByResourceId(CorpusState corpus, Blackhole blackhole) {
+    for (String resourceId : corpus.resourceIds) {
+      blackhole.consume(corpus.index.getByResourceId(resourceId));
+    }
+  }
+
+  @Benchmark
+  public void getBySequenceHash(CorpusState corpus, Blackhole blackhole) {
+    for (List<Block> fileBlocks : corpus.blocks) {
+      for (Block block : fileBlocks) {
+        blackhole.consume(corpus.index.getBySequenceHash(block.getBlockHash()));
+      }
+    }
+  }
+}
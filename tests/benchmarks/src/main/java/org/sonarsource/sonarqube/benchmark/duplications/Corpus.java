@@ -0,0 +1,118 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.duplications;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates a deterministic corpus of Java-like source files. A configurable ratio of the methods
+ * is copied from a shared pool, so that the corpus contains a known proportion of duplicated code.
+ * Each pooled method is expected to be copied about {@link #COPIES_PER_CLONE} times.
+ */
+final class Corpus {
+
+  static final int COPIES_PER_CLONE = 4;
+
+  private static final String[] OPERATORS = {"+", "-", "*", "^", "|", "&"};
+
+  private final Random random;
+  private final Map<String, String> sources = new LinkedHashMap<>();
+
+  private Corpus(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * @param files number of generated files
+   * @param methodsPerFile number of methods in each file
+   * @param duplicationRatio ratio, between 0 and 1, of methods that are copies of another method of the corpus
+   * @param seed seed of the generator, the same seed always produces the same corpus
+   */
+  static Map<String, String> generate(int files, int methodsPerFile, double duplicationRatio, long seed) {
+    if (duplicationRatio < 0.0 || duplicationRatio > 1.0) {
+      throw new IllegalArgumentException("Duplication ratio must be between 0 and 1: " + duplicationRatio);
+    }
+    Corpus corpus = new Corpus(seed);
+    int totalMethods = files * methodsPerFile;
+    int poolSize = Math.max(1, (int) (totalMethods * duplicationRatio / COPIES_PER_CLONE));
+    List<String> pool = new ArrayList<>(poolSize);
+    for (int i = 0; i < poolSize; i++) {
+      pool.add(corpus.methodBody());
+    }
+    for (int file = 0; file < files; file++) {
+      corpus.addFile(file, methodsPerFile, duplicationRatio, pool);
+    }
+    return corpus.sources;
+  }
+
+  private void addFile(int file, int methodsPerFile, double duplicationRatio, List<String> pool) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("package org.sample.p").append(file % 10).append(";\n\n");
+    sb.append("public class Sample").append(file).append(" {\n\n");
+    for (int method = 0; method < methodsPerFile; method++) {
+      String body = random.nextDouble() < duplicationRatio ? pool.get(random.nextInt(pool.size())) : methodBody();
+      sb.append("  public int method").append(method).append("(int a, int b) {\n");
+      sb.append(body);
+      sb.append("  }\n\n");
+    }
+    sb.append("}\n");
+    sources.put("org/sample/p" + (file % 10) + "/Sample" + file + ".java", sb.toString());
+  }
+
+  private String methodBody() {
+    StringBuilder sb = new StringBuilder();
+    int statements = 5 + random.nextInt(10);
+    sb.append("    int v0 = a ").append(operator()).append(' ').append(random.nextInt(100)).append(";\n");
+    for (int i = 1; i < statements; i++) {
+      String v = "v" + i;
+      String previous = "v" + (i - 1);
+      switch (random.nextInt(4)) {
+        case 0:
+          sb.append("    int ").append(v).append(" = ").append(previous).append(' ').append(operator()).append(" b;\n");
+          break;
+        case 1:
+          sb.append("    int ").append(v).append(" = ").append(previous).append(";\n");
+          sb.append("    if (").append(v).append(" > ").append(random.nextInt(1000)).append(") {\n");
+          sb.append("      ").append(v).append(" = ").append(v).append(' ').append(operator()).append(' ').append(random.nextInt(10)).append(";\n");
+          sb.append("    }\n");
+          break;
+        case 2:
+          sb.append("    int ").append(v).append(" = ").append(previous).append(";\n");
+          sb.append("    for (int i = 0; i < ").append(1 + random.nextInt(20)).append("; i++) {\n");
+          sb.append("      ").append(v).append(" += i ").append(operator()).append(" b;\n");
+          sb.append("    }\n");
+          break;
+        default:
+          sb.append("    int ").append(v).append(" = Math.max(").append(previous).append(", \"s").append(random.nextInt(50)).append("\".length());\n");
+          break;
+      }
+    }
+    sb.append("    return v").append(statements - 1).append(";\n");
+    return sb.toString();
+  }
+
+  private String operator() {
+    return OPERATORS[random.nextInt(OPERATORS.length)];
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.duplications;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.BlockChunker;
+import org.sonar.duplications.index.PackedMemoryCloneIndex;
+import org.sonar.duplications.java.JavaStatementBuilder;
+import org.sonar.duplications.java.JavaTokenProducer;
+import org.sonar.duplications.statement.Statement;
+import org.sonar.duplications.statement.StatementChunker;
+import org.sonar.duplications.token.Token;
+import org.sonar.duplications.token.TokenChunker;
+import org.sonar.duplications.token.TokenQueue;
+
+/**
+ * Generated corpus shared by all the benchmarks, with the output of each stage of the
+ * duplication pipeline precomputed so that every stage can be measured in isolation.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+  /**
+   * Same block size as the one used by the Java CPD of the scanner.
+   */
+  static final int BLOCK_SIZE = 10;
+
+  @Param({"100", "1000"})
+  public int files;
+
+  @Param({"20"})
+  public int methodsPerFile;
+
+  @Param({"0.1", "0.5"})
+  public double duplicationRatio;
+
+  @Param({"42"})
+  public long seed;
+
+  final TokenChunker tokenChunker = JavaTokenProducer.build();
+  final StatementChunker statementChunker = JavaStatementBuilder.build();
+  final BlockChunker blockChunker = new BlockChunker(BLOCK_SIZE);
+
+  Map<String, String> sources;
+  List<String> resourceIds;
+  List<List<Token>> tokens;
+  List<List<Statement>> statements;
+  List<List<Block>> blocks;
+  PackedMemoryCloneIndex index;
+
+  @Setup
+  public void setUp() {
+    sources = Corpus.generate(files, methodsPerFile, duplicationRatio, seed);
+    resourceIds = new ArrayList<>(sources.keySet());
+    tokens = new ArrayList<>(files);
+    statements = new ArrayList<>(files);
+    blocks = new ArrayList<>(files);
+    for (Map.Entry<String, String> source : sources.entrySet()) {
+      List<Token> fileTokens = new ArrayList<>();
+      tokenChunker.chunk(source.getValue()).forEach(fileTokens::add);
+      List<Statement> fileStatements = statementChunker.chunk(new TokenQueue(fileTokens));
+      tokens.add(fileTokens);
+      statements.add(fileStatements);
+      blocks.add(blockChunker.chunk(source.getKey(), fileStatements));
+    }
+    index = newIndex();
+    // index is sorted lazily on first lookup, which must not be measured by the lookup benchmarks
+    index.getByResourceId(resourceIds.get(0));
+  }
+
+  PackedMemoryCloneIndex newIndex() {
+    PackedMemoryCloneIndex result = new PackedMemoryCloneIndex();
+    for (List<Block> fileBlocks : blocks) {
+      for (Block block : fileBlocks) {
+        result.insert(block);
+      }
+    }
+    return result;
+  }
+}
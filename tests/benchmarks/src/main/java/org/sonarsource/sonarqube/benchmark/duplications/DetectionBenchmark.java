@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.duplications;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.detector.original.OriginalCloneDetectionAlgorithm;
+import org.sonar.duplications.detector.suffixtree.SuffixTreeCloneDetectionAlgorithm;
+import org.sonar.duplications.index.CloneGroup;
+import org.sonar.duplications.index.CloneIndex;
+
+/**
+ * Detection of the clones of every file of the corpus against the index of the whole corpus,
+ * as done by the scanner for every file of a project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DetectionBenchmark {
+
+  public enum Algorithm {
+    SUFFIX_TREE {
+      @Override
+      List<CloneGroup> detect(CloneIndex index, List<Block> fileBlocks) {
+        return SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks, false);
+      }
+    },
+    SUFFIX_ARRAY {
+      @Override
+      List<CloneGroup> detect(CloneIndex index, List<Block> fileBlocks) {
+        return SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks, true);
+      }
+    },
+    ORIGINAL {
+      @Override
+      List<CloneGroup> detect(CloneIndex index, List<Block> fileBlocks) {
+        return OriginalCloneDetectionAlgorithm.detect(index, fileBlocks);
+      }
+    };
+
+    abstract List<CloneGroup> detect(CloneIndex index, List<Block> fileBlocks);
+  }
+
+  @Param({"SUFFIX_TREE", "SUFFIX_ARRAY", "ORIGINAL"})
+  public Algorithm algorithm;
+
+  @Benchmark
+  public void detect(CorpusState corpus, Blackhole blackhole) {
+    for (List<Block> fileBlocks : corpus.blocks) {
+      blackhole.consume(algorithm.detect(corpus.index, fileBlocks));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.fs;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FilePredicates;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+/**
+ * Lookups of input files by the predicates used by sensors, over a synthetic file system of 500k files
+ * by default. Each lookup through the indexes of {@link DefaultFileSystem} is compared with the
+ * full scan of all files that the predicates used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilePredicatesBenchmark {
+
+  private static final String[] LANGUAGES = {"java", "js", "xml", "py", "cs", "php", "ts", "css", "web", "cpp"};
+  private static final String MODULE_KEY = "benchmark";
+
+  @Param({"500000"})
+  public int files;
+
+  private DefaultFileSystem fs;
+  private FilePredicate hasLanguage;
+  private FilePredicate hasLanguageAndType;
+  private FilePredicate hasFilename;
+  private FilePredicate hasExtension;
+
+  @Setup
+  public void setUp() {
+    fs = new DefaultFileSystem(Paths.get("benchmark"));
+    for (int i = 0; i < files; i++) {
+      String language = LANGUAGES[i % LANGUAGES.length];
+      InputFile.Type type = i % 5 == 0 ? InputFile.Type.TEST : InputFile.Type.MAIN;
+      // one directory per 100 files, so that some file names are repeated
+      fs.add(new TestInputFileBuilder(MODULE_KEY, "src/dir" + (i / 100) + "/File" + (i % 1_000) + "." + language)
+        .setLanguage(language)
+        .setType(type)
+        .build());
+    }
+    FilePredicates p = fs.predicates();
+    hasLanguage = p.hasLanguage("java");
+    hasLanguageAndType = p.and(p.hasLanguage("java"), p.hasType(InputFile.Type.TEST));
+    hasFilename = p.hasFilename("File42.java");
+    hasExtension = p.hasExtension("xml");
+  }
+
+  @Benchmark
+  public int hasLanguage() {
+    return count(fs.inputFiles(hasLanguage));
+  }
+
+  @Benchmark
+  public int hasLanguage_fullScan() {
+    return fullScan(hasLanguage);
+  }
+
+  @Benchmark
+  public int hasLanguageAndType() {
+    return count(fs.inputFiles(hasLanguageAndType));
+  }
+
+  @Benchmark
+  public int hasLanguageAndType_fullScan() {
+    return fullScan(hasLanguageAndType);
+  }
+
+  @Benchmark
+  public int hasFilename() {
+    return count(fs.inputFiles(hasFilename));
+  }
+
+  @Benchmark
+  public int hasFilename_fullScan() {
+    return fullScan(hasFilename);
+  }
+
+  @Benchmark
+  public int hasExtension() {
+    return count(fs.inputFiles(hasExtension));
+  }
+
+  @Benchmark
+  public int hasExtension_fullScan() {
+    return fullScan(hasExtension);
+  }
+
+  private int fullScan(FilePredicate predicate) {
+    int count = 0;
+    for (InputFile file : fs.inputFiles()) {
+      if (predicate.apply(file)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static int count(Iterable<InputFile> inputFiles) {
+    int count = 0;
+    for (InputFile ignored : inputFiles) {
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.benchmark.ws;
+
+import com.google.common.io.CharStreams;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.util.CompiledProtobufJsonFormat;
+import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Issues;
+
+/**
+ * Conversion to JSON of a response of api/issues/search, by the reflective {@link ProtobufJsonFormat}
+ * and by {@link CompiledProtobufJsonFormat}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProtobufJsonBenchmark {
+
+  @Param({"100", "500"})
+  public int issues;
+
+  private Issues.SearchWsResponse response;
+  private final Writer output = CharStreams.nullWriter();
+
+  @Setup
+  public void setUp() {
+    Issues.SearchWsResponse.Builder builder = Issues.SearchWsResponse.newBuilder()
+      .setTotal(issues)
+      .setP(1)
+      .setPs(issues)
+      .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(issues).setTotal(issues));
+    for (int i = 0; i < issues; i++) {
+      String component = "org.sample:project:src/main/java/org/sample/File" + (i % 50) + ".java";
+      builder.addIssues(Issues.Issue.newBuilder()
+        .setOrganization("default-organization")
+        .setKey("AVrmTZPmQmUzAHHI0aA" + i)
+        .setRule("squid:S" + (1000 + i % 100))
+        .setSeverity(Common.Severity.MAJOR)
+        .setComponent(component)
+        .setProject("org.sample:project")
+        .setLine(i)
+        .setTextRange(Common.TextRange.newBuilder().setStartLine(i).setEndLine(i).setStartOffset(4).setEndOffset(42))
+        .setStatus("OPEN")
+        .setMessage("Remove this unused private \"field" + i + "\" field.")
+        .setEffort("5min")
+        .setDebt("5min")
+        .setAuthor("developer@sample.org")
+        .addTags("unused").addTags("pitfall")
+        .setTransitions(Issues.Transitions.newBuilder().addTransitions("confirm").addTransitions("resolve"))
+        .setActions(Issues.Actions.newBuilder().addActions("comment").addActions("assign"))
+        .setCreationDate("2017-03-01T10:15:30+0100")
+        .setUpdateDate("2017-03-01T10:15:30+0100")
+        .setType(Common.RuleType.CODE_SMELL));
+    }
+    for (int i = 0; i < 50; i++) {
+      builder.addComponents(Issues.Component.newBuilder()
+        .setOrganization("default-organization")
+        .setKey("org.sample:project:src/main/java/org/sample/File" + i + ".java")
+        .setUuid("AVrmTYN3QmUzAHHI0aA" + i)
+        .setEnabled(true)
+        .setQualifier("FIL")
+        .setName("File" + i + ".java")
+        .setLongName("src/main/java/org/sample/File" + i + ".java")
+        .setPath("src/main/java/org/sample/File" + i + ".java"));
+    }
+    response = builder.build();
+  }
+
+  @Benchmark
+  public void reflective() {
+    ProtobufJsonFormat.write(response, JsonWriter.of(output));
+  }
+
+  @Benchmark
+  public void compiled() {
+    CompiledProtobufJsonFormat.write(response, JsonWriter.of(output));
+  }
+}